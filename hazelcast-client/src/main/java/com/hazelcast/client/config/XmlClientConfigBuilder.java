@@ -16,6 +16,7 @@
 
 package com.hazelcast.client.config;
 
+import com.hazelcast.client.util.LatencyAwareLB;
 import com.hazelcast.client.util.RandomLB;
 import com.hazelcast.client.util.RoundRobinLB;
 import com.hazelcast.config.AbstractConfigBuilder;
@@ -333,6 +334,8 @@ public class XmlClientConfigBuilder extends AbstractConfigBuilder {
             clientConfig.setLoadBalancer(new RandomLB());
         } else if ("round-robin".equals(type)) {
             clientConfig.setLoadBalancer(new RoundRobinLB());
+        } else if ("latency-aware".equals(type)) {
+            clientConfig.setLoadBalancer(new LatencyAwareLB());
         }
     }
 
@@ -78,6 +78,25 @@ public interface ClientConnectionManager extends ConnectionListenable {
      */
     void handleClientMessage(ClientMessage message, Connection connection);
 
+    /**
+     * Selects the connection to send an invocation to the member of the given connection over. When more than one
+     * connection per member is allowed, this may be one of the additional connections to the member.
+     *
+     * @param connection  the connection to the member
+     * @param partitionId the partition ID of the invocation, or {@code -1} if it does not target a partition
+     * @return the connection to send the invocation over
+     */
+    ClientConnection selectConnection(ClientConnection connection, int partitionId);
+
+    /**
+     * Returns the additional connections to a member, which were opened next to its regular connection when more than
+     * one connection per member is allowed.
+     *
+     * @param address the address of the member
+     * @return the live additional connections to the member, empty if there are none
+     */
+    Collection<ClientConnection> getPooledConnections(Address address);
+
     void addConnectionHeartbeatListener(ConnectionHeartbeatListener connectionHeartbeatListener);
 
     Collection<ClientConnection> getActiveConnections();
@@ -55,11 +55,16 @@ import static com.hazelcast.util.StringUtil.timeToStringFriendly;
  */
 public class ClientConnection implements SocketConnection, DiscardableMetricsProvider {
 
+    // the weight of a new sample in the response latency average is 1/2^LATENCY_AVERAGE_SHIFT
+    private static final int LATENCY_AVERAGE_SHIFT = 3;
+
     @Probe
     private final int connectionId;
     private final ILogger logger;
 
     private final AtomicInteger pendingPacketCount = new AtomicInteger(0);
+    @Probe
+    private final AtomicInteger pendingRequestCount = new AtomicInteger(0);
     private final SocketWriter writer;
     private final SocketReader reader;
     private final SocketChannelWrapper socketChannel;
@@ -72,6 +77,9 @@ public class ClientConnection implements SocketConnection, DiscardableMetricsPro
     // the time in millis the last heartbeat was received. 0 indicates that no heartbeat has ever been received.
     private volatile long lastHeartbeatRequestedMillis;
     private volatile long lastHeartbeatReceivedMillis;
+    // exponentially weighted moving average of the response times in nanos. 0 indicates that no response was received.
+    @Probe(level = ProbeLevel.DEBUG)
+    private volatile long responseLatencyNanos;
     private boolean isAuthenticatedAsOwner;
     @Probe(level = ProbeLevel.DEBUG)
     private final AtomicLong closedTime = new AtomicLong();
@@ -151,6 +159,39 @@ public class ClientConnection implements SocketConnection, DiscardableMetricsPro
         return pendingPacketCount.get();
     }
 
+    public void incrementPendingRequestCount() {
+        pendingRequestCount.incrementAndGet();
+    }
+
+    public void decrementPendingRequestCount() {
+        pendingRequestCount.decrementAndGet();
+    }
+
+    /**
+     * Adds a response time to the moving average of the response times of this connection.
+     * <p/>
+     * Concurrent updates may overwrite each other, which is acceptable for a load estimate.
+     *
+     * @param latencyNanos the time between writing a request and receiving its response
+     */
+    public void updateResponseLatency(long latencyNanos) {
+        long average = responseLatencyNanos;
+        responseLatencyNanos = average == 0 ? latencyNanos : average + ((latencyNanos - average) >> LATENCY_AVERAGE_SHIFT);
+    }
+
+    public long getResponseLatencyNanos() {
+        return responseLatencyNanos;
+    }
+
+    /**
+     * Returns the number of requests written to this connection whose responses have not been received yet.
+     *
+     * @return the number of outstanding requests
+     */
+    public int getPendingRequestCount() {
+        return pendingRequestCount.get();
+    }
+
     @Override
     public boolean write(OutboundFrame frame) {
         if (!isAlive()) {
@@ -59,6 +59,7 @@ import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.security.Credentials;
 import com.hazelcast.security.UsernamePasswordCredentials;
 import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.ExceptionUtil;
@@ -68,6 +69,8 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.nio.channels.SocketChannel;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -82,7 +85,9 @@ import static com.hazelcast.client.config.SocketOptions.DEFAULT_BUFFER_SIZE_BYTE
 import static com.hazelcast.client.config.SocketOptions.KILO_BYTE;
 import static com.hazelcast.client.spi.properties.ClientProperty.HEARTBEAT_INTERVAL;
 import static com.hazelcast.client.spi.properties.ClientProperty.HEARTBEAT_TIMEOUT;
+import static com.hazelcast.client.spi.properties.ClientProperty.MAX_CONNECTIONS_PER_MEMBER;
 import static com.hazelcast.spi.properties.GroupProperty.SOCKET_CLIENT_BUFFER_DIRECT;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Implementation of {@link ClientConnectionManager}.
@@ -92,6 +97,19 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
 
     private static final int DEFAULT_SSL_THREAD_COUNT = 3;
 
+    /**
+     * Number of outstanding requests on the selected connection of a member, from which on an additional connection to
+     * the member is opened. Only used when {@link ClientProperty#MAX_CONNECTIONS_PER_MEMBER} is larger than {@code 1}.
+     */
+    private static final HazelcastProperty CONNECTION_POOL_GROWTH_THRESHOLD
+            = new HazelcastProperty("hazelcast.client.connection.pool.growth.threshold", 16);
+
+    /**
+     * Time after which an additional connection without outstanding requests is closed.
+     */
+    private static final HazelcastProperty CONNECTION_POOL_IDLE_TIMEOUT
+            = new HazelcastProperty("hazelcast.client.connection.pool.idle.timeout.seconds", 60, SECONDS);
+
     protected final AtomicInteger connectionIdGen = new AtomicInteger();
 
     protected volatile boolean alive;
@@ -118,14 +136,20 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
             = new ConcurrentHashMap<Address, ClientConnection>();
     private final ConcurrentMap<Address, AuthenticationFuture> connectionsInProgress =
             new ConcurrentHashMap<Address, AuthenticationFuture>();
+    private final ConcurrentMap<Address, ClientConnectionPool> connectionPools =
+            new ConcurrentHashMap<Address, ClientConnectionPool>();
     private final Set<ConnectionListener> connectionListeners = new CopyOnWriteArraySet<ConnectionListener>();
 
     private final Set<ConnectionHeartbeatListener> heartbeatListeners =
             new CopyOnWriteArraySet<ConnectionHeartbeatListener>();
     private final Credentials credentials;
     private final AtomicLong correlationIddOfLastAuthentication = new AtomicLong(0);
+    private final int maxConnectionsPerMember;
+    private final int connectionPoolGrowthThreshold;
+    private final long connectionPoolIdleTimeout;
     private NonBlockingIOThreadingModel ioThreadingModel;
 
+    @SuppressWarnings("checkstyle:executablestatementcount")
     public ClientConnectionManagerImpl(HazelcastClientInstanceImpl client, AddressTranslator addressTranslator) {
         this.client = client;
         this.addressTranslator = addressTranslator;
@@ -144,6 +168,11 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
         long interval = hazelcastProperties.getMillis(HEARTBEAT_INTERVAL);
         this.heartbeatInterval = interval > 0 ? interval : Integer.parseInt(HEARTBEAT_INTERVAL.getDefaultValue());
 
+        boolean smartRouting = networkConfig.isSmartRouting();
+        this.maxConnectionsPerMember = smartRouting ? hazelcastProperties.getInteger(MAX_CONNECTIONS_PER_MEMBER) : 1;
+        this.connectionPoolGrowthThreshold = hazelcastProperties.getInteger(CONNECTION_POOL_GROWTH_THRESHOLD);
+        this.connectionPoolIdleTimeout = hazelcastProperties.getMillis(CONNECTION_POOL_IDLE_TIMEOUT);
+
         this.executionService = (ClientExecutionServiceImpl) client.getClientExecutionService();
         this.socketOptions = networkConfig.getSocketOptions();
 
@@ -234,6 +263,9 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
         for (ClientConnection connection : activeConnections.values()) {
             connection.close("Hazelcast client is shutting down", null);
         }
+        for (Address endpoint : connectionPools.keySet()) {
+            closeConnectionPool(endpoint, "Hazelcast client is shutting down");
+        }
         shutdownIOThreads();
         connectionListeners.clear();
         heartbeatListeners.clear();
@@ -403,6 +435,7 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
 
     void onClose(Connection connection) {
         removeFromActiveConnections(connection);
+        removeFromConnectionPool(connection);
     }
 
     private void removeFromActiveConnections(Connection connection) {
@@ -417,6 +450,7 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
         }
         if (activeConnections.remove(endpoint, connection)) {
             logger.info("Removed connection to endpoint: " + endpoint + ", connection: " + connection);
+            closeConnectionPool(connection.getEndPoint(), "Connection to the member is closed");
 
             for (ConnectionListener listener : connectionListeners) {
                 listener.connectionRemoved(connection);
@@ -429,6 +463,136 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
         }
     }
 
+    @Override
+    public ClientConnection selectConnection(ClientConnection connection, int partitionId) {
+        if (maxConnectionsPerMember <= 1) {
+            return connection;
+        }
+        Address endpoint = connection.getEndPoint();
+        ClientConnectionPool pool = connectionPools.get(endpoint);
+        if (pool == null) {
+            ClientConnectionPool newPool = new ClientConnectionPool(maxConnectionsPerMember - 1);
+            pool = connectionPools.putIfAbsent(endpoint, newPool);
+            pool = pool == null ? newPool : pool;
+        }
+        ClientConnection selected = pool.select(connection, partitionId);
+        if (selected.getPendingRequestCount() >= connectionPoolGrowthThreshold) {
+            growConnectionPool(endpoint, pool);
+        }
+        return selected;
+    }
+
+    @Override
+    public Collection<ClientConnection> getPooledConnections(Address address) {
+        ClientConnectionPool pool = connectionPools.get(address);
+        return pool == null ? Collections.<ClientConnection>emptyList() : pool.liveConnections();
+    }
+
+    int getPooledConnectionCount(Address endpoint) {
+        ClientConnectionPool pool = connectionPools.get(endpoint);
+        return pool == null ? 0 : pool.size();
+    }
+
+    /**
+     * Opens all missing connections of the pool at once, so the partitions move to their pooled connections together
+     * instead of with each growth step.
+     */
+    private void growConnectionPool(final Address endpoint, final ClientConnectionPool pool) {
+        List<Integer> slots = pool.freeSlots();
+        if (!alive || slots.isEmpty() || !pool.tryStartGrowing(slots.size())) {
+            return;
+        }
+        for (final int slot : slots) {
+            executionService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    openPooledConnection(endpoint, pool, slot);
+                }
+            });
+        }
+    }
+
+    private void openPooledConnection(Address endpoint, ClientConnectionPool pool, int slot) {
+        ClientConnection connection;
+        try {
+            connection = createSocketConnection(addressTranslator.translate(endpoint));
+        } catch (Exception e) {
+            logger.finest(e);
+            pool.finishGrowing();
+            return;
+        }
+        try {
+            authenticatePooledConnection(connection, pool, slot);
+        } catch (Exception e) {
+            connection.close("Failed to authenticate pooled connection", e);
+            pool.finishGrowing();
+        }
+    }
+
+    private void authenticatePooledConnection(final ClientConnection connection, final ClientConnectionPool pool,
+                                              final int slot) {
+        ClientPrincipal principal = ((ClientClusterServiceImpl) client.getClientClusterService()).getPrincipal();
+        if (principal == null) {
+            throw new AuthenticationException("Client is not authenticated yet");
+        }
+        byte serializationVersion = ((InternalSerializationService) client.getSerializationService()).getVersion();
+        ClientMessage request = encodeAuthenticationRequest(false, client.getSerializationService(), serializationVersion,
+                principal.getUuid(), principal.getOwnerUuid());
+        ClientInvocation invocation = new ClientInvocation(client, request, connection);
+        invocation.invokeUrgent().andThen(new ExecutionCallback<ClientMessage>() {
+            @Override
+            public void onResponse(ClientMessage response) {
+                ClientAuthenticationCodec.ResponseParameters result = ClientAuthenticationCodec.decodeResponse(response);
+                if (AuthenticationStatus.getById(result.status) != AuthenticationStatus.AUTHENTICATED) {
+                    onFailure(new AuthenticationException("Authentication of pooled connection failed. Status: "
+                            + result.status));
+                    return;
+                }
+                connection.setConnectedServerVersion(result.serverHazelcastVersion);
+                connection.setRemoteEndpoint(result.address);
+                pool.set(slot, connection);
+                pool.finishGrowing();
+                if (logger.isFinestEnabled()) {
+                    logger.finest("Added pooled connection " + connection);
+                }
+                // same race as in onAuthenticated(): the connection may have been closed before it was pooled
+                if (!connection.isAlive()) {
+                    pool.remove(connection);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (logger.isFinestEnabled()) {
+                    logger.finest("Authentication of pooled connection " + connection + " failed.", t);
+                }
+                connection.close(null, t);
+                pool.finishGrowing();
+            }
+        });
+    }
+
+    private void removeFromConnectionPool(Connection connection) {
+        Address endpoint = connection.getEndPoint();
+        ClientConnectionPool pool = endpoint == null ? null : connectionPools.get(endpoint);
+        if (pool != null && pool.remove((ClientConnection) connection)) {
+            logger.finest("Removed pooled connection " + connection);
+        }
+    }
+
+    private void closeConnectionPool(Address endpoint, String reason) {
+        ClientConnectionPool pool = connectionPools.remove(endpoint);
+        if (pool == null) {
+            return;
+        }
+        for (int slot = 0; slot < pool.capacity(); slot++) {
+            ClientConnection connection = pool.get(slot);
+            if (connection != null) {
+                connection.close(reason, null);
+            }
+        }
+    }
+
     @Override
     public void handleClientMessage(ClientMessage message, Connection connection) {
         ClientConnection conn = (ClientConnection) connection;
@@ -490,6 +654,37 @@ public class ClientConnectionManagerImpl implements ClientConnectionManager {
                     }
                 }
             }
+            checkPooledConnections(now);
+        }
+
+        /**
+         * Closes the pooled connections whose member stopped responding, and all pooled connections of a member once
+         * they are idle. A pooled connection is only pinged while it has outstanding requests, so an unused connection
+         * is not kept alive by the heartbeats.
+         */
+        private void checkPooledConnections(long now) {
+            for (ClientConnectionPool pool : connectionPools.values()) {
+                boolean idle = pool.isIdle(now, connectionPoolIdleTimeout);
+                for (int slot = 0; slot < pool.capacity(); slot++) {
+                    ClientConnection connection = pool.get(slot);
+                    if (connection == null || !connection.isAlive()) {
+                        continue;
+                    }
+                    if (idle) {
+                        connection.close("Pooled connection is idle", null);
+                    } else if (connection.getPendingRequestCount() == 0) {
+                        // not in use, so there is no response expected
+                        continue;
+                    } else if (now - connection.lastReadTimeMillis() > heartbeatTimeout) {
+                        logger.warning("Heartbeat failed to pooled connection : " + connection);
+                        connection.close("Heartbeat timed out", null);
+                    } else if (now - connection.lastReadTimeMillis() > heartbeatInterval) {
+                        ClientInvocation invocation = new ClientInvocation(client, ClientPingCodec.encodeRequest(), connection);
+                        invocation.setBypassHeartbeatCheck(true);
+                        invocation.invokeUrgent();
+                    }
+                }
+            }
         }
 
         private void fireHeartbeatResumed(ClientConnection connection) {
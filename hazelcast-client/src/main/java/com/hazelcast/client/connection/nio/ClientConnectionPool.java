@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.connection.nio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The additional connections of the client to a single member, next to the regular connection of the member.
+ * <p/>
+ * The connections are kept in fixed slots and a partition is always mapped to the slot {@code partitionId % poolSize},
+ * where the pool size includes the regular connection. When a slot has no live connection, its partitions fall back to
+ * the regular connection. To keep the partitions on their connections while the pool is in use, the pool is grown by
+ * opening all its missing connections at once and shrunk by closing all its connections once none of them is in use.
+ * Hence the connection of a partition only changes when the pool connects, disconnects or reconnects a lost connection.
+ */
+final class ClientConnectionPool {
+
+    private final AtomicReferenceArray<ClientConnection> connections;
+    // number of connections which are being opened
+    private final AtomicInteger growing = new AtomicInteger();
+
+    ClientConnectionPool(int size) {
+        this.connections = new AtomicReferenceArray<ClientConnection>(size);
+    }
+
+    /**
+     * Selects the connection to send an invocation over.
+     *
+     * @param connection  the regular connection of the member
+     * @param partitionId the partition ID of the invocation, or {@code -1} if it does not target a partition
+     * @return the connection of the partition slot for a partition invocation, the least loaded connection otherwise
+     */
+    ClientConnection select(ClientConnection connection, int partitionId) {
+        if (partitionId >= 0) {
+            int slot = partitionId % (connections.length() + 1) - 1;
+            if (slot < 0) {
+                return connection;
+            }
+            ClientConnection pooled = connections.get(slot);
+            return pooled != null && pooled.isAlive() ? pooled : connection;
+        }
+
+        ClientConnection selected = connection;
+        int minPending = connection.getPendingRequestCount();
+        for (int slot = 0; slot < connections.length(); slot++) {
+            ClientConnection pooled = connections.get(slot);
+            if (pooled != null && pooled.isAlive() && pooled.getPendingRequestCount() < minPending) {
+                selected = pooled;
+                minPending = pooled.getPendingRequestCount();
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @return the indexes of the slots without a live connection
+     */
+    List<Integer> freeSlots() {
+        List<Integer> freeSlots = new ArrayList<Integer>(connections.length());
+        for (int slot = 0; slot < connections.length(); slot++) {
+            ClientConnection pooled = connections.get(slot);
+            if (pooled == null || !pooled.isAlive()) {
+                freeSlots.add(slot);
+            }
+        }
+        return freeSlots;
+    }
+
+    /**
+     * @param connectionCount the number of connections to open
+     * @return {@code true} if the caller may open the connections, {@code false} if the pool is already growing
+     */
+    boolean tryStartGrowing(int connectionCount) {
+        return growing.compareAndSet(0, connectionCount);
+    }
+
+    /**
+     * Is called once for each connection opened by the growth, whether opening it succeeded or not.
+     */
+    void finishGrowing() {
+        growing.decrementAndGet();
+    }
+
+    /**
+     * @return {@code true} if the pool has live connections and none of them has sent anything or has outstanding
+     * requests for the given time
+     */
+    boolean isIdle(long nowMillis, long idleTimeoutMillis) {
+        boolean hasLiveConnection = false;
+        for (int slot = 0; slot < connections.length(); slot++) {
+            ClientConnection pooled = connections.get(slot);
+            if (pooled == null || !pooled.isAlive()) {
+                continue;
+            }
+            if (pooled.getPendingRequestCount() != 0 || nowMillis - pooled.lastWriteTimeMillis() <= idleTimeoutMillis) {
+                return false;
+            }
+            hasLiveConnection = true;
+        }
+        return hasLiveConnection;
+    }
+
+    void set(int slot, ClientConnection connection) {
+        connections.set(slot, connection);
+    }
+
+    ClientConnection get(int slot) {
+        return connections.get(slot);
+    }
+
+    int capacity() {
+        return connections.length();
+    }
+
+    boolean remove(ClientConnection connection) {
+        for (int slot = 0; slot < connections.length(); slot++) {
+            if (connections.compareAndSet(slot, connection, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<ClientConnection> liveConnections() {
+        List<ClientConnection> live = new ArrayList<ClientConnection>(connections.length());
+        for (int slot = 0; slot < connections.length(); slot++) {
+            ClientConnection pooled = connections.get(slot);
+            if (pooled != null && pooled.isAlive()) {
+                live.add(pooled);
+            }
+        }
+        return live;
+    }
+
+    int size() {
+        int size = 0;
+        for (int slot = 0; slot < connections.length(); slot++) {
+            ClientConnection pooled = connections.get(slot);
+            if (pooled != null && pooled.isAlive()) {
+                size++;
+            }
+        }
+        return size;
+    }
+}
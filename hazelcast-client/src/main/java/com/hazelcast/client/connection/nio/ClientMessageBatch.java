@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.connection.nio;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.nio.OutboundFrame;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An {@link OutboundFrame} containing multiple {@link ClientMessage}s which are written to the connection back to back.
+ *
+ * The messages are written exactly as they would be written one by one, so the member doesn't need to know about the
+ * batch; it just finds multiple messages in a single read.
+ */
+public final class ClientMessageBatch implements OutboundFrame {
+
+    private final ClientMessage[] messages;
+    private int index;
+
+    public ClientMessageBatch(List<ClientMessage> messages) {
+        this.messages = messages.toArray(new ClientMessage[messages.size()]);
+    }
+
+    public List<ClientMessage> getMessages() {
+        return Arrays.asList(messages);
+    }
+
+    /**
+     * Writes as many of the messages as fit into the destination buffer.
+     *
+     * @param dst the destination buffer
+     * @return {@code true} if all messages have been written, {@code false} otherwise
+     */
+    public boolean writeTo(ByteBuffer dst) {
+        for (; index < messages.length; index++) {
+            if (!messages[index].writeTo(dst)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isUrgent() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ClientMessageBatch{messages=" + Arrays.toString(messages) + '}';
+    }
+}
@@ -22,6 +22,7 @@ import com.hazelcast.internal.networking.SocketWriterInitializer;
 import com.hazelcast.internal.networking.WriteHandler;
 import com.hazelcast.logging.Logger;
 import com.hazelcast.nio.IOUtil;
+import com.hazelcast.nio.OutboundFrame;
 import com.hazelcast.nio.Protocols;
 
 import java.nio.ByteBuffer;
@@ -43,10 +44,13 @@ class ClientSocketWriterInitializer implements SocketWriterInitializer<ClientCon
 
         writer.initOutputBuffer(IOUtil.newByteBuffer(bufferSize, direct));
 
-        writer.initWriteHandler(new WriteHandler<ClientMessage>() {
+        writer.initWriteHandler(new WriteHandler<OutboundFrame>() {
             @Override
-            public boolean onWrite(ClientMessage msg, ByteBuffer dst) throws Exception {
-                return msg.writeTo(dst);
+            public boolean onWrite(OutboundFrame frame, ByteBuffer dst) throws Exception {
+                if (frame instanceof ClientMessageBatch) {
+                    return ((ClientMessageBatch) frame).writeTo(dst);
+                }
+                return ((ClientMessage) frame).writeTo(dst);
             }
         });
     }
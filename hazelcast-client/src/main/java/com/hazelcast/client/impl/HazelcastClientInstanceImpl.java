@@ -75,6 +75,7 @@ import com.hazelcast.core.Cluster;
 import com.hazelcast.core.DistributedObject;
 import com.hazelcast.core.DistributedObjectListener;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
 import com.hazelcast.core.IAtomicLong;
 import com.hazelcast.core.IAtomicReference;
 import com.hazelcast.core.ICountDownLatch;
@@ -412,6 +413,9 @@ public class HazelcastClientInstanceImpl implements HazelcastInstance, Serializa
         }
         proxyManager.init(config);
         listenerService.start();
+        if (loadBalancer instanceof HazelcastInstanceAware) {
+            ((HazelcastInstanceAware) loadBalancer).setHazelcastInstance(this);
+        }
         loadBalancer.init(getCluster(), config);
         partitionService.start();
         clientExtension.afterStart(this);
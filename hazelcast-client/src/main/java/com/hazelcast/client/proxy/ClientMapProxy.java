@@ -17,6 +17,7 @@
 package com.hazelcast.client.proxy;
 
 import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.client.connection.ClientConnectionManager;
 import com.hazelcast.client.impl.ClientLockReferenceIdGenerator;
 import com.hazelcast.client.impl.ClientMessageDecoder;
 import com.hazelcast.client.impl.protocol.ClientMessage;
@@ -132,10 +133,13 @@ import com.hazelcast.mapreduce.aggregation.Aggregation;
 import com.hazelcast.mapreduce.aggregation.Supplier;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.monitor.impl.LocalMapStatsImpl;
+import com.hazelcast.nio.Address;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.projection.Projection;
+import com.hazelcast.nio.Connection;
 import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.Predicate;
+import com.hazelcast.spi.exception.TargetDisconnectedException;
 import com.hazelcast.spi.impl.UnmodifiableLazyList;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.CollectionUtil;
@@ -156,9 +160,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import static com.hazelcast.client.spi.properties.ClientProperty.MAP_BULK_MEMBER_ROUTING_ENABLED;
+import static com.hazelcast.client.spi.properties.ClientProperty.MAP_QUERY_RESULT_CACHE_MAX_ENTRIES;
+import static com.hazelcast.client.spi.properties.ClientProperty.MAP_QUERY_RESULT_CACHE_TTL_SECONDS;
 import static com.hazelcast.map.impl.ListenerAdapters.createListenerAdapter;
 import static com.hazelcast.map.impl.MapListenerFlagOperator.setAndGetListenerFlags;
 import static com.hazelcast.map.impl.querycache.subscriber.QueryCacheRequests.newQueryCacheRequest;
@@ -242,6 +250,8 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     };
 
     private ClientLockReferenceIdGenerator lockReferenceIdGenerator;
+    private boolean bulkMemberRoutingEnabled;
+    private ClientQueryResultCache queryResultCache;
 
     public ClientMapProxy(String serviceName, String name) {
         super(serviceName, name);
@@ -252,6 +262,32 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         super.onInitialize();
 
         lockReferenceIdGenerator = getClient().getLockReferenceIdGenerator();
+        bulkMemberRoutingEnabled = getClient().getProperties().getBoolean(MAP_BULK_MEMBER_ROUTING_ENABLED)
+                && getClient().getClientConfig().getNetworkConfig().isSmartRouting();
+        long queryResultCacheTtlMillis = getClient().getProperties().getMillis(MAP_QUERY_RESULT_CACHE_TTL_SECONDS);
+        if (queryResultCacheTtlMillis > 0) {
+            queryResultCache = new ClientQueryResultCache(name, getContext().getListenerService(),
+                    getContext().getLoggingService().getLogger(ClientQueryResultCache.class), queryResultCacheTtlMillis,
+                    getClient().getProperties().getInteger(MAP_QUERY_RESULT_CACHE_MAX_ENTRIES));
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        destroyQueryResultCache();
+        super.onDestroy();
+    }
+
+    @Override
+    protected void onShutdown() {
+        destroyQueryResultCache();
+        super.onShutdown();
+    }
+
+    private void destroyQueryResultCache() {
+        if (queryResultCache != null) {
+            queryResultCache.destroy();
+        }
     }
 
     @Override
@@ -312,6 +348,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     protected MapRemoveCodec.ResponseParameters removeInternal(Data keyData) {
         ClientMessage request = MapRemoveCodec.encodeRequest(name, keyData, getThreadId());
         ClientMessage response = invoke(request, keyData);
+        invalidateQueryResults();
         return MapRemoveCodec.decodeResponse(response);
     }
 
@@ -329,6 +366,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         ClientMessage request = MapRemoveIfSameCodec.encodeRequest(name, keyData, valueData, getThreadId());
 
         ClientMessage response = invoke(request, keyData);
+        invalidateQueryResults();
         MapRemoveIfSameCodec.ResponseParameters resultParameters = MapRemoveIfSameCodec.decodeResponse(response);
         return resultParameters.response;
     }
@@ -343,6 +381,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     protected void removeAllInternal(Predicate predicate) {
         ClientMessage request = MapRemoveAllCodec.encodeRequest(name, toData(predicate));
         invoke(request);
+        invalidateQueryResults();
     }
 
     @Override
@@ -356,6 +395,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     protected void deleteInternal(Data keyData) {
         ClientMessage request = MapDeleteCodec.encodeRequest(name, keyData, getThreadId());
         invoke(request, keyData);
+        invalidateQueryResults();
     }
 
     @Override
@@ -412,7 +452,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         try {
             ClientInvocationFuture future = invokeOnKeyOwner(request, keyData);
             return new ClientDelegatingFuture<V>(future, getContext().getSerializationService(),
-                    PUT_ASYNC_RESPONSE_DECODER);
+                    invalidatingQueryResults(PUT_ASYNC_RESPONSE_DECODER));
         } catch (Exception e) {
             throw rethrow(e);
         }
@@ -439,7 +479,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         try {
             ClientInvocationFuture future = invokeOnKeyOwner(request, keyData);
             return new ClientDelegatingFuture<Void>(future, getContext().getSerializationService(),
-                    SET_ASYNC_RESPONSE_DECODER);
+                    invalidatingQueryResults(SET_ASYNC_RESPONSE_DECODER));
         } catch (Exception e) {
             throw rethrow(e);
         }
@@ -457,7 +497,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         try {
             ClientInvocationFuture future = invokeOnKeyOwner(request, keyData);
             return new ClientDelegatingFuture<V>(future, getContext().getSerializationService(),
-                    REMOVE_ASYNC_RESPONSE_DECODER);
+                    invalidatingQueryResults(REMOVE_ASYNC_RESPONSE_DECODER));
         } catch (Exception e) {
             throw rethrow(e);
         }
@@ -473,6 +513,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     protected boolean tryRemoveInternal(long timeout, TimeUnit timeunit, Data keyData) {
         ClientMessage request = MapTryRemoveCodec.encodeRequest(name, keyData, getThreadId(), timeunit.toMillis(timeout));
         ClientMessage response = invoke(request, keyData);
+        invalidateQueryResults();
         MapTryRemoveCodec.ResponseParameters resultParameters = MapTryRemoveCodec.decodeResponse(response);
         return resultParameters.response;
     }
@@ -490,6 +531,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     protected boolean tryPutInternal(long timeout, TimeUnit timeunit, Data keyData, Data valueData) {
         ClientMessage request = MapTryPutCodec.encodeRequest(name, keyData, valueData, getThreadId(), timeunit.toMillis(timeout));
         ClientMessage response = invoke(request, keyData);
+        invalidateQueryResults();
         MapTryPutCodec.ResponseParameters resultParameters = MapTryPutCodec.decodeResponse(response);
         return resultParameters.response;
     }
@@ -508,6 +550,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         ClientMessage request = MapPutCodec.encodeRequest(name, keyData, valueData, getThreadId(),
                 getTimeInMillis(ttl, timeunit));
         ClientMessage response = invoke(request, keyData);
+        invalidateQueryResults();
         MapPutCodec.ResponseParameters resultParameters = MapPutCodec.decodeResponse(response);
         return toObject(resultParameters.response);
     }
@@ -527,6 +570,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         ClientMessage request = MapPutTransientCodec.encodeRequest(name, keyData, valueData, getThreadId(),
                 getTimeInMillis(ttl, timeunit));
         invoke(request, keyData);
+        invalidateQueryResults();
     }
 
     @Override
@@ -548,6 +592,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         ClientMessage request = MapPutIfAbsentCodec.encodeRequest(name, keyData, valueData, getThreadId(),
                 getTimeInMillis(ttl, timeunit));
         ClientMessage result = invoke(request, keyData);
+        invalidateQueryResults();
         MapPutIfAbsentCodec.ResponseParameters resultParameters = MapPutIfAbsentCodec.decodeResponse(result);
         return toObject(resultParameters.response);
     }
@@ -568,6 +613,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     protected boolean replaceIfSameInternal(Data keyData, Data oldValueData, Data newValueData) {
         ClientMessage request = MapReplaceIfSameCodec.encodeRequest(name, keyData, oldValueData, newValueData, getThreadId());
         ClientMessage response = invoke(request, keyData);
+        invalidateQueryResults();
         MapReplaceIfSameCodec.ResponseParameters resultParameters = MapReplaceIfSameCodec.decodeResponse(response);
         return resultParameters.response;
     }
@@ -586,6 +632,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     protected V replaceInternal(Data keyData, Data valueData) {
         ClientMessage request = MapReplaceCodec.encodeRequest(name, keyData, valueData, getThreadId());
         ClientMessage response = invoke(request, keyData);
+        invalidateQueryResults();
         MapReplaceCodec.ResponseParameters resultParameters = MapReplaceCodec.decodeResponse(response);
         return toObject(resultParameters.response);
     }
@@ -606,6 +653,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
                 getTimeInMillis(ttl, timeunit));
 
         invoke(request, keyData);
+        invalidateQueryResults();
     }
 
     @Override
@@ -1004,6 +1052,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     protected boolean evictInternal(Data keyData) {
         ClientMessage request = MapEvictCodec.encodeRequest(name, keyData, getThreadId());
         ClientMessage response = invoke(request, keyData);
+        invalidateQueryResults();
         MapEvictCodec.ResponseParameters resultParameters = MapEvictCodec.decodeResponse(response);
         return resultParameters.response;
     }
@@ -1012,12 +1061,14 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     public void evictAll() {
         ClientMessage request = MapEvictAllCodec.encodeRequest(name);
         invoke(request);
+        invalidateQueryResults();
     }
 
     @Override
     public void loadAll(boolean replaceExistingValues) {
         ClientMessage request = MapLoadAllCodec.encodeRequest(name, replaceExistingValues);
         invoke(request);
+        invalidateQueryResults();
     }
 
     @Override
@@ -1034,6 +1085,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     protected void loadAllInternal(boolean replaceExistingValues, Collection<Data> dataKeys) {
         ClientMessage request = MapLoadGivenKeysCodec.encodeRequest(name, dataKeys, replaceExistingValues);
         invoke(request);
+        invalidateQueryResults();
     }
 
     @Override
@@ -1057,11 +1109,43 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
             return emptyMap();
         }
 
+        Map<Integer, List<Data>> partitionToKeyData = groupByPartitionId(objectToDataCollection(keys, getSerializationService()));
+
+        Map<K, V> result = new HashMap<K, V>();
+        getAllInternal(partitionToKeyData, result);
+        return result;
+    }
+
+    protected List<MapGetAllCodec.ResponseParameters> getAllInternal(Map<Integer, List<Data>> partitionToKeyData,
+                                                                     Map<K, V> result) {
+        List<ClientMessage> responseMessages = invokeBulk(partitionToKeyData, true, new BulkRequestEncoder<Data>() {
+            @Override
+            public ClientMessage encodeRequest(List<Data> keys) {
+                return MapGetAllCodec.encodeRequest(name, keys);
+            }
+        });
+
+        List<MapGetAllCodec.ResponseParameters> responses = new ArrayList<MapGetAllCodec.ResponseParameters>(
+                responseMessages.size());
+        for (ClientMessage response : responseMessages) {
+            MapGetAllCodec.ResponseParameters resultParameters = MapGetAllCodec.decodeResponse(response);
+
+            for (Entry<Data, Data> entry : resultParameters.response) {
+                final V value = toObject(entry.getValue());
+                final K key = toObject(entry.getKey());
+                result.put(key, value);
+            }
+
+            responses.add(resultParameters);
+        }
+        return responses;
+    }
+
+    private Map<Integer, List<Data>> groupByPartitionId(Collection<Data> keys) {
         Map<Integer, List<Data>> partitionToKeyData = new HashMap<Integer, List<Data>>();
         ClientPartitionService partitionService = getContext().getPartitionService();
 
-        for (Object key : keys) {
-            Data keyData = toData(key);
+        for (Data keyData : keys) {
             int partitionId = partitionService.getPartitionId(keyData);
             List<Data> keyList = partitionToKeyData.get(partitionId);
             if (keyList == null) {
@@ -1070,46 +1154,132 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
             }
             keyList.add(keyData);
         }
+        return partitionToKeyData;
+    }
 
-        Map<K, V> result = new HashMap<K, V>();
-        getAllInternal(partitionToKeyData, result);
-        return result;
+    /**
+     * Groups the partitions by their owners, so a bulk operation can send a single request per member.
+     *
+     * @return the partitions grouped by their owners, or {@code null} if the bulk operations are not routed to the
+     * members or the owner of a partition is not known yet
+     */
+    private <T> Map<Address, List<Integer>> groupByPartitionOwner(Map<Integer, List<T>> partitionToItems) {
+        if (!bulkMemberRoutingEnabled) {
+            return null;
+        }
+
+        ClientPartitionService partitionService = getContext().getPartitionService();
+        Map<Address, List<Integer>> memberToPartitions = new HashMap<Address, List<Integer>>();
+        for (Map.Entry<Integer, List<T>> entry : partitionToItems.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            Address owner = partitionService.getPartitionOwner(entry.getKey());
+            if (owner == null) {
+                return null;
+            }
+            List<Integer> partitionIds = memberToPartitions.get(owner);
+            if (partitionIds == null) {
+                partitionIds = new ArrayList<Integer>();
+                memberToPartitions.put(owner, partitionIds);
+            }
+            partitionIds.add(entry.getKey());
+        }
+        return memberToPartitions;
     }
 
-    protected List<MapGetAllCodec.ResponseParameters> getAllInternal(Map<Integer, List<Data>> partitionToKeyData,
-                                                                     Map<K, V> result) {
-        List<Future<ClientMessage>> futures = new ArrayList<Future<ClientMessage>>(partitionToKeyData.size());
-        List<MapGetAllCodec.ResponseParameters> responses = new ArrayList<MapGetAllCodec.ResponseParameters>(
-                partitionToKeyData.size());
-
-        for (final Map.Entry<Integer, List<Data>> entry : partitionToKeyData.entrySet()) {
-            int partitionId = entry.getKey();
-            List<Data> keyList = entry.getValue();
-            if (!keyList.isEmpty()) {
-                ClientMessage request = MapGetAllCodec.encodeRequest(name, keyList);
-                futures.add(new ClientInvocation(getClient(), request, partitionId).invoke());
+    private <T> List<ClientMessage> invokeBulk(Map<Integer, List<T>> partitionToItems, boolean readOnly,
+                                               BulkRequestEncoder<T> encoder) {
+        Map<Address, List<Integer>> memberToPartitions = groupByPartitionOwner(partitionToItems);
+        if (memberToPartitions == null) {
+            return invokeOnPartitions(partitionToItems, encoder);
+        }
+        return invokeOnPartitionOwners(memberToPartitions, partitionToItems, readOnly, encoder);
+    }
+
+    private <T> List<ClientMessage> invokeOnPartitions(Map<Integer, List<T>> partitionToItems, BulkRequestEncoder<T> encoder) {
+        List<Future<ClientMessage>> futures = new ArrayList<Future<ClientMessage>>(partitionToItems.size());
+        for (Map.Entry<Integer, List<T>> entry : partitionToItems.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                ClientMessage request = encoder.encodeRequest(entry.getValue());
+                futures.add(new ClientInvocation(getClient(), request, entry.getKey()).invoke());
             }
         }
 
+        List<ClientMessage> responses = new ArrayList<ClientMessage>(futures.size());
         for (Future<ClientMessage> future : futures) {
             try {
-                ClientMessage response = future.get();
-                MapGetAllCodec.ResponseParameters resultParameters = MapGetAllCodec.decodeResponse(response);
+                responses.add(future.get());
+            } catch (Exception e) {
+                throw rethrow(e);
+            }
+        }
+        return responses;
+    }
 
-                for (Entry<Data, Data> entry : resultParameters.response) {
-                    final V value = toObject(entry.getValue());
-                    final K key = toObject(entry.getKey());
-                    result.put(key, value);
-                }
+    /**
+     * Sends a single request to each partition owner. The requests are bound to the connections of the members, so a
+     * request fails right away when its member goes away instead of being retried against the address of a dead member.
+     * The partitions of such a request are then sent again one by one, so each of them follows the current owner of
+     * the partition.
+     *
+     * @param readOnly {@code true} if the request doesn't change the map, so it can be sent again whenever its member
+     *                 went away, even if the member could have run it
+     */
+    private <T> List<ClientMessage> invokeOnPartitionOwners(Map<Address, List<Integer>> memberToPartitions,
+                                                            Map<Integer, List<T>> partitionToItems, boolean readOnly,
+                                                            BulkRequestEncoder<T> encoder) {
+        ClientConnectionManager connectionManager = getClient().getConnectionManager();
+        Map<Integer, List<T>> partitionsToResend = new HashMap<Integer, List<T>>();
+        Map<Address, ClientInvocationFuture> futures = new HashMap<Address, ClientInvocationFuture>();
+        for (Map.Entry<Address, List<Integer>> entry : memberToPartitions.entrySet()) {
+            Connection connection = connectionManager.getConnection(entry.getKey());
+            if (connection == null) {
+                copyPartitions(entry.getValue(), partitionToItems, partitionsToResend);
+                continue;
+            }
+            List<T> items = new ArrayList<T>();
+            for (Integer partitionId : entry.getValue()) {
+                items.addAll(partitionToItems.get(partitionId));
+            }
+            ClientMessage request = encoder.encodeRequest(items);
+            futures.put(entry.getKey(), new ClientInvocation(getClient(), request, connection).invoke());
+        }
 
-                responses.add(resultParameters);
+        List<ClientMessage> responses = new ArrayList<ClientMessage>(memberToPartitions.size());
+        for (Map.Entry<Address, ClientInvocationFuture> entry : futures.entrySet()) {
+            ClientInvocationFuture future = entry.getValue();
+            try {
+                responses.add(future.get());
             } catch (Exception e) {
-                throw rethrow(e);
+                if (!isResendable(e, readOnly, future.getInvocation().getClientMessage())) {
+                    throw rethrow(e);
+                }
+                copyPartitions(memberToPartitions.get(entry.getKey()), partitionToItems, partitionsToResend);
             }
         }
+        responses.addAll(invokeOnPartitions(partitionsToResend, encoder));
         return responses;
     }
 
+    /**
+     * Tells if the partitions of a failed request can be sent again, following the rules the invocations use to retry
+     * a request.
+     */
+    private boolean isResendable(Exception e, boolean readOnly, ClientMessage request) {
+        Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+        return ClientInvocation.isRetrySafeException(cause)
+                || getClient().getInvocationService().isRedoOperation()
+                || (cause instanceof TargetDisconnectedException && (readOnly || request.isRetryable()));
+    }
+
+    private static <T> void copyPartitions(List<Integer> partitionIds, Map<Integer, List<T>> from,
+                                           Map<Integer, List<T>> to) {
+        for (Integer partitionId : partitionIds) {
+            to.put(partitionId, from.get(partitionId));
+        }
+    }
+
     @Override
     public Collection<V> values() {
         ClientMessage request = MapValuesCodec.encodeRequest(name);
@@ -1142,12 +1312,18 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
             return keySetWithPagingPredicate((PagingPredicate) predicate);
         }
 
-        ClientMessage request = MapKeySetWithPredicateCodec.encodeRequest(name, toData(predicate));
-        ClientMessage response = invoke(request);
-        MapKeySetWithPredicateCodec.ResponseParameters resultParameters = MapKeySetWithPredicateCodec.decodeResponse(response);
+        Data predicateData = toData(predicate);
+        List<Data> keys = getCachedQueryResult(IterationType.KEY, predicateData, null);
+        if (keys == null) {
+            long generation = startCachedQuery();
+            ClientMessage request = MapKeySetWithPredicateCodec.encodeRequest(name, predicateData);
+            ClientMessage response = invoke(request);
+            keys = MapKeySetWithPredicateCodec.decodeResponse(response).response;
+            cacheQueryResult(IterationType.KEY, predicateData, null, keys, generation);
+        }
 
-        InflatableSet.Builder<K> setBuilder = InflatableSet.newBuilder(resultParameters.response.size());
-        for (Data data : resultParameters.response) {
+        InflatableSet.Builder<K> setBuilder = InflatableSet.newBuilder(keys.size());
+        for (Data data : keys) {
             K key = toObject(data);
             setBuilder.add(key);
         }
@@ -1176,15 +1352,20 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         if (predicate instanceof PagingPredicate) {
             return entrySetWithPagingPredicate((PagingPredicate) predicate);
         }
-        ClientMessage request = MapEntriesWithPredicateCodec.encodeRequest(name, toData(predicate));
-
-        ClientMessage response = invoke(request);
-        MapEntriesWithPredicateCodec.ResponseParameters resultParameters = MapEntriesWithPredicateCodec.decodeResponse(response);
+        Data predicateData = toData(predicate);
+        List<Entry<Data, Data>> entries = getCachedQueryResult(IterationType.ENTRY, predicateData, null);
+        if (entries == null) {
+            long generation = startCachedQuery();
+            ClientMessage request = MapEntriesWithPredicateCodec.encodeRequest(name, predicateData);
+            ClientMessage response = invoke(request);
+            entries = MapEntriesWithPredicateCodec.decodeResponse(response).response;
+            cacheQueryResult(IterationType.ENTRY, predicateData, null, entries, generation);
+        }
 
-        InflatableSet.Builder<Entry<K, V>> setBuilder = InflatableSet.newBuilder(resultParameters.response.size());
+        InflatableSet.Builder<Entry<K, V>> setBuilder = InflatableSet.newBuilder(entries.size());
         InternalSerializationService serializationService = ((InternalSerializationService) getContext()
                 .getSerializationService());
-        for (Entry<Data, Data> row : resultParameters.response) {
+        for (Entry<Data, Data> row : entries) {
             LazyMapEntry entry = new LazyMapEntry(row.getKey(), row.getValue(), serializationService);
             setBuilder.add(entry);
         }
@@ -1216,11 +1397,17 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
             return valuesForPagingPredicate((PagingPredicate) predicate);
         }
 
-        ClientMessage request = MapValuesWithPredicateCodec.encodeRequest(name, toData(predicate));
-        ClientMessage response = invoke(request);
-        MapValuesWithPredicateCodec.ResponseParameters resultParameters = MapValuesWithPredicateCodec.decodeResponse(response);
+        Data predicateData = toData(predicate);
+        List<Data> values = getCachedQueryResult(IterationType.VALUE, predicateData, null);
+        if (values == null) {
+            long generation = startCachedQuery();
+            ClientMessage request = MapValuesWithPredicateCodec.encodeRequest(name, predicateData);
+            ClientMessage response = invoke(request);
+            values = MapValuesWithPredicateCodec.decodeResponse(response).response;
+            cacheQueryResult(IterationType.VALUE, predicateData, null, values, generation);
+        }
 
-        return new UnmodifiableLazyList<V>(resultParameters.response, getSerializationService());
+        return newQueryResultList(values);
     }
 
     private Collection<V> valuesForPagingPredicate(PagingPredicate pagingPredicate) {
@@ -1272,6 +1459,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         validateEntryProcessorForSingleKeyProcessing(entryProcessor);
         ClientMessage request = MapExecuteOnKeyCodec.encodeRequest(name, toData(entryProcessor), keyData, getThreadId());
         ClientMessage response = invoke(request, keyData);
+        invalidateQueryResults();
         MapExecuteOnKeyCodec.ResponseParameters resultParameters = MapExecuteOnKeyCodec.decodeResponse(response);
         return toObject(resultParameters.response);
     }
@@ -1299,7 +1487,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
             ClientInvocationFuture future = invokeOnKeyOwner(request, keyData);
             SerializationService serializationService = getContext().getSerializationService();
             ClientDelegatingFuture clientDelegatingFuture = new ClientDelegatingFuture(future, serializationService,
-                    SUBMIT_TO_KEY_RESPONSE_DECODER);
+                    invalidatingQueryResults(SUBMIT_TO_KEY_RESPONSE_DECODER));
             clientDelegatingFuture.andThen(callback);
         } catch (Exception e) {
             throw rethrow(e);
@@ -1317,7 +1505,8 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         ClientMessage request = MapSubmitToKeyCodec.encodeRequest(name, toData(entryProcessor), keyData, getThreadId());
         try {
             final ClientInvocationFuture future = invokeOnKeyOwner(request, keyData);
-            return new ClientDelegatingFuture(future, getContext().getSerializationService(), SUBMIT_TO_KEY_RESPONSE_DECODER);
+            return new ClientDelegatingFuture(future, getContext().getSerializationService(),
+                    invalidatingQueryResults(SUBMIT_TO_KEY_RESPONSE_DECODER));
         } catch (Exception e) {
             throw rethrow(e);
         }
@@ -1327,6 +1516,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     public Map<K, Object> executeOnEntries(EntryProcessor entryProcessor) {
         ClientMessage request = MapExecuteOnAllKeysCodec.encodeRequest(name, toData(entryProcessor));
         ClientMessage response = invoke(request);
+        invalidateQueryResults();
         MapExecuteOnAllKeysCodec.ResponseParameters resultParameters = MapExecuteOnAllKeysCodec.decodeResponse(response);
         return prepareResult(resultParameters.response);
     }
@@ -1348,6 +1538,7 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     public Map<K, Object> executeOnEntries(EntryProcessor entryProcessor, Predicate predicate) {
         ClientMessage request = MapExecuteWithPredicateCodec.encodeRequest(name, toData(entryProcessor), toData(predicate));
         ClientMessage response = invoke(request);
+        invalidateQueryResults();
 
         MapExecuteWithPredicateCodec.ResponseParameters resultParameters = MapExecuteWithPredicateCodec.decodeResponse(response);
         return prepareResult(resultParameters.response);
@@ -1379,24 +1570,86 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
 
     @Override
     public <R> Collection<R> project(Projection<Entry<K, V>, R> projection) {
-        ClientMessage request = MapProjectCodec.encodeRequest(name, toData(projection));
-        ClientMessage response = invoke(request);
-
-        MapProjectCodec.ResponseParameters resultParameters =
-                MapProjectCodec.decodeResponse(response);
+        Data projectionData = toData(projection);
+        List<Data> results = getCachedQueryResult(IterationType.VALUE, null, projectionData);
+        if (results == null) {
+            long generation = startCachedQuery();
+            ClientMessage request = MapProjectCodec.encodeRequest(name, projectionData);
+            ClientMessage response = invoke(request);
+            results = MapProjectCodec.decodeResponse(response).response;
+            cacheQueryResult(IterationType.VALUE, null, projectionData, results, generation);
+        }
 
-        return new UnmodifiableLazyList<R>(resultParameters.response, getSerializationService());
+        return newQueryResultList(results);
     }
 
     @Override
     public <R> Collection<R> project(Projection<Entry<K, V>, R> projection, Predicate<K, V> predicate) {
-        ClientMessage request = MapProjectWithPredicateCodec.encodeRequest(name, toData(projection), toData(predicate));
-        ClientMessage response = invoke(request);
+        Data projectionData = toData(projection);
+        Data predicateData = toData(predicate);
+        List<Data> results = getCachedQueryResult(IterationType.VALUE, predicateData, projectionData);
+        if (results == null) {
+            long generation = startCachedQuery();
+            ClientMessage request = MapProjectWithPredicateCodec.encodeRequest(name, projectionData, predicateData);
+            ClientMessage response = invoke(request);
+            results = MapProjectWithPredicateCodec.decodeResponse(response).response;
+            cacheQueryResult(IterationType.VALUE, predicateData, projectionData, results, generation);
+        }
+
+        return newQueryResultList(results);
+    }
+
+    private <T> T getCachedQueryResult(IterationType iterationType, Data predicate, Data projection) {
+        return queryResultCache == null ? null : queryResultCache.<T>get(iterationType, predicate, projection);
+    }
+
+    private long startCachedQuery() {
+        return queryResultCache == null ? ClientQueryResultCache.NOT_CACHEABLE : queryResultCache.startQuery();
+    }
+
+    private void cacheQueryResult(IterationType iterationType, Data predicate, Data projection, Object result,
+                                  long generation) {
+        if (queryResultCache != null) {
+            queryResultCache.put(iterationType, predicate, projection, result, generation);
+        }
+    }
 
-        MapProjectWithPredicateCodec.ResponseParameters resultParameters =
-                MapProjectWithPredicateCodec.decodeResponse(response);
+    private <R> Collection<R> newQueryResultList(List<Data> results) {
+        // the lazy list replaces the deserialized items in its list, so a cached list is not handed out
+        List<Data> list = queryResultCache == null ? results : new ArrayList<Data>(results);
+        return new UnmodifiableLazyList<R>(list, getSerializationService());
+    }
+
+    // used in tests
+    /**
+     * Drops the cached query results after a change made through this proxy, so the following queries of this client
+     * see the change without waiting for the invalidation events of the members, which can be batched.
+     */
+    private void invalidateQueryResults() {
+        if (queryResultCache != null) {
+            queryResultCache.invalidate();
+        }
+    }
+
+    /**
+     * Wraps the decoder of an asynchronous change, so the cached query results are dropped when the response of the
+     * change is consumed.
+     */
+    private ClientMessageDecoder invalidatingQueryResults(final ClientMessageDecoder decoder) {
+        if (queryResultCache == null) {
+            return decoder;
+        }
+        return new ClientMessageDecoder() {
+            @Override
+            public <T> T decodeClientMessage(ClientMessage clientMessage) {
+                invalidateQueryResults();
+                return decoder.<T>decodeClientMessage(clientMessage);
+            }
+        };
+    }
 
-        return new UnmodifiableLazyList<R>(resultParameters.response, getSerializationService());
+    ClientQueryResultCache getQueryResultCache() {
+        return queryResultCache;
     }
 
 
@@ -1497,12 +1750,40 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
         }
         Collection<Data> dataCollection = objectToDataCollection(keys, getSerializationService());
 
+        Map<Integer, List<Data>> partitionToKeyData = groupByPartitionId(dataCollection);
+        Map<Address, List<Integer>> memberToPartitions = groupByPartitionOwner(partitionToKeyData);
+        if (memberToPartitions != null) {
+            Map<K, Object> result = executeOnKeysOnMembers(memberToPartitions, partitionToKeyData, toData(entryProcessor));
+            invalidateQueryResults();
+            return result;
+        }
+
         ClientMessage request = MapExecuteOnKeysCodec.encodeRequest(name, toData(entryProcessor), dataCollection);
         ClientMessage response = invoke(request);
+        invalidateQueryResults();
         MapExecuteOnKeysCodec.ResponseParameters resultParameters = MapExecuteOnKeysCodec.decodeResponse(response);
         return prepareResult(resultParameters.response);
     }
 
+    private Map<K, Object> executeOnKeysOnMembers(Map<Address, List<Integer>> memberToPartitions,
+                                                  Map<Integer, List<Data>> partitionToKeyData,
+                                                  final Data entryProcessor) {
+        List<ClientMessage> responses = invokeOnPartitionOwners(memberToPartitions, partitionToKeyData, false,
+                new BulkRequestEncoder<Data>() {
+                    @Override
+                    public ClientMessage encodeRequest(List<Data> keys) {
+                        return MapExecuteOnKeysCodec.encodeRequest(name, entryProcessor, keys);
+                    }
+                });
+
+        Map<K, Object> result = new HashMap<K, Object>();
+        for (ClientMessage response : responses) {
+            MapExecuteOnKeysCodec.ResponseParameters resultParameters = MapExecuteOnKeysCodec.decodeResponse(response);
+            result.putAll(prepareResult(resultParameters.response));
+        }
+        return result;
+    }
+
     @Override
     public void set(K key, V value) {
         set(key, value, -1, TimeUnit.MILLISECONDS);
@@ -1550,28 +1831,20 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
     }
 
     protected void putAllInternal(Map<Integer, List<Map.Entry<Data, Data>>> entryMap) throws RuntimeException {
-        List<Future<?>> futures = new ArrayList<Future<?>>(entryMap.size());
-        for (final Entry<Integer, List<Map.Entry<Data, Data>>> entry : entryMap.entrySet()) {
-            final Integer partitionId = entry.getKey();
-            // if there is only one entry, consider how we can use MapPutRequest
-            // without having to get back the return value
-            ClientMessage request = MapPutAllCodec.encodeRequest(name, entry.getValue());
-            futures.add(new ClientInvocation(getClient(), request, partitionId).invoke());
-        }
-
-        try {
-            for (Future<?> future : futures) {
-                future.get();
+        invokeBulk(entryMap, false, new BulkRequestEncoder<Map.Entry<Data, Data>>() {
+            @Override
+            public ClientMessage encodeRequest(List<Map.Entry<Data, Data>> entries) {
+                return MapPutAllCodec.encodeRequest(name, entries);
             }
-        } catch (Exception e) {
-            throw rethrow(e);
-        }
+        });
+        invalidateQueryResults();
     }
 
     @Override
     public void clear() {
         ClientMessage request = MapClearCodec.encodeRequest(name);
         invoke(request);
+        invalidateQueryResults();
     }
 
     public Iterator<Entry<K, V>> iterator(int fetchSize, int partitionId, boolean prefetchValues) {
@@ -1677,4 +1950,12 @@ public class ClientMapProxy<K, V> extends ClientProxy implements IMap<K, V> {
             listener.partitionLost(new MapPartitionLostEvent(name, member, -1, partitionId));
         }
     }
+
+    /**
+     * Encodes the request of a bulk operation for the items of one or more partitions.
+     */
+    private interface BulkRequestEncoder<T> {
+
+        ClientMessage encodeRequest(List<T> items);
+    }
 }
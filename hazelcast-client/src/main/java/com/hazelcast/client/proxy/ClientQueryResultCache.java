@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.proxy;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.MapAddNearCacheInvalidationListenerCodec;
+import com.hazelcast.client.impl.protocol.codec.MapRemoveEntryListenerCodec;
+import com.hazelcast.client.spi.ClientListenerService;
+import com.hazelcast.client.spi.EventHandler;
+import com.hazelcast.client.spi.impl.ListenerMessageCodec;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
+import com.hazelcast.util.IterationType;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.core.EntryEventType.INVALIDATION;
+
+/**
+ * Caches the query results of a map on the client, keyed by the iteration type, the predicate and the projection of
+ * the query.
+ * <p/>
+ * The cached results are dropped when any entry of the map changes. The changes made through the proxy which owns the
+ * cache drop them right away, the changes made by others are received with the same invalidation listener as the Near
+ * Cache uses, which is registered when the first query is cached. Results which are not invalidated expire after the
+ * time to live.
+ * <p/>
+ * A query records the invalidation generation before it is sent, and its result is only cached if no invalidation
+ * arrived in the meantime, so a result computed before a change is never cached after it.
+ */
+final class ClientQueryResultCache {
+
+    /**
+     * Returned by {@link #startQuery()} when the result of the query must not be cached.
+     */
+    static final long NOT_CACHEABLE = -1;
+
+    private final String mapName;
+    private final ClientListenerService listenerService;
+    private final ILogger logger;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ConcurrentMap<QueryKey, CachedResult> results = new ConcurrentHashMap<QueryKey, CachedResult>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Object registrationMutex = new Object();
+
+    private volatile String invalidationListenerId;
+    private volatile boolean disabled;
+
+    ClientQueryResultCache(String mapName, ClientListenerService listenerService, ILogger logger, long ttlMillis,
+                           int maxEntries) {
+        this.mapName = mapName;
+        this.listenerService = listenerService;
+        this.logger = logger;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cached result of the query, or {@code null} if it is not cached or has expired.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(IterationType iterationType, Data predicate, Data projection) {
+        QueryKey key = new QueryKey(iterationType, predicate, projection);
+        CachedResult cached = results.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expirationTime < Clock.currentTimeMillis()) {
+            results.remove(key, cached);
+            return null;
+        }
+        return (T) cached.result;
+    }
+
+    /**
+     * Prepares a query whose result will be cached. Registers the invalidation listener if it is not registered yet.
+     *
+     * @return the generation to pass to {@link #put}, or {@link #NOT_CACHEABLE}
+     */
+    long startQuery() {
+        if (disabled || !ensureInvalidationListener()) {
+            return NOT_CACHEABLE;
+        }
+        return generation.get();
+    }
+
+    /**
+     * Caches the result of a query, unless the map was changed since the query was started.
+     */
+    void put(IterationType iterationType, Data predicate, Data projection, Object result, long startGeneration) {
+        if (startGeneration == NOT_CACHEABLE || !hasRoom()) {
+            return;
+        }
+        QueryKey key = new QueryKey(iterationType, predicate, projection);
+        results.put(key, new CachedResult(result, Clock.currentTimeMillis() + ttlMillis));
+        // an invalidation could have arrived between the check and the put, its clear could have missed the result
+        if (generation.get() != startGeneration) {
+            results.remove(key);
+        }
+    }
+
+    void invalidate() {
+        generation.incrementAndGet();
+        results.clear();
+    }
+
+    void destroy() {
+        disabled = true;
+        synchronized (registrationMutex) {
+            String listenerId = invalidationListenerId;
+            if (listenerId != null) {
+                invalidationListenerId = null;
+                listenerService.deregisterListener(listenerId);
+            }
+        }
+        invalidate();
+    }
+
+    int size() {
+        return results.size();
+    }
+
+    private boolean hasRoom() {
+        if (results.size() < maxEntries) {
+            return true;
+        }
+        long now = Clock.currentTimeMillis();
+        Iterator<CachedResult> iterator = results.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expirationTime < now) {
+                iterator.remove();
+            }
+        }
+        return results.size() < maxEntries;
+    }
+
+    private boolean ensureInvalidationListener() {
+        if (invalidationListenerId != null) {
+            return true;
+        }
+        synchronized (registrationMutex) {
+            if (invalidationListenerId != null || disabled) {
+                return !disabled;
+            }
+            try {
+                invalidationListenerId = listenerService.registerListener(createInvalidationListenerCodec(),
+                        new InvalidationEventHandler());
+                return true;
+            } catch (Exception e) {
+                // without the invalidations the cached results could be stale for their whole time to live
+                disabled = true;
+                logger.warning("Query results of map " + mapName + " will not be cached, the invalidation listener"
+                        + " could not be registered", e);
+                return false;
+            }
+        }
+    }
+
+    private ListenerMessageCodec createInvalidationListenerCodec() {
+        return new ListenerMessageCodec() {
+            @Override
+            public ClientMessage encodeAddRequest(boolean localOnly) {
+                return MapAddNearCacheInvalidationListenerCodec.encodeRequest(mapName, INVALIDATION.getType(), localOnly);
+            }
+
+            @Override
+            public String decodeAddResponse(ClientMessage clientMessage) {
+                return MapAddNearCacheInvalidationListenerCodec.decodeResponse(clientMessage).response;
+            }
+
+            @Override
+            public ClientMessage encodeRemoveRequest(String realRegistrationId) {
+                return MapRemoveEntryListenerCodec.encodeRequest(mapName, realRegistrationId);
+            }
+
+            @Override
+            public boolean decodeRemoveResponse(ClientMessage clientMessage) {
+                return MapRemoveEntryListenerCodec.decodeResponse(clientMessage).response;
+            }
+        };
+    }
+
+    /**
+     * Drops all cached results on any invalidation, since it is not known which results the changed entries belong to.
+     */
+    private final class InvalidationEventHandler extends MapAddNearCacheInvalidationListenerCodec.AbstractEventHandler
+            implements EventHandler<ClientMessage> {
+
+        @Override
+        public void beforeListenerRegister() {
+            invalidate();
+        }
+
+        @Override
+        public void onListenerRegister() {
+            // the events sent while the listener was not registered are lost
+            invalidate();
+        }
+
+        @Override
+        public void handle(Data key, String sourceUuid, UUID partitionUuid, long sequence) {
+            invalidate();
+        }
+
+        @Override
+        public void handle(Collection<Data> keys, Collection<String> sourceUuids,
+                           Collection<UUID> partitionUuids, Collection<Long> sequences) {
+            invalidate();
+        }
+    }
+
+    private static final class QueryKey {
+
+        private final IterationType iterationType;
+        private final Data predicate;
+        private final Data projection;
+
+        QueryKey(IterationType iterationType, Data predicate, Data projection) {
+            this.iterationType = iterationType;
+            this.predicate = predicate;
+            this.projection = projection;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            QueryKey that = (QueryKey) o;
+            return iterationType == that.iterationType
+                    && (predicate != null ? predicate.equals(that.predicate) : that.predicate == null)
+                    && (projection != null ? projection.equals(that.projection) : that.projection == null);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = iterationType.hashCode();
+            result = 31 * result + (predicate != null ? predicate.hashCode() : 0);
+            result = 31 * result + (projection != null ? projection.hashCode() : 0);
+            return result;
+        }
+    }
+
+    private static final class CachedResult {
+
+        private final Object result;
+        private final long expirationTime;
+
+        CachedResult(Object result, long expirationTime) {
+            this.result = result;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
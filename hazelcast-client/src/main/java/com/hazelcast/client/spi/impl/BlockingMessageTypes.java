@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.spi.impl;
+
+import com.hazelcast.client.impl.protocol.codec.ConditionAwaitCodec;
+import com.hazelcast.client.impl.protocol.codec.CountDownLatchAwaitCodec;
+import com.hazelcast.client.impl.protocol.codec.DurableExecutorRetrieveAndDisposeResultCodec;
+import com.hazelcast.client.impl.protocol.codec.DurableExecutorRetrieveResultCodec;
+import com.hazelcast.client.impl.protocol.codec.ExecutorServiceSubmitToAddressCodec;
+import com.hazelcast.client.impl.protocol.codec.ExecutorServiceSubmitToPartitionCodec;
+import com.hazelcast.client.impl.protocol.codec.LockLockCodec;
+import com.hazelcast.client.impl.protocol.codec.LockTryLockCodec;
+import com.hazelcast.client.impl.protocol.codec.MapLockCodec;
+import com.hazelcast.client.impl.protocol.codec.MapTryLockCodec;
+import com.hazelcast.client.impl.protocol.codec.MapTryPutCodec;
+import com.hazelcast.client.impl.protocol.codec.MapTryRemoveCodec;
+import com.hazelcast.client.impl.protocol.codec.MultiMapLockCodec;
+import com.hazelcast.client.impl.protocol.codec.MultiMapTryLockCodec;
+import com.hazelcast.client.impl.protocol.codec.QueueOfferCodec;
+import com.hazelcast.client.impl.protocol.codec.QueuePollCodec;
+import com.hazelcast.client.impl.protocol.codec.QueuePutCodec;
+import com.hazelcast.client.impl.protocol.codec.QueueTakeCodec;
+import com.hazelcast.client.impl.protocol.codec.RingbufferReadManyCodec;
+import com.hazelcast.client.impl.protocol.codec.RingbufferReadOneCodec;
+import com.hazelcast.client.impl.protocol.codec.ScheduledExecutorGetResultFromAddressCodec;
+import com.hazelcast.client.impl.protocol.codec.ScheduledExecutorGetResultFromPartitionCodec;
+import com.hazelcast.client.impl.protocol.codec.SemaphoreAcquireCodec;
+import com.hazelcast.client.impl.protocol.codec.SemaphoreTryAcquireCodec;
+import com.hazelcast.client.impl.protocol.codec.TransactionalQueueOfferCodec;
+import com.hazelcast.client.impl.protocol.codec.TransactionalQueuePollCodec;
+import com.hazelcast.client.impl.protocol.codec.TransactionalQueueTakeCodec;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+
+/**
+ * The types of the requests whose responses may wait on the member, e.g. for a lock, a queue item or the result of
+ * a task. Their response times tell nothing about the load of the member, so they are not added to the response
+ * latencies of the connections.
+ */
+final class BlockingMessageTypes {
+
+    private static final Set<Integer> TYPES = new HashSet<Integer>(asList(
+            ConditionAwaitCodec.RequestParameters.TYPE.id(),
+            CountDownLatchAwaitCodec.RequestParameters.TYPE.id(),
+            DurableExecutorRetrieveAndDisposeResultCodec.RequestParameters.TYPE.id(),
+            DurableExecutorRetrieveResultCodec.RequestParameters.TYPE.id(),
+            ExecutorServiceSubmitToAddressCodec.RequestParameters.TYPE.id(),
+            ExecutorServiceSubmitToPartitionCodec.RequestParameters.TYPE.id(),
+            LockLockCodec.RequestParameters.TYPE.id(),
+            LockTryLockCodec.RequestParameters.TYPE.id(),
+            MapLockCodec.RequestParameters.TYPE.id(),
+            MapTryLockCodec.RequestParameters.TYPE.id(),
+            MapTryPutCodec.RequestParameters.TYPE.id(),
+            MapTryRemoveCodec.RequestParameters.TYPE.id(),
+            MultiMapLockCodec.RequestParameters.TYPE.id(),
+            MultiMapTryLockCodec.RequestParameters.TYPE.id(),
+            QueueOfferCodec.RequestParameters.TYPE.id(),
+            QueuePollCodec.RequestParameters.TYPE.id(),
+            QueuePutCodec.RequestParameters.TYPE.id(),
+            QueueTakeCodec.RequestParameters.TYPE.id(),
+            RingbufferReadManyCodec.RequestParameters.TYPE.id(),
+            RingbufferReadOneCodec.RequestParameters.TYPE.id(),
+            ScheduledExecutorGetResultFromAddressCodec.RequestParameters.TYPE.id(),
+            ScheduledExecutorGetResultFromPartitionCodec.RequestParameters.TYPE.id(),
+            SemaphoreAcquireCodec.RequestParameters.TYPE.id(),
+            SemaphoreTryAcquireCodec.RequestParameters.TYPE.id(),
+            TransactionalQueueOfferCodec.RequestParameters.TYPE.id(),
+            TransactionalQueuePollCodec.RequestParameters.TYPE.id(),
+            TransactionalQueueTakeCodec.RequestParameters.TYPE.id()));
+
+    private BlockingMessageTypes() {
+    }
+
+    static boolean isBlocking(int messageType) {
+        return TYPES.contains(messageType);
+    }
+}
@@ -30,6 +30,7 @@ import com.hazelcast.nio.Address;
 import com.hazelcast.nio.Connection;
 import com.hazelcast.spi.exception.RetryableException;
 import com.hazelcast.spi.exception.TargetDisconnectedException;
+import com.hazelcast.spi.exception.WrongTargetException;
 
 import java.io.IOException;
 import java.util.concurrent.Executor;
@@ -54,15 +55,20 @@ public class ClientInvocation implements Runnable {
     private final LifecycleService lifecycleService;
     private final ClientInvocationServiceSupport invocationService;
     private final ClientExecutionService executionService;
+    private final ClientPartitionServiceImpl partitionService;
     private final ClientMessage clientMessage;
     private final CallIdSequence callIdSequence;
     private final Address address;
     private final int partitionId;
     private final Connection connection;
     private volatile ClientConnection sendConnection;
+    // the connection whose pending request count includes this invocation while it is registered
+    private volatile ClientConnection pendingRequestConnection;
     private boolean bypassHeartbeatCheck;
     private boolean urgent;
     private long retryTimeoutPointInMillis;
+    // published to the response thread by the write of the request
+    private long sendTimeNanos;
     private EventHandler handler;
 
     protected ClientInvocation(HazelcastClientInstanceImpl client,
@@ -73,6 +79,7 @@ public class ClientInvocation implements Runnable {
         this.lifecycleService = client.getLifecycleService();
         this.invocationService = (ClientInvocationServiceSupport) client.getInvocationService();
         this.executionService = client.getClientExecutionService();
+        this.partitionService = (ClientPartitionServiceImpl) client.getClientPartitionService();
         this.clientMessage = clientMessage;
         this.partitionId = partitionId;
         this.address = address;
@@ -177,6 +184,8 @@ public class ClientInvocation implements Runnable {
             return;
         }
 
+        checkStalePartitionOwner(exception);
+
         if (isRetrySafeException(exception)
                 || invocationService.isRedoOperation()
                 || (exception instanceof TargetDisconnectedException && clientMessage.isRetryable())) {
@@ -230,6 +239,37 @@ public class ClientInvocation implements Runnable {
         return sendConnection;
     }
 
+    void setPendingRequestConnection(ClientConnection connection) {
+        this.pendingRequestConnection = connection;
+    }
+
+    ClientConnection getPendingRequestConnection() {
+        return pendingRequestConnection;
+    }
+
+    void setSendTimeNanos(long sendTimeNanos) {
+        this.sendTimeNanos = sendTimeNanos;
+    }
+
+    long getSendTimeNanos() {
+        return sendTimeNanos;
+    }
+
+    private void checkStalePartitionOwner(Throwable exception) {
+        if (exception instanceof WrongTargetException) {
+            notifyStalePartitionOwner();
+        }
+    }
+
+    /**
+     * Called when the member which received the invocation doesn't own the partition of the invocation.
+     */
+    void notifyStalePartitionOwner() {
+        if (partitionId != UNASSIGNED_PARTITION) {
+            partitionService.onStalePartitionOwner(partitionId);
+        }
+    }
+
     public static boolean isRetrySafeException(Throwable t) {
         return t instanceof IOException
                 || t instanceof HazelcastInstanceNotActiveException
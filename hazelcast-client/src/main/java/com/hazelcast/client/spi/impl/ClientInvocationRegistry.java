@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.spi.impl;
+
+import com.hazelcast.util.QuickMath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps track of the pending {@link ClientInvocation}s by their correlation ids.
+ *
+ * The correlation ids are handed out sequentially, so the invocations are stored in a preallocated array of slots indexed
+ * by the lower bits of the correlation id. Registering and deregistering an invocation is a single CAS on its slot, which
+ * doesn't allocate and doesn't contend with the other invocations. Only if the slot is still taken by an older invocation
+ * which hasn't completed yet, e.g. a blocking lock call, the invocation is stored in an overflow map instead.
+ */
+class ClientInvocationRegistry {
+
+    private final AtomicReferenceArray<ClientInvocation> slots;
+    private final int mask;
+    private final ConcurrentMap<Long, ClientInvocation> overflow = new ConcurrentHashMap<Long, ClientInvocation>();
+
+    ClientInvocationRegistry(int slotCount) {
+        int capacity = QuickMath.nextPowerOfTwo(slotCount);
+        this.slots = new AtomicReferenceArray<ClientInvocation>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    void register(long correlationId, ClientInvocation invocation) {
+        if (!slots.compareAndSet(slotIndex(correlationId), null, invocation)) {
+            overflow.put(correlationId, invocation);
+        }
+    }
+
+    /**
+     * Removes the invocation with the given correlation id.
+     *
+     * Only one of the concurrent callers gets the invocation, so only that caller is allowed to complete it.
+     *
+     * @param correlationId the correlation id of the invocation
+     * @return the removed invocation or {@code null} if there is no invocation with the given correlation id
+     */
+    ClientInvocation deregister(long correlationId) {
+        int index = slotIndex(correlationId);
+        ClientInvocation invocation = slots.get(index);
+        if (invocation != null && invocation.getClientMessage().getCorrelationId() == correlationId) {
+            return slots.compareAndSet(index, invocation, null) ? invocation : null;
+        }
+        return overflow.remove(correlationId);
+    }
+
+    /**
+     * Returns a snapshot of the pending invocations.
+     */
+    Collection<ClientInvocation> invocations() {
+        List<ClientInvocation> invocations = new ArrayList<ClientInvocation>(overflow.values());
+        for (int i = 0; i < slots.length(); i++) {
+            ClientInvocation invocation = slots.get(i);
+            if (invocation != null) {
+                invocations.add(invocation);
+            }
+        }
+        return invocations;
+    }
+
+    int size() {
+        int size = overflow.size();
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private int slotIndex(long correlationId) {
+        return (int) (correlationId & mask);
+    }
+}
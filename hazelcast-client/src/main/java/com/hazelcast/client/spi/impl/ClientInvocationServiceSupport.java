@@ -37,15 +37,13 @@ import com.hazelcast.spi.properties.HazelcastProperty;
 
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.Map;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.client.spi.properties.ClientProperty.INVOCATION_TIMEOUT_SECONDS;
+import static com.hazelcast.client.spi.properties.ClientProperty.IO_WRITE_COALESCING_WINDOW_MICROS;
+import static com.hazelcast.client.spi.properties.ClientProperty.RESPONSE_ON_IO_THREAD_ENABLED;
 import static com.hazelcast.instance.OutOfMemoryErrorDispatcher.onOutOfMemory;
 import static com.hazelcast.spi.impl.operationservice.impl.AsyncInboundResponseHandler.getIdleStrategy;
 
@@ -54,6 +52,9 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
     private static final HazelcastProperty IDLE_STRATEGY
             = new HazelcastProperty("hazelcast.client.responsequeue.idlestrategy", "block");
 
+    private static final HazelcastProperty INVOCATION_REGISTRY_SLOT_COUNT
+            = new HazelcastProperty("hazelcast.client.invocation.registry.slot.count", 4096);
+
     private static final int WAIT_TIME_FOR_PACKETS_TO_BE_CONSUMED_THRESHOLD = 5000;
 
     protected final HazelcastClientInstanceImpl client;
@@ -63,10 +64,14 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
     protected ClientPartitionService partitionService;
     private ClientListenerServiceImpl clientListenerService;
 
-    @Probe(name = "pendingCalls", level = ProbeLevel.MANDATORY)
-    private ConcurrentMap<Long, ClientInvocation> callIdMap = new ConcurrentHashMap<Long, ClientInvocation>();
+    private final ClientInvocationRegistry invocationRegistry;
+    // when set, the responses are processed on the IO thread instead of being handed over to the response thread
+    private final boolean responseOnIOThread;
+    // only the smart clients send the invocations to the partition owners, the others don't care about stale owners
+    private final boolean smartRouting;
 
     private ResponseThread responseThread;
+    private ClientMessageCoalescer coalescer;
 
     private volatile boolean isShutdown;
     private final long invocationTimeoutMillis;
@@ -75,9 +80,18 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
         this.client = client;
         this.invocationLogger = client.getLoggingService().getLogger(ClientInvocationService.class);
         this.invocationTimeoutMillis = initInvocationTimeoutMillis();
+        this.invocationRegistry = new ClientInvocationRegistry(
+                client.getProperties().getInteger(INVOCATION_REGISTRY_SLOT_COUNT));
+        this.responseOnIOThread = client.getProperties().getBoolean(RESPONSE_ON_IO_THREAD_ENABLED);
+        this.smartRouting = client.getClientConfig().getNetworkConfig().isSmartRouting();
         client.getMetricsRegistry().scanAndRegister(this, "invocations");
     }
 
+    @Probe(name = "pendingCalls", level = ProbeLevel.MANDATORY)
+    private int pendingCalls() {
+        return invocationRegistry.size();
+    }
+
     private long initInvocationTimeoutMillis() {
         long waitTime = client.getProperties().getMillis(INVOCATION_TIMEOUT_SECONDS);
         return waitTime > 0 ? waitTime : Integer.parseInt(INVOCATION_TIMEOUT_SECONDS.getDefaultValue());
@@ -88,9 +102,18 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
         connectionManager = client.getConnectionManager();
         clientListenerService = (ClientListenerServiceImpl) client.getListenerService();
         partitionService = client.getClientPartitionService();
-        responseThread = new ResponseThread(client.getThreadGroup(), client.getName() + ".response-",
-                client.getClientConfig().getClassLoader());
-        responseThread.start();
+        if (!responseOnIOThread) {
+            responseThread = new ResponseThread(client.getThreadGroup(), client.getName() + ".response-",
+                    client.getClientConfig().getClassLoader());
+            responseThread.start();
+        }
+        long coalescingWindowNanos = client.getProperties().getNanos(IO_WRITE_COALESCING_WINDOW_MICROS);
+        if (coalescingWindowNanos > 0) {
+            coalescer = new ClientMessageCoalescer(coalescingWindowNanos, client.getThreadGroup(),
+                    client.getName() + ".coalescer", client.getClientConfig().getClassLoader(), invocationLogger);
+            client.getMetricsRegistry().scanAndRegister(coalescer, "invocations.coalescer");
+            coalescer.start();
+        }
         ClientExecutionService executionService = client.getClientExecutionService();
         executionService.scheduleWithRepetition(new CleanResourcesTask(), 1, 1, TimeUnit.SECONDS);
     }
@@ -104,9 +127,13 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
         if (isShutdown) {
             throw new HazelcastClientNotActiveException("Client is shut down");
         }
+        // counted before the invocation is registered, since every path deregistering it decrements the count
+        connection.incrementPendingRequestCount();
+        invocation.setPendingRequestConnection(connection);
         registerInvocation(invocation);
 
         ClientMessage clientMessage = invocation.getClientMessage();
+        invocation.setSendTimeNanos(System.nanoTime());
         if (!isAllowedToSendRequest(connection, invocation) || !writeToConnection(connection, clientMessage)) {
             final long callId = clientMessage.getCorrelationId();
             ClientInvocation clientInvocation = deRegisterCallId(callId);
@@ -125,6 +152,9 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
 
     private boolean writeToConnection(ClientConnection connection, ClientMessage clientMessage) {
         clientMessage.addFlag(ClientMessage.BEGIN_AND_END_FLAGS);
+        if (coalescer != null) {
+            return coalescer.write(connection, clientMessage);
+        }
         return connection.write(clientMessage);
     }
 
@@ -150,15 +180,23 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
         ClientMessage clientMessage = clientInvocation.getClientMessage();
         clientMessage.setVersion(protocolVersion);
         long correlationId = clientMessage.getCorrelationId();
-        callIdMap.put(correlationId, clientInvocation);
+        invocationRegistry.register(correlationId, clientInvocation);
         EventHandler handler = clientInvocation.getEventHandler();
         if (handler != null) {
             clientListenerService.addEventHandler(correlationId, handler);
         }
     }
 
+    /**
+     * Removes the invocation from the registry. Is called on each path completing an invocation, so it also removes the
+     * invocation from the pending request count of its connection.
+     */
     private ClientInvocation deRegisterCallId(long callId) {
-        return callIdMap.remove(callId);
+        ClientInvocation invocation = invocationRegistry.deregister(callId);
+        if (invocation != null) {
+            invocation.getPendingRequestConnection().decrementPendingRequestCount();
+        }
+        return invocation;
     }
 
     public boolean isShutdown() {
@@ -168,25 +206,32 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
     @Override
     public void shutdown() {
         isShutdown = true;
-        responseThread.interrupt();
-        Iterator<ClientInvocation> iterator = callIdMap.values().iterator();
-        while (iterator.hasNext()) {
-            ClientInvocation invocation = iterator.next();
-            iterator.remove();
-            invocation.notifyException(new HazelcastClientNotActiveException("Client is shutting down"));
+        if (responseThread != null) {
+            responseThread.interrupt();
+        }
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+        for (ClientInvocation invocation : invocationRegistry.invocations()) {
+            if (deRegisterCallId(invocation.getClientMessage().getCorrelationId()) == invocation) {
+                invocation.notifyException(new HazelcastClientNotActiveException("Client is shutting down"));
+            }
         }
-        assert callIdMap.isEmpty();
     }
 
     private class CleanResourcesTask implements Runnable {
 
         @Override
         public void run() {
-            Iterator<Map.Entry<Long, ClientInvocation>> iter = callIdMap.entrySet().iterator();
+            cleanupInvocations();
+            if (coalescer != null) {
+                coalescer.cleanup();
+            }
+        }
+
+        private void cleanupInvocations() {
             Collection<ClientConnection> expiredConnections = null;
-            while (iter.hasNext()) {
-                Map.Entry<Long, ClientInvocation> entry = iter.next();
-                ClientInvocation invocation = entry.getValue();
+            for (ClientInvocation invocation : invocationRegistry.invocations()) {
                 ClientConnection connection = invocation.getSendConnection();
                 if (connection == null) {
                     continue;
@@ -209,8 +254,6 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
                     }
                 }
 
-                iter.remove();
-
                 notifyException(invocation, connection);
             }
             if (expiredConnections != null) {
@@ -219,6 +262,11 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
         }
 
         private void notifyException(ClientInvocation invocation, ClientConnection connection) {
+            if (deRegisterCallId(invocation.getClientMessage().getCorrelationId()) != invocation) {
+                // the response has been received in the meantime
+                return;
+            }
+
             Exception ex;
             /**
              * Connection may be closed(e.g. remote member shutdown) in which case the isAlive is set to false or the
@@ -248,7 +296,44 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
 
     @Override
     public void handleClientMessage(ClientMessage message, Connection connection) {
-        responseThread.responseQueue.add(new ClientPacket((ClientConnection) connection, message));
+        if (responseOnIOThread) {
+            process((ClientConnection) connection, message);
+        } else {
+            responseThread.responseQueue.add(new ClientPacket((ClientConnection) connection, message));
+        }
+    }
+
+    private void process(ClientConnection connection, ClientMessage clientMessage) {
+        try {
+            handleResponse(connection, clientMessage);
+        } catch (Exception e) {
+            invocationLogger.severe("Failed to process response: " + clientMessage + " on thread: "
+                    + Thread.currentThread().getName(), e);
+        } finally {
+            connection.decrementPendingPacketCount();
+        }
+    }
+
+    private void handleResponse(ClientConnection connection, ClientMessage clientMessage) {
+        long correlationId = clientMessage.getCorrelationId();
+
+        final ClientInvocation future = deRegisterCallId(correlationId);
+        if (future == null) {
+            invocationLogger.warning("No call for callId: " + correlationId + ", response: " + clientMessage);
+            return;
+        }
+        if (!BlockingMessageTypes.isBlocking(future.getClientMessage().getMessageType())) {
+            connection.updateResponseLatency(System.nanoTime() - future.getSendTimeNanos());
+        }
+        if (smartRouting && clientMessage.isFlagSet(ClientMessage.STALE_PARTITION_OWNER_FLAG)) {
+            future.notifyStalePartitionOwner();
+        }
+        if (ErrorCodec.TYPE == clientMessage.getMessageType()) {
+            Throwable exception = client.getClientExceptionFactory().createException(clientMessage);
+            future.notifyException(exception);
+        } else {
+            future.notify(clientMessage);
+        }
     }
 
     public long getInvocationTimeoutMillis() {
@@ -311,34 +396,7 @@ abstract class ClientInvocationServiceSupport implements ClientInvocationService
                 if (isShutdown) {
                     return;
                 }
-                process(task);
-            }
-        }
-
-        private void process(ClientPacket packet) {
-            final ClientConnection conn = packet.getClientConnection();
-            try {
-                handleClientMessage(packet.getClientMessage());
-            } catch (Exception e) {
-                invocationLogger.severe("Failed to process task: " + packet + " on responseThread: " + getName(), e);
-            } finally {
-                conn.decrementPendingPacketCount();
-            }
-        }
-
-        private void handleClientMessage(ClientMessage clientMessage) {
-            long correlationId = clientMessage.getCorrelationId();
-
-            final ClientInvocation future = deRegisterCallId(correlationId);
-            if (future == null) {
-                invocationLogger.warning("No call for callId: " + correlationId + ", response: " + clientMessage);
-                return;
-            }
-            if (ErrorCodec.TYPE == clientMessage.getMessageType()) {
-                Throwable exception = client.getClientExceptionFactory().createException(clientMessage);
-                future.notifyException(exception);
-            } else {
-                future.notify(clientMessage);
+                process(task.getClientConnection(), task.getClientMessage());
             }
         }
     }
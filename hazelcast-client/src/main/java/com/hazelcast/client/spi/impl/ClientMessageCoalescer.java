@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.spi.impl;
+
+import com.hazelcast.client.connection.nio.ClientConnection;
+import com.hazelcast.client.connection.nio.ClientMessageBatch;
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.instance.OutOfMemoryErrorDispatcher.onOutOfMemory;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+
+/**
+ * Coalesces the request messages bound for the same connection within a small time window, so they are written to the
+ * connection as a single {@link ClientMessageBatch} instead of one write (and IO thread wake-up) per message.
+ *
+ * The first message sent to an idle connection schedules a flush of that connection at the end of the window; all
+ * messages sent to the connection until then are part of the same batch. The flushes are done by a single thread, in
+ * the order they were scheduled in.
+ *
+ * @see com.hazelcast.client.spi.properties.ClientProperty#IO_WRITE_COALESCING_WINDOW_MICROS
+ */
+class ClientMessageCoalescer {
+
+    private final ConstructorFunction<ClientConnection, PendingMessages> pendingMessagesConstructor
+            = new ConstructorFunction<ClientConnection, PendingMessages>() {
+        @Override
+        public PendingMessages createNew(ClientConnection connection) {
+            return new PendingMessages(connection);
+        }
+    };
+
+    private final ConcurrentMap<ClientConnection, PendingMessages> pendingMessagesMap
+            = new ConcurrentHashMap<ClientConnection, PendingMessages>();
+    private final BlockingQueue<PendingMessages> flushQueue = new LinkedBlockingQueue<PendingMessages>();
+    private final long windowNanos;
+    private final ILogger logger;
+    private final FlushThread flushThread;
+
+    @Probe(name = "batchCount")
+    private final SwCounter batchCount = newSwCounter();
+    @Probe(name = "batchedMessageCount")
+    private final SwCounter batchedMessageCount = newSwCounter();
+
+    private volatile boolean shutdown;
+
+    ClientMessageCoalescer(long windowNanos, ThreadGroup threadGroup, String threadName, ClassLoader classLoader,
+                           ILogger logger) {
+        this.windowNanos = windowNanos;
+        this.logger = logger;
+        this.flushThread = new FlushThread(threadGroup, threadName, classLoader);
+    }
+
+    void start() {
+        flushThread.start();
+    }
+
+    void shutdown() {
+        shutdown = true;
+        flushThread.interrupt();
+    }
+
+    /**
+     * Adds the message to the batch of the connection.
+     *
+     * @param connection the connection to write the message to
+     * @param message    the message to write
+     * @return {@code false} if the connection is not alive anymore, {@code true} otherwise
+     */
+    boolean write(ClientConnection connection, ClientMessage message) {
+        if (!connection.isAlive()) {
+            return false;
+        }
+
+        PendingMessages pendingMessages = getOrPutIfAbsent(pendingMessagesMap, connection, pendingMessagesConstructor);
+        pendingMessages.queue.offer(message);
+        if (pendingMessages.scheduled.compareAndSet(false, true)) {
+            pendingMessages.deadlineNanos = System.nanoTime() + windowNanos;
+            flushQueue.offer(pendingMessages);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the state of the connections which are not alive anymore.
+     */
+    void cleanup() {
+        Iterator<ClientConnection> iterator = pendingMessagesMap.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().isAlive()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private final class PendingMessages {
+
+        private final ClientConnection connection;
+        private final Queue<ClientMessage> queue = new ConcurrentLinkedQueue<ClientMessage>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // written before the instance is offered to the flushQueue, so it is visible to the flush thread
+        private long deadlineNanos;
+
+        private PendingMessages(ClientConnection connection) {
+            this.connection = connection;
+        }
+
+        private void flush() {
+            // unscheduled before draining, so a message which misses this batch will schedule the next one
+            scheduled.set(false);
+
+            List<ClientMessage> messages = new ArrayList<ClientMessage>(queue.size());
+            for (ClientMessage message = queue.poll(); message != null; message = queue.poll()) {
+                messages.add(message);
+            }
+
+            // if the connection is not alive, the invocations are cleaned up by the invocation service
+            if (messages.size() == 1) {
+                connection.write(messages.get(0));
+            } else if (messages.size() > 1) {
+                batchCount.inc();
+                batchedMessageCount.inc(messages.size());
+                connection.write(new ClientMessageBatch(messages));
+            }
+        }
+    }
+
+    private final class FlushThread extends Thread {
+
+        private FlushThread(ThreadGroup threadGroup, String name, ClassLoader classLoader) {
+            super(threadGroup, name);
+            setContextClassLoader(classLoader);
+        }
+
+        @Override
+        public void run() {
+            try {
+                doRun();
+            } catch (OutOfMemoryError e) {
+                onOutOfMemory(e);
+            } catch (Throwable t) {
+                logger.severe(t);
+            }
+        }
+
+        private void doRun() {
+            while (!shutdown) {
+                PendingMessages pendingMessages;
+                try {
+                    pendingMessages = flushQueue.take();
+                } catch (InterruptedException e) {
+                    continue;
+                }
+
+                for (long delayNanos = pendingMessages.deadlineNanos - System.nanoTime(); delayNanos > 0 && !shutdown;
+                     delayNanos = pendingMessages.deadlineNanos - System.nanoTime()) {
+                    LockSupport.parkNanos(delayNanos);
+                }
+                pendingMessages.flush();
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.codec.ClientGetPartitionsCodec;
 import com.hazelcast.client.spi.ClientClusterService;
 import com.hazelcast.client.spi.ClientPartitionService;
+import com.hazelcast.client.spi.properties.ClientProperty;
 import com.hazelcast.cluster.memberselector.MemberSelectors;
 import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.Member;
@@ -30,11 +31,14 @@ import com.hazelcast.nio.Address;
 import com.hazelcast.nio.Connection;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.partition.NoDataMemberInClusterException;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.util.Clock;
 import com.hazelcast.util.EmptyStatement;
 import com.hazelcast.util.HashUtil;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -49,37 +53,70 @@ public final class ClientPartitionServiceImpl implements ClientPartitionService
     private static final long PERIOD = 10;
     private static final long INITIAL_DELAY = 10;
     private static final int PARTITION_WAIT_TIME = 1000;
+    private static final long PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(PERIOD);
 
     private final ExecutionCallback<ClientMessage> refreshTaskCallback = new RefreshTaskCallback();
     private final ConcurrentHashMap<Integer, Address> partitions = new ConcurrentHashMap<Integer, Address>(271, 0.75f, 1);
     private final AtomicBoolean updating = new AtomicBoolean(false);
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean(false);
+    private final Random random = new Random();
     private final ClientExecutionServiceImpl clientExecutionService ;
     private final HazelcastClientInstanceImpl client;
     private final ILogger logger;
+    private final long maxRefreshPeriodMillis;
+    private final int refreshJitterMillis;
 
     private volatile int partitionCount;
+    private volatile long refreshPeriodMillis = PERIOD_MILLIS;
+    private volatile long nextPeriodicRefreshMillis;
 
     public ClientPartitionServiceImpl(HazelcastClientInstanceImpl client) {
         this.client = client;
         this.logger = client.getLoggingService().getLogger(ClientPartitionService.class);
         clientExecutionService = (ClientExecutionServiceImpl) client.getClientExecutionService();
+        HazelcastProperties properties = client.getProperties();
+        this.maxRefreshPeriodMillis = Math.max(PERIOD_MILLIS,
+                properties.getMillis(ClientProperty.PARTITION_REFRESH_MAX_PERIOD_SECONDS));
+        this.refreshJitterMillis = (int) properties.getMillis(ClientProperty.PARTITION_REFRESH_JITTER_MILLIS);
     }
 
     public void start() {
         // use internal execution service for all partition refresh process (do not use the user executor thread)
-        clientExecutionService.scheduleWithRepetition(new RefreshTask(), INITIAL_DELAY, PERIOD, TimeUnit.SECONDS);
+        clientExecutionService.scheduleWithRepetition(new PeriodicRefreshTask(), INITIAL_DELAY, PERIOD, TimeUnit.SECONDS);
     }
 
+    /**
+     * Fetches the partition table, after a random delay when the refresh jitter is configured. The refreshes requested
+     * while one is already waiting are merged into it.
+     */
     public void refreshPartitions() {
-        ClientExecutionServiceImpl executionService = (ClientExecutionServiceImpl) client.getClientExecutionService();
         try {
             // use internal execution service for all partition refresh process (do not use the user executor thread)
-            executionService.execute(new RefreshTask());
+            if (refreshJitterMillis <= 0) {
+                clientExecutionService.execute(new RefreshTask());
+            } else if (refreshScheduled.compareAndSet(false, true)) {
+                clientExecutionService.schedule(new DelayedRefreshTask(), random.nextInt(refreshJitterMillis) + 1,
+                        TimeUnit.MILLISECONDS);
+            }
         } catch (RejectedExecutionException ignored) {
+            refreshScheduled.set(false);
             EmptyStatement.ignore(ignored);
         }
     }
 
+    /**
+     * Called when an invocation was sent to a member which doesn't own the partition, so the partition table of this
+     * client is stale.
+     *
+     * @param partitionId the ID of the partition whose owner was wrong
+     */
+    void onStalePartitionOwner(int partitionId) {
+        if (logger.isFinestEnabled()) {
+            logger.finest("Owner of partition " + partitionId + " is stale, refreshing the partition table.");
+        }
+        refreshPartitions();
+    }
+
     private void getPartitionsBlocking() {
         while (!getPartitions() && client.getConnectionManager().isAlive()) {
             if (isClusterFormedByOnlyLiteMembers()) {
@@ -141,16 +178,28 @@ public final class ClientPartitionServiceImpl implements ClientPartitionService
     private boolean processPartitionResponse(ClientGetPartitionsCodec.ResponseParameters response) {
         logger.finest("Processing partition response.");
         List<Map.Entry<Address, List<Integer>>> partitions = response.partitions;
+        boolean changed = false;
         for (Map.Entry<Address, List<Integer>> entry : partitions) {
             Address address = entry.getKey();
             for (Integer partition : entry.getValue()) {
-                this.partitions.put(partition, address);
+                Address previous = this.partitions.put(partition, address);
+                changed |= !address.equals(previous);
             }
         }
         partitionCount = this.partitions.size();
+        updateRefreshPeriod(changed || partitions.isEmpty());
         return partitions.size() > 0;
     }
 
+    /**
+     * Backs off the periodic refresh while the fetched partition table stays the same.
+     */
+    private void updateRefreshPeriod(boolean changed) {
+        long period = changed ? PERIOD_MILLIS : Math.min(refreshPeriodMillis * 2, maxRefreshPeriodMillis);
+        refreshPeriodMillis = period;
+        nextPeriodicRefreshMillis = Clock.currentTimeMillis() + period;
+    }
+
     public void stop() {
         partitions.clear();
     }
@@ -221,6 +270,27 @@ public final class ClientPartitionServiceImpl implements ClientPartitionService
         }
     }
 
+    private final class PeriodicRefreshTask implements Runnable {
+
+        @Override
+        public void run() {
+            // the task runs with the base period, the refresh is skipped until the backed off period has passed
+            if (Clock.currentTimeMillis() + PERIOD_MILLIS / 2 < nextPeriodicRefreshMillis) {
+                return;
+            }
+            new RefreshTask().run();
+        }
+    }
+
+    private final class DelayedRefreshTask implements Runnable {
+
+        @Override
+        public void run() {
+            refreshScheduled.set(false);
+            new RefreshTask().run();
+        }
+    }
+
     private final class RefreshTask implements Runnable {
 
         private RefreshTask() {
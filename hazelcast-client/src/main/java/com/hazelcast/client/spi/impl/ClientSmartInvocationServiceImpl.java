@@ -45,7 +45,7 @@ public final class ClientSmartInvocationServiceImpl extends ClientInvocationServ
         }
         invocation.getClientMessage().setPartitionId(partitionId);
         Connection connection = getOrTriggerConnect(owner);
-        send(invocation, (ClientConnection) connection);
+        send(invocation, connectionManager.selectConnection((ClientConnection) connection, partitionId));
     }
 
     @Override
@@ -55,7 +55,7 @@ public final class ClientSmartInvocationServiceImpl extends ClientInvocationServ
             throw new IOException("Not address found to invoke ");
         }
         final Connection connection = getOrTriggerConnect(randomAddress);
-        send(invocation, (ClientConnection) connection);
+        send(invocation, connectionManager.selectConnection((ClientConnection) connection, -1));
     }
 
     @Override
@@ -78,7 +78,7 @@ public final class ClientSmartInvocationServiceImpl extends ClientInvocationServ
             throw new TargetNotMemberException("Target :  " + target + " is not member. ");
         }
         final Connection connection = getOrTriggerConnect(target);
-        invokeOnConnection(invocation, (ClientConnection) connection);
+        invokeOnConnection(invocation, connectionManager.selectConnection((ClientConnection) connection, -1));
     }
 
     private Connection getOrTriggerConnect(Address target) throws IOException {
@@ -18,6 +18,7 @@ package com.hazelcast.client.spi.properties;
 
 import com.hazelcast.spi.properties.HazelcastProperty;
 
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -139,6 +140,99 @@ public final class ClientProperty {
     public static final HazelcastProperty IO_BALANCER_INTERVAL_SECONDS
             = new HazelcastProperty("hazelcast.client.io.balancer.interval.seconds", 20, SECONDS);
 
+    /**
+     * The time window in microseconds in which the requests bound for the same connection are coalesced into a single
+     * write. When the window expires, all requests which were sent within the window are written to the connection
+     * together, so the members receive and decode them in a single read.
+     * <p/>
+     * Coalescing reduces the number of writes and IO thread wake-ups on both the client and the members when a lot of
+     * small (async) requests are sent, at the cost of adding up to the window to the latency of each request.
+     * <p/>
+     * The default is 0, which disables coalescing.
+     */
+    public static final HazelcastProperty IO_WRITE_COALESCING_WINDOW_MICROS
+            = new HazelcastProperty("hazelcast.client.io.write.coalescing.window.micros", 0, MICROSECONDS);
+
+    /**
+     * Sends the bulk map operations, such as {@code getAll}, {@code putAll} and {@code executeOnKeys}, as a single request
+     * per member, carrying the keys of all partitions the member owns, instead of a request per partition. The member
+     * processes the partitions in parallel on their partition threads and returns a single response.
+     * <p/>
+     * This reduces a bulk call to roughly one round trip per member. It is only used with smart routing and requires all
+     * members to support it, so it is disabled by default.
+     */
+    public static final HazelcastProperty MAP_BULK_MEMBER_ROUTING_ENABLED
+            = new HazelcastProperty("hazelcast.client.map.bulk.member.routing.enabled", false);
+
+    /**
+     * Completes the invocations directly on the IO thread which reads their responses, instead of handing the responses
+     * over to the response thread. This saves a thread hand-off per response, at the cost of the IO thread not reading
+     * from its connections while it completes the invocations.
+     * <p/>
+     * The callbacks registered on the futures are still run on their executors.
+     */
+    public static final HazelcastProperty RESPONSE_ON_IO_THREAD_ENABLED
+            = new HazelcastProperty("hazelcast.client.response.io.thread.enabled", false);
+
+    /**
+     * Maximum number of connections the client opens to a single member when smart routing is used. The first connection
+     * is the regular one, which also carries the listeners and the cluster views. The additional connections are opened
+     * when the load on the connections of a member grows, and closed again when they become idle.
+     * <p/>
+     * Partition invocations are spread over the connections by partition ID, so the invocations of the same partition
+     * keep their order. The other invocations are sent over the connection with the fewest outstanding invocations.
+     * <p/>
+     * The default is {@code 1}, which disables the additional connections.
+     */
+    public static final HazelcastProperty MAX_CONNECTIONS_PER_MEMBER
+            = new HazelcastProperty("hazelcast.client.max.connections.per.member", 1);
+
+    /**
+     * Maximum period between the periodic partition table fetches of the client, in seconds.
+     * <p/>
+     * The client fetches the partition table every 10 seconds. When it is above 10 seconds, the period is doubled after
+     * each fetch which didn't change the table, up to this maximum, and set back to 10 seconds when the table changes.
+     * A table which became stale in between is still fetched right away, when an invocation is sent to a member which
+     * no longer owns the partition, and when the members change.
+     * <p/>
+     * The default is {@code 10}, which keeps the period fixed.
+     */
+    public static final HazelcastProperty PARTITION_REFRESH_MAX_PERIOD_SECONDS
+            = new HazelcastProperty("hazelcast.client.partition.refresh.max.period.seconds", 10, SECONDS);
+
+    /**
+     * Upper bound of the random delay, in milliseconds, before the client fetches the partition table after it noticed
+     * a change in the cluster. The fetches triggered during the delay are merged into one.
+     * <p/>
+     * This spreads the partition table requests of many clients, which all see a membership change at the same time,
+     * over the given interval. The default is {@code 0}, which fetches the table right away.
+     */
+    public static final HazelcastProperty PARTITION_REFRESH_JITTER_MILLIS
+            = new HazelcastProperty("hazelcast.client.partition.refresh.jitter.millis", 0, MILLISECONDS);
+
+    /**
+     * Time to live of the query results cached by the client, in seconds.
+     * <p/>
+     * When it is above 0, the results of {@code IMap.keySet}, {@code values}, {@code entrySet} and {@code project} with a
+     * predicate and/or projection are cached per map, predicate and projection, and the same query is answered from the
+     * cache until the result expires. Paging predicates are not cached.
+     * <p/>
+     * The cached results of a map are dropped when the map is changed. The client learns about the changes through the
+     * same invalidation events as the Near Cache, which the members may send in batches, so a cached result can be stale
+     * until the next batch or its expiry.
+     * <p/>
+     * The default is {@code 0}, which disables the cache.
+     */
+    public static final HazelcastProperty MAP_QUERY_RESULT_CACHE_TTL_SECONDS
+            = new HazelcastProperty("hazelcast.client.map.query.result.cache.ttl.seconds", 0, SECONDS);
+
+    /**
+     * Maximum number of query results cached per map, see {@link #MAP_QUERY_RESULT_CACHE_TTL_SECONDS}. The results of
+     * further queries are not cached until some of the cached ones expire or are dropped.
+     */
+    public static final HazelcastProperty MAP_QUERY_RESULT_CACHE_MAX_ENTRIES
+            = new HazelcastProperty("hazelcast.client.map.query.result.cache.max.entries", 100);
+
 
     private ClientProperty() {
     }
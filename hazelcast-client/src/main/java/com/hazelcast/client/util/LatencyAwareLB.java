@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.util;
+
+import com.hazelcast.client.connection.ClientConnectionManager;
+import com.hazelcast.client.connection.nio.ClientConnection;
+import com.hazelcast.client.impl.HazelcastClientInstanceImpl;
+import com.hazelcast.client.impl.HazelcastClientProxy;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceAware;
+import com.hazelcast.core.Member;
+
+import java.util.Random;
+
+/**
+ * A {@link com.hazelcast.client.LoadBalancer} that selects the less loaded one of two randomly chosen members.
+ * <p/>
+ * The load of a member is estimated from the connections of the client to it, including the pooled ones, as the average
+ * of their moving averages of the response times multiplied by their number of outstanding requests plus one. The
+ * requests which may wait on the member, e.g. for a lock, don't count in the response times. Comparing only two random
+ * members keeps the load away from a slow member, e.g. one in a long GC pause, without sending all the load to the
+ * fastest member.
+ * <p/>
+ * The heartbeats keep the response times of the members which are not selected up to date. A member without a live
+ * connection is only selected if the other chosen member has no live connection either.
+ */
+public class LatencyAwareLB extends AbstractLoadBalancer implements HazelcastInstanceAware {
+
+    private final Random random = new Random();
+    private volatile ClientConnectionManager connectionManager;
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance hazelcastInstance) {
+        HazelcastClientInstanceImpl client = hazelcastInstance instanceof HazelcastClientProxy
+                ? ((HazelcastClientProxy) hazelcastInstance).client
+                : (HazelcastClientInstanceImpl) hazelcastInstance;
+        connectionManager = client.getConnectionManager();
+    }
+
+    @Override
+    public Member next() {
+        Member[] members = getMembers();
+        if (members == null || members.length == 0) {
+            return null;
+        }
+        if (members.length == 1) {
+            return members[0];
+        }
+        int first = random.nextInt(members.length);
+        int second = random.nextInt(members.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        return getLoad(members[second]) < getLoad(members[first]) ? members[second] : members[first];
+    }
+
+    private long getLoad(Member member) {
+        ClientConnectionManager connectionManager = this.connectionManager;
+        if (connectionManager == null) {
+            return 0;
+        }
+        ClientConnection connection = (ClientConnection) connectionManager.getConnection(member.getAddress());
+        if (connection == null || !connection.isAlive() || !connection.isHeartBeating()) {
+            return Long.MAX_VALUE;
+        }
+        long latencySum = connection.getResponseLatencyNanos();
+        int latencyCount = latencySum > 0 ? 1 : 0;
+        long pending = connection.getPendingRequestCount();
+        for (ClientConnection pooled : connectionManager.getPooledConnections(connection.getEndPoint())) {
+            long latency = pooled.getResponseLatencyNanos();
+            if (latency > 0) {
+                latencySum += latency;
+                latencyCount++;
+            }
+            pending += pooled.getPendingRequestCount();
+        }
+        long latency = latencyCount == 0 ? 0 : latencySum / latencyCount;
+        return latency * (pending + 1);
+    }
+}
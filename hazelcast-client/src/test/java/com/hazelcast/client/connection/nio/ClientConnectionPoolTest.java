@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.connection.nio;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.spi.properties.ClientProperty;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.core.ILock;
+import com.hazelcast.core.IMap;
+import com.hazelcast.nio.Address;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.client.impl.ClientTestUtil.getHazelcastClientInstanceImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientConnectionPoolTest extends HazelcastTestSupport {
+
+    private static final int KEY_COUNT = 1000;
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+    private HazelcastInstance member;
+    private Address memberAddress;
+
+    @Before
+    public void setup() {
+        member = hazelcastFactory.newHazelcastInstance();
+        memberAddress = member.getCluster().getLocalMember().getAddress();
+    }
+
+    @After
+    public void tearDown() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void testPoolIsNotUsedByDefault() {
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient();
+        putAll(client.<Integer, Integer>getMap(randomMapName()));
+
+        assertEquals(0, getClientConnectionManager(client).getPooledConnectionCount(memberAddress));
+    }
+
+    @Test
+    public void testPoolGrowsUnderLoad() {
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient(newClientConfig("60"));
+        final IMap<Integer, Integer> map = client.getMap(randomMapName());
+        final ClientConnectionManagerImpl connectionManager = getClientConnectionManager(client);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                putAll(map);
+                assertEquals(2, connectionManager.getPooledConnectionCount(memberAddress));
+            }
+        });
+    }
+
+    @Test
+    public void testPoolShrinksWhenIdle() {
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient(newClientConfig("1"));
+        final IMap<Integer, Integer> map = client.getMap(randomMapName());
+        final ClientConnectionManagerImpl connectionManager = getClientConnectionManager(client);
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                putAll(map);
+                assertEquals(2, connectionManager.getPooledConnectionCount(memberAddress));
+            }
+        });
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(0, connectionManager.getPooledConnectionCount(memberAddress));
+            }
+        });
+        assertEquals(KEY_COUNT, map.size());
+    }
+
+    @Test
+    public void testPartitionsKeepTheirConnections_whilePoolIsInUse() {
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient(newClientConfig("60"));
+        final IMap<Integer, Integer> map = client.getMap(randomMapName());
+        final ClientConnectionManagerImpl connectionManager = getClientConnectionManager(client);
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                putAll(map);
+                assertEquals(2, connectionManager.getPooledConnectionCount(memberAddress));
+            }
+        });
+        ClientConnection connection = connectionManager.getConnection(memberAddress);
+        int partitionCount = getHazelcastClientInstanceImpl(client).getClientPartitionService().getPartitionCount();
+        ClientConnection[] selected = new ClientConnection[partitionCount];
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            selected[partitionId] = connectionManager.selectConnection(connection, partitionId);
+        }
+
+        putAll(map);
+
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            assertSame(selected[partitionId], connectionManager.selectConnection(connection, partitionId));
+        }
+    }
+
+    @Test
+    public void testPendingRequestCount_whenConnectionIsClosedWithOutstandingInvocation() {
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient();
+        String lockName = randomName();
+        member.getLock(lockName).lock();
+        final ILock lock = client.getLock(lockName);
+        spawn(new Runnable() {
+            @Override
+            public void run() {
+                lock.lock();
+            }
+        });
+        final ClientConnection connection = getClientConnectionManager(client).getConnection(memberAddress);
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(1, connection.getPendingRequestCount());
+            }
+        });
+
+        connection.close("Closed by the test", null);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(0, connection.getPendingRequestCount());
+            }
+        });
+    }
+
+    @Test
+    public void testOperationsOverPooledConnections() throws Exception {
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient(newClientConfig("60"));
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+
+        for (int round = 0; round < 10; round++) {
+            List<ICompletableFuture<Integer>> futures = new ArrayList<ICompletableFuture<Integer>>(KEY_COUNT);
+            for (int i = 0; i < KEY_COUNT; i++) {
+                futures.add(map.putAsync(i, round));
+            }
+            for (int i = 0; i < KEY_COUNT; i++) {
+                Integer previous = futures.get(i).get();
+                assertEquals(round == 0 ? null : Integer.valueOf(round - 1), previous);
+            }
+        }
+        for (int i = 0; i < KEY_COUNT; i++) {
+            assertEquals(9, (int) map.get(i));
+        }
+    }
+
+    private static void putAll(IMap<Integer, Integer> map) {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            map.put(i, i);
+        }
+    }
+
+    private static ClientConfig newClientConfig(String idleTimeoutSeconds) {
+        return new ClientConfig()
+                .setProperty(ClientProperty.MAX_CONNECTIONS_PER_MEMBER.getName(), "3")
+                .setProperty(ClientProperty.HEARTBEAT_INTERVAL.getName(), "500")
+                .setProperty("hazelcast.client.connection.pool.growth.threshold", "0")
+                .setProperty("hazelcast.client.connection.pool.idle.timeout.seconds", idleTimeoutSeconds);
+    }
+
+    private static ClientConnectionManagerImpl getClientConnectionManager(HazelcastInstance client) {
+        return (ClientConnectionManagerImpl) getHazelcastClientInstanceImpl(client).getConnectionManager();
+    }
+}
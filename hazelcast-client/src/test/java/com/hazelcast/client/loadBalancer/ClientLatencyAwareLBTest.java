@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.loadBalancer;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.connection.ClientConnectionManager;
+import com.hazelcast.client.connection.nio.ClientConnection;
+import com.hazelcast.client.spi.properties.ClientProperty;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.client.util.LatencyAwareLB;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.Member;
+import com.hazelcast.nio.Address;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.client.impl.ClientTestUtil.getHazelcastClientInstanceImpl;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientLatencyAwareLBTest extends HazelcastTestSupport {
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+
+    @After
+    public void tearDown() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void testLatencyAwareLB_withoutMembers() {
+        LatencyAwareLB lb = new LatencyAwareLB();
+        Member m = lb.next();
+        assertNull(m);
+    }
+
+    @Test
+    public void testLatencyAwareLB_avoidsSlowMember() throws Exception {
+        Member slowMember = hazelcastFactory.newHazelcastInstance().getCluster().getLocalMember();
+        Member fastMember = hazelcastFactory.newHazelcastInstance().getCluster().getLocalMember();
+        LatencyAwareLB lb = new LatencyAwareLB();
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient(new ClientConfig().setLoadBalancer(lb));
+        assertClusterSizeEventually(2, client);
+
+        ClientConnectionManager connectionManager = getHazelcastClientInstanceImpl(client).getConnectionManager();
+        ClientConnection slowConnection = (ClientConnection) connectionManager.getOrConnect(slowMember.getAddress(), false);
+        connectionManager.getOrConnect(fastMember.getAddress(), false);
+        slowConnection.updateResponseLatency(SECONDS.toNanos(10));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(fastMember, lb.next());
+        }
+    }
+
+    @Test
+    public void testLatencyAwareLB_avoidsMemberWithSlowPooledConnection() throws Exception {
+        HazelcastInstance slowInstance = hazelcastFactory.newHazelcastInstance();
+        Member slowMember = slowInstance.getCluster().getLocalMember();
+        Member fastMember = hazelcastFactory.newHazelcastInstance().getCluster().getLocalMember();
+        LatencyAwareLB lb = new LatencyAwareLB();
+        ClientConfig config = new ClientConfig()
+                .setLoadBalancer(lb)
+                .setProperty(ClientProperty.MAX_CONNECTIONS_PER_MEMBER.getName(), "2")
+                .setProperty("hazelcast.client.connection.pool.growth.threshold", "0");
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient(config);
+        assertClusterSizeEventually(2, client);
+
+        final ClientConnectionManager connectionManager = getHazelcastClientInstanceImpl(client).getConnectionManager();
+        connectionManager.getOrConnect(slowMember.getAddress(), false);
+        connectionManager.getOrConnect(fastMember.getAddress(), false);
+        final IMap<String, String> map = client.getMap(randomMapName());
+        final String key = generateKeyOwnedBy(slowInstance);
+        final Address slowAddress = slowMember.getAddress();
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                map.get(key);
+                assertFalse(connectionManager.getPooledConnections(slowAddress).isEmpty());
+            }
+        });
+        for (ClientConnection pooled : connectionManager.getPooledConnections(slowAddress)) {
+            pooled.updateResponseLatency(SECONDS.toNanos(10));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(fastMember, lb.next());
+        }
+    }
+
+    @Test
+    public void testBlockingCall_isNotCountedInResponseLatency() throws Exception {
+        HazelcastInstance member = hazelcastFactory.newHazelcastInstance();
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient();
+        ClientConnectionManager connectionManager = getHazelcastClientInstanceImpl(client).getConnectionManager();
+        ClientConnection connection = (ClientConnection) connectionManager.getOrConnect(
+                member.getCluster().getLocalMember().getAddress(), false);
+
+        String mapName = randomMapName();
+        member.getMap(mapName).lock("key");
+        IMap<String, String> map = client.getMap(mapName);
+        assertFalse(map.tryLock("key", 4, SECONDS));
+
+        // the wait would have added at least an eighth of it to the moving average
+        assertTrue(connection.getResponseLatencyNanos() < MILLISECONDS.toNanos(200));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.spi.properties.ClientProperty;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MapLoader;
+import com.hazelcast.map.AbstractEntryProcessor;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientMapBulkMemberRoutingTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+
+    private final CountDownLatch loadStarted = new CountDownLatch(1);
+    private final CountDownLatch loadReleased = new CountDownLatch(1);
+
+    private HazelcastInstance member;
+    private HazelcastInstance otherMember;
+    private HazelcastInstance client;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        config.getMapConfig("loading*").setMapStoreConfig(new MapStoreConfig()
+                .setImplementation(new BlockingMapLoader(loadStarted, loadReleased)));
+
+        member = hazelcastFactory.newHazelcastInstance(config);
+        hazelcastFactory.newHazelcastInstance(config);
+        otherMember = hazelcastFactory.newHazelcastInstance(config);
+
+        ClientConfig clientConfig = new ClientConfig()
+                .setProperty(ClientProperty.MAP_BULK_MEMBER_ROUTING_ENABLED.getName(), "true")
+                .addNearCacheConfig(new NearCacheConfig("nearCached*"));
+        client = hazelcastFactory.newHazelcastClient(clientConfig);
+    }
+
+    @After
+    public void tearDown() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void testPutAllAndGetAll() {
+        testPutAllAndGetAll(client.<Integer, Integer>getMap(randomMapName()));
+    }
+
+    @Test
+    public void testPutAllAndGetAll_withNearCache() {
+        testPutAllAndGetAll(client.<Integer, Integer>getMap(randomMapName("nearCached")));
+    }
+
+    private void testPutAllAndGetAll(IMap<Integer, Integer> map) {
+        Map<Integer, Integer> entries = new HashMap<Integer, Integer>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            entries.put(i, i);
+        }
+        map.putAll(entries);
+        assertEquals(ENTRY_COUNT, member.getMap(map.getName()).size());
+
+        Set<Integer> keys = new HashSet<Integer>();
+        for (int i = 0; i < ENTRY_COUNT + 10; i++) {
+            keys.add(i);
+        }
+        assertEquals(entries, map.getAll(keys));
+        // the second call is served from the near cache if there is one
+        assertEquals(entries, map.getAll(keys));
+    }
+
+    @Test
+    public void testExecuteOnKeys() {
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+        Set<Integer> keys = new HashSet<Integer>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.set(i, i);
+            keys.add(i);
+        }
+
+        Map<Integer, Object> result = map.executeOnKeys(keys, new IncrementProcessor());
+
+        assertEquals(ENTRY_COUNT, result.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i + 1, result.get(i));
+            assertEquals(i + 1, (int) map.get(i));
+        }
+    }
+
+    @Test
+    public void testGetAll_whenMemberTerminatedDuringCall() throws Exception {
+        final IMap<Integer, Integer> map = client.getMap(randomMapName("loading"));
+        final Set<Integer> keys = new HashSet<Integer>();
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            keys.add(i);
+        }
+
+        Future<Map<Integer, Integer>> future = spawn(new Callable<Map<Integer, Integer>>() {
+            @Override
+            public Map<Integer, Integer> call() {
+                return map.getAll(keys);
+            }
+        });
+        assertOpenEventually(loadStarted);
+        otherMember.getLifecycleService().terminate();
+        loadReleased.countDown();
+
+        Map<Integer, Integer> result = future.get(ASSERT_TRUE_EVENTUALLY_TIMEOUT, SECONDS);
+        assertEquals(ENTRY_COUNT, result.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(i, (int) result.get(i));
+        }
+    }
+
+    /**
+     * Loads the value of a key as the key itself, blocking the loads until they are released.
+     */
+    private static class BlockingMapLoader implements MapLoader<Integer, Integer> {
+
+        private final CountDownLatch loadStarted;
+        private final CountDownLatch loadReleased;
+
+        BlockingMapLoader(CountDownLatch loadStarted, CountDownLatch loadReleased) {
+            this.loadStarted = loadStarted;
+            this.loadReleased = loadReleased;
+        }
+
+        @Override
+        public Integer load(Integer key) {
+            return key;
+        }
+
+        @Override
+        public Map<Integer, Integer> loadAll(Collection<Integer> keys) {
+            loadStarted.countDown();
+            try {
+                loadReleased.await(ASSERT_TRUE_EVENTUALLY_TIMEOUT, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Map<Integer, Integer> values = new HashMap<Integer, Integer>();
+            for (Integer key : keys) {
+                values.put(key, key);
+            }
+            return values;
+        }
+
+        @Override
+        public Iterable<Integer> loadAllKeys() {
+            return null;
+        }
+    }
+
+    private static class IncrementProcessor extends AbstractEntryProcessor<Integer, Integer> {
+
+        @Override
+        public Object process(Map.Entry<Integer, Integer> entry) {
+            int value = entry.getValue() + 1;
+            entry.setValue(value);
+            return value;
+        }
+    }
+}
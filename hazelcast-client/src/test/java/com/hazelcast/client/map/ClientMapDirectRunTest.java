@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.map;
+
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientMapDirectRunTest extends HazelcastTestSupport {
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+
+    private HazelcastInstance member;
+    private HazelcastInstance client;
+
+    @Before
+    public void setup() {
+        Config config = new Config()
+                .setProperty(GroupProperty.CLIENT_ENGINE_DIRECT_RUN_ENABLED.getName(), "true")
+                .addMapConfig(new MapConfig("noBackups*").setBackupCount(0));
+        member = hazelcastFactory.newHazelcastInstance(config);
+        hazelcastFactory.newHazelcastInstance(config);
+        client = hazelcastFactory.newHazelcastClient();
+    }
+
+    @After
+    public void tearDown() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void testWithoutBackups() {
+        testBasicOperations(client.<Integer, String>getMap(randomMapName("noBackups")));
+    }
+
+    @Test
+    public void testWithSyncBackups() {
+        testBasicOperations(client.<Integer, String>getMap(randomMapName()));
+    }
+
+    private void testBasicOperations(IMap<Integer, String> map) {
+        int count = 100;
+        for (int k = 0; k < count; k++) {
+            assertNull(map.put(k, "value" + k));
+        }
+        for (int k = 0; k < count; k++) {
+            assertEquals("value" + k, map.get(k));
+            assertTrue(map.containsKey(k));
+        }
+        for (int k = 0; k < count; k++) {
+            map.set(k, "newValue" + k);
+            assertEquals("newValue" + k, map.remove(k));
+            assertFalse(map.containsKey(k));
+        }
+        map.set(count, "value");
+        map.delete(count);
+        assertNull(map.get(count));
+        assertEquals(0, member.getMap(map.getName()).size());
+    }
+
+    @Test
+    public void testPutOnLockedKey_waitsForUnlock() throws Exception {
+        final IMap<Integer, String> map = client.getMap(randomMapName("noBackups"));
+        final IMap<Integer, String> memberMap = member.getMap(map.getName());
+        memberMap.lock(1);
+
+        final CountDownLatch putCompleted = new CountDownLatch(1);
+        Thread putter = new Thread() {
+            @Override
+            public void run() {
+                map.put(1, "value");
+                putCompleted.countDown();
+            }
+        };
+        putter.start();
+        assertFalse(putCompleted.await(1, SECONDS));
+
+        memberMap.unlock(1);
+        assertOpenEventually(putCompleted);
+        assertEquals("value", map.get(1));
+        putter.join();
+    }
+}
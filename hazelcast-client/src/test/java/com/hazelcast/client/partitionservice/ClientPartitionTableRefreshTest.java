@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.partitionservice;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.impl.HazelcastClientInstanceImpl;
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.MapPutCodec;
+import com.hazelcast.client.spi.ClientPartitionService;
+import com.hazelcast.client.spi.impl.ClientInvocation;
+import com.hazelcast.client.spi.properties.ClientProperty;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.partition.IPartition;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.client.impl.ClientTestUtil.getHazelcastClientInstanceImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientPartitionTableRefreshTest extends HazelcastTestSupport {
+
+    private final TestHazelcastFactory factory = new TestHazelcastFactory();
+
+    @After
+    public void after() {
+        factory.terminateAll();
+    }
+
+    @Test
+    public void testPartitionTableIsUpdated_whenMemberJoins_withJitterAndBackoff() {
+        HazelcastInstance member1 = factory.newHazelcastInstance();
+        ClientConfig clientConfig = new ClientConfig()
+                .setProperty(ClientProperty.PARTITION_REFRESH_JITTER_MILLIS.getName(), "200")
+                .setProperty(ClientProperty.PARTITION_REFRESH_MAX_PERIOD_SECONDS.getName(), "600");
+        HazelcastInstance client = factory.newHazelcastClient(clientConfig);
+        final ClientPartitionService clientPartitionService = getHazelcastClientInstanceImpl(client)
+                .getClientPartitionService();
+        // loads the table, so the client starts with the table of the single member
+        clientPartitionService.getPartitionOwner(0);
+
+        HazelcastInstance member2 = factory.newHazelcastInstance();
+        waitAllForSafeState(member1, member2);
+
+        final IPartition[] partitions = getPartitionService(member1).getPartitions();
+        final IMap<Integer, Integer> map = client.getMap(randomMapName());
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                // the invocations sent to the former owners make the client refresh its stale table
+                for (int i = 0; i < 1000; i++) {
+                    map.put(i, i);
+                }
+                for (IPartition partition : partitions) {
+                    int partitionId = partition.getPartitionId();
+                    assertEquals(partition.getOwnerOrNull(), clientPartitionService.getPartitionOwner(partitionId));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testResponseIsFlagged_whenRequestSentToMemberNotOwningPartition() throws Exception {
+        HazelcastInstance member1 = factory.newHazelcastInstance();
+        HazelcastInstance member2 = factory.newHazelcastInstance();
+        waitAllForSafeState(member1, member2);
+        HazelcastClientInstanceImpl client = getHazelcastClientInstanceImpl(factory.newHazelcastClient());
+
+        Data key = client.getSerializationService().toData(generateKeyOwnedBy(member1));
+        int partitionId = client.getClientPartitionService().getPartitionId(key);
+        Address owner = getAddress(member1);
+        Address other = getAddress(member2);
+
+        assertFalse(put(client, owner, key, partitionId).isFlagSet(ClientMessage.STALE_PARTITION_OWNER_FLAG));
+        assertTrue(put(client, other, key, partitionId).isFlagSet(ClientMessage.STALE_PARTITION_OWNER_FLAG));
+    }
+
+    private static ClientMessage put(HazelcastClientInstanceImpl client, Address target, Data key, int partitionId)
+            throws Exception {
+        Connection connection = client.getConnectionManager().getOrConnect(target, false);
+        ClientMessage request = MapPutCodec.encodeRequest("map", key, key, 0, -1);
+        request.setPartitionId(partitionId);
+        return new ClientInvocation(client, request, connection).invoke().get();
+    }
+}
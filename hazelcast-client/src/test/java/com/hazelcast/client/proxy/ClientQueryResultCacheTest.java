@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.proxy;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.spi.properties.ClientProperty;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientQueryResultCacheTest extends HazelcastTestSupport {
+
+    // evaluation counts of the predicates on the members, by the name of the predicate
+    private static final ConcurrentMap<String, AtomicInteger> EVALUATIONS = new ConcurrentHashMap<String, AtomicInteger>();
+
+    private final TestHazelcastFactory factory = new TestHazelcastFactory();
+
+    private String predicateName;
+
+    @Before
+    public void setup() {
+        factory.newHazelcastInstance();
+        predicateName = randomString();
+        EVALUATIONS.put(predicateName, new AtomicInteger());
+    }
+
+    @After
+    public void tearDown() {
+        EVALUATIONS.remove(predicateName);
+        factory.terminateAll();
+    }
+
+    @Test
+    public void testQueryResultIsNotCached_byDefault() {
+        IMap<Integer, Integer> map = factory.newHazelcastClient().getMap(randomMapName());
+        map.put(1, 1);
+
+        map.values(new CountingPredicate(predicateName));
+        map.values(new CountingPredicate(predicateName));
+
+        assertNull(((ClientMapProxy) map).getQueryResultCache());
+        assertEquals(2, getEvaluations());
+    }
+
+    @Test
+    public void testRepeatedQuery_isAnsweredFromCache() {
+        IMap<Integer, Integer> map = newClientWithCache("60").getMap(randomMapName());
+        map.put(1, 1);
+        map.put(2, 2);
+
+        assertEquals(2, map.values(new CountingPredicate(predicateName)).size());
+        assertEquals(2, map.keySet(new CountingPredicate(predicateName)).size());
+        assertEquals(2, map.entrySet(new CountingPredicate(predicateName)).size());
+        int evaluations = getEvaluations();
+        assertEquals(2, map.values(new CountingPredicate(predicateName)).size());
+        assertEquals(2, map.keySet(new CountingPredicate(predicateName)).size());
+        assertEquals(2, map.entrySet(new CountingPredicate(predicateName)).size());
+
+        assertEquals(evaluations, getEvaluations());
+        assertEquals(3, ((ClientMapProxy) map).getQueryResultCache().size());
+    }
+
+    @Test
+    public void testCachedResult_isInvalidated_whenMapChangedByProxy() throws Exception {
+        IMap<Integer, Integer> map = newClientWithCache("600").getMap(randomMapName());
+        map.put(1, 1);
+        assertEquals(1, map.values(new CountingPredicate(predicateName)).size());
+
+        map.put(2, 2);
+        assertEquals(2, map.values(new CountingPredicate(predicateName)).size());
+
+        map.setAsync(3, 3).get();
+        assertEquals(3, map.values(new CountingPredicate(predicateName)).size());
+
+        map.remove(1);
+        assertEquals(2, map.values(new CountingPredicate(predicateName)).size());
+    }
+
+    @Test
+    public void testCachedResult_isInvalidated_whenMapChangedByOthers() {
+        final IMap<Integer, Integer> map = newClientWithCache("600").getMap(randomMapName());
+        map.put(1, 1);
+        assertEquals(1, map.values(new CountingPredicate(predicateName)).size());
+
+        factory.newHazelcastClient().getMap(map.getName()).put(2, 2);
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(2, map.values(new CountingPredicate(predicateName)).size());
+            }
+        });
+    }
+
+    @Test
+    public void testCachedResult_expires() {
+        final IMap<Integer, Integer> map = newClientWithCache("1").getMap(randomMapName());
+        map.put(1, 1);
+        map.values(new CountingPredicate(predicateName));
+        final int evaluations = getEvaluations();
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                map.values(new CountingPredicate(predicateName));
+                assertTrue(getEvaluations() > evaluations);
+            }
+        });
+    }
+
+    private HazelcastInstance newClientWithCache(String ttlSeconds) {
+        ClientConfig clientConfig = new ClientConfig()
+                .setProperty(ClientProperty.MAP_QUERY_RESULT_CACHE_TTL_SECONDS.getName(), ttlSeconds);
+        return factory.newHazelcastClient(clientConfig);
+    }
+
+    private int getEvaluations() {
+        return EVALUATIONS.get(predicateName).get();
+    }
+
+    private static final class CountingPredicate implements Predicate<Integer, Integer> {
+
+        private final String name;
+
+        CountingPredicate(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean apply(Map.Entry<Integer, Integer> mapEntry) {
+            EVALUATIONS.get(name).incrementAndGet();
+            return true;
+        }
+    }
+}
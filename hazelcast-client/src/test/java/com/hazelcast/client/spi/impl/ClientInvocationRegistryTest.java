@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.spi.impl;
+
+import com.hazelcast.client.impl.HazelcastClientInstanceImpl;
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.MapSizeCodec;
+import com.hazelcast.client.test.TestHazelcastFactory;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.client.impl.ClientTestUtil.getHazelcastClientInstanceImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientInvocationRegistryTest extends HazelcastTestSupport {
+
+    private static final int SLOT_COUNT = 8;
+
+    private final TestHazelcastFactory hazelcastFactory = new TestHazelcastFactory();
+
+    private HazelcastClientInstanceImpl client;
+    private ClientInvocationRegistry registry;
+
+    @Before
+    public void setup() {
+        hazelcastFactory.newHazelcastInstance();
+        client = getHazelcastClientInstanceImpl(hazelcastFactory.newHazelcastClient());
+        registry = new ClientInvocationRegistry(SLOT_COUNT);
+    }
+
+    @After
+    public void tearDown() {
+        hazelcastFactory.terminateAll();
+    }
+
+    @Test
+    public void testRegisterAndDeregister() {
+        ClientInvocation invocation = newInvocation(1);
+        registry.register(1, invocation);
+
+        assertEquals(1, registry.size());
+        assertNull(registry.deregister(2));
+        assertSame(invocation, registry.deregister(1));
+        assertNull(registry.deregister(1));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testRegister_whenSlotTaken_thenOverflow() {
+        ClientInvocation old = newInvocation(1);
+        ClientInvocation invocation = newInvocation(1 + SLOT_COUNT);
+        registry.register(1, old);
+        registry.register(1 + SLOT_COUNT, invocation);
+
+        assertEquals(2, registry.size());
+        assertTrue(registry.invocations().contains(old));
+        assertTrue(registry.invocations().contains(invocation));
+        assertSame(invocation, registry.deregister(1 + SLOT_COUNT));
+        assertSame(old, registry.deregister(1));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void testDeregister_whenSlotFreedAfterOverflow() {
+        ClientInvocation old = newInvocation(1);
+        ClientInvocation invocation = newInvocation(1 + SLOT_COUNT);
+        registry.register(1, old);
+        registry.register(1 + SLOT_COUNT, invocation);
+
+        assertSame(old, registry.deregister(1));
+        assertSame(invocation, registry.deregister(1 + SLOT_COUNT));
+    }
+
+    private ClientInvocation newInvocation(long correlationId) {
+        ClientMessage request = MapSizeCodec.encodeRequest("map");
+        request.setCorrelationId(correlationId);
+        return new ClientInvocation(client, request);
+    }
+}
@@ -16,10 +16,13 @@
 
 package com.hazelcast.client.spi.impl;
 
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.spi.properties.ClientProperty;
 import com.hazelcast.client.test.TestHazelcastFactory;
 import com.hazelcast.config.Config;
 import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ICompletableFuture;
 import com.hazelcast.core.IMap;
 import com.hazelcast.core.LifecycleEvent;
 import com.hazelcast.core.LifecycleListener;
@@ -39,6 +42,7 @@ import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.locks.LockSupport;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
@@ -145,6 +149,35 @@ public class ClientInvocationTest extends HazelcastTestSupport {
         assertOpenEventually("Not all of the requests failed", errorLatch);
     }
 
+    @Test
+    public void testResponsesOnIOThread() throws Exception {
+        hazelcastFactory.newHazelcastInstance();
+        ClientConfig config = new ClientConfig()
+                .setProperty(ClientProperty.RESPONSE_ON_IO_THREAD_ENABLED.getName(), "true");
+        HazelcastInstance client = hazelcastFactory.newHazelcastClient(config);
+        IMap<Integer, Integer> map = client.getMap(randomMapName());
+
+        int count = 100;
+        final CountDownLatch callbackLatch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            ICompletableFuture<Integer> future = map.putAsync(i, i);
+            future.andThen(new ExecutionCallback<Integer>() {
+                @Override
+                public void onResponse(Integer response) {
+                    callbackLatch.countDown();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                }
+            });
+        }
+        assertOpenEventually(callbackLatch);
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+    }
+
     private static class DummyEntryProcessor implements EntryProcessor {
         @Override
         public Object process(Map.Entry entry) {
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.spi.impl;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.spi.properties.ClientProperty;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ICompletableFuture;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.HazelcastInstanceFactory;
+import com.hazelcast.internal.diagnostics.Diagnostics;
+import com.hazelcast.internal.metrics.LongGauge;
+import com.hazelcast.internal.metrics.ProbeLevel;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.client.impl.ClientTestUtil.getHazelcastClientInstanceImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+// uses the real network, since the batches are only written by the real connections
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ClientMessageCoalescerTest extends HazelcastTestSupport {
+
+    private HazelcastInstance client;
+
+    @Before
+    public void setup() {
+        Config config = new Config();
+        JoinConfig joinConfig = config.getNetworkConfig().getJoin();
+        joinConfig.getMulticastConfig().setEnabled(false);
+        joinConfig.getTcpIpConfig().setEnabled(false);
+        Hazelcast.newHazelcastInstance(config);
+
+        ClientConfig clientConfig = new ClientConfig()
+                .setProperty(ClientProperty.IO_WRITE_COALESCING_WINDOW_MICROS.getName(), "1000")
+                .setProperty(Diagnostics.METRICS_LEVEL.getName(), ProbeLevel.INFO.name());
+        clientConfig.getNetworkConfig().addAddress("127.0.0.1");
+        client = HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    @After
+    public void tearDown() {
+        HazelcastClient.shutdownAll();
+        HazelcastInstanceFactory.terminateAll();
+    }
+
+    @Test
+    public void testAsyncRequests() throws Exception {
+        int count = 1000;
+        IMap<Integer, String> map = client.getMap(randomMapName());
+
+        List<ICompletableFuture<String>> putFutures = new ArrayList<ICompletableFuture<String>>(count);
+        for (int k = 0; k < count; k++) {
+            putFutures.add(map.putAsync(k, "value" + k));
+        }
+        for (ICompletableFuture<String> future : putFutures) {
+            assertNull(future.get());
+        }
+
+        List<ICompletableFuture<String>> getFutures = new ArrayList<ICompletableFuture<String>>(count);
+        for (int k = 0; k < count; k++) {
+            getFutures.add(map.getAsync(k));
+        }
+        for (int k = 0; k < count; k++) {
+            assertEquals("value" + k, getFutures.get(k).get());
+        }
+
+        LongGauge batchCount = getHazelcastClientInstanceImpl(client).getMetricsRegistry()
+                .newLongGauge("invocations.coalescer.batchCount");
+        assertTrue(batchCount.read() > 0);
+    }
+
+    @Test
+    public void testSyncRequests() {
+        IMap<Integer, String> map = client.getMap(randomMapName());
+        for (int k = 0; k < 100; k++) {
+            map.put(k, "value" + k);
+        }
+        for (int k = 0; k < 100; k++) {
+            assertEquals("value" + k, map.get(k));
+        }
+    }
+}
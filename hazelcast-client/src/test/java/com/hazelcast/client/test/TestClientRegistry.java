@@ -23,6 +23,7 @@ import com.hazelcast.client.connection.AddressTranslator;
 import com.hazelcast.client.connection.ClientConnectionManager;
 import com.hazelcast.client.connection.nio.ClientConnection;
 import com.hazelcast.client.connection.nio.ClientConnectionManagerImpl;
+import com.hazelcast.client.connection.nio.ClientMessageBatch;
 import com.hazelcast.client.impl.ClientConnectionManagerFactory;
 import com.hazelcast.client.impl.HazelcastClientInstanceImpl;
 import com.hazelcast.client.impl.protocol.ClientMessage;
@@ -259,8 +260,14 @@ class TestClientRegistry {
 
                 @Override
                 public void run() {
-                    ClientMessage newPacket = readFromPacket((ClientMessage) frame);
                     lastWriteTime = System.currentTimeMillis();
+                    if (frame instanceof ClientMessageBatch) {
+                        for (ClientMessage message : ((ClientMessageBatch) frame).getMessages()) {
+                            serverSideConnection.handleClientMessage(readFromPacket(message));
+                        }
+                        return;
+                    }
+                    ClientMessage newPacket = readFromPacket((ClientMessage) frame);
                     serverSideConnection.handleClientMessage(newPacket);
                 }
             });
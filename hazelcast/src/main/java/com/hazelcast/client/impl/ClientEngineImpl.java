@@ -68,6 +68,7 @@ import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 import com.hazelcast.spi.impl.operationservice.InternalOperationService;
 import com.hazelcast.spi.partition.IPartitionService;
 import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.transaction.TransactionManagerService;
 import com.hazelcast.util.ConcurrencyUtil;
@@ -93,6 +94,7 @@ import static com.hazelcast.spi.impl.OperationResponseHandlerFactory.createEmpty
 /**
  * Class that requests, listeners from client handled in node side.
  */
+@SuppressWarnings("checkstyle:classdataabstractioncoupling")
 public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwareService,
         ManagedService, MembershipAwareService, EventPublishingService<ClientEvent, ClientListener> {
 
@@ -115,6 +117,8 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
     private final NodeEngineImpl nodeEngine;
     private final Executor executor;
     private final Executor queryExecutor;
+    private final ClientQueryScheduler queryScheduler;
+    private final ClientPartitionTableCache partitionTableCache = new ClientPartitionTableCache();
 
     private final SerializationService serializationService;
     // client uuid -> member uuid
@@ -130,6 +134,7 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
     private final MessageTaskFactory messageTaskFactory;
     private final ClientExceptionFactory clientExceptionFactory;
     private final int endpointRemoveDelaySeconds;
+    private final boolean directRunEnabled;
 
 
     public ClientEngineImpl(Node node) {
@@ -140,9 +145,11 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
         this.endpointManager = new ClientEndpointManagerImpl(this, nodeEngine);
         this.executor = newClientExecutor();
         this.queryExecutor = newClientQueryExecutor();
+        this.queryScheduler = newClientQueryScheduler();
         this.messageTaskFactory = new CompositeMessageTaskFactory(this.nodeEngine);
         this.clientExceptionFactory = initClientExceptionFactory();
         this.endpointRemoveDelaySeconds = node.getProperties().getInteger(GroupProperty.CLIENT_ENDPOINT_REMOVE_DELAY_SECONDS);
+        this.directRunEnabled = node.getProperties().getBoolean(GroupProperty.CLIENT_ENGINE_DIRECT_RUN_ENABLED);
         ClientHeartbeatMonitor heartbeatMonitor = new ClientHeartbeatMonitor(
                 endpointManager, this, nodeEngine.getExecutionService(), node.getProperties());
         heartbeatMonitor.start();
@@ -172,10 +179,7 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
         final ExecutionService executionService = nodeEngine.getExecutionService();
         int coreSize = Runtime.getRuntime().availableProcessors();
 
-        int threadCount = node.getProperties().getInteger(GroupProperty.CLIENT_ENGINE_QUERY_THREAD_COUNT);
-        if (threadCount <= 0) {
-            threadCount = coreSize * QUERY_THREADS_PER_CORE;
-        }
+        int threadCount = getQueryThreadCount();
         logger.finest("Creating new client query executor with threadCount=" + threadCount);
 
         return executionService.register(ExecutionService.CLIENT_QUERY_EXECUTOR,
@@ -183,6 +187,25 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
                 ExecutorType.CONCRETE);
     }
 
+    private int getQueryThreadCount() {
+        int threadCount = node.getProperties().getInteger(GroupProperty.CLIENT_ENGINE_QUERY_THREAD_COUNT);
+        if (threadCount <= 0) {
+            threadCount = Runtime.getRuntime().availableProcessors() * QUERY_THREADS_PER_CORE;
+        }
+        return threadCount;
+    }
+
+    private ClientQueryScheduler newClientQueryScheduler() {
+        HazelcastProperties properties = node.getProperties();
+        if (!properties.getBoolean(GroupProperty.CLIENT_ENGINE_QUERY_FAIR_SCHEDULING_ENABLED)) {
+            return null;
+        }
+        return new ClientQueryScheduler(queryExecutor, logger, getQueryThreadCount(),
+                properties.getInteger(GroupProperty.CLIENT_ENGINE_QUERY_MAX_CONCURRENT_PER_CLIENT),
+                properties.getInteger(GroupProperty.CLIENT_ENGINE_QUERY_MAX_CONCURRENT_PER_MAP),
+                properties.getMillis(GroupProperty.CLIENT_ENGINE_QUERY_QUEUE_TIMEOUT_SECONDS));
+    }
+
     //needed for testing purposes
     public ConnectionListener getConnectionListener() {
         return connectionListener;
@@ -206,7 +229,7 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
             if (isUrgent(messageTask)) {
                 operationService.execute(new PriorityPartitionSpecificRunnable(messageTask));
             } else if (isQuery(messageTask)) {
-                queryExecutor.execute(messageTask);
+                executeQuery(messageTask, connection);
             } else {
                 executor.execute(messageTask);
             }
@@ -228,6 +251,22 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
         return messageTask instanceof AbstractMapQueryMessageTask;
     }
 
+    private void executeQuery(MessageTask messageTask, Connection connection) {
+        ClientEndpoint endpoint = endpointManager.getEndpoint(connection);
+        if (queryScheduler == null || endpoint == null || endpoint.getUuid() == null) {
+            queryExecutor.execute(messageTask);
+        } else {
+            String mapName = ((AbstractMapQueryMessageTask) messageTask).getMapName();
+            queryScheduler.schedule(messageTask, connection, endpoint.getUuid(), mapName);
+        }
+    }
+
+    private void cancelQueries(Connection connection) {
+        if (queryScheduler != null) {
+            queryScheduler.cancel(connection);
+        }
+    }
+
     @Override
     public IPartitionService getPartitionService() {
         return nodeEngine.getPartitionService();
@@ -273,6 +312,15 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
         return node.getConfig();
     }
 
+    /**
+     * Checks if the partition specific requests are allowed to run directly on the partition thread.
+     *
+     * @return {@code true} if {@link GroupProperty#CLIENT_ENGINE_DIRECT_RUN_ENABLED} is set
+     */
+    public boolean isDirectRunEnabled() {
+        return directRunEnabled;
+    }
+
     @Override
     public ILogger getLogger(Class clazz) {
         return node.getLogger(clazz);
@@ -286,6 +334,10 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
         return clientExceptionFactory;
     }
 
+    public ClientPartitionTableCache getPartitionTableCache() {
+        return partitionTableCache;
+    }
+
     @Override
     public SecurityContext getSecurityContext() {
         return node.securityContext;
@@ -423,6 +475,7 @@ public class ClientEngineImpl implements ClientEngine, CoreService, PostJoinAwar
             if (!connection.isClient() || !nodeEngine.isRunning()) {
                 return;
             }
+            cancelQueries(connection);
             final ClientEndpointImpl endpoint = (ClientEndpointImpl) endpointManager.getEndpoint(connection);
             if (endpoint == null) {
                 logger.finest("connectionRemoved: No endpoint for connection:" + connection);
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.ClientGetPartitionsCodec;
+import com.hazelcast.client.impl.protocol.util.SafeBuffer;
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.partition.IPartition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the encoded partition table response sent to the clients.
+ * <p/>
+ * The response is built once per partition state version, and the following requests get a copy of the encoded bytes.
+ * So when many clients fetch the partition table after a migration, the table is not walked and encoded again for
+ * each of them.
+ */
+public final class ClientPartitionTableCache {
+
+    private volatile EncodedPartitionTable cached;
+
+    /**
+     * Returns the partition table response for the current partition state version of the given partition service.
+     * An empty table is returned, and not cached, while some partitions don't have an owner yet.
+     *
+     * @param partitionService the partition service of this member
+     * @return a new response message, which can be sent to a client
+     */
+    public ClientMessage getPartitionTable(InternalPartitionService partitionService) {
+        int version = partitionService.getPartitionStateVersion();
+        EncodedPartitionTable table = cached;
+        if (table != null && table.version == version) {
+            return table.toClientMessage();
+        }
+
+        Map<Address, List<Integer>> partitionsMap = new HashMap<Address, List<Integer>>();
+        for (IPartition partition : partitionService.getPartitions()) {
+            Address owner = partition.getOwnerOrNull();
+            if (owner == null) {
+                Map<Address, List<Integer>> empty = Collections.emptyMap();
+                return ClientGetPartitionsCodec.encodeResponse(empty.entrySet());
+            }
+            List<Integer> indexes = partitionsMap.get(owner);
+            if (indexes == null) {
+                indexes = new ArrayList<Integer>();
+                partitionsMap.put(owner, indexes);
+            }
+            indexes.add(partition.getPartitionId());
+        }
+        ClientMessage response = ClientGetPartitionsCodec.encodeResponse(partitionsMap.entrySet());
+        // the table could have been changed while it was read, then it is not known which version it belongs to
+        if (partitionService.getPartitionStateVersion() == version) {
+            byte[] bytes = Arrays.copyOf(response.buffer().byteArray(), response.getFrameLength());
+            cached = new EncodedPartitionTable(version, bytes);
+        }
+        return response;
+    }
+
+    private static final class EncodedPartitionTable {
+
+        private final int version;
+        private final byte[] bytes;
+
+        EncodedPartitionTable(int version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+
+        ClientMessage toClientMessage() {
+            // each response gets its own buffer, since the correlation ID is written into it
+            return ClientMessage.createForDecode(new SafeBuffer(bytes.clone()), 0);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl;
+
+import com.hazelcast.client.impl.protocol.task.MessageTask;
+import com.hazelcast.client.impl.protocol.task.map.AbstractMapQueryMessageTask;
+import com.hazelcast.core.OperationTimeoutException;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.util.Clock;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Schedules the client queries on the query executor, so that the queries of one client can't starve the queries of
+ * the other clients.
+ * <p/>
+ * The queries are queued per client. The next query is taken from the client with the fewest running queries, and the
+ * clients with equally many running queries take turns. A query is only started if its client and its map are below their
+ * concurrency limits. No more queries are started than the executor has threads,
+ * so the started queries don't wait in the queue of the executor, where they could no longer be reordered.
+ * <p/>
+ * The queries of a disconnected client are dropped, and the queries which waited longer than the queue timeout or
+ * were rejected by the executor are failed without being run.
+ */
+final class ClientQueryScheduler {
+
+    private final Executor executor;
+    private final ILogger logger;
+    private final int maxRunning;
+    private final int maxRunningPerClient;
+    private final int maxRunningPerMap;
+    private final long queueTimeoutMillis;
+
+    // the clients with queued queries, in the order of their turns
+    private final Map<String, Queue<QueuedQuery>> queues = new LinkedHashMap<String, Queue<QueuedQuery>>();
+    private final Map<String, Integer> runningPerClient = new HashMap<String, Integer>();
+    private final Map<String, Integer> runningPerMap = new HashMap<String, Integer>();
+    private int running;
+
+    ClientQueryScheduler(Executor executor, ILogger logger, int maxRunning, int maxRunningPerClient,
+                         int maxRunningPerMap, long queueTimeoutMillis) {
+        this.executor = executor;
+        this.logger = logger;
+        this.maxRunning = maxRunning;
+        this.maxRunningPerClient = maxRunningPerClient > 0 ? maxRunningPerClient : Integer.MAX_VALUE;
+        this.maxRunningPerMap = maxRunningPerMap > 0 ? maxRunningPerMap : Integer.MAX_VALUE;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    synchronized void schedule(MessageTask task, Connection connection, String clientUuid, String mapName) {
+        Queue<QueuedQuery> queue = queues.get(clientUuid);
+        if (queue == null) {
+            queue = new LinkedList<QueuedQuery>();
+            queues.put(clientUuid, queue);
+        }
+        queue.add(new QueuedQuery(task, connection, clientUuid, mapName, Clock.currentTimeMillis()));
+        startQueries();
+    }
+
+    /**
+     * Drops the queued queries which were received over the given connection.
+     *
+     * @param connection the closed connection of a client
+     */
+    synchronized void cancel(Connection connection) {
+        Iterator<Queue<QueuedQuery>> queueIterator = queues.values().iterator();
+        while (queueIterator.hasNext()) {
+            Queue<QueuedQuery> queue = queueIterator.next();
+            Iterator<QueuedQuery> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().connection == connection) {
+                    iterator.remove();
+                }
+            }
+            if (queue.isEmpty()) {
+                queueIterator.remove();
+            }
+        }
+    }
+
+    synchronized int getQueuedQueryCount() {
+        int count = 0;
+        for (Queue<QueuedQuery> queue : queues.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    private synchronized void onFinished(QueuedQuery query) {
+        running--;
+        decrement(runningPerClient, query.clientUuid);
+        decrement(runningPerMap, query.mapName);
+        startQueries();
+    }
+
+    private void startQueries() {
+        while (running < maxRunning) {
+            QueuedQuery query = pollNextQuery();
+            if (query == null) {
+                return;
+            }
+            running++;
+            increment(runningPerClient, query.clientUuid);
+            increment(runningPerMap, query.mapName);
+            try {
+                executor.execute(query);
+            } catch (RejectedExecutionException e) {
+                logger.finest("Could not start the query on map " + query.mapName, e);
+                running--;
+                decrement(runningPerClient, query.clientUuid);
+                decrement(runningPerMap, query.mapName);
+                // the query was already taken from its queue, the client gets the failure as its response
+                ((AbstractMapQueryMessageTask) query.task).abandon(e);
+            }
+        }
+    }
+
+    /**
+     * Takes the first startable query of the client with the fewest running queries, preferring the client whose turn it
+     * is, and moves the client to the end of the turn order.
+     */
+    private QueuedQuery pollNextQuery() {
+        String selectedClient = null;
+        int selectedRunning = maxRunningPerClient;
+        for (Map.Entry<String, Queue<QueuedQuery>> entry : queues.entrySet()) {
+            int clientRunning = count(runningPerClient, entry.getKey());
+            if (clientRunning < selectedRunning && hasStartableQuery(entry.getValue())) {
+                selectedClient = entry.getKey();
+                selectedRunning = clientRunning;
+            }
+        }
+        if (selectedClient == null) {
+            return null;
+        }
+        Queue<QueuedQuery> queue = queues.remove(selectedClient);
+        QueuedQuery query = pollStartableQuery(queue);
+        if (!queue.isEmpty()) {
+            queues.put(selectedClient, queue);
+        }
+        return query;
+    }
+
+    private boolean hasStartableQuery(Queue<QueuedQuery> queue) {
+        for (QueuedQuery query : queue) {
+            if (count(runningPerMap, query.mapName) < maxRunningPerMap) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private QueuedQuery pollStartableQuery(Queue<QueuedQuery> queue) {
+        Iterator<QueuedQuery> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            QueuedQuery query = iterator.next();
+            if (count(runningPerMap, query.mapName) < maxRunningPerMap) {
+                iterator.remove();
+                return query;
+            }
+        }
+        return null;
+    }
+
+    private static int count(Map<String, Integer> counts, String key) {
+        Integer count = counts.get(key);
+        return count == null ? 0 : count;
+    }
+
+    private static void increment(Map<String, Integer> counts, String key) {
+        counts.put(key, count(counts, key) + 1);
+    }
+
+    private static void decrement(Map<String, Integer> counts, String key) {
+        int count = count(counts, key) - 1;
+        if (count > 0) {
+            counts.put(key, count);
+        } else {
+            counts.remove(key);
+        }
+    }
+
+    private final class QueuedQuery implements Runnable {
+
+        private final MessageTask task;
+        private final Connection connection;
+        private final String clientUuid;
+        private final String mapName;
+        private final long queuedAtMillis;
+
+        QueuedQuery(MessageTask task, Connection connection, String clientUuid, String mapName,
+                    long queuedAtMillis) {
+            this.task = task;
+            this.connection = connection;
+            this.clientUuid = clientUuid;
+            this.mapName = mapName;
+            this.queuedAtMillis = queuedAtMillis;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long waitedMillis = Clock.currentTimeMillis() - queuedAtMillis;
+                if (!connection.isAlive()) {
+                    logger.finest("Dropping the query on map " + mapName + " of the disconnected client " + clientUuid);
+                } else if (waitedMillis > queueTimeoutMillis) {
+                    ((AbstractMapQueryMessageTask) task).abandon(new OperationTimeoutException("Query on map " + mapName
+                            + " waited " + waitedMillis + " ms to be started, which is more than the allowed "
+                            + queueTimeoutMillis + " ms"));
+                } else {
+                    task.run();
+                }
+            } finally {
+                onFinished(this);
+            }
+        }
+    }
+}
@@ -84,6 +84,12 @@ public class ClientMessage
      */
     public static final short LISTENER_EVENT_FLAG = 0x01;
 
+    /**
+     * Stale Partition Owner Flag, set on the response of a partition specific request which was sent to a member that
+     * doesn't own the partition. Clients which don't know the flag ignore it.
+     */
+    public static final short STALE_PARTITION_OWNER_FLAG = 0x02;
+
     /**
      * ClientMessage Fixed Header size in bytes
      */
@@ -319,9 +325,18 @@ public class ClientMessage
         return done;
     }
 
+    /**
+     * Reads the frame from the source buffer. The frame can be read over multiple calls.
+     * <p/>
+     * A message whose {@link #index()} was set back to {@code 0} after a complete frame reads the next frame into its
+     * current buffer if it fits, so a reader can reuse one message for the frames which it only copies out.
+     *
+     * @param src the buffer to read from
+     * @return {@code true} if the frame is complete
+     */
     public boolean readFrom(ByteBuffer src) {
         int frameLength = 0;
-        if (this.buffer == null) {
+        if (this.buffer == null || index() == 0) {
             // init internal buffer
             final int remaining = src.remaining();
             if (remaining < Bits.INT_SIZE_IN_BYTES) {
@@ -332,7 +347,9 @@ public class ClientMessage
             if (frameLength < HEADER_SIZE) {
                 throw new IllegalArgumentException("Client message frame length cannot be smaller than header size.");
             }
-            if (USE_UNSAFE) {
+            if (this.buffer != null && this.buffer.capacity() >= frameLength) {
+                wrap(this.buffer, 0);
+            } else if (USE_UNSAFE) {
                 wrap(new UnsafeBuffer(new byte[frameLength]), 0);
             } else {
                 wrap(new SafeBuffer(new byte[frameLength]), 0);
@@ -1447,6 +1447,10 @@ public class DefaultMessageTaskFactoryProvider implements MessageTaskFactoryProv
         };
         factories[com.hazelcast.client.impl.protocol.codec.MapGetAllCodec.RequestParameters.TYPE.id()] = new MessageTaskFactory() {
             public MessageTask create(ClientMessage clientMessage, Connection connection) {
+                if (clientMessage.getPartitionId() == -1) {
+                    // sent to a member with the keys of all its partitions
+                    return new com.hazelcast.client.impl.protocol.task.map.MapGetAllMultiPartitionMessageTask(clientMessage, node, connection);
+                }
                 return new com.hazelcast.client.impl.protocol.task.map.MapGetAllMessageTask(clientMessage, node, connection);
             }
         };
@@ -1517,6 +1521,10 @@ public class DefaultMessageTaskFactoryProvider implements MessageTaskFactoryProv
         };
         factories[com.hazelcast.client.impl.protocol.codec.MapPutAllCodec.RequestParameters.TYPE.id()] = new MessageTaskFactory() {
             public MessageTask create(ClientMessage clientMessage, Connection connection) {
+                if (clientMessage.getPartitionId() == -1) {
+                    // sent to a member with the keys of all its partitions
+                    return new com.hazelcast.client.impl.protocol.task.map.MapPutAllMultiPartitionMessageTask(clientMessage, node, connection);
+                }
                 return new com.hazelcast.client.impl.protocol.task.map.MapPutAllMessageTask(clientMessage, node, connection);
             }
         };
@@ -23,7 +23,10 @@ import com.hazelcast.instance.Node;
 import com.hazelcast.nio.Connection;
 import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationResponseHandler;
+import com.hazelcast.spi.exception.RetryableException;
 import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+import com.hazelcast.spi.impl.operationservice.impl.responses.NormalResponse;
 
 import java.util.concurrent.Executor;
 
@@ -32,7 +35,10 @@ import java.util.concurrent.Executor;
  */
 public abstract class AbstractPartitionMessageTask<P>
         extends AbstractMessageTask<P>
-        implements ExecutionCallback, Executor {
+        implements ExecutionCallback, Executor, OperationResponseHandler {
+
+    // set when the partition of the request is not owned by this member, the client is told to refresh its partition table
+    private boolean staleOwner;
 
     protected AbstractPartitionMessageTask(ClientMessage clientMessage, Node node, Connection connection) {
         super(clientMessage, node, connection);
@@ -58,19 +64,65 @@ public abstract class AbstractPartitionMessageTask<P>
 
     @Override
     public final void processMessage() {
+        int partitionId = getPartitionId();
+        staleOwner = partitionId >= 0 && !nodeEngine.getPartitionService().isPartitionOwner(partitionId);
         beforeProcess();
         Operation op = prepareOperation();
         op.setCallerUuid(endpoint.getUuid());
+        if (clientEngine.isDirectRunEnabled() && canRunOnPartitionThread()
+                && nodeEngine.getOperationService().runOnPartitionThread(getServiceName(), op, getPartitionId(), this)) {
+            return;
+        }
+        invoke(op);
+    }
+
+    private void invoke(Operation op) {
         ICompletableFuture f = nodeEngine.getOperationService()
-                .createInvocationBuilder(getServiceName(), op, getPartitionId())
-                .setResultDeserialized(false)
-                .invoke();
+                .invokeOnPartitionBatched(getServiceName(), op, getPartitionId(), false);
 
         f.andThen(this, this);
     }
 
     protected abstract Operation prepareOperation();
 
+    /**
+     * Checks if the operation of this task can be run directly on the partition thread, without an invocation, when the
+     * partition is owned by this member. This is only allowed for operations which don't wait for synchronous backups.
+     *
+     * @return {@code true} if the operation can be run directly, {@code false} otherwise
+     * @see com.hazelcast.spi.properties.GroupProperty#CLIENT_ENGINE_DIRECT_RUN_ENABLED
+     */
+    protected boolean canRunOnPartitionThread() {
+        return false;
+    }
+
+    /**
+     * Receives the response of an operation which was run directly on the partition thread.
+     */
+    @Override
+    public void sendResponse(Operation op, Object response) {
+        if (response instanceof RetryableException) {
+            // e.g. the partition is migrating; the invocation takes care of the retries
+            Operation retryOp = prepareOperation();
+            retryOp.setCallerUuid(endpoint.getUuid());
+            invoke(retryOp);
+        } else if (response instanceof Throwable) {
+            onFailure((Throwable) response);
+        } else if (response instanceof NormalResponse) {
+            onResponse(((NormalResponse) response).getValue());
+        } else {
+            onResponse(response);
+        }
+    }
+
+    @Override
+    protected void sendClientMessage(ClientMessage resultClientMessage) {
+        if (staleOwner) {
+            resultClientMessage.addFlag(ClientMessage.STALE_PARTITION_OWNER_FLAG);
+        }
+        super.sendClientMessage(resultClientMessage);
+    }
+
     @Override
     public void execute(Runnable command) {
         if (Thread.currentThread().getClass() == PartitionOperationThread.class) {
@@ -20,15 +20,9 @@ import com.hazelcast.client.impl.protocol.ClientMessage;
 import com.hazelcast.client.impl.protocol.codec.ClientGetPartitionsCodec;
 import com.hazelcast.instance.Node;
 import com.hazelcast.internal.partition.InternalPartitionService;
-import com.hazelcast.nio.Address;
 import com.hazelcast.nio.Connection;
-import com.hazelcast.spi.partition.IPartition;
 
 import java.security.Permission;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
 
 public class GetPartitionsMessageTask
         extends AbstractCallableMessageTask<ClientGetPartitionsCodec.RequestParameters> {
@@ -41,22 +35,7 @@ public class GetPartitionsMessageTask
         InternalPartitionService service = getService(InternalPartitionService.SERVICE_NAME);
         service.firstArrangement();
 
-        Map<Address, List<Integer>> partitionsMap = new HashMap<Address, List<Integer>>();
-
-        for (IPartition partition : service.getPartitions()) {
-            Address owner = partition.getOwnerOrNull();
-            if (owner == null) {
-                partitionsMap.clear();
-                return ClientGetPartitionsCodec.encodeResponse(partitionsMap.entrySet());
-            }
-            List<Integer> indexes = partitionsMap.get(owner);
-            if (indexes == null) {
-                indexes = new LinkedList<Integer>();
-                partitionsMap.put(owner, indexes);
-            }
-            indexes.add(partition.getPartitionId());
-        }
-        return ClientGetPartitionsCodec.encodeResponse(partitionsMap.entrySet());
+        return clientEngine.getPartitionTableCache().getPartitionTable(service);
     }
 
     @Override
@@ -54,6 +54,12 @@ public abstract class AbstractCacheMessageTask<P>
         return service.getCacheOperationProvider(name, inMemoryFormat);
     }
 
+    protected final boolean hasNoSyncBackups(String name) {
+        ICacheService service = getService(CacheService.SERVICE_NAME);
+        CacheConfig cacheConfig = service.getCacheConfig(name);
+        return cacheConfig != null && cacheConfig.getBackupCount() == 0;
+    }
+
     @Override
     public String getServiceName() {
         return CacheService.SERVICE_NAME;
@@ -48,6 +48,11 @@ public class CacheGetMessageTask
         return operationProvider.createGetOperation(parameters.key, expiryPolicy);
     }
 
+    @Override
+    protected boolean canRunOnPartitionThread() {
+        return true;
+    }
+
     @Override
     protected CacheGetCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
         return CacheGetCodec.decodeRequest(clientMessage);
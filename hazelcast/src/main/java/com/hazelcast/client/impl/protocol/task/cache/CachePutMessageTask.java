@@ -49,6 +49,11 @@ public class CachePutMessageTask
                 .createPutOperation(parameters.key, parameters.value, expiryPolicy, parameters.get, parameters.completionId);
     }
 
+    @Override
+    protected boolean canRunOnPartitionThread() {
+        return hasNoSyncBackups(parameters.name);
+    }
+
     @Override
     protected CachePutCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
         return CachePutCodec.decodeRequest(clientMessage);
@@ -46,6 +46,11 @@ public class CacheRemoveMessageTask
         return operationProvider.createRemoveOperation(parameters.key, parameters.currentValue, parameters.completionId);
     }
 
+    @Override
+    protected boolean canRunOnPartitionThread() {
+        return hasNoSyncBackups(parameters.name);
+    }
+
     @Override
     protected CacheRemoveCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
         return CacheRemoveCodec.decodeRequest(clientMessage);
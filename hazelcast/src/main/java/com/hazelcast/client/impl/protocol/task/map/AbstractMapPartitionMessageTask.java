@@ -35,4 +35,9 @@ abstract class AbstractMapPartitionMessageTask<P> extends AbstractPartitionMessa
         MapServiceContext mapServiceContext = mapService.getMapServiceContext();
         return mapServiceContext.getMapOperationProvider(mapName);
     }
+
+    protected final boolean hasNoSyncBackups(String mapName) {
+        MapService mapService = getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext().getMapContainer(mapName).getBackupCount() == 0;
+    }
 }
@@ -32,6 +32,7 @@ import com.hazelcast.projection.Projection;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.security.permission.ActionConstants;
 import com.hazelcast.security.permission.MapPermission;
+import com.hazelcast.spi.exception.TargetDisconnectedException;
 import com.hazelcast.spi.impl.operationservice.InternalOperationService;
 import com.hazelcast.util.BitSetUtils;
 import com.hazelcast.util.IterationType;
@@ -44,15 +45,20 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
 import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
 import static com.hazelcast.util.BitSetUtils.hasAtLeastOneBitSet;
 import static com.hazelcast.util.ExceptionUtil.rethrow;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public abstract class AbstractMapQueryMessageTask<P, QueryResult extends Result, AccumulatedResults, ReducedResult>
         extends AbstractCallableMessageTask<P> {
 
+    // how often a query which waits for its results checks whether its client is still connected
+    private static final long CLIENT_CHECK_INTERVAL_MILLIS = 1000;
+
     protected AbstractMapQueryMessageTask(ClientMessage clientMessage, Node node, Connection connection) {
         super(clientMessage, node, connection);
     }
@@ -67,6 +73,25 @@ public abstract class AbstractMapQueryMessageTask<P, QueryResult extends Result,
         return new MapPermission(getDistributedObjectName(), ActionConstants.ACTION_READ);
     }
 
+    /**
+     * Reads the name of the queried map from the request without decoding the request, so the query can be scheduled
+     * before it is run. The map name is the first parameter of all map query requests.
+     *
+     * @return the name of the queried map
+     */
+    public String getMapName() {
+        return ClientMessage.createForDecode(clientMessage.buffer(), 0).getStringUtf8();
+    }
+
+    /**
+     * Fails the query without running it.
+     *
+     * @param cause the reason of the failure, sent to the client
+     */
+    public void abandon(Throwable cause) {
+        handleProcessingFailure(cause);
+    }
+
     protected abstract Predicate getPredicate();
 
     protected abstract Aggregator<?, ?> getAggregator();
@@ -87,6 +112,7 @@ public abstract class AbstractMapQueryMessageTask<P, QueryResult extends Result,
             int partitionCount = clientEngine.getPartitionService().getPartitionCount();
 
             BitSet finishedPartitions = invokeOnMembers(result, predicate, partitionCount);
+            checkClientConnected();
             invokeOnMissingPartitions(result, predicate, finishedPartitions, partitionCount);
         } catch (Throwable t) {
             throw rethrow(t);
@@ -160,7 +186,7 @@ public abstract class AbstractMapQueryMessageTask<P, QueryResult extends Result,
         BitSet finishedPartitions = new BitSet(partitionCount);
         for (Future future : futures) {
             try {
-                QueryResult queryResult = (QueryResult) future.get();
+                QueryResult queryResult = (QueryResult) getResult(future);
                 if (queryResult != null) {
                     Collection<Integer> partitionIds = queryResult.getPartitionIds();
                     if (partitionIds != null && !hasAtLeastOneBitSet(finishedPartitions, partitionIds)) {
@@ -173,7 +199,7 @@ public abstract class AbstractMapQueryMessageTask<P, QueryResult extends Result,
                     }
                 }
             } catch (Throwable t) {
-                if (t.getCause() instanceof QueryResultSizeExceededException) {
+                if (t.getCause() instanceof QueryResultSizeExceededException || !connection.isAlive()) {
                     throw rethrow(t);
                 } else {
                     // log failure to invoke query on member at fine level
@@ -223,7 +249,7 @@ public abstract class AbstractMapQueryMessageTask<P, QueryResult extends Result,
                                                      List<Future> futures)
             throws InterruptedException, ExecutionException {
         for (Future future : futures) {
-            QueryResult queryResult = (QueryResult) future.get();
+            QueryResult queryResult = (QueryResult) getResult(future);
             if (queryResult.getPartitionIds() != null && queryResult.getPartitionIds().size() > 0
                     && !hasAtLeastOneBitSet(finishedPartitions, queryResult.getPartitionIds())) {
                 extractAndAppendResult(result, queryResult);
@@ -231,4 +257,25 @@ public abstract class AbstractMapQueryMessageTask<P, QueryResult extends Result,
             }
         }
     }
+
+    /**
+     * Waits for the result of a query invocation, but gives up on it as soon as the client disconnects, since the client
+     * can't receive the result of the query anymore.
+     */
+    private Object getResult(Future future) throws InterruptedException, ExecutionException {
+        while (true) {
+            try {
+                return future.get(CLIENT_CHECK_INTERVAL_MILLIS, MILLISECONDS);
+            } catch (TimeoutException e) {
+                checkClientConnected();
+            }
+        }
+    }
+
+    private void checkClientConnected() {
+        if (!connection.isAlive()) {
+            throw new TargetDisconnectedException("Abandoning the query on map " + getDistributedObjectName()
+                    + ", since the client connection " + connection + " is closed");
+        }
+    }
 }
@@ -43,6 +43,11 @@ public class MapContainsKeyMessageTask
         return operation;
     }
 
+    @Override
+    protected boolean canRunOnPartitionThread() {
+        return true;
+    }
+
     @Override
     protected MapContainsKeyCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
         return MapContainsKeyCodec.decodeRequest(clientMessage);
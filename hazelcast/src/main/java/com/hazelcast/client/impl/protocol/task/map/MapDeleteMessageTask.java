@@ -44,6 +44,11 @@ public class MapDeleteMessageTask
         return op;
     }
 
+    @Override
+    protected boolean canRunOnPartitionThread() {
+        return hasNoSyncBackups(parameters.name);
+    }
+
     @Override
     protected MapDeleteCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
         return MapDeleteCodec.decodeRequest(clientMessage);
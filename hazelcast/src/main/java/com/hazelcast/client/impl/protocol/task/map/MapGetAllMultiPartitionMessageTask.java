@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.protocol.task.map;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.MapGetAllCodec;
+import com.hazelcast.client.impl.protocol.task.AbstractMultiPartitionMessageTask;
+import com.hazelcast.instance.Node;
+import com.hazelcast.map.impl.MapEntries;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+import com.hazelcast.spi.OperationFactory;
+import com.hazelcast.spi.partition.IPartitionService;
+
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handles a {@link MapGetAllCodec} request which was sent to a member instead of a partition, with the keys of all
+ * partitions the client expects the member to own. The keys are grouped by partition and the partitions are processed
+ * in parallel on their partition threads, so the client needs a single round trip per member.
+ *
+ * @see MapGetAllMessageTask
+ */
+public class MapGetAllMultiPartitionMessageTask
+        extends AbstractMultiPartitionMessageTask<MapGetAllCodec.RequestParameters> {
+
+    private int[] partitions;
+    private List<Data>[] keys;
+
+    public MapGetAllMultiPartitionMessageTask(ClientMessage clientMessage, Node node, Connection connection) {
+        super(clientMessage, node, connection);
+    }
+
+    @Override
+    protected OperationFactory createOperationFactory() {
+        groupKeysByPartition();
+        MapService mapService = getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        return mapServiceContext.getMapOperationProvider(parameters.name)
+                .createGetAllOperationFactory(parameters.name, partitions, keys);
+    }
+
+    @Override
+    protected Object reduce(Map<Integer, Object> map) {
+        List<Map.Entry<Data, Data>> entries = new ArrayList<Map.Entry<Data, Data>>(parameters.keys.size());
+
+        MapService mapService = getService(MapService.SERVICE_NAME);
+        for (Object o : map.values()) {
+            if (o != null) {
+                MapEntries mapEntries = (MapEntries) mapService.getMapServiceContext().toObject(o);
+                mapEntries.putAllToList(entries);
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public Collection<Integer> getPartitions() {
+        groupKeysByPartition();
+        List<Integer> partitionIds = new ArrayList<Integer>(partitions.length);
+        for (int partitionId : partitions) {
+            partitionIds.add(partitionId);
+        }
+        return partitionIds;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void groupKeysByPartition() {
+        if (partitions != null) {
+            return;
+        }
+
+        IPartitionService partitionService = nodeEngine.getPartitionService();
+        Map<Integer, List<Data>> partitionToKeys = new HashMap<Integer, List<Data>>();
+        for (Data key : parameters.keys) {
+            int partitionId = partitionService.getPartitionId(key);
+            List<Data> partitionKeys = partitionToKeys.get(partitionId);
+            if (partitionKeys == null) {
+                partitionKeys = new ArrayList<Data>();
+                partitionToKeys.put(partitionId, partitionKeys);
+            }
+            partitionKeys.add(key);
+        }
+
+        partitions = new int[partitionToKeys.size()];
+        keys = new List[partitionToKeys.size()];
+        int index = 0;
+        for (Map.Entry<Integer, List<Data>> entry : partitionToKeys.entrySet()) {
+            partitions[index] = entry.getKey();
+            keys[index] = entry.getValue();
+            index++;
+        }
+    }
+
+    @Override
+    protected MapGetAllCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
+        return MapGetAllCodec.decodeRequest(clientMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected ClientMessage encodeResponse(Object response) {
+        return MapGetAllCodec.encodeResponse((List<Map.Entry<Data, Data>>) response);
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return new MapPermission(parameters.name, ActionConstants.ACTION_READ);
+    }
+
+    @Override
+    public String getDistributedObjectName() {
+        return parameters.name;
+    }
+
+    @Override
+    public String getMethodName() {
+        return "getAll";
+    }
+
+    @Override
+    public Object[] getParameters() {
+        return new Object[]{parameters.keys};
+    }
+}
@@ -39,6 +39,11 @@ public class MapGetMessageTask
         super(clientMessage, node, connection);
     }
 
+    @Override
+    protected boolean canRunOnPartitionThread() {
+        return true;
+    }
+
     @Override
     protected MapGetCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
         return MapGetCodec.decodeRequest(clientMessage);
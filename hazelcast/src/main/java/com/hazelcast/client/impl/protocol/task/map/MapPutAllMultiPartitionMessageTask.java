@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.protocol.task.map;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.MapPutAllCodec;
+import com.hazelcast.client.impl.protocol.task.AbstractMultiPartitionMessageTask;
+import com.hazelcast.instance.Node;
+import com.hazelcast.map.impl.MapEntries;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.security.permission.ActionConstants;
+import com.hazelcast.security.permission.MapPermission;
+import com.hazelcast.spi.OperationFactory;
+import com.hazelcast.spi.partition.IPartitionService;
+
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handles a {@link MapPutAllCodec} request which was sent to a member instead of a partition, with the entries of all
+ * partitions the client expects the member to own. The entries are grouped by partition and the partitions are processed
+ * in parallel on their partition threads, so the client needs a single round trip per member.
+ *
+ * @see MapPutAllMessageTask
+ */
+public class MapPutAllMultiPartitionMessageTask
+        extends AbstractMultiPartitionMessageTask<MapPutAllCodec.RequestParameters> {
+
+    private int[] partitions;
+    private MapEntries[] mapEntries;
+
+    public MapPutAllMultiPartitionMessageTask(ClientMessage clientMessage, Node node, Connection connection) {
+        super(clientMessage, node, connection);
+    }
+
+    @Override
+    protected OperationFactory createOperationFactory() {
+        groupEntriesByPartition();
+        MapService mapService = getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        return mapServiceContext.getMapOperationProvider(parameters.name)
+                .createPutAllOperationFactory(parameters.name, partitions, mapEntries);
+    }
+
+    @Override
+    protected Object reduce(Map<Integer, Object> map) {
+        return null;
+    }
+
+    @Override
+    public Collection<Integer> getPartitions() {
+        groupEntriesByPartition();
+        List<Integer> partitionIds = new ArrayList<Integer>(partitions.length);
+        for (int partitionId : partitions) {
+            partitionIds.add(partitionId);
+        }
+        return partitionIds;
+    }
+
+    private void groupEntriesByPartition() {
+        if (partitions != null) {
+            return;
+        }
+
+        IPartitionService partitionService = nodeEngine.getPartitionService();
+        Map<Integer, MapEntries> partitionToEntries = new HashMap<Integer, MapEntries>();
+        for (Map.Entry<Data, Data> entry : parameters.entries) {
+            int partitionId = partitionService.getPartitionId(entry.getKey());
+            MapEntries partitionEntries = partitionToEntries.get(partitionId);
+            if (partitionEntries == null) {
+                partitionEntries = new MapEntries();
+                partitionToEntries.put(partitionId, partitionEntries);
+            }
+            partitionEntries.add(entry.getKey(), entry.getValue());
+        }
+
+        partitions = new int[partitionToEntries.size()];
+        mapEntries = new MapEntries[partitionToEntries.size()];
+        int index = 0;
+        for (Map.Entry<Integer, MapEntries> entry : partitionToEntries.entrySet()) {
+            partitions[index] = entry.getKey();
+            mapEntries[index] = entry.getValue();
+            index++;
+        }
+    }
+
+    @Override
+    protected MapPutAllCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
+        return MapPutAllCodec.decodeRequest(clientMessage);
+    }
+
+    @Override
+    protected ClientMessage encodeResponse(Object response) {
+        return MapPutAllCodec.encodeResponse();
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public Permission getRequiredPermission() {
+        return new MapPermission(parameters.name, ActionConstants.ACTION_PUT);
+    }
+
+    @Override
+    public String getDistributedObjectName() {
+        return parameters.name;
+    }
+
+    @Override
+    public String getMethodName() {
+        return "putAll";
+    }
+
+    @Override
+    public Object[] getParameters() {
+        Map<Data, Data> map = new HashMap<Data, Data>();
+        for (Map.Entry<Data, Data> entry : parameters.entries) {
+            map.put(entry.getKey(), entry.getValue());
+        }
+        return new Object[]{map};
+    }
+}
@@ -43,6 +43,11 @@ public class MapPutMessageTask
     }
 
 
+    @Override
+    protected boolean canRunOnPartitionThread() {
+        return hasNoSyncBackups(parameters.name);
+    }
+
     @Override
     protected MapPutCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
         return MapPutCodec.decodeRequest(clientMessage);
@@ -63,6 +63,11 @@ public class MapRemoveMessageTask
         return op;
     }
 
+    @Override
+    protected boolean canRunOnPartitionThread() {
+        return hasNoSyncBackups(parameters.name);
+    }
+
     @Override
     protected MapRemoveCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
         return MapRemoveCodec.decodeRequest(clientMessage);
@@ -42,6 +42,11 @@ public class MapSetMessageTask
         return op;
     }
 
+    @Override
+    protected boolean canRunOnPartitionThread() {
+        return hasNoSyncBackups(parameters.name);
+    }
+
     @Override
     protected MapSetCodec.RequestParameters decodeClientMessage(ClientMessage clientMessage) {
         return MapSetCodec.decodeRequest(clientMessage);
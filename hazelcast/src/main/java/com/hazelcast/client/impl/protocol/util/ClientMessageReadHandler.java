@@ -86,7 +86,8 @@ public class ClientMessageReadHandler implements ReadHandler {
                 }
             }
 
-            message = ClientMessage.create();
+            // the fragment was copied to its builder, so its buffer can be reused for the next frame
+            message.index(0);
             messagesCreated++;
         }
     }
@@ -179,7 +179,7 @@ public class MessageFlyweight {
     public List<Data> getDataList() {
         final int length = buffer.getInt(index + offset);
         index += Bits.INT_SIZE_IN_BYTES;
-        final List<Data> result = new ArrayList<Data>();
+        final List<Data> result = new ArrayList<Data>(length);
         for (int i = 0; i < length; i++) {
             result.add(getData());
         }
@@ -187,10 +187,7 @@ public class UnsafeBuffer implements ClientProtocolBuffer {
 
     @Override
     public String getStringUtf8(final int offset, final int length) {
-        final byte[] stringInBytes = new byte[length];
-        getBytes(offset + Bits.INT_SIZE_IN_BYTES, stringInBytes);
-
-        return new String(stringInBytes, Bits.UTF_8);
+        return new String(byteArray(), offset + Bits.INT_SIZE_IN_BYTES, length, Bits.UTF_8);
     }
 
     @Override
@@ -200,15 +197,7 @@ public class UnsafeBuffer implements ClientProtocolBuffer {
 
     @Override
     public int putStringUtf8(final int index, final String value, final int maxEncodedSize) {
-        final byte[] bytes = value.getBytes(Bits.UTF_8);
-        if (bytes.length > maxEncodedSize) {
-            throw new IllegalArgumentException("Encoded string larger than maximum size: " + maxEncodedSize);
-        }
-
-        putInt(index, bytes.length);
-        putBytes(index + Bits.INT_SIZE_IN_BYTES, bytes);
-
-        return Bits.INT_SIZE_IN_BYTES + bytes.length;
+        return Utf8Encoding.putStringUtf8(this, index, value, maxEncodedSize);
     }
 
     ///////////////////////////////////////////////////////////////////////////
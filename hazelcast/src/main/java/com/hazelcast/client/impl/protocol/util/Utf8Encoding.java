@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.protocol.util;
+
+import com.hazelcast.nio.Bits;
+
+/**
+ * Encodes strings as UTF-8 straight into the backing array of a {@link ClientProtocolBuffer}, without the intermediate
+ * byte array of {@link String#getBytes(java.nio.charset.Charset)}. The output is the same as the one of
+ * {@code getBytes(UTF_8)}: supplementary characters are written as 4 bytes and unpaired surrogates as {@code '?'}.
+ * <p/>
+ * At most {@link ParameterUtil#UTF8_MAX_BYTES_PER_CHAR} bytes are written per char, which is what the codecs reserve
+ * for a string.
+ */
+final class Utf8Encoding {
+
+    private static final int FOUR_BYTE_LEAD = 0xF0;
+    private static final int FOUR_BYTE_LENGTH = 4;
+    private static final int CONTINUATION = 0x80;
+    private static final int CONTINUATION_MASK = 0x3F;
+    private static final int BITS_PER_CONTINUATION = 6;
+    private static final byte REPLACEMENT = '?';
+
+    private Utf8Encoding() {
+    }
+
+    /**
+     * Writes the length prefixed UTF-8 bytes of the string to the buffer.
+     *
+     * @param buffer         the buffer to write to
+     * @param index          the position of the length prefix
+     * @param value          the string to write
+     * @param maxEncodedSize the maximum number of UTF-8 bytes allowed
+     * @return the number of bytes written, including the length prefix
+     * @throws IllegalArgumentException if the string is encoded in more than {@code maxEncodedSize} bytes
+     */
+    static int putStringUtf8(ClientProtocolBuffer buffer, int index, String value, int maxEncodedSize) {
+        int length;
+        if ((long) value.length() * ParameterUtil.UTF8_MAX_BYTES_PER_CHAR <= maxEncodedSize) {
+            length = encode(buffer.byteArray(), index + Bits.INT_SIZE_IN_BYTES, value);
+        } else {
+            // the string might not fit, so it is encoded aside to check its size before anything is written
+            byte[] bytes = value.getBytes(Bits.UTF_8);
+            if (bytes.length > maxEncodedSize) {
+                throw new IllegalArgumentException("Encoded string larger than maximum size: " + maxEncodedSize);
+            }
+            buffer.putBytes(index + Bits.INT_SIZE_IN_BYTES, bytes);
+            length = bytes.length;
+        }
+        buffer.putInt(index, length);
+        return Bits.INT_SIZE_IN_BYTES + length;
+    }
+
+    /**
+     * Writes the UTF-8 bytes of the string to the array.
+     *
+     * @param dst   the array to write to
+     * @param pos   the position of the first byte
+     * @param value the string to write
+     * @return the number of bytes written
+     */
+    static int encode(byte[] dst, int pos, String value) {
+        int index = pos;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+                index += Bits.writeUtf8Char(dst, index, c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                index += writeCodePoint(dst, index, Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                dst[index++] = REPLACEMENT;
+            }
+        }
+        return index - pos;
+    }
+
+    private static int writeCodePoint(byte[] dst, int pos, int codePoint) {
+        dst[pos] = (byte) (FOUR_BYTE_LEAD | codePoint >> (3 * BITS_PER_CONTINUATION));
+        dst[pos + 1] = (byte) (CONTINUATION | codePoint >> (2 * BITS_PER_CONTINUATION) & CONTINUATION_MASK);
+        dst[pos + 2] = (byte) (CONTINUATION | codePoint >> BITS_PER_CONTINUATION & CONTINUATION_MASK);
+        dst[pos + 3] = (byte) (CONTINUATION | codePoint & CONTINUATION_MASK);
+        return FOUR_BYTE_LENGTH;
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import com.hazelcast.spi.annotation.Beta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.util.Preconditions.checkNotNull;
+import static com.hazelcast.util.Preconditions.checkPositive;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * The Pipelining can be used to speed up requests by sending them asynchronously while bounding the number of
+ * requests in flight.
+ * <p>
+ * Sending requests one by one is slow due to the network round trip; sending all of them asynchronously can overload
+ * the system and lead to rejected requests or an out of memory. The Pipelining sits in between: after a request is
+ * added, the {@link #add(ICompletableFuture)} method blocks until the number of requests in flight is below the
+ * configured depth, so the next request is only issued when a slot is free. The results are returned in the order
+ * the requests were added.
+ * <pre>
+ *     Pipelining&lt;String&gt; pipelining = new Pipelining&lt;String&gt;(10);
+ *     for (long k = 0; k &lt; 100; k++) {
+ *         int key = random.nextInt();
+ *         pipelining.add(map.getAsync(key));
+ *     }
+ *     // wait for completion
+ *     List&lt;String&gt; results = pipelining.results();
+ * </pre>
+ * The Pipelining can be used with any {@link ICompletableFuture}, so it works with the async methods of e.g. the
+ * {@link IMap} and the {@link com.hazelcast.cache.ICache} on both members and clients.
+ * <p>
+ * The Pipelining isn't threadsafe; only a single thread should add requests and retrieve the results. The statistics
+ * like {@link #getCompletedCount()} can be read by any thread.
+ * <p>
+ * All results are kept in memory till the Pipelining is discarded, so for a large number of requests multiple
+ * Pipelining instances should be used in sequence.
+ *
+ * @param <E> the type of the results
+ * @since 3.9
+ */
+@Beta
+public class Pipelining<E> {
+
+    private static final Executor CALLER_RUNS = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final int depth;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final List<ICompletableFuture<E>> futures = new ArrayList<ICompletableFuture<E>>();
+    private volatile Thread thread;
+    private volatile long startNanos;
+
+    /**
+     * Creates a Pipelining with the given depth.
+     *
+     * @param depth the maximum number of requests in flight
+     * @throws IllegalArgumentException if depth is smaller than 1
+     */
+    public Pipelining(int depth) {
+        this.depth = checkPositive(depth, "depth must be positive");
+    }
+
+    /**
+     * Adds a future to this Pipelining. If the number of requests in flight has reached the depth, this call blocks
+     * until one of the requests completes.
+     *
+     * @param future the future of the request
+     * @return the future
+     * @throws InterruptedException if the thread is interrupted while waiting for a request to complete
+     * @throws NullPointerException if future is null
+     */
+    public ICompletableFuture<E> add(ICompletableFuture<E> future) throws InterruptedException {
+        checkNotNull(future, "future can't be null");
+
+        long nowNanos = System.nanoTime();
+        if (futures.isEmpty()) {
+            startNanos = nowNanos;
+        }
+        thread = Thread.currentThread();
+        futures.add(future);
+        inFlight.incrementAndGet();
+        future.andThen(new CompletionCallback(nowNanos), CALLER_RUNS);
+
+        awaitInFlightBelow(depth);
+        return future;
+    }
+
+    /**
+     * Returns the results of all requests in the order they were added. This call blocks till all requests have
+     * completed.
+     *
+     * @return the results
+     * @throws InterruptedException if the thread is interrupted while waiting for the requests to complete
+     * @throws Exception            if one of the requests failed; the first failure in order of submission is thrown
+     */
+    public List<E> results() throws Exception {
+        thread = Thread.currentThread();
+        awaitInFlightBelow(1);
+
+        List<E> results = new ArrayList<E>(futures.size());
+        for (ICompletableFuture<E> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private void awaitInFlightBelow(int limit) throws InterruptedException {
+        while (inFlight.get() >= limit) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Returns the maximum number of requests in flight.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     *
+     * @return the number of requests in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the number of completed requests; successful or not.
+     *
+     * @return the number of completed requests
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * Returns the number of completed requests per second since the first request was added.
+     *
+     * @return the throughput
+     */
+    public double getThroughput() {
+        long count = completed.get();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (count == 0 || elapsedNanos <= 0) {
+            return 0;
+        }
+        return count * (double) SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Returns the average latency of the completed requests. The latency of a request is measured from the moment its
+     * future was added till the moment it completed.
+     *
+     * @param unit the time unit of the returned value
+     * @return the average latency
+     */
+    public long getAverageLatency(TimeUnit unit) {
+        long count = completed.get();
+        return count == 0 ? 0 : unit.convert(totalLatencyNanos.get() / count, NANOSECONDS);
+    }
+
+    /**
+     * Returns the highest latency of the completed requests.
+     *
+     * @param unit the time unit of the returned value
+     * @return the maximum latency
+     */
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(maxLatencyNanos.get(), NANOSECONDS);
+    }
+
+    private void onComplete(long addNanos) {
+        long latencyNanos = System.nanoTime() - addNanos;
+        totalLatencyNanos.addAndGet(latencyNanos);
+        for (; ; ) {
+            long max = maxLatencyNanos.get();
+            if (latencyNanos <= max || maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+                break;
+            }
+        }
+        completed.incrementAndGet();
+
+        inFlight.decrementAndGet();
+        LockSupport.unpark(thread);
+    }
+
+    private final class CompletionCallback implements ExecutionCallback<E> {
+
+        private final long addNanos;
+
+        CompletionCallback(long addNanos) {
+            this.addNanos = addNanos;
+        }
+
+        @Override
+        public void onResponse(E response) {
+            onComplete(addNanos);
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            onComplete(addNanos);
+        }
+    }
+}
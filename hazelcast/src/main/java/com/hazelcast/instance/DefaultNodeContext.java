@@ -30,6 +30,8 @@ import com.hazelcast.spi.annotation.PrivateApi;
 
 import java.nio.channels.ServerSocketChannel;
 
+import static com.hazelcast.spi.properties.GroupProperty.IO_WRITE_THROUGH_ENABLED;
+
 @PrivateApi
 public class DefaultNodeContext implements NodeContext {
 
@@ -77,7 +79,7 @@ public class DefaultNodeContext implements NodeContext {
                     socketWriterInitializer,
                     socketReaderInitializer);
         } else {
-            return new NonBlockingIOThreadingModel(
+            NonBlockingIOThreadingModel threadingModel = new NonBlockingIOThreadingModel(
                     loggingService,
                     node.nodeEngine.getMetricsRegistry(),
                     node.getHazelcastThreadGroup(),
@@ -87,6 +89,8 @@ public class DefaultNodeContext implements NodeContext {
                     socketWriterInitializer,
                     socketReaderInitializer
             );
+            threadingModel.setWriteThroughEnabled(node.getProperties().getBoolean(IO_WRITE_THROUGH_ENABLED));
+            return threadingModel;
         }
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.cluster.fd;
+
+import com.hazelcast.core.Member;
+
+/**
+ * Cluster failure detector tracks heartbeats of the members and decides liveness/availability of them.
+ * <p/>
+ * The timestamps passed to the methods must be from the same clock, the cluster clock is used by the
+ * {@link com.hazelcast.internal.cluster.impl.ClusterHeartbeatManager}.
+ */
+public interface ClusterFailureDetector {
+
+    /**
+     * Notifies this failure detector about a heartbeat received from a member.
+     *
+     * @param member    the member which has sent the heartbeat
+     * @param timestamp the time when the heartbeat is received
+     */
+    void heartbeat(Member member, long timestamp);
+
+    /**
+     * Returns true if the given member is considered alive/available.
+     *
+     * @param member    the member to check
+     * @param timestamp the current time
+     * @return true if the member is alive
+     */
+    boolean isAlive(Member member, long timestamp);
+
+    /**
+     * Returns the last heartbeat time of the given member.
+     *
+     * @param member the member
+     * @return the last heartbeat time, 0 if no heartbeat is received from the member
+     */
+    long lastHeartbeat(Member member);
+
+    /**
+     * Returns the suspicion level of the given member. The member is considered dead when its suspicion level
+     * reaches the threshold of the failure detector. The scale of the level depends on the implementation.
+     *
+     * @param member    the member
+     * @param timestamp the current time
+     * @return the suspicion level, 0 if the member is not suspected
+     */
+    double suspicionLevel(Member member, long timestamp);
+
+    /**
+     * Removes the heartbeat history of the given member.
+     *
+     * @param member the member
+     */
+    void remove(Member member);
+
+    /**
+     * Clears the heartbeat histories of all members.
+     */
+    void reset();
+}
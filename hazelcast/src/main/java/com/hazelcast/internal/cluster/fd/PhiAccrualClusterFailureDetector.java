@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.cluster.fd;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.util.ConstructorFunction;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.hazelcast.util.ConcurrencyUtil.getOrPutIfAbsent;
+
+/**
+ * Cluster failure detector which keeps a {@link PhiAccrualFailureDetector} per member, fed by the heartbeats of
+ * the member. The suspicion level is the phi value of the member.
+ *
+ * @see GroupProperty#HEARTBEAT_PHI_FAILURE_DETECTOR_THRESHOLD
+ * @see GroupProperty#HEARTBEAT_PHI_FAILURE_DETECTOR_SAMPLE_SIZE
+ * @see GroupProperty#HEARTBEAT_PHI_FAILURE_DETECTOR_MIN_STD_DEV_MILLIS
+ * @see GroupProperty#HEARTBEAT_PHI_FAILURE_DETECTOR_ACCEPTABLE_PAUSE_MILLIS
+ */
+public class PhiAccrualClusterFailureDetector implements ClusterFailureDetector {
+
+    private final double threshold;
+    private final int maxSampleSize;
+    private final double minStdDeviationMillis;
+    private final long acceptableHeartbeatPauseMillis;
+    private final long heartbeatIntervalMillis;
+    private final ConcurrentMap<Member, PhiAccrualFailureDetector> detectors
+            = new ConcurrentHashMap<Member, PhiAccrualFailureDetector>();
+
+    private final ConstructorFunction<Member, PhiAccrualFailureDetector> detectorConstructor
+            = new ConstructorFunction<Member, PhiAccrualFailureDetector>() {
+        @Override
+        public PhiAccrualFailureDetector createNew(Member member) {
+            return new PhiAccrualFailureDetector(threshold, maxSampleSize, minStdDeviationMillis,
+                    acceptableHeartbeatPauseMillis, heartbeatIntervalMillis);
+        }
+    };
+
+    public PhiAccrualClusterFailureDetector(double threshold, int maxSampleSize, double minStdDeviationMillis,
+                                            long acceptableHeartbeatPauseMillis, long heartbeatIntervalMillis) {
+        this.threshold = threshold;
+        this.maxSampleSize = maxSampleSize;
+        this.minStdDeviationMillis = minStdDeviationMillis;
+        this.acceptableHeartbeatPauseMillis = acceptableHeartbeatPauseMillis;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+    }
+
+    public PhiAccrualClusterFailureDetector(HazelcastProperties properties, long heartbeatIntervalMillis) {
+        this(properties.getFloat(GroupProperty.HEARTBEAT_PHI_FAILURE_DETECTOR_THRESHOLD),
+                properties.getInteger(GroupProperty.HEARTBEAT_PHI_FAILURE_DETECTOR_SAMPLE_SIZE),
+                properties.getMillis(GroupProperty.HEARTBEAT_PHI_FAILURE_DETECTOR_MIN_STD_DEV_MILLIS),
+                properties.getMillis(GroupProperty.HEARTBEAT_PHI_FAILURE_DETECTOR_ACCEPTABLE_PAUSE_MILLIS),
+                heartbeatIntervalMillis);
+    }
+
+    @Override
+    public void heartbeat(Member member, long timestamp) {
+        getOrPutIfAbsent(detectors, member, detectorConstructor).heartbeat(timestamp);
+    }
+
+    @Override
+    public boolean isAlive(Member member, long timestamp) {
+        PhiAccrualFailureDetector detector = detectors.get(member);
+        // a member is considered dead until its first heartbeat, as the deadline failure detector does
+        return detector != null && detector.isAvailable(timestamp);
+    }
+
+    @Override
+    public long lastHeartbeat(Member member) {
+        PhiAccrualFailureDetector detector = detectors.get(member);
+        return detector != null ? Math.max(0L, detector.lastHeartbeat()) : 0L;
+    }
+
+    @Override
+    public double suspicionLevel(Member member, long timestamp) {
+        PhiAccrualFailureDetector detector = detectors.get(member);
+        return detector != null ? detector.phi(timestamp) : 0d;
+    }
+
+    @Override
+    public void remove(Member member) {
+        detectors.remove(member);
+    }
+
+    @Override
+    public void reset() {
+        detectors.clear();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.cluster.fd;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * Implementation of 'The Phi Accrual Failure Detector' by Hayashibara et al. for a single monitored resource.
+ * <p/>
+ * The failure detector learns the distribution of the heartbeat inter-arrival times and calculates the suspicion
+ * level phi from the time elapsed since the last heartbeat: {@code phi = -log10(1 - F(elapsed))}, where {@code F}
+ * is the cumulative distribution function of a normal distribution with the mean and the standard deviation of the
+ * recent inter-arrival times. A phi of 1 means a 10% chance of a false suspicion, a phi of 2 means 1% and so on.
+ * So the threshold adapts to the actual heartbeat delays of the network and the monitored process.
+ * <p/>
+ * The acceptable heartbeat pause is added to the mean, so pauses of the monitored process up to that duration
+ * don't raise the suspicion level significantly.
+ * <p/>
+ * Instances are thread-safe.
+ */
+public class PhiAccrualFailureDetector {
+
+    // constants of the logistic approximation of the cumulative normal distribution
+    private static final double LOGISTIC_FACTOR = 1.5976;
+    private static final double LOGISTIC_CUBIC_FACTOR = 0.070566;
+    // the standard deviation of the first heartbeat estimate relative to its mean
+    private static final int FIRST_HEARTBEAT_STD_DEV_DIVISOR = 4;
+
+    private final double threshold;
+    private final long acceptableHeartbeatPauseMillis;
+    private final double minStdDeviationMillis;
+    private final HeartbeatHistory heartbeatHistory;
+
+    private long lastHeartbeatMillis = -1;
+
+    /**
+     * @param threshold                      the phi threshold above which the resource is considered dead
+     * @param maxSampleSize                  the number of recent heartbeat inter-arrival times used in the calculation
+     * @param minStdDeviationMillis          the minimum standard deviation of the heartbeat inter-arrival times, which
+     *                                       prevents very regular heartbeats from causing a too sensitive detection
+     * @param acceptableHeartbeatPauseMillis the duration of the heartbeat pauses which are tolerated
+     * @param firstHeartbeatEstimateMillis   the expected heartbeat interval, used until the actual inter-arrival times
+     *                                       are measured
+     */
+    public PhiAccrualFailureDetector(double threshold, int maxSampleSize, double minStdDeviationMillis,
+                                     long acceptableHeartbeatPauseMillis, long firstHeartbeatEstimateMillis) {
+        checkPositive(threshold, "Threshold must be positive: " + threshold);
+        checkPositive(maxSampleSize, "Sample size must be positive: " + maxSampleSize);
+        checkPositive(minStdDeviationMillis, "Minimum standard deviation must be positive: " + minStdDeviationMillis);
+        checkPositive(firstHeartbeatEstimateMillis, "First heartbeat estimate must be positive: "
+                + firstHeartbeatEstimateMillis);
+
+        this.threshold = threshold;
+        this.minStdDeviationMillis = minStdDeviationMillis;
+        this.acceptableHeartbeatPauseMillis = Math.max(0, acceptableHeartbeatPauseMillis);
+        this.heartbeatHistory = new HeartbeatHistory(maxSampleSize);
+
+        // bootstrap the history with an estimate, so the suspicion level is meaningful before enough heartbeats arrive
+        long stdDeviationMillis = firstHeartbeatEstimateMillis / FIRST_HEARTBEAT_STD_DEV_DIVISOR;
+        heartbeatHistory.add(firstHeartbeatEstimateMillis - stdDeviationMillis);
+        heartbeatHistory.add(firstHeartbeatEstimateMillis + stdDeviationMillis);
+    }
+
+    /**
+     * Notifies the failure detector about a heartbeat.
+     *
+     * @param timestampMillis the time when the heartbeat is received
+     */
+    public synchronized void heartbeat(long timestampMillis) {
+        if (lastHeartbeatMillis >= 0) {
+            long interval = timestampMillis - lastHeartbeatMillis;
+            if (interval >= 0) {
+                heartbeatHistory.add(interval);
+            }
+        }
+        lastHeartbeatMillis = timestampMillis;
+    }
+
+    /**
+     * Returns true if the resource is considered available, which is the case until the first heartbeat.
+     *
+     * @param timestampMillis the current time
+     */
+    public boolean isAvailable(long timestampMillis) {
+        return phi(timestampMillis) < threshold;
+    }
+
+    /**
+     * Returns the last heartbeat time, -1 if no heartbeat is received yet.
+     */
+    public synchronized long lastHeartbeat() {
+        return lastHeartbeatMillis;
+    }
+
+    /**
+     * Returns the suspicion level phi of the resource at the given time, 0 until the first heartbeat.
+     *
+     * @param timestampMillis the current time
+     */
+    public synchronized double phi(long timestampMillis) {
+        if (lastHeartbeatMillis < 0) {
+            return 0d;
+        }
+        long timeDiffMillis = timestampMillis - lastHeartbeatMillis;
+        double meanMillis = heartbeatHistory.mean() + acceptableHeartbeatPauseMillis;
+        double stdDeviationMillis = Math.max(heartbeatHistory.stdDeviation(), minStdDeviationMillis);
+        return phi(timeDiffMillis, meanMillis, stdDeviationMillis);
+    }
+
+    /**
+     * Calculates the phi value using a logistic approximation of the cumulative normal distribution.
+     *
+     * @param timeDiffMillis     the time elapsed since the last heartbeat
+     * @param meanMillis         the mean of the heartbeat inter-arrival times
+     * @param stdDeviationMillis the standard deviation of the heartbeat inter-arrival times
+     * @return the phi value
+     */
+    static double phi(long timeDiffMillis, double meanMillis, double stdDeviationMillis) {
+        double y = (timeDiffMillis - meanMillis) / stdDeviationMillis;
+        double e = Math.exp(-y * (LOGISTIC_FACTOR + LOGISTIC_CUBIC_FACTOR * y * y));
+        if (timeDiffMillis > meanMillis) {
+            return -Math.log10(e / (1d + e));
+        } else {
+            return -Math.log10(1d - 1d / (1d + e));
+        }
+    }
+
+    /**
+     * Holds the recent heartbeat inter-arrival times with their sum and sum of squares, so the mean and the
+     * variance are calculated in constant time.
+     */
+    private static final class HeartbeatHistory {
+
+        private final int maxSampleSize;
+        private final Deque<Long> intervals = new ArrayDeque<Long>();
+        private long intervalSum;
+        private long squaredIntervalSum;
+
+        HeartbeatHistory(int maxSampleSize) {
+            this.maxSampleSize = maxSampleSize;
+        }
+
+        void add(long interval) {
+            if (intervals.size() >= maxSampleSize) {
+                long dropped = intervals.pollFirst();
+                intervalSum -= dropped;
+                squaredIntervalSum -= dropped * dropped;
+            }
+            intervals.add(interval);
+            intervalSum += interval;
+            squaredIntervalSum += interval * interval;
+        }
+
+        double mean() {
+            return (double) intervalSum / intervals.size();
+        }
+
+        double variance() {
+            double mean = mean();
+            return Math.max(0d, (double) squaredIntervalSum / intervals.size() - mean * mean);
+        }
+
+        double stdDeviation() {
+            return Math.sqrt(variance());
+        }
+    }
+}
@@ -16,13 +16,19 @@
 
 package com.hazelcast.internal.cluster.impl;
 
+import com.hazelcast.core.Member;
 import com.hazelcast.instance.MemberImpl;
 import com.hazelcast.instance.Node;
 import com.hazelcast.instance.NodeState;
 import com.hazelcast.internal.cluster.MemberInfo;
+import com.hazelcast.internal.cluster.fd.ClusterFailureDetector;
+import com.hazelcast.internal.cluster.fd.ClusterFailureDetectorType;
+import com.hazelcast.internal.cluster.fd.DeadlineClusterFailureDetector;
+import com.hazelcast.internal.cluster.fd.PhiAccrualClusterFailureDetector;
 import com.hazelcast.internal.cluster.impl.operations.HeartbeatOperation;
 import com.hazelcast.internal.cluster.impl.operations.MasterConfirmationOperation;
 import com.hazelcast.internal.cluster.impl.operations.MemberInfoUpdateOperation;
+import com.hazelcast.internal.metrics.DoubleProbeFunction;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
@@ -44,6 +50,7 @@ import java.util.concurrent.TimeUnit;
 
 import static com.hazelcast.internal.cluster.impl.ClusterServiceImpl.EXECUTOR_NAME;
 import static com.hazelcast.internal.cluster.impl.ClusterServiceImpl.createMemberInfoList;
+import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.util.StringUtil.timeToString;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MINUTES;
@@ -52,11 +59,13 @@ import static java.util.concurrent.TimeUnit.MINUTES;
  * ClusterHeartbeatManager manages the heartbeat sending and receiving
  * process of a node.
  * <p/>
- * It periodically sends heartbeat to the other nodes and stores heartbeat timestamps
- * per node when a heartbeat is received from other nodes. If enabled and required, it can send
- * ping packets (an ICMP ping or an echo packet depending on the environment and settings).
+ * It periodically sends heartbeat to the other nodes and feeds the heartbeats received from other nodes
+ * to a {@link ClusterFailureDetector}. If enabled and required, it can send ping packets (an ICMP ping or
+ * an echo packet depending on the environment and settings).
  * <p/>
- * If it detects a member is not live anymore, that member is kicked out of cluster.
+ * If the failure detector decides a member is not live anymore, that member is kicked out of cluster.
+ * The suspicion levels of the members are exposed as {@code cluster.heartbeat.member[address].suspicionLevel}
+ * metrics.
  * <p/>
  * Another job of ClusterHeartbeatManager is to send (if not master node) and track (if master)
  * master-confirmation requests. Each slave node sends a master-confirmation periodically and
@@ -75,7 +84,9 @@ public class ClusterHeartbeatManager {
     private final ClusterServiceImpl clusterService;
     private final ClusterClockImpl clusterClock;
 
-    private final ConcurrentMap<MemberImpl, Long> heartbeatTimes = new ConcurrentHashMap<MemberImpl, Long>();
+    private final ClusterFailureDetector heartbeatFailureDetector;
+    private final ConcurrentMap<Member, SuspicionLevelProbe> suspicionLevelProbes
+            = new ConcurrentHashMap<Member, SuspicionLevelProbe>();
     private final ConcurrentMap<MemberImpl, Long> masterConfirmationTimes = new ConcurrentHashMap<MemberImpl, Long>();
 
     private final long maxNoHeartbeatMillis;
@@ -107,6 +118,21 @@ public class ClusterHeartbeatManager {
         icmpEnabled = hazelcastProperties.getBoolean(GroupProperty.ICMP_ENABLED);
         icmpTtl = hazelcastProperties.getInteger(GroupProperty.ICMP_TTL);
         icmpTimeoutMillis = (int) hazelcastProperties.getMillis(GroupProperty.ICMP_TIMEOUT);
+
+        heartbeatFailureDetector = createHeartbeatFailureDetector(hazelcastProperties);
+    }
+
+    private ClusterFailureDetector createHeartbeatFailureDetector(HazelcastProperties properties) {
+        ClusterFailureDetectorType type = properties.getEnum(GroupProperty.HEARTBEAT_FAILURE_DETECTOR_TYPE,
+                ClusterFailureDetectorType.class);
+        switch (type) {
+            case DEADLINE:
+                return new DeadlineClusterFailureDetector(maxNoHeartbeatMillis);
+            case PHI_ACCRUAL:
+                return new PhiAccrualClusterFailureDetector(properties, heartbeatIntervalMillis);
+            default:
+                throw new IllegalArgumentException("Unknown failure detector type: " + type);
+        }
     }
 
     private static long getHeartbeatInterval(HazelcastProperties hazelcastProperties) {
@@ -175,7 +201,18 @@ public class ClusterHeartbeatManager {
             if (isMaster(member)) {
                 clusterClock.setMasterTime(timestamp);
             }
-            heartbeatTimes.put(member, clusterClock.getClusterTime());
+            onHeartbeat(member);
+        }
+    }
+
+    private void onHeartbeat(MemberImpl member) {
+        heartbeatFailureDetector.heartbeat(member, clusterClock.getClusterTime());
+        if (!suspicionLevelProbes.containsKey(member)) {
+            SuspicionLevelProbe probe = new SuspicionLevelProbe(member);
+            if (suspicionLevelProbes.putIfAbsent(member, probe) == null) {
+                nodeEngine.getMetricsRegistry().register(probe,
+                        "cluster.heartbeat.member[" + member.getAddress() + "].suspicionLevel", MANDATORY, probe);
+            }
         }
     }
 
@@ -315,7 +352,8 @@ public class ClusterHeartbeatManager {
     }
 
     /**
-     * Removes the {@code member} if it has not sent any heartbeats in {@link GroupProperty#MAX_NO_HEARTBEAT_SECONDS}.
+     * Removes the {@code member} if the failure detector considers it dead, by default if it has not sent any
+     * heartbeats in {@link GroupProperty#MAX_NO_HEARTBEAT_SECONDS}.
      * If it has not sent any heartbeats in {@link #HEART_BEAT_INTERVAL_FACTOR} heartbeat intervals, it will log a warning.
      *
      * @param now    the current cluster clock time
@@ -324,10 +362,11 @@ public class ClusterHeartbeatManager {
      */
     private boolean removeMemberIfNotHeartBeating(long now, MemberImpl member) {
         long heartbeatTime = getHeartbeatTime(member);
-        if ((now - heartbeatTime) > maxNoHeartbeatMillis) {
+        if (!heartbeatFailureDetector.isAlive(member, now)) {
+            double suspicionLevel = heartbeatFailureDetector.suspicionLevel(member, now);
             String reason = format("Removing %s because it has not sent any heartbeats for %d ms."
-                            + " Now: %s, last heartbeat time was %s", member, maxNoHeartbeatMillis,
-                    timeToString(now), timeToString(heartbeatTime));
+                            + " Now: %s, last heartbeat time was %s, suspicion level: %.2f", member, now - heartbeatTime,
+                    timeToString(now), timeToString(heartbeatTime), suspicionLevel);
             logger.warning(reason);
             clusterService.removeAddress(member.getAddress(), reason);
             return true;
@@ -479,8 +518,7 @@ public class ClusterHeartbeatManager {
 
     /** Return the last heartbeat time for the {@code member} */
     private long getHeartbeatTime(MemberImpl member) {
-        Long heartbeatTime = heartbeatTimes.get(member);
-        return (heartbeatTime != null ? heartbeatTime : 0L);
+        return heartbeatFailureDetector.lastHeartbeat(member);
     }
 
     /**
@@ -541,20 +579,49 @@ public class ClusterHeartbeatManager {
 
     /** Reset all heartbeats to the current cluster time. Called when system clock jump is detected. */
     private void resetHeartbeats() {
-        long now = clusterClock.getClusterTime();
+        // the heartbeat history is not valid anymore after a clock jump
+        heartbeatFailureDetector.reset();
         for (MemberImpl member : clusterService.getMemberImpls()) {
-            heartbeatTimes.put(member, now);
+            if (!member.localMember()) {
+                onHeartbeat(member);
+            }
         }
     }
 
     /** Remove the {@code member}'s master confirmation and heartbeat timestamps */
     void removeMember(MemberImpl member) {
         masterConfirmationTimes.remove(member);
-        heartbeatTimes.remove(member);
+        heartbeatFailureDetector.remove(member);
+        deregisterSuspicionLevelProbe(member);
     }
 
     void reset() {
         masterConfirmationTimes.clear();
-        heartbeatTimes.clear();
+        heartbeatFailureDetector.reset();
+        for (Member member : suspicionLevelProbes.keySet()) {
+            deregisterSuspicionLevelProbe(member);
+        }
+    }
+
+    private void deregisterSuspicionLevelProbe(Member member) {
+        SuspicionLevelProbe probe = suspicionLevelProbes.remove(member);
+        if (probe != null) {
+            nodeEngine.getMetricsRegistry().deregister(probe);
+        }
+    }
+
+    /** Provides the suspicion level of a member as a metric */
+    private final class SuspicionLevelProbe implements DoubleProbeFunction<SuspicionLevelProbe> {
+
+        private final Member member;
+
+        SuspicionLevelProbe(Member member) {
+            this.member = member;
+        }
+
+        @Override
+        public double get(SuspicionLevelProbe source) {
+            return heartbeatFailureDetector.suspicionLevel(member, clusterClock.getClusterTime());
+        }
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.diagnostics;
+
+import com.hazelcast.internal.util.HeavyHitters;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
+import com.hazelcast.spi.serialization.SerializationService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.hazelcast.internal.diagnostics.Diagnostics.PREFIX;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A {@link DiagnosticsPlugin} that displays the most frequently accessed keys of each {@link com.hazelcast.core.IMap}
+ * in the last period. The accesses of the keys are counted by key based map operations in a
+ * {@link HeavyHitters} sketch per partition, so the memory used doesn't depend on the number of keys.
+ *
+ * The keys are rendered as the hex string of their 64 bit hash by default, so the diagnostics log doesn't contain any
+ * application data. The keys can be rendered as strings with {@link #RAW_KEYS_ENABLED}.
+ *
+ * If this plugin is not enabled, there is no performance hit since the record stores don't track the key accesses.
+ */
+public class HotKeysPlugin extends DiagnosticsPlugin {
+
+    /**
+     * The period in seconds this plugin runs. The key access counts are reset after each run.
+     *
+     * If set to 0, the plugin is disabled.
+     */
+    public static final HazelcastProperty PERIOD_SECONDS
+            = new HazelcastProperty(PREFIX + ".hotkeys.period.seconds", 0, SECONDS);
+
+    /**
+     * The number of the most frequently accessed keys to render per map.
+     */
+    public static final HazelcastProperty TOP_COUNT
+            = new HazelcastProperty(PREFIX + ".hotkeys.top.count", 10);
+
+    /**
+     * If the keys should be deserialized and rendered with their {@code toString()} instead of their hash.
+     *
+     * The diagnostics log is often shared with support, so the keys are only rendered when this is enabled.
+     */
+    public static final HazelcastProperty RAW_KEYS_ENABLED
+            = new HazelcastProperty(PREFIX + ".hotkeys.raw.keys.enabled", false);
+
+    @SuppressWarnings("rawtypes")
+    private static final Comparator<HeavyHitters.Entry> DESCENDING_COUNT = new Comparator<HeavyHitters.Entry>() {
+        @Override
+        public int compare(HeavyHitters.Entry o1, HeavyHitters.Entry o2) {
+            long count1 = o1.getCount();
+            long count2 = o2.getCount();
+            return count1 > count2 ? -1 : (count1 == count2 ? 0 : 1);
+        }
+    };
+
+    private final NodeEngineImpl nodeEngine;
+    private final long periodMillis;
+    private final int topCount;
+    private final boolean rawKeysEnabled;
+
+    public HotKeysPlugin(NodeEngineImpl nodeEngine) {
+        super(nodeEngine.getLogger(HotKeysPlugin.class));
+        this.nodeEngine = nodeEngine;
+        HazelcastProperties properties = nodeEngine.getProperties();
+        this.periodMillis = properties.getMillis(PERIOD_SECONDS);
+        this.topCount = properties.getInteger(TOP_COUNT);
+        this.rawKeysEnabled = properties.getBoolean(RAW_KEYS_ENABLED);
+    }
+
+    /**
+     * Checks if the key accesses should be tracked with the given properties.
+     */
+    public static boolean isEnabled(HazelcastProperties properties) {
+        return properties.getBoolean(Diagnostics.ENABLED) && properties.getMillis(PERIOD_SECONDS) > 0;
+    }
+
+    @Override
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    @Override
+    public void onStart() {
+        logger.info("Plugin:active: period-millis:" + periodMillis + " top-count:" + topCount
+                + " raw-keys-enabled:" + rawKeysEnabled);
+    }
+
+    @Override
+    public void run(DiagnosticsLogWriter writer) {
+        MapService mapService = nodeEngine.getService(MapService.SERVICE_NAME);
+        // the keys of different partitions are distinct, so the top keys of a map are the top keys of its partitions
+        Map<String, List<HeavyHitters.Entry<Data>>> topKeysPerMap = new TreeMap<String, List<HeavyHitters.Entry<Data>>>();
+        Map<String, Long> accessesPerMap = new TreeMap<String, Long>();
+        for (PartitionContainer container : mapService.getMapServiceContext().getPartitionContainers()) {
+            for (Map.Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
+                HeavyHitters<Data> hotKeys = entry.getValue().getHotKeys();
+                if (hotKeys == null) {
+                    continue;
+                }
+                String mapName = entry.getKey();
+                Long accesses = accessesPerMap.get(mapName);
+                accessesPerMap.put(mapName, (accesses == null ? 0 : accesses) + hotKeys.getTotalCount());
+                List<HeavyHitters.Entry<Data>> topKeys = topKeysPerMap.get(mapName);
+                if (topKeys == null) {
+                    topKeys = new ArrayList<HeavyHitters.Entry<Data>>();
+                    topKeysPerMap.put(mapName, topKeys);
+                }
+                topKeys.addAll(hotKeys.drainTop());
+            }
+        }
+
+        writer.startSection("HotKeys");
+        for (Map.Entry<String, List<HeavyHitters.Entry<Data>>> entry : topKeysPerMap.entrySet()) {
+            long accesses = accessesPerMap.get(entry.getKey());
+            if (accesses > 0) {
+                render(writer, entry.getKey(), accesses, entry.getValue());
+            }
+        }
+        writer.endSection();
+    }
+
+    private void render(DiagnosticsLogWriter writer, String mapName, long accesses, List<HeavyHitters.Entry<Data>> topKeys) {
+        Collections.sort(topKeys, DESCENDING_COUNT);
+        writer.startSection(mapName);
+        writer.writeKeyValueEntry("accesses", accesses);
+        writer.startSection("keys");
+        for (int i = 0; i < topCount && i < topKeys.size(); i++) {
+            HeavyHitters.Entry<Data> topKey = topKeys.get(i);
+            writer.writeKeyValueEntry(toString(topKey.getKey()), topKey.getCount());
+        }
+        writer.endSection();
+        writer.endSection();
+    }
+
+    private String toString(Data key) {
+        if (!rawKeysEnabled) {
+            return "hash:" + Long.toHexString(key.hash64());
+        }
+        SerializationService serializationService = nodeEngine.getSerializationService();
+        try {
+            return String.valueOf(serializationService.toObject(key));
+        } catch (Exception e) {
+            // the class of the key may not be available on the member
+            return key.toString();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.diagnostics;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+import com.hazelcast.spi.impl.operationservice.PartitionLoad;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.hazelcast.internal.diagnostics.Diagnostics.PREFIX;
+import static com.hazelcast.spi.impl.operationservice.PartitionLoad.LATENCY_BUCKET_COUNT;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A {@link DiagnosticsPlugin} that displays the busiest partitions of the member. For each partition the number of
+ * executed operations, the number of bytes of the received operations and the distribution of the operation latencies
+ * in the last period are rendered. This makes it possible to spot hot partitions without profiling.
+ *
+ * The partition load is also exposed as probes of the {@link com.hazelcast.internal.metrics.MetricsRegistry} under
+ * {@code operation.partition[partitionId].load}.
+ *
+ * If this plugin is not enabled, there is no performance hit since the partition threads don't track the load.
+ */
+public class PartitionLoadPlugin extends DiagnosticsPlugin {
+
+    /**
+     * The period in seconds this plugin runs.
+     *
+     * If set to 0, the plugin is disabled.
+     */
+    public static final HazelcastProperty PERIOD_SECONDS
+            = new HazelcastProperty(PREFIX + ".partition.load.period.seconds", 0, SECONDS);
+
+    /**
+     * The number of the busiest partitions to render.
+     */
+    public static final HazelcastProperty TOP_COUNT
+            = new HazelcastProperty(PREFIX + ".partition.load.top.count", 10);
+
+    private static final String[] LATENCY_KEYS;
+
+    private static final Comparator<Snapshot> DESCENDING_OPERATION_COUNT = new Comparator<Snapshot>() {
+        @Override
+        public int compare(Snapshot o1, Snapshot o2) {
+            return o1.operationCount > o2.operationCount ? -1 : (o1.operationCount == o2.operationCount ? 0 : 1);
+        }
+    };
+
+    static {
+        LATENCY_KEYS = new String[LATENCY_BUCKET_COUNT];
+        LATENCY_KEYS[0] = "0..0us";
+        for (int k = 1; k < LATENCY_BUCKET_COUNT - 1; k++) {
+            LATENCY_KEYS[k] = (1L << (k - 1)) + ".." + ((1L << k) - 1) + "us";
+        }
+        LATENCY_KEYS[LATENCY_BUCKET_COUNT - 1] = (1L << (LATENCY_BUCKET_COUNT - 2)) + "..us";
+    }
+
+    private final InternalOperationService operationService;
+    private final long periodMillis;
+    private final int topCount;
+
+    // the statistics of the previous run, indexed by partition id
+    private Snapshot[] previousSnapshots;
+    private long previousNanos;
+
+    public PartitionLoadPlugin(NodeEngineImpl nodeEngine) {
+        this(nodeEngine.getLogger(PartitionLoadPlugin.class), nodeEngine.getProperties(), nodeEngine.getOperationService());
+    }
+
+    public PartitionLoadPlugin(ILogger logger, HazelcastProperties properties, InternalOperationService operationService) {
+        super(logger);
+        this.operationService = operationService;
+        this.periodMillis = properties.getMillis(PERIOD_SECONDS);
+        this.topCount = properties.getInteger(TOP_COUNT);
+    }
+
+    /**
+     * Checks if the partition load should be tracked with the given properties.
+     */
+    public static boolean isEnabled(HazelcastProperties properties) {
+        return properties.getBoolean(Diagnostics.ENABLED) && properties.getMillis(PERIOD_SECONDS) > 0;
+    }
+
+    @Override
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    @Override
+    public void onStart() {
+        logger.info("Plugin:active: period-millis:" + periodMillis + " top-count:" + topCount);
+    }
+
+    @Override
+    public void run(DiagnosticsLogWriter writer) {
+        PartitionLoad[] partitionLoads = operationService.getPartitionLoads();
+        if (partitionLoads == null) {
+            return;
+        }
+
+        long nowNanos = System.nanoTime();
+        Snapshot[] snapshots = new Snapshot[partitionLoads.length];
+        List<Snapshot> deltas = new ArrayList<Snapshot>(partitionLoads.length);
+        for (int partitionId = 0; partitionId < partitionLoads.length; partitionId++) {
+            snapshots[partitionId] = new Snapshot(partitionLoads[partitionId]);
+            Snapshot previous = previousSnapshots != null ? previousSnapshots[partitionId] : null;
+            deltas.add(snapshots[partitionId].minus(previous));
+        }
+        long elapsedMillis = previousSnapshots != null ? NANOSECONDS.toMillis(nowNanos - previousNanos) : 0;
+        previousSnapshots = snapshots;
+        previousNanos = nowNanos;
+
+        Collections.sort(deltas, DESCENDING_OPERATION_COUNT);
+        writer.startSection("PartitionLoad");
+        for (int i = 0; i < topCount && i < deltas.size(); i++) {
+            Snapshot delta = deltas.get(i);
+            if (delta.operationCount == 0) {
+                break;
+            }
+            render(writer, delta, partitionLoads[delta.partitionId], elapsedMillis);
+        }
+        writer.endSection();
+    }
+
+    private void render(DiagnosticsLogWriter writer, Snapshot delta, PartitionLoad partitionLoad, long elapsedMillis) {
+        writer.startSection("partition[" + delta.partitionId + "]");
+        writer.writeKeyValueEntry("operations", delta.operationCount);
+        writer.writeKeyValueEntry("bytesReceived", delta.bytesReceived);
+        if (elapsedMillis > 0) {
+            long millisPerSecond = SECONDS.toMillis(1);
+            writer.writeKeyValueEntry("operations/s", delta.operationCount * millisPerSecond / elapsedMillis);
+            writer.writeKeyValueEntry("bytesReceived/s", delta.bytesReceived * millisPerSecond / elapsedMillis);
+        }
+        writer.writeKeyValueEntry("avg(us)", NANOSECONDS.toMicros(delta.totalLatencyNanos / delta.operationCount));
+        writer.writeKeyValueEntry("max(us)", NANOSECONDS.toMicros(partitionLoad.getMaxLatencyNanos()));
+
+        writer.startSection("latency-distribution");
+        for (int k = 0; k < LATENCY_BUCKET_COUNT; k++) {
+            long value = delta.latencyDistribution[k];
+            if (value > 0) {
+                writer.writeKeyValueEntry(LATENCY_KEYS[k], value);
+            }
+        }
+        writer.endSection();
+
+        writer.endSection();
+    }
+
+    private static final class Snapshot {
+        private final int partitionId;
+        private final long operationCount;
+        private final long bytesReceived;
+        private final long totalLatencyNanos;
+        private final long[] latencyDistribution;
+
+        Snapshot(PartitionLoad partitionLoad) {
+            this.partitionId = partitionLoad.getPartitionId();
+            this.operationCount = partitionLoad.getOperationCount();
+            this.bytesReceived = partitionLoad.getBytesReceived();
+            this.totalLatencyNanos = partitionLoad.getTotalLatencyNanos();
+            this.latencyDistribution = new long[LATENCY_BUCKET_COUNT];
+            for (int k = 0; k < LATENCY_BUCKET_COUNT; k++) {
+                latencyDistribution[k] = partitionLoad.getLatencyCount(k);
+            }
+        }
+
+        Snapshot(int partitionId, long operationCount, long bytesReceived, long totalLatencyNanos,
+                 long[] latencyDistribution) {
+            this.partitionId = partitionId;
+            this.operationCount = operationCount;
+            this.bytesReceived = bytesReceived;
+            this.totalLatencyNanos = totalLatencyNanos;
+            this.latencyDistribution = latencyDistribution;
+        }
+
+        Snapshot minus(Snapshot previous) {
+            if (previous == null) {
+                return this;
+            }
+            long[] distribution = new long[LATENCY_BUCKET_COUNT];
+            for (int k = 0; k < LATENCY_BUCKET_COUNT; k++) {
+                distribution[k] = latencyDistribution[k] - previous.latencyDistribution[k];
+            }
+            return new Snapshot(partitionId, operationCount - previous.operationCount,
+                    bytesReceived - previous.bytesReceived, totalLatencyNanos - previous.totalLatencyNanos, distribution);
+        }
+    }
+}
@@ -70,6 +70,7 @@ public class NonBlockingIOThreadingModel
     // In Hazelcast 3.8, selector mode must be set via HazelcastProperties
     private SelectorMode selectorMode;
     private volatile IOBalancer ioBalancer;
+    private boolean writeThroughEnabled;
     private boolean selectorWorkaroundTest = Boolean.getBoolean("hazelcast.io.selector.workaround.test");
 
     public NonBlockingIOThreadingModel(
@@ -105,6 +106,17 @@ public class NonBlockingIOThreadingModel
         this.selectorMode = mode;
     }
 
+    /**
+     * Enables writing frames directly to the socket by the thread that sends them, when the socket writer isn't
+     * already scheduled on its IO thread.
+     *
+     * @param writeThroughEnabled true if write through should be enabled
+     * @see com.hazelcast.spi.properties.GroupProperty#IO_WRITE_THROUGH_ENABLED
+     */
+    public void setWriteThroughEnabled(boolean writeThroughEnabled) {
+        this.writeThroughEnabled = writeThroughEnabled;
+    }
+
     /**
      * Set to {@code true} for Selector CPU-consuming bug workaround tests
      *
@@ -229,7 +241,8 @@ public class NonBlockingIOThreadingModel
                 outputThread,
                 loggingService.getLogger(NonBlockingSocketWriter.class),
                 ioBalancer,
-                socketWriterInitializer);
+                socketWriterInitializer,
+                writeThroughEnabled);
     }
 
     @Override
@@ -61,6 +61,7 @@ public final class NonBlockingSocketWriter
     @Probe(name = "priorityWriteQueueSize")
     public final Queue<OutboundFrame> urgentWriteQueue = new ConcurrentLinkedQueue<OutboundFrame>();
     private final SocketWriterInitializer initializer;
+    private final boolean writeThrough;
 
     private ByteBuffer outputBuffer;
 
@@ -71,6 +72,8 @@ public final class NonBlockingSocketWriter
     private final SwCounter normalFramesWritten = newSwCounter();
     @Probe(name = "priorityFramesWritten")
     private final SwCounter priorityFramesWritten = newSwCounter();
+    @Probe(name = "writeThroughCount")
+    private final SwCounter writeThroughCount = newSwCounter();
     private WriteHandler writeHandler;
 
     private volatile OutboundFrame currentFrame;
@@ -86,8 +89,18 @@ public final class NonBlockingSocketWriter
                                    ILogger logger,
                                    IOBalancer balancer,
                                    SocketWriterInitializer initializer) {
+        this(connection, ioThread, logger, balancer, initializer, false);
+    }
+
+    public NonBlockingSocketWriter(SocketConnection connection,
+                                   NonBlockingIOThread ioThread,
+                                   ILogger logger,
+                                   IOBalancer balancer,
+                                   SocketWriterInitializer initializer,
+                                   boolean writeThrough) {
         super(connection, ioThread, OP_WRITE, logger, balancer);
         this.initializer = initializer;
+        this.writeThrough = writeThrough;
     }
 
     @Override
@@ -173,7 +186,11 @@ public final class NonBlockingSocketWriter
             writeQueue.offer(frame);
         }
 
-        schedule();
+        if (writeThrough && !(Thread.currentThread() instanceof NonBlockingIOThread)) {
+            writeThrough();
+        } else {
+            schedule();
+        }
     }
 
     private OutboundFrame poll() {
@@ -231,6 +248,62 @@ public final class NonBlockingSocketWriter
         ioThread.addTaskAndWakeup(this);
     }
 
+    /**
+     * Writes the pending frames to the socket using the calling thread instead of handing them over to the IO thread.
+     * This removes the queueing and wakeup of the IO thread from the latency of e.g. a response sent by a partition
+     * thread.
+     * <p/>
+     * The calling thread needs to claim the 'scheduled' flag, so it has exclusive access to the writer just like the
+     * IO thread. If it can't claim the flag, the IO thread or another thread is already writing and will pick up the
+     * frame. Everything that can't be completed directly, like a partial write because the socket send buffer is
+     * full, or a migration of the writer to another IO thread, is handed over to the IO thread. The interest in
+     * OP_WRITE is only changed by the IO thread.
+     */
+    private void writeThrough() {
+        if (scheduled.get() || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            if (writeHandler == null) {
+                // the writer hasn't been initialized yet; this is done by the IO thread
+                ioThread.addTaskAndWakeup(this);
+                return;
+            }
+
+            writeThroughCount.inc();
+            lastWriteTime = currentTimeMillis();
+
+            fillOutputBuffer();
+
+            if (dirtyOutputBuffer()) {
+                writeOutputBufferToSocket();
+            }
+
+            if (newOwner != null || dirtyOutputBuffer() || currentFrame != null) {
+                ioThread.addTaskAndWakeup(this);
+            } else {
+                unscheduleAfterWriteThrough();
+            }
+        } catch (Throwable t) {
+            onFailure(t);
+        }
+    }
+
+    private void unscheduleAfterWriteThrough() {
+        scheduled.set(false);
+
+        if (writeQueue.isEmpty() && urgentWriteQueue.isEmpty()) {
+            return;
+        }
+
+        // frames were added while we were writing; the IO thread takes care of them so that the calling
+        // thread isn't kept busy writing frames of other threads.
+        if (scheduled.compareAndSet(false, true)) {
+            ioThread.addTaskAndWakeup(this);
+        }
+    }
+
     /**
      * Tries to unschedule this WriteHandler.
      * <p/>
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition;
+
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PartitionReplicationEvent;
+
+import java.util.Iterator;
+
+/**
+ * An interface that can be implemented by {@link com.hazelcast.spi.MigrationAwareService}s to migrate their partition
+ * data in bounded chunks instead of a single replication operation.
+ * <p>
+ * The operations returned by the iterator are created lazily and sent to the migration destination one by one. The next
+ * operation is created only after the previous one has been executed on the destination, so neither the source nor the
+ * destination has to hold more than a single chunk in memory. The operations are executed on the destination in the
+ * order they are returned, and the partition doesn't change on the source while the iterator is consumed.
+ *
+ * @see com.hazelcast.spi.properties.GroupProperty#PARTITION_MIGRATION_CHUNK_SIZE_KB
+ */
+public interface ChunkedMigrationAwareService {
+
+    /**
+     * Returns an iterator of the operations which replicate the service data of a partition replica. This method and
+     * the methods of the returned iterator are called on the partition thread of the migration source.
+     *
+     * @param event        the replication event
+     * @param maxChunkSize the maximum size of the data of a single operation in bytes, the operations may slightly
+     *                     exceed it
+     * @return the iterator or {@code null} if the service has no data to replicate
+     */
+    Iterator<Operation> prepareReplicationChunks(PartitionReplicationEvent event, int maxChunkSize);
+}
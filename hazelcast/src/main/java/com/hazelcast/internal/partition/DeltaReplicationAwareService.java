@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition;
+
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PartitionReplicationEvent;
+
+/**
+ * An interface that can be implemented by {@link com.hazelcast.spi.MigrationAwareService}s to synchronize only the
+ * differing parts of a backup replica instead of replicating the whole partition data.
+ * <p>
+ * When a backup replica is out of sync, the backup member creates a digest of its replica data and sends it
+ * with the replica sync request to the partition owner. The partition owner compares it with its own data and
+ * replies with an operation that carries only the differences.
+ *
+ * @see com.hazelcast.spi.properties.GroupProperty#PARTITION_BACKUP_SYNC_DELTA_ENABLED
+ */
+public interface DeltaReplicationAwareService {
+
+    /**
+     * Creates the digest of the data of the given partition replica. This method is called on the backup member,
+     * on the partition thread of the given partition.
+     *
+     * @param partitionId  the partition ID
+     * @param replicaIndex the replica index which is being synchronized
+     * @return the digest or {@code null} if the whole partition data should be replicated
+     */
+    Object createReplicaDigest(int partitionId, int replicaIndex);
+
+    /**
+     * Returns an operation to replicate the service data which differs from the given digest. This method is called
+     * on the partition owner, in place of
+     * {@link com.hazelcast.spi.MigrationAwareService#prepareReplicationOperation(PartitionReplicationEvent)}.
+     *
+     * @param event  the replication event
+     * @param digest the digest created by the backup member
+     * @return the replication operation or {@code null} if nothing needs to be replicated
+     */
+    Operation prepareDeltaReplicationOperation(PartitionReplicationEvent event, Object digest);
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition;
+
+/**
+ * An interface that can be implemented by services to report the memory cost of their partition data. The costs are
+ * used by the load-aware partition placement to balance the memory used by the members.
+ *
+ * @see com.hazelcast.spi.properties.GroupProperty#PARTITION_LOAD_BALANCE_INTERVAL_SECONDS
+ */
+public interface PartitionCostAwareService {
+
+    /**
+     * Returns the approximate memory cost of the data of the given partition held by this member, either as the owner or
+     * as a backup. This method is called outside of the partition threads, so it can only read the costs the partition
+     * threads maintain.
+     *
+     * @param partitionId the partition id
+     * @return the memory cost in bytes
+     */
+    long getPartitionCost(int partitionId);
+}
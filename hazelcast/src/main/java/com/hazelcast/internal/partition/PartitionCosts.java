@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition;
+
+import com.hazelcast.internal.partition.impl.PartitionDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+
+/**
+ * The memory costs and the operation counts of the partition replicas held by a member, indexed by partition id. Used by
+ * the load-aware partition placement to balance the load of the members.
+ *
+ * @see PartitionCostAwareService
+ */
+public class PartitionCosts implements IdentifiedDataSerializable {
+
+    private long[] memoryCosts;
+    private long[] operationCounts;
+
+    public PartitionCosts() {
+    }
+
+    public PartitionCosts(int partitionCount) {
+        memoryCosts = new long[partitionCount];
+        operationCounts = new long[partitionCount];
+    }
+
+    public void set(int partitionId, long memoryCost, long operationCount) {
+        memoryCosts[partitionId] = memoryCost;
+        operationCounts[partitionId] = operationCount;
+    }
+
+    public int getPartitionCount() {
+        return memoryCosts.length;
+    }
+
+    /**
+     * Returns the approximate memory cost of the partition data held by the member in bytes.
+     */
+    public long getMemoryCost(int partitionId) {
+        return memoryCosts[partitionId];
+    }
+
+    /**
+     * Returns the number of operations the member executed for the partition in the last collection period.
+     */
+    public long getOperationCount(int partitionId) {
+        return operationCounts[partitionId];
+    }
+
+    @Override
+    public int getFactoryId() {
+        return PartitionDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return PartitionDataSerializerHook.PARTITION_COSTS;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeLongArray(memoryCosts);
+        out.writeLongArray(operationCounts);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        memoryCosts = in.readLongArray();
+        operationCounts = in.readLongArray();
+    }
+}
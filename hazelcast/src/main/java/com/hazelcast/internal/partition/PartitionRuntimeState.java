@@ -28,21 +28,36 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.hazelcast.internal.partition.InternalPartition.MAX_REPLICA_COUNT;
 import static com.hazelcast.util.StringUtil.LINE_SEPARATOR;
 
+/**
+ * Partition table and migration state published by the master.
+ * <p>
+ * The replica addresses are interned: each distinct address is written once and the replicas refer to it by its index,
+ * which is written as a byte, short or int depending on the number of addresses. Trailing empty replicas of a partition
+ * are not written.
+ * <p>
+ * A state is either a full state containing every partition, or a delta state containing only the partitions whose
+ * replicas have changed since the {@link #getBaseVersion() base version}. A delta state can be applied only by a member
+ * whose partition table version is equal to the base version; other members fetch the full state from the master.
+ */
 public final class PartitionRuntimeState implements IdentifiedDataSerializable {
 
-    // used for writing state
-    private Map<Address, Integer> addressToIndexes;
+    /**
+     * Base version of a full partition state.
+     */
+    public static final int NO_BASE_VERSION = -1;
 
-    // used for reading state
     private Address[] addresses;
-
+    // ids of the partitions in the minimized partition table of a delta state, null for a full state
+    private int[] partitionIds;
     private int[][] minimizedPartitionTable;
     private int version;
+    private int baseVersion = NO_BASE_VERSION;
     private Collection<MigrationInfo> completedMigrations;
     // used to know ongoing migrations when master changed
     private MigrationInfo activeMigration;
@@ -55,30 +70,49 @@ public final class PartitionRuntimeState implements IdentifiedDataSerializable {
     public PartitionRuntimeState(InternalPartition[] partitions, Collection<MigrationInfo> migrationInfos, int version) {
         this.version = version;
         completedMigrations = migrationInfos != null ? migrationInfos : Collections.<MigrationInfo>emptyList();
-        addressToIndexes = createAddressToIndexMap(partitions);
-        minimizedPartitionTable = createMinimizedPartitionTable(partitions);
+        Map<Address, Integer> addressToIndexes = createAddressToIndexMap(Arrays.asList(partitions));
+        addresses = createAddresses(addressToIndexes);
+        minimizedPartitionTable = new int[partitions.length][];
+        for (InternalPartition partition : partitions) {
+            minimizedPartitionTable[partition.getPartitionId()] = createAddressIndexes(partition, addressToIndexes);
+        }
     }
 
-    private int[][] createMinimizedPartitionTable(InternalPartition[] partitions) {
-        int[][] partitionTable = new int[partitions.length][MAX_REPLICA_COUNT];
-
-        for (InternalPartition partition : partitions) {
-            int[] indexes = partitionTable[partition.getPartitionId()];
+    /**
+     * Creates a delta partition state containing only the given partitions.
+     *
+     * @param partitions   all partitions, indexed by partition id
+     * @param partitionIds ids of the partitions whose replicas have changed since the base version
+     * @param baseVersion  version of the partition table the delta is created against
+     */
+    public PartitionRuntimeState(InternalPartition[] partitions, int[] partitionIds, Collection<MigrationInfo> migrationInfos,
+                                 int version, int baseVersion) {
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.partitionIds = partitionIds;
+        completedMigrations = migrationInfos != null ? migrationInfos : Collections.<MigrationInfo>emptyList();
+        List<InternalPartition> changedPartitions = new ArrayList<InternalPartition>(partitionIds.length);
+        for (int partitionId : partitionIds) {
+            changedPartitions.add(partitions[partitionId]);
+        }
+        Map<Address, Integer> addressToIndexes = createAddressToIndexMap(changedPartitions);
+        addresses = createAddresses(addressToIndexes);
+        minimizedPartitionTable = new int[partitionIds.length][];
+        for (int i = 0; i < partitionIds.length; i++) {
+            minimizedPartitionTable[i] = createAddressIndexes(changedPartitions.get(i), addressToIndexes);
+        }
+    }
 
-            for (int replicaIndex = 0; replicaIndex < MAX_REPLICA_COUNT; replicaIndex++) {
-                Address address = partition.getReplicaAddress(replicaIndex);
-                if (address == null) {
-                    indexes[replicaIndex] = -1;
-                } else {
-                    int index = addressToIndexes.get(address);
-                    indexes[replicaIndex] = index;
-                }
-            }
+    private static int[] createAddressIndexes(InternalPartition partition, Map<Address, Integer> addressToIndexes) {
+        int[] indexes = new int[MAX_REPLICA_COUNT];
+        for (int replicaIndex = 0; replicaIndex < MAX_REPLICA_COUNT; replicaIndex++) {
+            Address address = partition.getReplicaAddress(replicaIndex);
+            indexes[replicaIndex] = address == null ? -1 : addressToIndexes.get(address);
         }
-        return partitionTable;
+        return indexes;
     }
 
-    private Map<Address, Integer> createAddressToIndexMap(InternalPartition[] partitions) {
+    private static Map<Address, Integer> createAddressToIndexMap(Collection<InternalPartition> partitions) {
         Map<Address, Integer> map = new HashMap<Address, Integer>();
         int addressIndex = 0;
         for (InternalPartition partition : partitions) {
@@ -96,19 +130,24 @@ public final class PartitionRuntimeState implements IdentifiedDataSerializable {
         return map;
     }
 
-    public Address[][] getPartitionTable() {
-        if (addresses == null) {
-            addresses = new Address[addressToIndexes.size()];
-            for (Map.Entry<Address, Integer> entry : addressToIndexes.entrySet()) {
-                addresses[entry.getValue()] = entry.getKey();
-            }
+    private static Address[] createAddresses(Map<Address, Integer> addressToIndexes) {
+        Address[] addresses = new Address[addressToIndexes.size()];
+        for (Map.Entry<Address, Integer> entry : addressToIndexes.entrySet()) {
+            addresses[entry.getValue()] = entry.getKey();
         }
+        return addresses;
+    }
 
+    /**
+     * Returns the replica addresses of the partitions in this state. For a full state the rows are indexed by partition
+     * id, for a delta state they are in the order of {@link #getPartitionIds()}.
+     */
+    public Address[][] getPartitionTable() {
         int length = minimizedPartitionTable.length;
         Address[][] result = new Address[length][MAX_REPLICA_COUNT];
-        for (int partitionId = 0; partitionId < length; partitionId++) {
-            Address[] replicas = result[partitionId];
-            int[] addressIndexes = minimizedPartitionTable[partitionId];
+        for (int i = 0; i < length; i++) {
+            Address[] replicas = result[i];
+            int[] addressIndexes = minimizedPartitionTable[i];
             for (int replicaIndex = 0; replicaIndex < addressIndexes.length; replicaIndex++) {
                 int index = addressIndexes[replicaIndex];
                 if (index != -1) {
@@ -121,6 +160,25 @@ public final class PartitionRuntimeState implements IdentifiedDataSerializable {
         return result;
     }
 
+    /**
+     * Returns the ids of the partitions in a delta state, or {@code null} if this is a full state.
+     */
+    public int[] getPartitionIds() {
+        return partitionIds;
+    }
+
+    public boolean isDelta() {
+        return partitionIds != null;
+    }
+
+    /**
+     * Returns the partition table version this delta state is created against, or {@link #NO_BASE_VERSION} if this is
+     * a full state.
+     */
+    public int getBaseVersion() {
+        return baseVersion;
+    }
+
     public Address getEndpoint() {
         return endpoint;
     }
@@ -148,25 +206,16 @@ public final class PartitionRuntimeState implements IdentifiedDataSerializable {
     @Override
     public void readData(ObjectDataInput in) throws IOException {
         version = in.readInt();
-        int memberCount = in.readInt();
-        addresses = new Address[memberCount];
-        for (int i = 0; i < memberCount; i++) {
+        baseVersion = in.readInt();
+        int addressCount = in.readInt();
+        addresses = new Address[addressCount];
+        for (int i = 0; i < addressCount; i++) {
             Address address = new Address();
             address.readData(in);
-            int index = in.readInt();
-            assert addresses[index] == null : "Duplicate address! Address: " + address + ", index: " + index
-                    + ", addresses: " + Arrays.toString(addresses);
-            addresses[index] = address;
+            addresses[i] = address;
         }
 
-        int partitionCount = in.readInt();
-        minimizedPartitionTable = new int[partitionCount][MAX_REPLICA_COUNT];
-        for (int i = 0; i < partitionCount; i++) {
-            int[] indexes = minimizedPartitionTable[i];
-            for (int ix = 0; ix < MAX_REPLICA_COUNT; ix++) {
-                indexes[ix] = in.readInt();
-            }
-        }
+        readPartitionTable(in);
 
         if (in.readBoolean()) {
             activeMigration = new MigrationInfo();
@@ -184,35 +233,36 @@ public final class PartitionRuntimeState implements IdentifiedDataSerializable {
         }
     }
 
-    @SuppressWarnings("checkstyle:npathcomplexity")
-    @Override
-    public void writeData(ObjectDataOutput out) throws IOException {
-        out.writeInt(version);
-        if (addressToIndexes == null) {
-            out.writeInt(addresses.length);
-            for (int index = 0; index < addresses.length; index++) {
-                Address address = addresses[index];
-                address.writeData(out);
-                out.writeInt(index);
+    private void readPartitionTable(ObjectDataInput in) throws IOException {
+        int partitionCount = in.readInt();
+        if (baseVersion != NO_BASE_VERSION) {
+            partitionIds = new int[partitionCount];
+            for (int i = 0; i < partitionCount; i++) {
+                partitionIds[i] = in.readInt();
             }
-        } else {
-            int memberCount = addressToIndexes.size();
-            out.writeInt(memberCount);
-            for (Map.Entry<Address, Integer> entry : addressToIndexes.entrySet()) {
-                Address address = entry.getKey();
-                address.writeData(out);
-                int index = entry.getValue();
-                out.writeInt(index);
+        }
+        minimizedPartitionTable = new int[partitionCount][MAX_REPLICA_COUNT];
+        for (int i = 0; i < partitionCount; i++) {
+            int[] indexes = minimizedPartitionTable[i];
+            Arrays.fill(indexes, -1);
+            int replicaCount = in.readByte();
+            for (int ix = 0; ix < replicaCount; ix++) {
+                indexes[ix] = readAddressIndex(in, addresses.length);
             }
         }
+    }
 
-        out.writeInt(minimizedPartitionTable.length);
-        for (int[] indexes : minimizedPartitionTable) {
-            for (int ix = 0; ix < MAX_REPLICA_COUNT; ix++) {
-                out.writeInt(indexes[ix]);
-            }
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(version);
+        out.writeInt(baseVersion);
+        out.writeInt(addresses.length);
+        for (Address address : addresses) {
+            address.writeData(out);
         }
 
+        writePartitionTable(out);
+
         if (activeMigration != null) {
             out.writeBoolean(true);
             activeMigration.writeData(out);
@@ -231,19 +281,55 @@ public final class PartitionRuntimeState implements IdentifiedDataSerializable {
         }
     }
 
+    private void writePartitionTable(ObjectDataOutput out) throws IOException {
+        out.writeInt(minimizedPartitionTable.length);
+        if (partitionIds != null) {
+            for (int partitionId : partitionIds) {
+                out.writeInt(partitionId);
+            }
+        }
+        for (int[] indexes : minimizedPartitionTable) {
+            int replicaCount = MAX_REPLICA_COUNT;
+            while (replicaCount > 0 && indexes[replicaCount - 1] == -1) {
+                replicaCount--;
+            }
+            out.writeByte(replicaCount);
+            for (int ix = 0; ix < replicaCount; ix++) {
+                writeAddressIndex(out, indexes[ix], addresses.length);
+            }
+        }
+    }
+
+    // the width of an address index depends on the number of addresses, -1 denotes an empty replica
+    private static void writeAddressIndex(ObjectDataOutput out, int index, int addressCount) throws IOException {
+        if (addressCount <= Byte.MAX_VALUE) {
+            out.writeByte(index);
+        } else if (addressCount <= Short.MAX_VALUE) {
+            out.writeShort(index);
+        } else {
+            out.writeInt(index);
+        }
+    }
+
+    private static int readAddressIndex(ObjectDataInput in, int addressCount) throws IOException {
+        if (addressCount <= Byte.MAX_VALUE) {
+            return in.readByte();
+        } else if (addressCount <= Short.MAX_VALUE) {
+            return in.readShort();
+        } else {
+            return in.readInt();
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("PartitionRuntimeState [" + version + "]{" + LINE_SEPARATOR);
-
-        if (addressToIndexes == null) {
-            //addressToIndexes is null after deserialization. let's use the array
-            for (Address address : addresses) {
-                sb.append(address).append(LINE_SEPARATOR);
-            }
-        } else {
-            for (Address address : addressToIndexes.keySet()) {
-                sb.append(address).append(LINE_SEPARATOR);
-            }
+        for (Address address : addresses) {
+            sb.append(address).append(LINE_SEPARATOR);
+        }
+        if (partitionIds != null) {
+            sb.append(", baseVersion=").append(baseVersion);
+            sb.append(", partitionIds=").append(Arrays.toString(partitionIds));
         }
         sb.append(", completedMigrations=").append(completedMigrations);
         sb.append('}');
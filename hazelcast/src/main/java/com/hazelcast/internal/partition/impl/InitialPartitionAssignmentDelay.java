@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.util.Clock;
+
+/**
+ * Delays the initial partition assignment on the master while members are still joining, so the partitions are assigned
+ * to all starting members in one shot instead of being migrated after each join. The assignment is delayed until no
+ * member has joined for a quiet period, or until the expected number of data members has joined.
+ *
+ * @see GroupProperty#PARTITION_INITIAL_ASSIGNMENT_QUIET_PERIOD_SECONDS
+ * @see GroupProperty#PARTITION_INITIAL_ASSIGNMENT_MEMBER_COUNT
+ */
+final class InitialPartitionAssignmentDelay {
+
+    private final long quietPeriodMillis;
+    private final int expectedMemberCount;
+
+    private volatile long lastMemberJoinTime = Clock.currentTimeMillis();
+
+    InitialPartitionAssignmentDelay(HazelcastProperties properties) {
+        this.quietPeriodMillis = properties.getMillis(GroupProperty.PARTITION_INITIAL_ASSIGNMENT_QUIET_PERIOD_SECONDS);
+        this.expectedMemberCount = properties.getInteger(GroupProperty.PARTITION_INITIAL_ASSIGNMENT_MEMBER_COUNT);
+    }
+
+    void onMemberJoin() {
+        lastMemberJoinTime = Clock.currentTimeMillis();
+    }
+
+    /**
+     * Returns the time to wait before the initial partition assignment, 0 if the partitions can be assigned.
+     *
+     * @param dataMemberCount the current number of data members
+     */
+    long getRemainingMillis(int dataMemberCount) {
+        if (quietPeriodMillis <= 0 || (expectedMemberCount > 0 && dataMemberCount >= expectedMemberCount)) {
+            return 0;
+        }
+        return Math.max(0, lastMemberJoinTime + quietPeriodMillis - Clock.currentTimeMillis());
+    }
+}
@@ -31,6 +31,7 @@ import com.hazelcast.internal.partition.InternalPartition;
 import com.hazelcast.internal.partition.InternalPartitionService;
 import com.hazelcast.internal.partition.MigrationInfo;
 import com.hazelcast.internal.partition.MigrationInfo.MigrationStatus;
+import com.hazelcast.internal.partition.PartitionCosts;
 import com.hazelcast.internal.partition.PartitionListener;
 import com.hazelcast.internal.partition.PartitionRuntimeState;
 import com.hazelcast.internal.partition.PartitionServiceProxy;
@@ -39,6 +40,7 @@ import com.hazelcast.internal.partition.operation.AssignPartitions;
 import com.hazelcast.internal.partition.operation.FetchPartitionStateOperation;
 import com.hazelcast.internal.partition.operation.PartitionStateOperation;
 import com.hazelcast.internal.partition.operation.ShutdownRequestOperation;
+import com.hazelcast.internal.partition.operation.TriggerPartitionStatePublishOperation;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.nio.Address;
 import com.hazelcast.nio.serialization.Data;
@@ -48,6 +50,8 @@ import com.hazelcast.partition.PartitionEventListener;
 import com.hazelcast.partition.PartitionLostListener;
 import com.hazelcast.spi.EventPublishingService;
 import com.hazelcast.spi.ExecutionService;
+import com.hazelcast.spi.LiveOperations;
+import com.hazelcast.spi.LiveOperationsTracker;
 import com.hazelcast.spi.ManagedService;
 import com.hazelcast.spi.NodeEngine;
 import com.hazelcast.spi.OperationService;
@@ -97,7 +101,8 @@ import static java.lang.Math.min;
  */
 @SuppressWarnings({"checkstyle:methodcount", "checkstyle:classfanoutcomplexity", "checkstyle:classdataabstractioncoupling"})
 public class InternalPartitionServiceImpl implements InternalPartitionService, ManagedService,
-        EventPublishingService<PartitionEvent, PartitionEventListener<PartitionEvent>>, PartitionAwareService {
+        EventPublishingService<PartitionEvent, PartitionEventListener<PartitionEvent>>, PartitionAwareService,
+        LiveOperationsTracker {
 
     private static final int PARTITION_OWNERSHIP_WAIT_MILLIS = 10;
     private static final String EXCEPTION_MSG_PARTITION_STATE_SYNC_TIMEOUT = "Partition state sync invocation timed out";
@@ -124,6 +129,13 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
 
     private final ExceptionHandler partitionStateSyncTimeoutHandler;
 
+    // null if the delta publication of the partition table is disabled
+    private final PartitionTableDeltaTracker partitionTableDeltaTracker;
+
+    private final PartitionCostCollector partitionCostCollector;
+
+    private final InitialPartitionAssignmentDelay initialAssignmentDelay;
+
     // used to limit partition assignment requests sent to master
     private final AtomicBoolean triggerMasterFlag = new AtomicBoolean(false);
 
@@ -133,6 +145,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
 
     private volatile boolean shouldFetchPartitionTables;
 
+    @SuppressWarnings("checkstyle:executablestatementcount")
     public InternalPartitionServiceImpl(Node node) {
         HazelcastProperties properties = node.getProperties();
         this.partitionCount = properties.getInteger(GroupProperty.PARTITION_COUNT);
@@ -153,6 +166,10 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
                 logAllExceptions(logger, EXCEPTION_MSG_PARTITION_STATE_SYNC_TIMEOUT, Level.FINEST);
 
         partitionMigrationTimeout = properties.getMillis(GroupProperty.PARTITION_MIGRATION_TIMEOUT);
+        partitionTableDeltaTracker = properties.getBoolean(GroupProperty.PARTITION_TABLE_DELTA_ENABLED)
+                ? new PartitionTableDeltaTracker() : null;
+        partitionCostCollector = new PartitionCostCollector(nodeEngine, this);
+        initialAssignmentDelay = new InitialPartitionAssignmentDelay(properties);
 
         proxy = new PartitionServiceProxy(nodeEngine, this);
 
@@ -173,6 +190,12 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         executionService.scheduleWithRepetition(new PublishPartitionRuntimeStateTask(node, this),
                 partitionTableSendInterval, partitionTableSendInterval, TimeUnit.SECONDS);
 
+        int loadBalanceInterval = node.getProperties().getSeconds(GroupProperty.PARTITION_LOAD_BALANCE_INTERVAL_SECONDS);
+        if (loadBalanceInterval > 0) {
+            executionService.scheduleWithRepetition(new PartitionLoadBalanceTask(node, this),
+                    loadBalanceInterval, loadBalanceInterval, TimeUnit.SECONDS);
+        }
+
         migrationManager.start();
         replicaManager.scheduleReplicaVersionSync(executionService);
     }
@@ -233,6 +256,12 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
             if (partitionStateManager.isInitialized()) {
                 return;
             }
+            long delayMillis = initialAssignmentDelay.getRemainingMillis(
+                    node.getClusterService().getSize(DATA_MEMBER_SELECTOR));
+            if (delayMillis > 0) {
+                logger.fine("Delaying the initial partition assignment for " + delayMillis + " ms while members are joining");
+                return;
+            }
             Set<Address> excludedAddresses = migrationManager.getShutdownRequestedAddresses();
             if (!partitionStateManager.initializePartitionAssignments(excludedAddresses)) {
                 return;
@@ -318,11 +347,12 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
 
             final MigrationRunnable activeTask = migrationManager.getActiveTask();
             if (activeTask instanceof MigrationManager.MigrateTask) {
-                final MigrationManager.MigrateTask migrateTask = (MigrationManager.MigrateTask) activeTask;
-                final MigrationInfo migrationInfo = migrateTask.migrationInfo;
-                if (address.equals(migrationInfo.getSource()) || address.equals(migrationInfo.getDestination())) {
-                    logger.fine(address + " cannot join since " + migrationInfo);
-                    return false;
+                return !isMigrationParticipant(address, (MigrationManager.MigrateTask) activeTask);
+            } else if (activeTask instanceof MigrationManager.ParallelMigrateTask) {
+                for (MigrationManager.MigrateTask migrateTask : ((MigrationManager.ParallelMigrateTask) activeTask).tasks) {
+                    if (isMigrationParticipant(address, migrateTask)) {
+                        return false;
+                    }
                 }
             }
 
@@ -332,6 +362,15 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         }
     }
 
+    private boolean isMigrationParticipant(Address address, MigrationManager.MigrateTask migrateTask) {
+        final MigrationInfo migrationInfo = migrateTask.migrationInfo;
+        if (address.equals(migrationInfo.getSource()) || address.equals(migrationInfo.getDestination())) {
+            logger.fine(address + " cannot join since " + migrationInfo);
+            return true;
+        }
+        return false;
+    }
+
     @Override
     public void memberAdded(MemberImpl member) {
         logger.fine("Adding " + member);
@@ -341,6 +380,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
                 partitionStateManager.updateMemberGroupsSize();
             }
             lastMaster = node.getMasterAddress();
+            initialAssignmentDelay.onMemberJoin();
 
             if (node.isMaster()) {
                 if (partitionStateManager.isInitialized()) {
@@ -373,6 +413,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
             }
 
             lastMaster = node.getMasterAddress();
+            resetPartitionTableDeltaTracker();
 
             migrationManager.pauseMigration();
 
@@ -423,6 +464,32 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         }
     }
 
+    /**
+     * Creates the PartitionRuntimeState to publish to the cluster members. If the delta publication is enabled,
+     * the state contains only the partitions changed since the previous publication.
+     */
+    private PartitionRuntimeState createPublishPartitionState() {
+        if (partitionTableDeltaTracker == null) {
+            return createPartitionStateInternal();
+        }
+        lock.lock();
+        try {
+            if (!partitionStateManager.isInitialized()) {
+                return null;
+            }
+
+            List<MigrationInfo> completedMigrations = migrationManager.getCompletedMigrationsCopy();
+            InternalPartition[] partitions = partitionStateManager.getPartitions();
+
+            PartitionRuntimeState state = partitionTableDeltaTracker.createPublishState(partitions, completedMigrations,
+                    getPartitionStateVersion());
+            state.setActiveMigration(migrationManager.getActiveMigration());
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Creates a transient PartitionRuntimeState to commit given migration.
      * Result migration is applied to partition table and migration is added to completed-migrations set.
@@ -497,13 +564,20 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
             return;
         }
 
-        PartitionRuntimeState partitionState = createPartitionStateInternal();
+        if (migrationManager.getActiveTask() instanceof MigrationManager.ParallelMigrateTask) {
+            // the participants of parallel migrations must keep the version the migrations started with,
+            // the partition table is synced once they are completed
+            return;
+        }
+
+        PartitionRuntimeState partitionState = createPublishPartitionState();
         if (partitionState == null) {
             return;
         }
 
         if (logger.isFineEnabled()) {
-            logger.fine("Publishing partition state, version: " + partitionState.getVersion());
+            logger.fine("Publishing partition state, version: " + partitionState.getVersion()
+                    + ", base version: " + partitionState.getBaseVersion());
         }
 
         PartitionStateOperation op = new PartitionStateOperation(partitionState);
@@ -531,13 +605,26 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
             return false;
         }
 
-        PartitionRuntimeState partitionState = createPartitionStateInternal();
+        PartitionRuntimeState partitionState = createPublishPartitionState();
         if (partitionState == null) {
             return false;
         }
 
+        if (syncPartitionRuntimeState(partitionState)) {
+            return true;
+        }
+        if (partitionState.isDelta()) {
+            // members which missed a previous publication cannot apply the delta
+            PartitionRuntimeState fullPartitionState = createPartitionStateInternal();
+            return fullPartitionState != null && syncPartitionRuntimeState(fullPartitionState);
+        }
+        return false;
+    }
+
+    private boolean syncPartitionRuntimeState(PartitionRuntimeState partitionState) {
         if (logger.isFineEnabled()) {
-            logger.fine("Sync'ing partition state, version: " + partitionState.getVersion());
+            logger.fine("Sync'ing partition state, version: " + partitionState.getVersion()
+                    + ", base version: " + partitionState.getBaseVersion());
         }
 
         OperationService operationService = nodeEngine.getOperationService();
@@ -583,6 +670,33 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         return calls;
     }
 
+    /**
+     * Collects the costs of the partition replicas held by this member for the load-aware partition placement.
+     */
+    public PartitionCosts collectPartitionCosts() {
+        return partitionCostCollector.collect();
+    }
+
+    /**
+     * Sends the full partition table to the given member if this node is the master.
+     * Called when the member cannot apply a delta partition state.
+     */
+    public void sendPartitionStateToMember(Address target) {
+        if (!node.isMaster() || node.clusterService.getMember(target) == null) {
+            return;
+        }
+
+        PartitionRuntimeState partitionState = createPartitionStateInternal();
+        if (partitionState == null) {
+            return;
+        }
+
+        if (logger.isFineEnabled()) {
+            logger.fine("Sending partition state, version: " + partitionState.getVersion() + " to " + target);
+        }
+        nodeEngine.getOperationService().send(new PartitionStateOperation(partitionState), target);
+    }
+
     public boolean processPartitionRuntimeState(final PartitionRuntimeState partitionState) {
         final Address sender = partitionState.getEndpoint();
         if (!node.getNodeExtension().isStartCompleted()) {
@@ -629,9 +743,16 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
                             + ", Master version: " + newVersion + " Master: " + sender);
                 }
                 return true;
+            } else if (partitionState.isDelta() && partitionState.getBaseVersion() != currentVersion) {
+                if (logger.isFineEnabled()) {
+                    logger.fine("Cannot apply partition state delta, requesting full partition state. Local version: "
+                            + currentVersion + ", base version: " + partitionState.getBaseVersion() + " Master: " + sender);
+                }
+                nodeEngine.getOperationService().send(new TriggerPartitionStatePublishOperation(), sender);
+                return false;
             }
 
-            filterAndLogUnknownAddressesInPartitionTable(sender, partitionState.getPartitionTable());
+            filterAndLogUnknownAddressesInPartitionTable(sender, partitionState);
             updatePartitionsAndFinalizeMigrations(partitionState);
             return true;
         } finally {
@@ -641,7 +762,11 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
 
     private void updatePartitionsAndFinalizeMigrations(PartitionRuntimeState partitionState) {
         final Address[][] partitionTable = partitionState.getPartitionTable();
-        updateAllPartitions(partitionTable);
+        if (partitionState.isDelta()) {
+            updatePartitions(partitionState.getPartitionIds(), partitionTable);
+        } else {
+            updateAllPartitions(partitionTable);
+        }
         partitionStateManager.setVersion(partitionState.getVersion());
 
         Collection<MigrationInfo> completedMigrations = partitionState.getCompletedMigrations();
@@ -670,10 +795,19 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         }
     }
 
-    private void filterAndLogUnknownAddressesInPartitionTable(Address sender, Address[][] partitionTable) {
+    private void updatePartitions(int[] partitionIds, Address[][] partitionTable) {
+        for (int i = 0; i < partitionIds.length; i++) {
+            partitionStateManager.updateReplicaAddresses(partitionIds[i], partitionTable[i]);
+        }
+    }
+
+    private void filterAndLogUnknownAddressesInPartitionTable(Address sender, PartitionRuntimeState partitionState) {
+        final Address[][] partitionTable = partitionState.getPartitionTable();
+        final int[] partitionIds = partitionState.getPartitionIds();
         final Set<Address> unknownAddresses = new HashSet<Address>();
-        for (int partitionId = 0; partitionId < partitionTable.length; partitionId++) {
-            Address[] replicas = partitionTable[partitionId];
+        for (int i = 0; i < partitionTable.length; i++) {
+            int partitionId = partitionIds != null ? partitionIds[i] : i;
+            Address[] replicas = partitionTable[i];
             searchUnknownAddressesInPartitionTable(sender, unknownAddresses, partitionId, replicas);
         }
         logUnknownAddressesInPartitionTable(sender, unknownAddresses);
@@ -921,6 +1055,7 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         lock.lock();
         try {
             shouldFetchPartitionTables = false;
+            resetPartitionTableDeltaTracker();
             replicaManager.reset();
             partitionStateManager.reset();
             migrationManager.reset();
@@ -929,6 +1064,12 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         }
     }
 
+    private void resetPartitionTableDeltaTracker() {
+        if (partitionTableDeltaTracker != null) {
+            partitionTableDeltaTracker.reset();
+        }
+    }
+
     @Override
     public void pauseMigration() {
         migrationManager.pauseMigration();
@@ -1049,6 +1190,12 @@ public class InternalPartitionServiceImpl implements InternalPartitionService, M
         return migrationManager;
     }
 
+    @Override
+    public void populate(LiveOperations liveOperations) {
+        // the migration requests waiting for the bandwidth throttle don't respond for a long time
+        migrationManager.getBandwidthThrottle().populate(liveOperations);
+    }
+
     public PartitionReplicaManager getReplicaManager() {
         return replicaManager;
     }
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.internal.partition.InternalPartition;
+import com.hazelcast.internal.partition.PartitionCosts;
+import com.hazelcast.internal.partition.PartitionStateGenerator;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.partition.membergroup.MemberGroup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hazelcast.internal.partition.InternalPartition.MAX_REPLICA_COUNT;
+
+/**
+ * A {@link PartitionStateGenerator} which refines the count-balanced partition layout of {@link PartitionStateGeneratorImpl}
+ * by the costs of the partition replicas.
+ * <p/>
+ * The cost of a replica is the memory cost and the operation count reported by its current holder, both normalized to
+ * their totals. The load of a member is the sum of the costs of the replicas it holds. While the difference between the
+ * most loaded member and a less loaded member is above a threshold, a replica of the most loaded member is swapped with a
+ * replica of the same replica index of another partition of the less loaded member. The swaps keep the partition counts
+ * of the members per replica index, so the count balance of the layout is preserved.
+ * <p/>
+ * A replica is only moved to a member which doesn't hold the partition yet, since swapping the replica indexes of the
+ * current replica owners is a migration cycle which {@link MigrationPlanner} doesn't execute. Therefore the layout can be
+ * refined only when there are more data members, or members in a partition group, than partition replicas.
+ * <p/>
+ * The costs are consumed by the next arrangement, so a single set of costs causes at most {@code maxMigrations} replica
+ * changes.
+ */
+final class LoadAwarePartitionStateGenerator implements PartitionStateGenerator {
+
+    private static final ILogger LOGGER = Logger.getLogger(PartitionStateGenerator.class);
+
+    // the members are balanced when their load difference is below this ratio of the average member load
+    private static final double IMBALANCE_RATIO = 0.1;
+
+    // each swap moves two replicas
+    private static final int SWAP_CHANGES = 2;
+
+    private static final Comparator<Map.Entry<Address, Double>> ASCENDING_LOAD
+            = new Comparator<Map.Entry<Address, Double>>() {
+        @Override
+        public int compare(Map.Entry<Address, Double> o1, Map.Entry<Address, Double> o2) {
+            return Double.compare(o1.getValue(), o2.getValue());
+        }
+    };
+
+    private final PartitionStateGenerator generator;
+    private final int maxSwaps;
+    private final AtomicReference<Map<Address, PartitionCosts>> partitionCosts
+            = new AtomicReference<Map<Address, PartitionCosts>>();
+
+    LoadAwarePartitionStateGenerator(PartitionStateGenerator generator, int maxMigrations) {
+        this.generator = generator;
+        this.maxSwaps = maxMigrations / SWAP_CHANGES;
+    }
+
+    /**
+     * Sets the costs reported by the members, which are used by the next arrangement.
+     */
+    void setPartitionCosts(Map<Address, PartitionCosts> partitionCosts) {
+        this.partitionCosts.set(partitionCosts);
+    }
+
+    @Override
+    public Address[][] arrange(Collection<MemberGroup> groups, InternalPartition[] currentState) {
+        Address[][] state = generator.arrange(groups, currentState);
+        Map<Address, PartitionCosts> costs = partitionCosts.getAndSet(null);
+        if (state == null || costs == null) {
+            return state;
+        }
+
+        Map<Address, Integer> memberGroups = indexMemberGroups(groups);
+        double[][] replicaCosts = calculateReplicaCosts(currentState, costs);
+        Map<Address, Double> memberLoads = calculateMemberLoads(state, memberGroups, replicaCosts);
+        int swapCount = 0;
+        while (swapCount < maxSwaps && swapMostLoadedMember(state, memberGroups, replicaCosts, memberLoads)) {
+            swapCount++;
+        }
+        if (swapCount > 0 && LOGGER.isFineEnabled()) {
+            LOGGER.fine("Swapped " + swapCount + " partition replica pairs to balance the member loads: " + memberLoads);
+        }
+        return state;
+    }
+
+    private static Map<Address, Integer> indexMemberGroups(Collection<MemberGroup> groups) {
+        Map<Address, Integer> memberGroups = new HashMap<Address, Integer>();
+        int groupIndex = 0;
+        for (MemberGroup group : groups) {
+            Iterator<Member> iterator = group.iterator();
+            while (iterator.hasNext()) {
+                memberGroups.put(iterator.next().getAddress(), groupIndex);
+            }
+            groupIndex++;
+        }
+        return memberGroups;
+    }
+
+    /**
+     * Returns the costs of the replicas indexed by partition id and replica index. Both the memory costs and the
+     * operation counts are normalized to their totals, so they have the same weight.
+     */
+    private static double[][] calculateReplicaCosts(InternalPartition[] currentState, Map<Address, PartitionCosts> costs) {
+        int partitionCount = currentState.length;
+        long[][] memoryCosts = new long[partitionCount][MAX_REPLICA_COUNT];
+        long[][] operationCounts = new long[partitionCount][MAX_REPLICA_COUNT];
+        long totalMemoryCost = 0;
+        long totalOperationCount = 0;
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            for (int replicaIndex = 0; replicaIndex < MAX_REPLICA_COUNT; replicaIndex++) {
+                Address address = currentState[partitionId].getReplicaAddress(replicaIndex);
+                PartitionCosts memberCosts = address != null ? costs.get(address) : null;
+                if (memberCosts != null && partitionId < memberCosts.getPartitionCount()) {
+                    memoryCosts[partitionId][replicaIndex] = memberCosts.getMemoryCost(partitionId);
+                    operationCounts[partitionId][replicaIndex] = memberCosts.getOperationCount(partitionId);
+                    totalMemoryCost += memoryCosts[partitionId][replicaIndex];
+                    totalOperationCount += operationCounts[partitionId][replicaIndex];
+                }
+            }
+        }
+
+        double[][] replicaCosts = new double[partitionCount][MAX_REPLICA_COUNT];
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            for (int replicaIndex = 0; replicaIndex < MAX_REPLICA_COUNT; replicaIndex++) {
+                double cost = 0;
+                if (totalMemoryCost > 0) {
+                    cost += (double) memoryCosts[partitionId][replicaIndex] / totalMemoryCost;
+                }
+                if (totalOperationCount > 0) {
+                    cost += (double) operationCounts[partitionId][replicaIndex] / totalOperationCount;
+                }
+                replicaCosts[partitionId][replicaIndex] = cost;
+            }
+        }
+        return replicaCosts;
+    }
+
+    private static Map<Address, Double> calculateMemberLoads(Address[][] state, Map<Address, Integer> memberGroups,
+                                                             double[][] replicaCosts) {
+        Map<Address, Double> memberLoads = new HashMap<Address, Double>();
+        for (Address address : memberGroups.keySet()) {
+            memberLoads.put(address, 0d);
+        }
+        for (int partitionId = 0; partitionId < state.length; partitionId++) {
+            for (int replicaIndex = 0; replicaIndex < MAX_REPLICA_COUNT; replicaIndex++) {
+                Address address = state[partitionId][replicaIndex];
+                Double load = address != null ? memberLoads.get(address) : null;
+                if (load != null) {
+                    memberLoads.put(address, load + replicaCosts[partitionId][replicaIndex]);
+                }
+            }
+        }
+        return memberLoads;
+    }
+
+    /**
+     * Swaps a replica of the most loaded member with a replica of the least loaded member it can swap with.
+     *
+     * @return {@code true} if a swap is done, {@code false} if the members are balanced or no swap reduces the imbalance
+     */
+    private static boolean swapMostLoadedMember(Address[][] state, Map<Address, Integer> memberGroups,
+                                                double[][] replicaCosts, Map<Address, Double> memberLoads) {
+        List<Map.Entry<Address, Double>> members = new ArrayList<Map.Entry<Address, Double>>(memberLoads.entrySet());
+        Collections.sort(members, ASCENDING_LOAD);
+        double totalLoad = 0;
+        for (Map.Entry<Address, Double> member : members) {
+            totalLoad += member.getValue();
+        }
+        double threshold = IMBALANCE_RATIO * totalLoad / members.size();
+
+        Map.Entry<Address, Double> mostLoaded = members.get(members.size() - 1);
+        for (int i = 0; i < members.size() - 1; i++) {
+            Map.Entry<Address, Double> leastLoaded = members.get(i);
+            double imbalance = mostLoaded.getValue() - leastLoaded.getValue();
+            if (imbalance <= threshold) {
+                return false;
+            }
+
+            Address from = mostLoaded.getKey();
+            Address to = leastLoaded.getKey();
+            SwapFinder finder = new SwapFinder(state, memberGroups, replicaCosts, from, to, imbalance);
+            if (finder.find()) {
+                memberLoads.put(from, mostLoaded.getValue() - finder.delta);
+                memberLoads.put(to, leastLoaded.getValue() + finder.delta);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the swap of a replica of the {@code from} member with a replica of the same replica index of the {@code to}
+     * member which brings the load difference of the members closest to zero, without placing two replicas of a
+     * partition into the same member group.
+     */
+    private static final class SwapFinder {
+
+        final Address[][] state;
+        final Map<Address, Integer> memberGroups;
+        final double[][] replicaCosts;
+        final Address from;
+        final Address to;
+        final double imbalance;
+
+        double bestImbalance;
+        int fromPartitionId = -1;
+        int toPartitionId = -1;
+        int replicaIndex = -1;
+        // the load moved from the from member to the to member by the swap
+        double delta;
+
+        SwapFinder(Address[][] state, Map<Address, Integer> memberGroups, double[][] replicaCosts,
+                   Address from, Address to, double imbalance) {
+            this.state = state;
+            this.memberGroups = memberGroups;
+            this.replicaCosts = replicaCosts;
+            this.from = from;
+            this.to = to;
+            this.imbalance = imbalance;
+            this.bestImbalance = imbalance;
+        }
+
+        /**
+         * Finds the best swap and applies it to the state.
+         *
+         * @return {@code true} if a swap reducing the imbalance is found
+         */
+        boolean find() {
+            int[] fromIndexes = replicaIndexes(from);
+            int[] toIndexes = replicaIndexes(to);
+            for (int p = 0; p < state.length; p++) {
+                int i = fromIndexes[p];
+                if (i < 0 || !canMove(p, i, to)) {
+                    continue;
+                }
+                for (int q = 0; q < state.length; q++) {
+                    if (toIndexes[q] == i) {
+                        checkSwap(p, q, i);
+                    }
+                }
+            }
+            if (fromPartitionId < 0) {
+                return false;
+            }
+            state[fromPartitionId][replicaIndex] = to;
+            state[toPartitionId][replicaIndex] = from;
+            return true;
+        }
+
+        private void checkSwap(int p, int q, int i) {
+            double swapDelta = replicaCosts[p][i] - replicaCosts[q][i];
+            double newImbalance = Math.abs(imbalance - 2 * swapDelta);
+            if (newImbalance < bestImbalance && canMove(q, i, from)) {
+                bestImbalance = newImbalance;
+                fromPartitionId = p;
+                toPartitionId = q;
+                replicaIndex = i;
+                delta = swapDelta;
+            }
+        }
+
+        /**
+         * Checks if the replica of the given index can be moved to the target without placing another replica of the
+         * partition into the member group of the target.
+         */
+        private boolean canMove(int partitionId, int index, Address target) {
+            Address[] replicas = state[partitionId];
+            Integer targetGroup = memberGroups.get(target);
+            for (int i = 0; i < replicas.length; i++) {
+                if (i != index && replicas[i] != null && targetGroup.equals(memberGroups.get(replicas[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // replica indexes of the member in each partition, -1 if the member doesn't hold a replica of the partition
+        private int[] replicaIndexes(Address address) {
+            int[] indexes = new int[state.length];
+            for (int partitionId = 0; partitionId < state.length; partitionId++) {
+                indexes[partitionId] = -1;
+                for (int index = 0; index < MAX_REPLICA_COUNT; index++) {
+                    if (address.equals(state[partitionId][index])) {
+                        indexes[partitionId] = index;
+                        break;
+                    }
+                }
+            }
+            return indexes;
+        }
+    }
+}
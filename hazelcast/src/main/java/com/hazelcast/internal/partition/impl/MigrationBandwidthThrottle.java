@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.LiveOperations;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.memory.MemoryUnit.KILOBYTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Limits the rate at which this member sends migration data as a migration source to
+ * {@link com.hazelcast.spi.properties.GroupProperty#PARTITION_MIGRATION_MAX_KB_PER_SECOND}.
+ * <p>
+ * The sends of all migrations of this member are spaced according to the size of the data sent before: after sending
+ * a chunk of migration data, the next chunk may only be sent once the time needed to send that chunk at the configured
+ * rate has elapsed.
+ * <p>
+ * The time a migration waits for the throttle doesn't count against the migration timeout. The master is kept informed
+ * with operation heartbeats that a throttled migration is still in progress, as long as the time the migration didn't
+ * spend waiting for the throttle is within the timeout.
+ */
+public class MigrationBandwidthThrottle {
+
+    private final long bytesPerSecond;
+    private final long timeoutNanos;
+    private final AtomicLong nextSendNanos = new AtomicLong(System.nanoTime());
+    private final Set<Transfer> transfers = Collections.newSetFromMap(new ConcurrentHashMap<Transfer, Boolean>());
+
+    public MigrationBandwidthThrottle(int maxKbPerSecond, long timeoutNanos) {
+        this.bytesPerSecond = maxKbPerSecond > 0 ? KILOBYTES.toBytes(maxKbPerSecond) : 0;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    public boolean isEnabled() {
+        return bytesPerSecond > 0;
+    }
+
+    /**
+     * Starts tracking the transfer of the migration data of a migration request.
+     *
+     * @param caller the caller of the migration request, i.e. the master
+     * @param callId the call id of the migration request
+     * @return the transfer, or {@code null} if the throttle is disabled
+     */
+    public Transfer startTransfer(Address caller, long callId) {
+        if (!isEnabled()) {
+            return null;
+        }
+        Transfer transfer = new Transfer(caller, callId);
+        transfers.add(transfer);
+        return transfer;
+    }
+
+    void populate(LiveOperations liveOperations) {
+        for (Transfer transfer : transfers) {
+            if (transfer.isWithinTimeout()) {
+                liveOperations.add(transfer.caller, transfer.callId);
+            }
+        }
+    }
+
+    /**
+     * The migration data sent by a single migration request.
+     */
+    public final class Transfer {
+
+        private final Address caller;
+        private final long callId;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong waitNanos = new AtomicLong();
+
+        private Transfer(Address caller, long callId) {
+            this.caller = caller;
+            this.callId = callId;
+        }
+
+        /**
+         * Returns how long the next send needs to be delayed. The delay is excluded from the migration timeout.
+         *
+         * @return the delay in nanoseconds, 0 if the data can be sent right away
+         */
+        public long getSendDelayNanos() {
+            long delayNanos = nextSendNanos.get() - System.nanoTime();
+            if (delayNanos <= 0) {
+                return 0;
+            }
+            waitNanos.addAndGet(delayNanos);
+            return delayNanos;
+        }
+
+        /**
+         * Is called after migration data has been sent; delays the next send of migration data of this member by the
+         * time needed to send the given number of bytes.
+         *
+         * @param bytes the number of bytes sent
+         */
+        public void onSent(long bytes) {
+            long durationNanos = SECONDS.toNanos(bytes) / bytesPerSecond;
+            for (;;) {
+                long nowNanos = System.nanoTime();
+                long current = nextSendNanos.get();
+                if (nextSendNanos.compareAndSet(current, Math.max(current, nowNanos) + durationNanos)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Stops tracking this transfer when the migration request is completed.
+         */
+        public void complete() {
+            transfers.remove(this);
+        }
+
+        boolean isWithinTimeout() {
+            return System.nanoTime() - startNanos - waitNanos.get() < timeoutNanos;
+        }
+    }
+}
@@ -47,6 +47,7 @@ import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.util.Clock;
 import com.hazelcast.util.MutableInteger;
 import com.hazelcast.util.Preconditions;
+import com.hazelcast.util.executor.ExecutorType;
 import com.hazelcast.util.scheduler.CoalescingDelayedTrigger;
 
 import java.util.ArrayList;
@@ -61,8 +62,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -84,9 +87,12 @@ public class MigrationManager {
     private static final int PARTITION_STATE_VERSION_INCREMENT_DELTA_ON_MIGRATION_FAILURE = 2;
     private static final int MIGRATION_PAUSE_DURATION_SECONDS_ON_MIGRATION_FAILURE = 3;
     private static final String INVALID_UUID = "<invalid-uuid>";
+    private static final String MIGRATION_EXECUTOR = "hz:migration";
 
     final long partitionMigrationInterval;
 
+    final int maxParallelMigrations;
+
     private final Node node;
     private final NodeEngineImpl nodeEngine;
     private final InternalPartitionServiceImpl partitionService;
@@ -104,6 +110,8 @@ public class MigrationManager {
 
     private final long partitionMigrationTimeout;
 
+    private final MigrationBandwidthThrottle bandwidthThrottle;
+
     private final CoalescingDelayedTrigger delayedResumeMigrationTrigger;
 
     private final Set<Address> shutdownRequestedAddresses = new HashSet<Address>();
@@ -124,6 +132,10 @@ public class MigrationManager {
 
     private final MigrationPlanner migrationPlanner;
 
+    // serializes the commit phase of migrations running in parallel,
+    // so each commit is sent with the partition table version that includes the former commits.
+    private final Object migrationCommitMutex = new Object();
+
     MigrationManager(Node node, InternalPartitionServiceImpl service, Lock partitionServiceLock) {
         this.node = node;
         this.nodeEngine = node.nodeEngine;
@@ -137,6 +149,10 @@ public class MigrationManager {
         long intervalMillis = properties.getMillis(GroupProperty.PARTITION_MIGRATION_INTERVAL);
         partitionMigrationInterval = (intervalMillis > 0 ? intervalMillis : 0);
         partitionMigrationTimeout = properties.getMillis(GroupProperty.PARTITION_MIGRATION_TIMEOUT);
+        maxParallelMigrations = Math.max(1, properties.getInteger(GroupProperty.PARTITION_MAX_PARALLEL_MIGRATIONS));
+        bandwidthThrottle = new MigrationBandwidthThrottle(
+                properties.getInteger(GroupProperty.PARTITION_MIGRATION_MAX_KB_PER_SECOND),
+                TimeUnit.MILLISECONDS.toNanos(partitionMigrationTimeout));
 
         partitionStateManager = partitionService.getPartitionStateManager();
 
@@ -145,6 +161,9 @@ public class MigrationManager {
 
         long migrationPauseDelayMs = TimeUnit.SECONDS.toMillis(MIGRATION_PAUSE_DURATION_SECONDS_ON_MIGRATION_FAILURE);
         ExecutionService executionService = nodeEngine.getExecutionService();
+        if (maxParallelMigrations > 1) {
+            executionService.register(MIGRATION_EXECUTOR, maxParallelMigrations - 1, Integer.MAX_VALUE, ExecutorType.CACHED);
+        }
         delayedResumeMigrationTrigger = new CoalescingDelayedTrigger(
                 executionService, migrationPauseDelayMs, 2 * migrationPauseDelayMs, new Runnable() {
             @Override
@@ -239,10 +258,14 @@ public class MigrationManager {
         }
     }
 
-    MigrationInfo getActiveMigration() {
+    public MigrationInfo getActiveMigration() {
         return activeMigrationInfo;
     }
 
+    public MigrationBandwidthThrottle getBandwidthThrottle() {
+        return bandwidthThrottle;
+    }
+
     private boolean removeActiveMigration(int partitionId) {
         partitionServiceLock.lock();
         try {
@@ -400,6 +423,24 @@ public class MigrationManager {
         }
     }
 
+    private void evictCompletedMigrations(Collection<MigrationInfo> currentMigrations) {
+        partitionServiceLock.lock();
+        try {
+            Set<MigrationInfo> remaining = new HashSet<MigrationInfo>(currentMigrations);
+            remaining.retainAll(completedMigrations);
+
+            // evict completed migrations including all current migrations
+            Iterator<MigrationInfo> iter = completedMigrations.iterator();
+            while (iter.hasNext() && !remaining.isEmpty()) {
+                MigrationInfo migration = iter.next();
+                iter.remove();
+                remaining.remove(migration);
+            }
+        } finally {
+            partitionServiceLock.unlock();
+        }
+    }
+
     void triggerControlTask() {
         migrationQueue.clear();
         if (!node.joined()) {
@@ -500,6 +541,10 @@ public class MigrationManager {
         migrationQueue.add(new MigrateTask(migrationInfo));
     }
 
+    ParallelMigrateTask newParallelMigrateTask(MigrateTask task) {
+        return new ParallelMigrateTask(task);
+    }
+
     void applyMigration(InternalPartitionImpl partition, MigrationInfo migrationInfo) {
         final Address[] addresses = Arrays.copyOf(partition.getReplicaAddresses(), InternalPartition.MAX_REPLICA_COUNT);
 
@@ -596,6 +641,7 @@ public class MigrationManager {
             final MutableInteger migrationCount = new MutableInteger();
 
             final List<Queue<MigrationInfo>> migrations = new ArrayList<Queue<MigrationInfo>>(newState.length);
+            final Address[] owners = new Address[newState.length];
 
             for (int partitionId = 0; partitionId < newState.length; partitionId++) {
                 InternalPartitionImpl currentPartition = partitionStateManager.getPartitionImpl(partitionId);
@@ -611,14 +657,24 @@ public class MigrationManager {
                 migrationPlanner.planMigrations(currentReplicas, newReplicas, migrationCollector);
                 migrationPlanner.prioritizeCopiesAndShiftUps(migrationCollector.migrations);
                 migrations.add(migrationCollector.migrations);
+                owners[partitionId] = currentPartition.getOwnerOrNull();
             }
 
-            scheduleMigrations(migrations);
+            scheduleMigrations(migrations, owners);
 
             logMigrationStatistics(migrationCount.value, lostCount.value);
         }
 
-        private void scheduleMigrations(List<Queue<MigrationInfo>> migrations) {
+        private void scheduleMigrations(List<Queue<MigrationInfo>> migrations, Address[] owners) {
+            if (maxParallelMigrations > 1) {
+                for (MigrationInfo migration
+                        : migrationPlanner.orderForParallelExecution(migrations, owners, maxParallelMigrations,
+                        node.getThisAddress())) {
+                    scheduleMigration(migration);
+                }
+                return;
+            }
+
             boolean migrationScheduled;
             do {
                 migrationScheduled = false;
@@ -795,6 +851,12 @@ public class MigrationManager {
 
         final MigrationInfo migrationInfo;
 
+        // set when the task runs as part of a ParallelMigrateTask, which syncs the partition table once all migrations complete
+        boolean partitionStateSyncDeferred;
+
+        // partition table version the migrations of a ParallelMigrateTask start with
+        int partitionStateVersion = -1;
+
         MigrateTask(MigrationInfo migrationInfo) {
             this.migrationInfo = migrationInfo;
             migrationInfo.setMaster(node.getThisAddress());
@@ -896,8 +958,8 @@ public class MigrationManager {
         }
 
         private Boolean executeMigrateOperation(MemberImpl fromMember) {
-            MigrationRequestOperation migrationRequestOp = new MigrationRequestOperation(migrationInfo,
-                    partitionService.getPartitionStateVersion());
+            int version = partitionStateVersion >= 0 ? partitionStateVersion : partitionService.getPartitionStateVersion();
+            MigrationRequestOperation migrationRequestOp = new MigrationRequestOperation(migrationInfo, version);
 
             Future future = nodeEngine.getOperationService().createInvocationBuilder(SERVICE_NAME, migrationRequestOp,
                     fromMember.getAddress())
@@ -965,6 +1027,14 @@ public class MigrationManager {
         private void migrationOperationSucceeded() {
             internalMigrationListener.onMigrationComplete(MigrationParticipant.MASTER, migrationInfo, true);
 
+            synchronized (migrationCommitMutex) {
+                commitMigration();
+            }
+            PartitionEventManager partitionEventManager = partitionService.getPartitionEventManager();
+            partitionEventManager.sendMigrationEvent(migrationInfo,  MigrationEvent.MigrationStatus.COMPLETED);
+        }
+
+        private void commitMigration() {
             boolean commitSuccessful = commitMigrationToDestination(migrationInfo.getDestination(), migrationInfo);
 
             partitionServiceLock.lock();
@@ -988,14 +1058,12 @@ public class MigrationManager {
                 addCompletedMigration(migrationInfo);
                 scheduleActiveMigrationFinalization(migrationInfo);
                 node.getNodeExtension().onPartitionStateChange();
-                if (partitionService.syncPartitionRuntimeState()) {
+                if (!partitionStateSyncDeferred && partitionService.syncPartitionRuntimeState()) {
                     evictCompletedMigrations(migrationInfo);
                 }
             } finally {
                 partitionServiceLock.unlock();
             }
-            PartitionEventManager partitionEventManager = partitionService.getPartitionEventManager();
-            partitionEventManager.sendMigrationEvent(migrationInfo,  MigrationEvent.MigrationStatus.COMPLETED);
         }
 
         @Override
@@ -1004,6 +1072,127 @@ public class MigrationManager {
         }
     }
 
+    /**
+     * Runs migrations which don't share a source or destination member in parallel. Data transfers of the migrations
+     * overlap each other and the commits, which are executed one at a time. The partition table is synced to the cluster
+     * once, after all migrations are completed.
+     */
+    class ParallelMigrateTask implements MigrationRunnable {
+
+        final List<MigrateTask> tasks = new ArrayList<MigrateTask>();
+
+        private final Set<Address> participants = new HashSet<Address>();
+
+        ParallelMigrateTask(MigrateTask task) {
+            add(task);
+        }
+
+        /**
+         * A migration can't be added if it shares a participant with the migrations in the group. The master must not
+         * take part in the migrations of a group: its partition state version changes with each commit in the group,
+         * while the migrations are sent with the version the group started with.
+         */
+        boolean canAdd(MigrateTask task) {
+            Address master = node.getThisAddress();
+            if (participants.contains(master)) {
+                return false;
+            }
+            for (Address participant : getParticipants(task.migrationInfo)) {
+                if (master.equals(participant) || participants.contains(participant)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(MigrateTask task) {
+            for (Address participant : getParticipants(task.migrationInfo)) {
+                if (participant != null) {
+                    participants.add(participant);
+                }
+            }
+            tasks.add(task);
+        }
+
+        /**
+         * The migration data is sent by the partition owner, which can be different from the migration source.
+         */
+        private Address[] getParticipants(MigrationInfo migration) {
+            Address owner = partitionStateManager.getPartitionImpl(migration.getPartitionId()).getOwnerOrNull();
+            return new Address[]{owner, migration.getSource(), migration.getDestination()};
+        }
+
+        int size() {
+            return tasks.size();
+        }
+
+        @Override
+        public void run() {
+            // all migrations start with the same version since the participants, which don't include the master,
+            // don't receive the partition table till the end of the parallel migrations
+            int version = partitionService.getPartitionStateVersion();
+            for (MigrateTask task : tasks) {
+                task.partitionStateSyncDeferred = true;
+                task.partitionStateVersion = version;
+            }
+
+            CountDownLatch latch = new CountDownLatch(tasks.size() - 1);
+            try {
+                for (int i = 1; i < tasks.size(); i++) {
+                    execute(tasks.get(i), latch);
+                }
+                tasks.get(0).run();
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                syncPartitionState();
+            }
+        }
+
+        private void execute(final MigrateTask task, final CountDownLatch latch) {
+            Runnable runnable = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        logger.warning(t);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            };
+
+            try {
+                nodeEngine.getExecutionService().execute(MIGRATION_EXECUTOR, runnable);
+            } catch (RejectedExecutionException e) {
+                runnable.run();
+            }
+        }
+
+        private void syncPartitionState() {
+            List<MigrationInfo> migrations = new ArrayList<MigrationInfo>(tasks.size());
+            for (MigrateTask task : tasks) {
+                migrations.add(task.migrationInfo);
+            }
+
+            partitionServiceLock.lock();
+            try {
+                if (partitionService.syncPartitionRuntimeState()) {
+                    evictCompletedMigrations(migrations);
+                }
+            } finally {
+                partitionServiceLock.unlock();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "{" + "tasks=" + tasks + '}';
+        }
+    }
+
     private class RepairPartitionTableTask implements MigrationRunnable {
 
         @Override
@@ -22,9 +22,11 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.Logger;
 import com.hazelcast.nio.Address;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 
 import static com.hazelcast.internal.partition.impl.InternalPartitionImpl.getReplicaIndex;
@@ -236,6 +238,92 @@ class MigrationPlanner {
         }
     }
 
+    /**
+     * Merges the planned migrations of all partitions into a single execution order, which is made of consecutive
+     * groups of at most {@code maxParallelMigrations} migrations. Migrations in the same group have distinct partition
+     * owners, sources and destinations, hence they can be executed in parallel. Migrations of a single partition are never
+     * placed into the same group and they keep their planned order.
+     * <p/>
+     * A migration in which the master takes part is placed into a group of its own. The partition state version of the
+     * master changes with every commit, while the other members receive the new partition table only after the whole
+     * group is completed.
+     *
+     * @param migrations            planned migrations of each partition. queues are drained.
+     * @param owners                current owners of the partitions, indexed by partition id. array is updated while
+     *                              ordering the migrations which change the partition owner.
+     * @param maxParallelMigrations maximum number of migrations in a single group
+     * @param master                address of the master
+     * @return migrations in execution order
+     */
+    List<MigrationInfo> orderForParallelExecution(List<Queue<MigrationInfo>> migrations, Address[] owners,
+                                                  int maxParallelMigrations, Address master) {
+        List<MigrationInfo> ordered = new ArrayList<MigrationInfo>();
+        Set<Address> participants = new HashSet<Address>();
+        int queueCount = migrations.size();
+        int offset = 0;
+        boolean scheduled = true;
+        while (scheduled) {
+            scheduled = false;
+            participants.clear();
+            int groupSize = 0;
+            int start = offset;
+            for (int i = 0; i < queueCount && groupSize < maxParallelMigrations; i++) {
+                int index = (start + i) % queueCount;
+                Queue<MigrationInfo> queue = migrations.get(index);
+                MigrationInfo migration = queue.peek();
+                if (migration == null || !addParticipants(migration, owners, participants, master)) {
+                    continue;
+                }
+
+                if (migration.getDestinationNewReplicaIndex() == 0) {
+                    owners[migration.getPartitionId()] = migration.getDestination();
+                }
+                ordered.add(queue.poll());
+                scheduled = true;
+                groupSize++;
+                offset = (index + 1) % queueCount;
+                if (participants.contains(master)) {
+                    break;
+                }
+            }
+        }
+
+        if (ASSERTION_ENABLED) {
+            log("Migration order for parallel execution: ");
+            for (MigrationInfo migration : ordered) {
+                log(migration.toString());
+            }
+        }
+        return ordered;
+    }
+
+    private static boolean isParticipant(Address address, MigrationInfo migration, Address[] owners) {
+        return address.equals(owners[migration.getPartitionId()]) || address.equals(migration.getSource())
+                || address.equals(migration.getDestination());
+    }
+
+    private static boolean addParticipants(MigrationInfo migration, Address[] owners, Set<Address> participants,
+                                           Address master) {
+        if (!participants.isEmpty() && isParticipant(master, migration, owners)) {
+            return false;
+        }
+        // the migration data is sent by the partition owner, which can be different from the migration source
+        Address owner = owners[migration.getPartitionId()];
+        Address source = migration.getSource();
+        Address destination = migration.getDestination();
+        if (participants.contains(owner) || participants.contains(source) || participants.contains(destination)) {
+            return false;
+        }
+        if (owner != null) {
+            participants.add(owner);
+        }
+        if (source != null) {
+            participants.add(source);
+        }
+        participants.add(destination);
+        return true;
+    }
+
     private void prioritize(List<MigrationInfo> migrations, int i) {
         MigrationInfo migration = migrations.get(i);
 
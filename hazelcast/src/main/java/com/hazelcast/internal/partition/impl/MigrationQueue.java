@@ -48,6 +48,20 @@ class MigrationQueue {
         return queue.poll(timeout, unit);
     }
 
+    public MigrationRunnable peek() {
+        return queue.peek();
+    }
+
+    /**
+     * Removes the given task from the queue. If the task is removed, the queue has to be notified
+     * via {@link MigrationQueue#afterTaskCompletion(MigrationRunnable)} after its execution.
+     *
+     * @return true if the task was still in the queue, false otherwise
+     */
+    public boolean remove(MigrationRunnable task) {
+        return queue.remove(task);
+    }
+
     public void clear() {
         List<MigrationRunnable> sink = new ArrayList<MigrationRunnable>();
         queue.drainTo(sink);
@@ -36,6 +36,7 @@ class MigrationThread extends Thread implements Runnable {
     private final MigrationQueue queue;
     private final ILogger logger;
     private final long partitionMigrationInterval;
+    private final int maxParallelMigrations;
     private final long sleepTime;
 
     private volatile MigrationRunnable activeTask;
@@ -48,6 +49,7 @@ class MigrationThread extends Thread implements Runnable {
         this.migrationManager = migrationManager;
         this.queue = queue;
         partitionMigrationInterval = migrationManager.partitionMigrationInterval;
+        maxParallelMigrations = migrationManager.maxParallelMigrations;
         sleepTime = max(DEFAULT_MIGRATION_SLEEP_INTERVAL, partitionMigrationInterval);
         this.logger = logger;
     }
@@ -81,7 +83,7 @@ class MigrationThread extends Thread implements Runnable {
             }
 
             migrating |= runnable instanceof MigrationManager.MigrateTask;
-            processTask(runnable);
+            processTask(pollParallelMigrations(runnable));
             if (migrating && partitionMigrationInterval > 0) {
                 Thread.sleep(partitionMigrationInterval);
             }
@@ -97,6 +99,32 @@ class MigrationThread extends Thread implements Runnable {
         }
     }
 
+    /**
+     * Groups the given migration with the following migrations in the queue as long as they don't share
+     * a participant member with the migrations in the group.
+     */
+    private MigrationRunnable pollParallelMigrations(MigrationRunnable runnable) {
+        if (maxParallelMigrations <= 1 || !(runnable instanceof MigrationManager.MigrateTask)) {
+            return runnable;
+        }
+
+        MigrationManager.ParallelMigrateTask parallelTask
+                = migrationManager.newParallelMigrateTask((MigrationManager.MigrateTask) runnable);
+        while (parallelTask.size() < maxParallelMigrations) {
+            MigrationRunnable next = queue.peek();
+            if (!(next instanceof MigrationManager.MigrateTask)) {
+                break;
+            }
+
+            MigrationManager.MigrateTask nextTask = (MigrationManager.MigrateTask) next;
+            if (!parallelTask.canAdd(nextTask) || !queue.remove(nextTask)) {
+                break;
+            }
+            parallelTask.add(nextTask);
+        }
+        return parallelTask.size() > 1 ? parallelTask : runnable;
+    }
+
     private boolean processTask(MigrationRunnable runnable) {
         try {
             if (runnable == null || !running) {
@@ -108,7 +136,13 @@ class MigrationThread extends Thread implements Runnable {
         } catch (Throwable t) {
             logger.warning(t);
         } finally {
-            queue.afterTaskCompletion(runnable);
+            if (runnable instanceof MigrationManager.ParallelMigrateTask) {
+                for (MigrationRunnable task : ((MigrationManager.ParallelMigrateTask) runnable).tasks) {
+                    queue.afterTaskCompletion(task);
+                }
+            } else {
+                queue.afterTaskCompletion(runnable);
+            }
             activeTask = null;
         }
 
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.internal.partition.InternalPartition;
+import com.hazelcast.internal.partition.PartitionCostAwareService;
+import com.hazelcast.internal.partition.PartitionCosts;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+
+import java.util.Collection;
+
+/**
+ * Collects the costs of the partition replicas held by this member. The operation counts are reported as the number of
+ * operations executed since the previous collection, so the master receives the operation rate of the last period.
+ */
+final class PartitionCostCollector {
+
+    private final NodeEngineImpl nodeEngine;
+    private final InternalPartitionServiceImpl partitionService;
+    private final long[] lastOperationCounts;
+
+    PartitionCostCollector(NodeEngineImpl nodeEngine, InternalPartitionServiceImpl partitionService) {
+        this.nodeEngine = nodeEngine;
+        this.partitionService = partitionService;
+        this.lastOperationCounts = new long[partitionService.getPartitionCount()];
+    }
+
+    synchronized PartitionCosts collect() {
+        Collection<PartitionCostAwareService> services = nodeEngine.getServices(PartitionCostAwareService.class);
+        InternalOperationService operationService = nodeEngine.getOperationService();
+        Address thisAddress = nodeEngine.getThisAddress();
+        int partitionCount = partitionService.getPartitionCount();
+        PartitionCosts costs = new PartitionCosts(partitionCount);
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            long operationCount = operationService.getExecutedOperationCount(partitionId);
+            long operationDelta = operationCount - lastOperationCounts[partitionId];
+            lastOperationCounts[partitionId] = operationCount;
+
+            InternalPartition partition = partitionService.getPartition(partitionId, false);
+            if (!partition.isOwnerOrBackup(thisAddress)) {
+                continue;
+            }
+            long memoryCost = 0;
+            for (PartitionCostAwareService service : services) {
+                memoryCost += service.getPartitionCost(partitionId);
+            }
+            costs.set(partitionId, memoryCost, operationDelta);
+        }
+        return costs;
+    }
+}
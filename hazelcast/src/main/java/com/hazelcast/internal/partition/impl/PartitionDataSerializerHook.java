@@ -16,11 +16,14 @@
 
 package com.hazelcast.internal.partition.impl;
 
+import com.hazelcast.internal.partition.PartitionCosts;
 import com.hazelcast.internal.partition.PartitionRuntimeState;
 import com.hazelcast.internal.partition.operation.AssignPartitions;
 import com.hazelcast.internal.partition.operation.CheckReplicaVersion;
+import com.hazelcast.internal.partition.operation.FetchPartitionCostsOperation;
 import com.hazelcast.internal.partition.operation.FetchPartitionStateOperation;
 import com.hazelcast.internal.partition.operation.HasOngoingMigration;
+import com.hazelcast.internal.partition.operation.MigrationChunkOperation;
 import com.hazelcast.internal.partition.operation.MigrationCommitOperation;
 import com.hazelcast.internal.partition.operation.MigrationOperation;
 import com.hazelcast.internal.partition.operation.MigrationRequestOperation;
@@ -32,6 +35,7 @@ import com.hazelcast.internal.partition.operation.ReplicaSyncRetryResponse;
 import com.hazelcast.internal.partition.operation.SafeStateCheckOperation;
 import com.hazelcast.internal.partition.operation.ShutdownRequestOperation;
 import com.hazelcast.internal.partition.operation.ShutdownResponseOperation;
+import com.hazelcast.internal.partition.operation.TriggerPartitionStatePublishOperation;
 import com.hazelcast.internal.serialization.DataSerializerHook;
 import com.hazelcast.internal.serialization.impl.ArrayDataSerializableFactory;
 import com.hazelcast.internal.serialization.impl.FactoryIdHelper;
@@ -62,8 +66,12 @@ public final class PartitionDataSerializerHook implements DataSerializerHook {
     public static final int SAFE_STATE_CHECK = 14;
     public static final int SHUTDOWN_REQUEST = 15;
     public static final int SHUTDOWN_RESPONSE = 16;
+    public static final int MIGRATION_CHUNK = 17;
+    public static final int TRIGGER_PARTITION_STATE_PUBLISH = 18;
+    public static final int PARTITION_COSTS = 19;
+    public static final int FETCH_PARTITION_COSTS = 20;
 
-    private static final int LEN = SHUTDOWN_RESPONSE + 1;
+    private static final int LEN = FETCH_PARTITION_COSTS + 1;
 
     @Override
     public int getFactoryId() {
@@ -154,6 +162,26 @@ public final class PartitionDataSerializerHook implements DataSerializerHook {
                 return new ShutdownResponseOperation();
             }
         };
+        constructors[MIGRATION_CHUNK] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new MigrationChunkOperation();
+            }
+        };
+        constructors[TRIGGER_PARTITION_STATE_PUBLISH] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new TriggerPartitionStatePublishOperation();
+            }
+        };
+        constructors[PARTITION_COSTS] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new PartitionCosts();
+            }
+        };
+        constructors[FETCH_PARTITION_COSTS] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new FetchPartitionCostsOperation();
+            }
+        };
 
         return new ArrayDataSerializableFactory(constructors);
     }
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.core.Member;
+import com.hazelcast.instance.Node;
+import com.hazelcast.instance.NodeState;
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.internal.partition.PartitionCosts;
+import com.hazelcast.internal.partition.operation.FetchPartitionCostsOperation;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.InternalCompletableFuture;
+import com.hazelcast.spi.OperationService;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
+import static com.hazelcast.internal.partition.InternalPartitionService.SERVICE_NAME;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A periodic task of the master which collects the partition costs from the data members and triggers a load-aware
+ * repartitioning round.
+ *
+ * @see LoadAwarePartitionStateGenerator
+ */
+class PartitionLoadBalanceTask implements Runnable {
+
+    private static final int COLLECT_TIMEOUT_SECONDS = 10;
+
+    private final Node node;
+    private final InternalPartitionServiceImpl partitionService;
+    private final ILogger logger;
+    // set while the costs of a round are collected, so that a slow member doesn't cause rounds to pile up
+    private final AtomicBoolean collecting = new AtomicBoolean();
+
+    PartitionLoadBalanceTask(Node node, InternalPartitionServiceImpl partitionService) {
+        this.node = node;
+        this.partitionService = partitionService;
+        this.logger = node.getLogger(InternalPartitionService.class);
+    }
+
+    @Override
+    public void run() {
+        if (!isBalancingAllowed()) {
+            return;
+        }
+        if (!collecting.compareAndSet(false, true)) {
+            logger.fine("Skipping the load-aware repartitioning since the previous collection of the costs is running.");
+            return;
+        }
+        new CostCollection().start();
+    }
+
+    private boolean isBalancingAllowed() {
+        if (!node.isMaster() || node.getState() != NodeState.ACTIVE) {
+            return false;
+        }
+
+        MigrationManager migrationManager = partitionService.getMigrationManager();
+        if (!partitionService.getPartitionStateManager().isInitialized() || !migrationManager.isMigrationAllowed()
+                || migrationManager.hasOnGoingMigration()) {
+            logger.fine("Skipping the load-aware repartitioning since the partitions are not stable.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Collects the partition costs of the data members without blocking the calling thread. The repartitioning is
+     * triggered when all members respond within the deadline; a failed or late response abandons the round.
+     */
+    private final class CostCollection implements Runnable {
+
+        private final Collection<Member> members = node.getClusterService().getMembers(DATA_MEMBER_SELECTOR);
+        private final Map<Address, PartitionCosts> memberCosts = new ConcurrentHashMap<Address, PartitionCosts>();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> deadline;
+
+        void start() {
+            deadline = node.nodeEngine.getExecutionService().schedule(this, COLLECT_TIMEOUT_SECONDS, SECONDS);
+            OperationService operationService = node.nodeEngine.getOperationService();
+            for (Member member : members) {
+                final Address address = member.getAddress();
+                InternalCompletableFuture<PartitionCosts> future = operationService.invokeOnTarget(SERVICE_NAME,
+                        new FetchPartitionCostsOperation(), address);
+                future.andThen(new ExecutionCallback<PartitionCosts>() {
+                    @Override
+                    public void onResponse(PartitionCosts costs) {
+                        onCosts(address, costs);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        logger.fine("Could not collect the partition costs of " + address, t);
+                        complete();
+                    }
+                });
+            }
+        }
+
+        private void onCosts(Address address, PartitionCosts costs) {
+            memberCosts.put(address, costs);
+            if (memberCosts.size() < members.size() || !complete()) {
+                return;
+            }
+            // the partitions could have changed while the costs were collected
+            if (isBalancingAllowed()) {
+                partitionService.getPartitionStateManager()
+                        .setPartitionCosts(new HashMap<Address, PartitionCosts>(memberCosts));
+                partitionService.getMigrationManager().triggerControlTask();
+            }
+        }
+
+        /**
+         * Called when the deadline of the collection is reached.
+         */
+        @Override
+        public void run() {
+            if (complete()) {
+                logger.fine("Could not collect the partition costs within " + COLLECT_TIMEOUT_SECONDS + " seconds, received "
+                        + memberCosts.size() + " of " + members.size());
+            }
+        }
+
+        /**
+         * Completes the collection, returns {@code false} if it was already completed.
+         */
+        private boolean complete() {
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            ScheduledFuture<?> deadline = this.deadline;
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            collecting.set(false);
+            return true;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.hazelcast.internal.partition.impl;
 
 import com.hazelcast.instance.Node;
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.partition.DeltaReplicationAwareService;
 import com.hazelcast.internal.partition.InternalPartition;
 import com.hazelcast.internal.partition.operation.ReplicaSyncRequest;
 import com.hazelcast.internal.util.counters.MwCounter;
@@ -26,6 +27,8 @@ import com.hazelcast.nio.Address;
 import com.hazelcast.spi.ExecutionService;
 import com.hazelcast.spi.TaskScheduler;
 import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.servicemanager.ServiceInfo;
 import com.hazelcast.spi.properties.GroupProperty;
 import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.util.scheduler.EntryTaskScheduler;
@@ -36,7 +39,9 @@ import com.hazelcast.util.scheduler.ScheduledEntryProcessor;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReferenceArray;
@@ -70,6 +75,7 @@ public class PartitionReplicaManager {
     private final long partitionMigrationTimeout;
     private final int partitionCount;
     private final int maxParallelReplications;
+    private final boolean deltaSyncEnabled;
 
     PartitionReplicaManager(Node node, InternalPartitionServiceImpl partitionService) {
         this.node = node;
@@ -84,6 +90,7 @@ public class PartitionReplicaManager {
         partitionMigrationTimeout = properties.getMillis(GroupProperty.PARTITION_MIGRATION_TIMEOUT);
         maxParallelReplications = properties.getInteger(GroupProperty.PARTITION_MAX_PARALLEL_REPLICATIONS);
         replicaSyncProcessLock = new Semaphore(maxParallelReplications);
+        deltaSyncEnabled = properties.getBoolean(GroupProperty.PARTITION_BACKUP_SYNC_DELTA_ENABLED);
 
         replicaVersions = new PartitionReplicaVersions[partitionCount];
         for (int i = 0; i < replicaVersions.length; i++) {
@@ -230,13 +237,56 @@ public class PartitionReplicaManager {
             }
             replicaSyncRequestsCounter.inc();
             replicaSyncScheduler.schedule(partitionMigrationTimeout, partitionId, syncInfo);
-            ReplicaSyncRequest syncRequest = new ReplicaSyncRequest(partitionId, replicaIndex);
-            nodeEngine.getOperationService().send(syncRequest, target);
+            if (deltaSyncEnabled) {
+                // the digests are created on the partition thread, where they can't be changed by concurrent updates
+                nodeEngine.getOperationService().execute(new DeltaSyncRequestTask(partitionId, replicaIndex, target));
+            } else {
+                nodeEngine.getOperationService().send(new ReplicaSyncRequest(partitionId, replicaIndex, null), target);
+            }
             return true;
         }
         return false;
     }
 
+    /** Collects the digests of the replica data of the {@link DeltaReplicationAwareService}s, mapped by service name */
+    private Map<String, Object> createReplicaDigests(int partitionId, int replicaIndex) {
+        Collection<ServiceInfo> services = nodeEngine.getServiceInfos(DeltaReplicationAwareService.class);
+        Map<String, Object> digests = new HashMap<String, Object>(services.size());
+        for (ServiceInfo serviceInfo : services) {
+            DeltaReplicationAwareService service = (DeltaReplicationAwareService) serviceInfo.getService();
+            Object digest = service.createReplicaDigest(partitionId, replicaIndex);
+            if (digest != null) {
+                digests.put(serviceInfo.getName(), digest);
+            }
+        }
+        return digests;
+    }
+
+    /** Creates the digests of the replica data on the partition thread and sends them with the replica sync request */
+    private final class DeltaSyncRequestTask implements PartitionSpecificRunnable {
+
+        private final int partitionId;
+        private final int replicaIndex;
+        private final Address target;
+
+        DeltaSyncRequestTask(int partitionId, int replicaIndex, Address target) {
+            this.partitionId = partitionId;
+            this.replicaIndex = replicaIndex;
+            this.target = target;
+        }
+
+        @Override
+        public int getPartitionId() {
+            return partitionId;
+        }
+
+        @Override
+        public void run() {
+            Map<String, Object> digests = createReplicaDigests(partitionId, replicaIndex);
+            nodeEngine.getOperationService().send(new ReplicaSyncRequest(partitionId, replicaIndex, digests), target);
+        }
+    }
+
     /** Schedule replica sync request {@code syncInfo} for {@code target} in {@code delayMillis} because of {@code reason} */
     private void schedulePartitionReplicaSync(ReplicaSyncInfo syncInfo, Address target, long delayMillis, String reason) {
         int partitionId = syncInfo.partitionId;
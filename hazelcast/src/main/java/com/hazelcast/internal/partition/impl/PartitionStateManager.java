@@ -26,6 +26,7 @@ import com.hazelcast.instance.Node;
 import com.hazelcast.internal.cluster.impl.ClusterServiceImpl;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.partition.InternalPartition;
+import com.hazelcast.internal.partition.PartitionCosts;
 import com.hazelcast.internal.partition.PartitionListener;
 import com.hazelcast.internal.partition.PartitionStateGenerator;
 import com.hazelcast.internal.partition.PartitionTableView;
@@ -34,8 +35,11 @@ import com.hazelcast.nio.Address;
 import com.hazelcast.partition.membergroup.MemberGroup;
 import com.hazelcast.partition.membergroup.MemberGroupFactory;
 import com.hazelcast.partition.membergroup.MemberGroupFactoryFactory;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -58,6 +62,8 @@ public class PartitionStateManager {
     private final AtomicInteger stateVersion = new AtomicInteger();
 
     private final PartitionStateGenerator partitionStateGenerator;
+    // null if the load-aware partition placement is disabled
+    private final LoadAwarePartitionStateGenerator loadAwarePartitionStateGenerator;
     private final MemberGroupFactory memberGroupFactory;
 
     // updates will be done under lock, but reads will be multithreaded.
@@ -82,7 +88,15 @@ public class PartitionStateManager {
 
         memberGroupFactory = MemberGroupFactoryFactory.newMemberGroupFactory(node.getConfig().getPartitionGroupConfig(),
                 node.getDiscoveryService());
-        partitionStateGenerator = new PartitionStateGeneratorImpl();
+        HazelcastProperties properties = node.getProperties();
+        if (properties.getSeconds(GroupProperty.PARTITION_LOAD_BALANCE_INTERVAL_SECONDS) > 0) {
+            loadAwarePartitionStateGenerator = new LoadAwarePartitionStateGenerator(new PartitionStateGeneratorImpl(),
+                    properties.getInteger(GroupProperty.PARTITION_LOAD_BALANCE_MAX_MIGRATIONS));
+            partitionStateGenerator = loadAwarePartitionStateGenerator;
+        } else {
+            loadAwarePartitionStateGenerator = null;
+            partitionStateGenerator = new PartitionStateGeneratorImpl();
+        }
     }
 
     @Probe
@@ -261,6 +275,15 @@ public class PartitionStateManager {
         return partitions[partitionId];
     }
 
+    /**
+     * Sets the partition costs used by the next repartitioning if the load-aware partition placement is enabled.
+     */
+    void setPartitionCosts(Map<Address, PartitionCosts> partitionCosts) {
+        if (loadAwarePartitionStateGenerator != null) {
+            loadAwarePartitionStateGenerator.setPartitionCosts(partitionCosts);
+        }
+    }
+
     Address[][] repartition(Set<Address> excludedAddresses) {
         if (!initialized) {
             return null;
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.internal.partition.InternalPartition;
+import com.hazelcast.internal.partition.MigrationInfo;
+import com.hazelcast.internal.partition.PartitionRuntimeState;
+import com.hazelcast.nio.Address;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static com.hazelcast.internal.partition.InternalPartition.MAX_REPLICA_COUNT;
+
+/**
+ * Keeps the replica addresses of the partitions at the last published partition table version, so the master can publish
+ * only the partitions which have changed since then. All methods are called under the partition service lock.
+ */
+class PartitionTableDeltaTracker {
+
+    private Address[][] publishedReplicas;
+    private int publishedVersion;
+
+    /**
+     * Creates the partition state to publish and records the given partitions as published. The state is a delta
+     * against the previously published version if there is one, otherwise it is a full state.
+     */
+    PartitionRuntimeState createPublishState(InternalPartition[] partitions, Collection<MigrationInfo> completedMigrations,
+                                             int version) {
+        PartitionRuntimeState state;
+        if (publishedReplicas != null && publishedReplicas.length == partitions.length && publishedVersion <= version) {
+            state = new PartitionRuntimeState(partitions, getChangedPartitionIds(partitions), completedMigrations,
+                    version, publishedVersion);
+        } else {
+            state = new PartitionRuntimeState(partitions, completedMigrations, version);
+        }
+
+        publishedReplicas = new Address[partitions.length][];
+        for (InternalPartition partition : partitions) {
+            // replica addresses of a partition are replaced, never updated in place
+            publishedReplicas[partition.getPartitionId()] = ((InternalPartitionImpl) partition).getReplicaAddresses();
+        }
+        publishedVersion = version;
+        return state;
+    }
+
+    private int[] getChangedPartitionIds(InternalPartition[] partitions) {
+        int[] changed = new int[partitions.length];
+        int count = 0;
+        for (InternalPartition partition : partitions) {
+            int partitionId = partition.getPartitionId();
+            if (isChanged(partition, publishedReplicas[partitionId])) {
+                changed[count++] = partitionId;
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+
+    private static boolean isChanged(InternalPartition partition, Address[] publishedAddresses) {
+        for (int replicaIndex = 0; replicaIndex < MAX_REPLICA_COUNT; replicaIndex++) {
+            Address address = partition.getReplicaAddress(replicaIndex);
+            Address publishedAddress = publishedAddresses[replicaIndex];
+            if (address == null ? publishedAddress != null : !address.equals(publishedAddress)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the published partition table, so the next published state is a full state.
+     */
+    void reset() {
+        publishedReplicas = null;
+        publishedVersion = 0;
+    }
+}
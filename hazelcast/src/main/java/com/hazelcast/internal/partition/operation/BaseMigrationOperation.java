@@ -17,6 +17,7 @@
 package com.hazelcast.internal.partition.operation;
 
 import com.hazelcast.cluster.ClusterState;
+import com.hazelcast.core.HazelcastException;
 import com.hazelcast.core.Member;
 import com.hazelcast.core.MemberLeftException;
 import com.hazelcast.instance.Node;
@@ -30,10 +31,14 @@ import com.hazelcast.internal.partition.impl.InternalPartitionServiceImpl;
 import com.hazelcast.internal.partition.impl.MigrationManager;
 import com.hazelcast.internal.partition.impl.PartitionStateManager;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.spi.ExceptionAction;
 import com.hazelcast.spi.MigrationAwareService;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationAccessor;
+import com.hazelcast.spi.OperationResponseHandler;
 import com.hazelcast.spi.PartitionAwareOperation;
 import com.hazelcast.spi.PartitionMigrationEvent;
 import com.hazelcast.spi.exception.RetryableHazelcastException;
@@ -45,6 +50,13 @@ import java.io.IOException;
 abstract class BaseMigrationOperation extends AbstractPartitionOperation
         implements MigrationCycleOperation, PartitionAwareOperation {
 
+    private static final OperationResponseHandler ERROR_RESPONSE_HANDLER = new OperationResponseHandler() {
+        @Override
+        public void sendResponse(Operation op, Object obj) {
+            throw new HazelcastException("Migration operations can not send response!");
+        }
+    };
+
     protected MigrationInfo migrationInfo;
     protected boolean success;
     protected int partitionStateVersion;
@@ -124,6 +136,27 @@ abstract class BaseMigrationOperation extends AbstractPartitionOperation
         partitionStateManager.setMigratingFlag(migrationInfo.getPartitionId());
     }
 
+    /**
+     * Continues the active migration, which was set by a preceding operation of the same migration. The migration info of
+     * this operation is replaced with the active one, so the processing state of the migration is shared.
+     */
+    void verifyActiveMigration() {
+        InternalPartitionServiceImpl partitionService = getService();
+        MigrationInfo activeMigration = partitionService.getMigrationManager().getActiveMigration();
+        if (!migrationInfo.equals(activeMigration)) {
+            throw new IllegalStateException("Migration " + migrationInfo + " is not active! Current active migration is "
+                    + activeMigration);
+        }
+        migrationInfo = activeMigration;
+    }
+
+    void checkMigrationInitiatorIsMaster() {
+        Address masterAddress = getNodeEngine().getMasterAddress();
+        if (!masterAddress.equals(migrationInfo.getMaster())) {
+            throw new RetryableHazelcastException("Migration initiator is not master node! => " + toString());
+        }
+    }
+
     void onMigrationStart() {
         InternalPartitionServiceImpl partitionService = getService();
         InternalMigrationListener migrationListener = partitionService.getInternalMigrationListener();
@@ -159,6 +192,29 @@ abstract class BaseMigrationOperation extends AbstractPartitionOperation
         }
     }
 
+    void runMigrationOperation(Operation op) throws Exception {
+        prepareOperation(op);
+        op.beforeRun();
+        op.run();
+        op.afterRun();
+    }
+
+    void prepareOperation(Operation op) {
+        op.setNodeEngine(getNodeEngine())
+                .setPartitionId(getPartitionId())
+                .setReplicaIndex(getReplicaIndex());
+        op.setOperationResponseHandler(ERROR_RESPONSE_HANDLER);
+        OperationAccessor.setCallerAddress(op, migrationInfo.getSource());
+    }
+
+    void onOperationFailure(Operation op, Throwable e) {
+        try {
+            op.onExecutionFailure(e);
+        } catch (Throwable t) {
+            getLogger().warning("While calling operation.onFailure(). op: " + op, t);
+        }
+    }
+
     protected abstract PartitionMigrationEvent getMigrationEvent();
 
     protected abstract InternalMigrationListener.MigrationParticipant getMigrationParticipantType();
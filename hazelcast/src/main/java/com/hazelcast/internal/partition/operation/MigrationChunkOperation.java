@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.operation;
+
+import com.hazelcast.internal.partition.MigrationInfo;
+import com.hazelcast.internal.partition.impl.InternalMigrationListener.MigrationParticipant;
+import com.hazelcast.internal.partition.impl.PartitionDataSerializerHook;
+import com.hazelcast.nio.BufferObjectDataOutput;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PartitionMigrationEvent;
+import com.hazelcast.spi.partition.MigrationEndpoint;
+
+import java.io.IOException;
+
+/**
+ * Carries a single chunk of the migration data of a {@link com.hazelcast.internal.partition.ChunkedMigrationAwareService}
+ * to the migration destination. The first chunk sets the active migration on the destination, the following chunks and the
+ * closing {@link MigrationOperation} continue it. If a chunk fails, the migration fails and the destination rolls back the
+ * applied chunks when the migration is finalized.
+ */
+public final class MigrationChunkOperation extends BaseMigrationOperation {
+
+    private Operation task;
+    private boolean firstChunk;
+
+    // number of bytes written by the last serialization of this operation, not serialized
+    private int migrationDataSize;
+
+    public MigrationChunkOperation() {
+    }
+
+    public MigrationChunkOperation(MigrationInfo migrationInfo, Operation task, boolean firstChunk,
+                                   int partitionStateVersion) {
+        super(migrationInfo, partitionStateVersion);
+        this.task = task;
+        this.firstChunk = firstChunk;
+    }
+
+    @Override
+    protected MigrationParticipant getMigrationParticipantType() {
+        return MigrationParticipant.DESTINATION;
+    }
+
+    @Override
+    void onMigrationStart() {
+        // migration listeners are notified once per migration by the MigrationOperation
+    }
+
+    @Override
+    void onMigrationComplete(boolean result) {
+        // migration listeners are notified once per migration by the MigrationOperation
+    }
+
+    @Override
+    public void run() throws Exception {
+        checkMigrationInitiatorIsMaster();
+        if (firstChunk) {
+            setActiveMigration();
+        } else {
+            verifyActiveMigration();
+        }
+
+        if (!migrationInfo.startProcessing()) {
+            getLogger().warning("Migration is cancelled -> " + migrationInfo);
+            success = false;
+            return;
+        }
+
+        try {
+            if (firstChunk) {
+                executeBeforeMigrations();
+            }
+            runMigrationOperation(task);
+            success = true;
+        } catch (Throwable e) {
+            success = false;
+            getLogger().severe("Error while executing replication chunk " + migrationInfo, e);
+            prepareOperation(task);
+            onOperationFailure(task, e);
+        } finally {
+            migrationInfo.doneProcessing();
+        }
+    }
+
+    @Override
+    protected PartitionMigrationEvent getMigrationEvent() {
+        return new PartitionMigrationEvent(MigrationEndpoint.DESTINATION,
+                migrationInfo.getPartitionId(), migrationInfo.getDestinationCurrentReplicaIndex(),
+                migrationInfo.getDestinationNewReplicaIndex());
+    }
+
+    /**
+     * Returns the number of bytes written by the last serialization of this operation, or 0 if it was not serialized.
+     */
+    int getMigrationDataSize() {
+        return migrationDataSize;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        int start = out instanceof BufferObjectDataOutput ? ((BufferObjectDataOutput) out).position() : 0;
+        super.writeInternal(out);
+        out.writeBoolean(firstChunk);
+        out.writeObject(task);
+        if (out instanceof BufferObjectDataOutput) {
+            migrationDataSize = ((BufferObjectDataOutput) out).position() - start;
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        firstChunk = in.readBoolean();
+        task = in.readObject();
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+        sb.append(", firstChunk=").append(firstChunk);
+    }
+
+    @Override
+    public int getId() {
+        return PartitionDataSerializerHook.MIGRATION_CHUNK;
+    }
+}
@@ -16,21 +16,17 @@
 
 package com.hazelcast.internal.partition.operation;
 
-import com.hazelcast.core.HazelcastException;
 import com.hazelcast.internal.partition.MigrationInfo;
 import com.hazelcast.internal.partition.impl.InternalMigrationListener.MigrationParticipant;
 import com.hazelcast.internal.partition.impl.InternalPartitionServiceImpl;
 import com.hazelcast.internal.partition.impl.PartitionDataSerializerHook;
 import com.hazelcast.internal.partition.impl.PartitionReplicaManager;
 import com.hazelcast.logging.ILogger;
-import com.hazelcast.nio.Address;
+import com.hazelcast.nio.BufferObjectDataOutput;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.spi.Operation;
-import com.hazelcast.spi.OperationAccessor;
-import com.hazelcast.spi.OperationResponseHandler;
 import com.hazelcast.spi.PartitionMigrationEvent;
-import com.hazelcast.spi.exception.RetryableHazelcastException;
 import com.hazelcast.spi.partition.MigrationEndpoint;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -44,26 +40,30 @@ import java.util.logging.Level;
 @SuppressFBWarnings("EI_EXPOSE_REP")
 public final class MigrationOperation extends BaseMigrationOperation {
 
-    private static final OperationResponseHandler ERROR_RESPONSE_HANDLER = new OperationResponseHandler() {
-        @Override
-        public void sendResponse(Operation op, Object obj) {
-            throw new HazelcastException("Migration operations can not send response!");
-        }
-    };
-
     private long[] replicaVersions;
     private Collection<Operation> tasks;
+    // true if the data of the chunked services was already sent by MigrationChunkOperations
+    private boolean chunked;
 
     private Throwable failureReason;
 
+    // number of bytes written by the last serialization of this operation, not serialized
+    private int migrationDataSize;
+
     public MigrationOperation() {
     }
 
     public MigrationOperation(MigrationInfo migrationInfo, long[] replicaVersions, Collection<Operation> tasks,
             int partitionStateVersion) {
+        this(migrationInfo, replicaVersions, tasks, partitionStateVersion, false);
+    }
+
+    public MigrationOperation(MigrationInfo migrationInfo, long[] replicaVersions, Collection<Operation> tasks,
+            int partitionStateVersion, boolean chunked) {
         super(migrationInfo, partitionStateVersion);
         this.replicaVersions = replicaVersions;
         this.tasks = tasks;
+        this.chunked = chunked;
     }
 
     @Override
@@ -74,7 +74,11 @@ public final class MigrationOperation extends BaseMigrationOperation {
     @Override
     public void run() throws Exception {
         checkMigrationInitiatorIsMaster();
-        setActiveMigration();
+        if (chunked) {
+            verifyActiveMigration();
+        } else {
+            setActiveMigration();
+        }
 
         try {
             doRun();
@@ -93,7 +97,9 @@ public final class MigrationOperation extends BaseMigrationOperation {
     private void doRun() throws Exception {
         if (migrationInfo.startProcessing()) {
             try {
-                executeBeforeMigrations();
+                if (!chunked) {
+                    executeBeforeMigrations();
+                }
 
                 for (Operation op : tasks) {
                     runMigrationOperation(op);
@@ -112,13 +118,6 @@ public final class MigrationOperation extends BaseMigrationOperation {
         }
     }
 
-    private void checkMigrationInitiatorIsMaster() {
-        Address masterAddress = getNodeEngine().getMasterAddress();
-        if (!masterAddress.equals(migrationInfo.getMaster())) {
-            throw new RetryableHazelcastException("Migration initiator is not master node! => " + toString());
-        }
-    }
-
     private void logMigrationCancelled() {
         getLogger().warning("Migration is cancelled -> " + migrationInfo);
     }
@@ -160,21 +159,6 @@ public final class MigrationOperation extends BaseMigrationOperation {
                 migrationInfo.getDestinationNewReplicaIndex());
     }
 
-    private void runMigrationOperation(Operation op) throws Exception {
-        prepareOperation(op);
-        op.beforeRun();
-        op.run();
-        op.afterRun();
-    }
-
-    private void prepareOperation(Operation op) {
-        op.setNodeEngine(getNodeEngine())
-                .setPartitionId(getPartitionId())
-                .setReplicaIndex(getReplicaIndex());
-        op.setOperationResponseHandler(ERROR_RESPONSE_HANDLER);
-        OperationAccessor.setCallerAddress(op, migrationInfo.getSource());
-    }
-
     @Override
     public void onExecutionFailure(Throwable e) {
         if (tasks != null) {
@@ -185,18 +169,20 @@ public final class MigrationOperation extends BaseMigrationOperation {
         }
     }
 
-    private void onOperationFailure(Operation op, Throwable e) {
-        try {
-            op.onExecutionFailure(e);
-        } catch (Throwable t) {
-            getLogger().warning("While calling operation.onFailure(). op: " + op, t);
-        }
+    /**
+     * Returns the number of bytes written by the last serialization of this operation, or 0 if it was not serialized
+     * (e.g. because the destination is the local member).
+     */
+    int getMigrationDataSize() {
+        return migrationDataSize;
     }
 
     @Override
     protected void writeInternal(ObjectDataOutput out) throws IOException {
+        int start = out instanceof BufferObjectDataOutput ? ((BufferObjectDataOutput) out).position() : 0;
         super.writeInternal(out);
         out.writeLongArray(replicaVersions);
+        out.writeBoolean(chunked);
         int size = tasks != null ? tasks.size() : 0;
         out.writeInt(size);
         if (size > 0) {
@@ -204,12 +190,16 @@ public final class MigrationOperation extends BaseMigrationOperation {
                 out.writeObject(task);
             }
         }
+        if (out instanceof BufferObjectDataOutput) {
+            migrationDataSize = ((BufferObjectDataOutput) out).position() - start;
+        }
     }
 
     @Override
     protected void readInternal(ObjectDataInput in) throws IOException {
         super.readInternal(in);
         replicaVersions = in.readLongArray();
+        chunked = in.readBoolean();
         int size = in.readInt();
         if (size > 0) {
             tasks = new ArrayList<Operation>(size);
@@ -228,6 +218,7 @@ public final class MigrationOperation extends BaseMigrationOperation {
         sb.append(", migration=").append(migrationInfo);
         sb.append(", replicaVersions=").append(Arrays.toString(replicaVersions));
         sb.append(", numberOfTasks=").append(numberOfTasks);
+        sb.append(", chunked=").append(chunked);
     }
 
     @Override
@@ -16,13 +16,16 @@
 
 package com.hazelcast.internal.partition.operation;
 
+import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.Member;
 import com.hazelcast.core.MemberLeftException;
+import com.hazelcast.internal.partition.ChunkedMigrationAwareService;
 import com.hazelcast.internal.partition.InternalPartition;
 import com.hazelcast.internal.partition.InternalPartitionService;
 import com.hazelcast.internal.partition.MigrationInfo;
 import com.hazelcast.internal.partition.impl.InternalMigrationListener.MigrationParticipant;
 import com.hazelcast.internal.partition.impl.InternalPartitionServiceImpl;
+import com.hazelcast.internal.partition.impl.MigrationBandwidthThrottle;
 import com.hazelcast.internal.partition.impl.PartitionDataSerializerHook;
 import com.hazelcast.nio.Address;
 import com.hazelcast.spi.ExceptionAction;
@@ -34,20 +37,35 @@ import com.hazelcast.spi.PartitionReplicationEvent;
 import com.hazelcast.spi.exception.RetryableHazelcastException;
 import com.hazelcast.spi.exception.TargetNotMemberException;
 import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 import com.hazelcast.spi.impl.SimpleExecutionCallback;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
 import com.hazelcast.spi.impl.servicemanager.ServiceInfo;
 import com.hazelcast.spi.partition.MigrationEndpoint;
+import com.hazelcast.spi.properties.GroupProperty;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 
+import static com.hazelcast.memory.MemoryUnit.KILOBYTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 public final class MigrationRequestOperation extends BaseMigrationOperation {
 
     private boolean returnResponse = true;
 
+    // tracks the migration data sent to the destination, null if the bandwidth isn't throttled
+    private MigrationBandwidthThrottle.Transfer transfer;
+
+    // iterators of the chunks of the ChunkedMigrationAwareServices which are not sent yet, null if chunking is disabled
+    private LinkedList<Iterator<Operation>> chunkIterators;
+
+    private boolean chunkSent;
+
     public MigrationRequestOperation() {
     }
 
@@ -82,21 +100,65 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
         }
 
         try {
+            InternalPartitionServiceImpl partitionService = getService();
+            transfer = partitionService.getMigrationManager().getBandwidthThrottle()
+                    .startTransfer(getCallerAddress(), getCallId());
             executeBeforeMigrations();
+            prepareChunkIterators();
+            migrate();
+            returnResponse = false;
+        } catch (Throwable e) {
+            logThrowable(e);
+            setFailed();
+        } finally {
+            migrationInfo.doneProcessing();
+        }
+    }
+
+    /**
+     * Sends the next chunk of the migration data to the destination or, if all chunks are sent,
+     * the migration operation with the rest of the migration data. If the bandwidth is throttled, the send is delayed
+     * until the data sent before has been sent at the configured rate.
+     */
+    private void migrate() throws IOException {
+        long delayNanos = transfer != null ? transfer.getSendDelayNanos() : 0;
+        if (delayNanos > 0) {
+            scheduleContinueMigration(delayNanos);
+            return;
+        }
+
+        Address destination = migrationInfo.getDestination();
+        Operation chunk = nextChunk();
+        if (chunk != null) {
+            invokeMigrationChunkOperation(destination, chunk);
+        } else {
             Collection<Operation> tasks = prepareMigrationOperations();
             InternalPartitionServiceImpl partitionService = getService();
             long[] replicaVersions = partitionService.getPartitionReplicaVersions(migrationInfo.getPartitionId());
             invokeMigrationOperation(destination, replicaVersions, tasks);
-            returnResponse = false;
+        }
+    }
+
+    /** Continues the migration on the partition thread after the destination has applied a chunk */
+    private void continueMigration() {
+        if (!migrationInfo.startProcessing()) {
+            getLogger().warning("Migration is cancelled -> " + migrationInfo);
+            completeMigration(false);
+            return;
+        }
+
+        try {
+            migrate();
         } catch (Throwable e) {
             logThrowable(e);
-            setFailed();
+            completeMigration(false);
         } finally {
             migrationInfo.doneProcessing();
         }
     }
 
     private void setFailed() {
+        completeTransfer();
         success = false;
         onMigrationComplete(false);
     }
@@ -135,14 +197,40 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
     private void invokeMigrationOperation(Address destination, long[] replicaVersions, Collection<Operation> tasks)
             throws IOException {
 
-        MigrationOperation operation = new MigrationOperation(migrationInfo, replicaVersions, tasks, partitionStateVersion);
+        MigrationOperation operation = new MigrationOperation(migrationInfo, replicaVersions, tasks, partitionStateVersion,
+                chunkSent);
+        invoke(destination, operation, new MigrationCallback(this));
+        onSent(operation.getMigrationDataSize());
+    }
+
+    private void invokeMigrationChunkOperation(Address destination, Operation chunk) {
+        MigrationChunkOperation operation = new MigrationChunkOperation(migrationInfo, chunk, !chunkSent,
+                partitionStateVersion);
+        chunkSent = true;
+        invoke(destination, operation, new MigrationChunkCallback(this));
+        onSent(operation.getMigrationDataSize());
+    }
+
+    /** The migration operations are serialized when they are sent, so their size is known after the invocation */
+    private void onSent(int dataSize) {
+        if (transfer != null) {
+            transfer.onSent(dataSize);
+        }
+    }
 
+    private void completeTransfer() {
+        if (transfer != null) {
+            transfer.complete();
+        }
+    }
+
+    private void invoke(Address destination, Operation operation, ExecutionCallback<Object> callback) {
         NodeEngine nodeEngine = getNodeEngine();
         InternalPartitionServiceImpl partitionService = getService();
 
         nodeEngine.getOperationService()
                 .createInvocationBuilder(InternalPartitionService.SERVICE_NAME, operation, destination)
-                .setExecutionCallback(new MigrationCallback(migrationInfo, this))
+                .setExecutionCallback(callback)
                 .setResultDeserialized(true)
                 .setCallTimeout(partitionService.getPartitionMigrationTimeout())
                 .setTryCount(InternalPartitionService.MIGRATION_RETRY_COUNT)
@@ -188,8 +276,46 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
         return returnResponse;
     }
 
+    private void handleMigrationChunkResultFromTarget(Object result) {
+        if (Boolean.TRUE.equals(result)) {
+            scheduleContinueMigration(0);
+        } else {
+            handleMigrationResultFromTarget(result);
+        }
+    }
+
+    private void scheduleContinueMigration(long delayNanos) {
+        if (delayNanos > 0) {
+            getNodeEngine().getExecutionService().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    scheduleContinueMigration(0);
+                }
+            }, delayNanos, NANOSECONDS);
+            return;
+        }
+
+        InternalOperationService operationService = (InternalOperationService) getNodeEngine().getOperationService();
+        operationService.execute(new PartitionSpecificRunnable() {
+            @Override
+            public int getPartitionId() {
+                return migrationInfo.getPartitionId();
+            }
+
+            @Override
+            public void run() {
+                continueMigration();
+            }
+        });
+    }
+
     private void handleMigrationResultFromTarget(Object result) {
         migrationInfo.doneProcessing();
+        completeMigration(result);
+    }
+
+    private void completeMigration(Object result) {
+        completeTransfer();
         onMigrationComplete(Boolean.TRUE.equals(result));
         sendResponse(result);
     }
@@ -213,6 +339,10 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
 
         Collection<Operation> tasks = new LinkedList<Operation>();
         for (ServiceInfo serviceInfo : nodeEngine.getServiceInfos(MigrationAwareService.class)) {
+            if (chunkIterators != null && serviceInfo.isInstanceOf(ChunkedMigrationAwareService.class)) {
+                // the data of this service is migrated with chunks
+                continue;
+            }
             MigrationAwareService service = (MigrationAwareService) serviceInfo.getService();
 
             Operation op = service.prepareReplicationOperation(replicationEvent);
@@ -224,18 +354,84 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
         return tasks;
     }
 
+    /**
+     * Creates the chunk iterators of the {@link ChunkedMigrationAwareService}s if
+     * {@link GroupProperty#PARTITION_MIGRATION_CHUNK_SIZE_KB} is set.
+     */
+    private void prepareChunkIterators() {
+        NodeEngineImpl nodeEngine = (NodeEngineImpl) getNodeEngine();
+        int chunkSizeKb = nodeEngine.getProperties().getInteger(GroupProperty.PARTITION_MIGRATION_CHUNK_SIZE_KB);
+        if (chunkSizeKb <= 0) {
+            return;
+        }
+
+        PartitionReplicationEvent replicationEvent = new PartitionReplicationEvent(migrationInfo.getPartitionId(),
+                migrationInfo.getDestinationNewReplicaIndex());
+        int maxChunkSize = (int) KILOBYTES.toBytes(chunkSizeKb);
+
+        chunkIterators = new LinkedList<Iterator<Operation>>();
+        for (ServiceInfo serviceInfo : nodeEngine.getServiceInfos(ChunkedMigrationAwareService.class)) {
+            ChunkedMigrationAwareService service = (ChunkedMigrationAwareService) serviceInfo.getService();
+            Iterator<Operation> iterator = service.prepareReplicationChunks(replicationEvent, maxChunkSize);
+            if (iterator != null) {
+                chunkIterators.add(new ServiceNameSettingIterator(iterator, serviceInfo.getName()));
+            }
+        }
+    }
+
+    /** Returns the next chunk of the migration data or null if all chunks are sent */
+    private Operation nextChunk() {
+        if (chunkIterators == null) {
+            return null;
+        }
+        while (!chunkIterators.isEmpty()) {
+            Iterator<Operation> iterator = chunkIterators.getFirst();
+            if (iterator.hasNext()) {
+                return iterator.next();
+            }
+            chunkIterators.removeFirst();
+        }
+        return null;
+    }
+
     @Override
     public int getId() {
         return PartitionDataSerializerHook.MIGRATION_REQUEST;
     }
 
+    private static final class ServiceNameSettingIterator implements Iterator<Operation> {
+
+        final Iterator<Operation> iterator;
+        final String serviceName;
+
+        ServiceNameSettingIterator(Iterator<Operation> iterator, String serviceName) {
+            this.iterator = iterator;
+            this.serviceName = serviceName;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Operation next() {
+            Operation op = iterator.next();
+            op.setServiceName(serviceName);
+            return op;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     private static final class MigrationCallback extends SimpleExecutionCallback<Object> {
 
-        final MigrationInfo migrationInfo;
         final MigrationRequestOperation op;
 
-        private MigrationCallback(MigrationInfo migrationInfo, MigrationRequestOperation op) {
-            this.migrationInfo = migrationInfo;
+        private MigrationCallback(MigrationRequestOperation op) {
             this.op = op;
         }
 
@@ -244,4 +440,18 @@ public final class MigrationRequestOperation extends BaseMigrationOperation {
             op.handleMigrationResultFromTarget(result);
         }
     }
+
+    private static final class MigrationChunkCallback extends SimpleExecutionCallback<Object> {
+
+        final MigrationRequestOperation op;
+
+        private MigrationChunkCallback(MigrationRequestOperation op) {
+            this.op = op;
+        }
+
+        @Override
+        public void notify(Object result) {
+            op.handleMigrationChunkResultFromTarget(result);
+        }
+    }
 }
@@ -16,6 +16,7 @@
 
 package com.hazelcast.internal.partition.operation;
 
+import com.hazelcast.internal.partition.DeltaReplicationAwareService;
 import com.hazelcast.internal.partition.InternalPartition;
 import com.hazelcast.internal.partition.InternalPartitionService;
 import com.hazelcast.internal.partition.MigrationCycleOperation;
@@ -40,8 +41,10 @@ import com.hazelcast.spi.impl.servicemanager.ServiceInfo;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The request sent from a replica to the partition owner to synchronize the replica data. The partition owner can send a
@@ -52,16 +55,27 @@ import java.util.List;
  * <li>the maximum number of parallel synchronizations has already been reached</li>
  * </ul>
  * An empty response can be sent if the current replica version is 0.
+ * <p>
+ * The request may carry the digests of the replica data created by the {@link DeltaReplicationAwareService}s. In that
+ * case the partition owner replicates only the data which differs from the digest of the service.
  */
 public final class ReplicaSyncRequest extends AbstractPartitionOperation
         implements PartitionAwareOperation, MigrationCycleOperation {
 
+    /** Replica digests of the {@link DeltaReplicationAwareService}s, mapped by service name */
+    private Map<String, Object> digests;
+
     public ReplicaSyncRequest() {
     }
 
     public ReplicaSyncRequest(int partitionId, int replicaIndex) {
+        this(partitionId, replicaIndex, null);
+    }
+
+    public ReplicaSyncRequest(int partitionId, int replicaIndex, Map<String, Object> digests) {
         setPartitionId(partitionId);
         setReplicaIndex(replicaIndex);
+        this.digests = digests;
     }
 
     @Override
@@ -165,7 +179,13 @@ public final class ReplicaSyncRequest extends AbstractPartitionOperation
         List<Operation> tasks = new LinkedList<Operation>();
         for (ServiceInfo serviceInfo : services) {
             MigrationAwareService service = (MigrationAwareService) serviceInfo.getService();
-            Operation op = service.prepareReplicationOperation(event);
+            Object digest = digests != null ? digests.get(serviceInfo.getName()) : null;
+            Operation op;
+            if (digest != null && service instanceof DeltaReplicationAwareService) {
+                op = ((DeltaReplicationAwareService) service).prepareDeltaReplicationOperation(event, digest);
+            } else {
+                op = service.prepareReplicationOperation(event);
+            }
             if (op != null) {
                 op.setServiceName(serviceInfo.getName());
                 tasks.add(op);
@@ -236,10 +256,27 @@ public final class ReplicaSyncRequest extends AbstractPartitionOperation
 
     @Override
     protected void writeInternal(ObjectDataOutput out) throws IOException {
+        int size = digests != null ? digests.size() : 0;
+        out.writeInt(size);
+        if (size > 0) {
+            for (Map.Entry<String, Object> entry : digests.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeObject(entry.getValue());
+            }
+        }
     }
 
     @Override
     protected void readInternal(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        if (size > 0) {
+            digests = new HashMap<String, Object>(size);
+            for (int i = 0; i < size; i++) {
+                String serviceName = in.readUTF();
+                Object digest = in.readObject();
+                digests.put(serviceName, digest);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.operation;
+
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.internal.partition.MigrationCycleOperation;
+import com.hazelcast.internal.partition.impl.InternalPartitionServiceImpl;
+import com.hazelcast.internal.partition.impl.PartitionDataSerializerHook;
+
+/**
+ * Requests the full partition table from the master. Sent by a member which cannot apply a delta partition state
+ * because its partition table version differs from the base version of the delta.
+ */
+public final class TriggerPartitionStatePublishOperation extends AbstractPartitionOperation
+        implements MigrationCycleOperation {
+
+    public TriggerPartitionStatePublishOperation() {
+    }
+
+    @Override
+    public void run() {
+        InternalPartitionServiceImpl partitionService = getService();
+        partitionService.sendPartitionStateToMember(getCallerAddress());
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public String getServiceName() {
+        return InternalPartitionService.SERVICE_NAME;
+    }
+
+    @Override
+    public int getId() {
+        return PartitionDataSerializerHook.TRIGGER_PARTITION_STATE_PUBLISH;
+    }
+}
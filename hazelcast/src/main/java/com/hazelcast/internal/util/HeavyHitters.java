@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.hazelcast.util.HashUtil.MurmurHash3_fmix;
+import static com.hazelcast.util.HashUtil.hashToIndex;
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * Tracks the most frequently added keys using a Count-Min sketch for the frequency estimates and a small top-K table for
+ * the keys with the highest estimates.
+ * <p>
+ * The memory used is fixed, it doesn't depend on the number of distinct keys. The frequency of a key is never
+ * underestimated; it is overestimated by at most {@code e / width} times the total number of additions with high
+ * probability.
+ * <p>
+ * The methods are synchronized. The sketch is meant to be updated by a single thread, e.g. a partition thread, and to be
+ * read occasionally by another one, so the lock is uncontended.
+ *
+ * @param <K> the type of the keys
+ */
+public final class HeavyHitters<K> {
+
+    private static final int DEPTH = 4;
+    private static final int DEFAULT_WIDTH = 256;
+    private static final int SEED = 0x9E3779B9;
+
+    @SuppressWarnings("rawtypes")
+    private static final Comparator<Entry> DESCENDING_COUNT = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry o1, Entry o2) {
+            return o1.count > o2.count ? -1 : (o1.count == o2.count ? 0 : 1);
+        }
+    };
+
+    private final int width;
+    private final int topCount;
+    private final int[][] counts;
+    private final List<Entry<K>> top;
+    private long totalCount;
+
+    public HeavyHitters(int topCount) {
+        this(topCount, DEFAULT_WIDTH);
+    }
+
+    public HeavyHitters(int topCount, int width) {
+        this.topCount = checkPositive(topCount, "topCount must be positive");
+        this.width = checkPositive(width, "width must be positive");
+        this.counts = new int[DEPTH][width];
+        this.top = new ArrayList<Entry<K>>(topCount);
+    }
+
+    /**
+     * Adds an occurrence of the given key.
+     */
+    public synchronized void add(K key) {
+        totalCount++;
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = hashToIndex(MurmurHash3_fmix(hash + row * SEED), width);
+            int count = ++counts[row][index];
+            estimate = Math.min(estimate, count);
+        }
+        updateTop(key, estimate);
+    }
+
+    private void updateTop(K key, int estimate) {
+        Entry<K> min = null;
+        for (Entry<K> entry : top) {
+            if (entry.key.equals(key)) {
+                entry.count = estimate;
+                return;
+            }
+            if (min == null || entry.count < min.count) {
+                min = entry;
+            }
+        }
+        if (top.size() < topCount) {
+            top.add(new Entry<K>(key, estimate));
+        } else if (min.count < estimate) {
+            min.key = key;
+            min.count = estimate;
+        }
+    }
+
+    /**
+     * Returns the estimated number of occurrences of the given key since the last reset.
+     */
+    public synchronized long estimate(K key) {
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counts[row][hashToIndex(MurmurHash3_fmix(hash + row * SEED), width)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the total number of occurrences added since the last reset.
+     */
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the keys with the highest estimated number of occurrences since the last reset, ordered by descending
+     * estimate, and resets the sketch.
+     */
+    public synchronized List<Entry<K>> drainTop() {
+        List<Entry<K>> result = new ArrayList<Entry<K>>(top);
+        Collections.sort(result, DESCENDING_COUNT);
+        top.clear();
+        for (int[] row : counts) {
+            Arrays.fill(row, 0);
+        }
+        totalCount = 0;
+        return result;
+    }
+
+    /**
+     * A key with its estimated number of occurrences.
+     *
+     * @param <K> the type of the key
+     */
+    public static final class Entry<K> {
+
+        private K key;
+        private long count;
+
+        Entry(K key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + count;
+        }
+    }
+}
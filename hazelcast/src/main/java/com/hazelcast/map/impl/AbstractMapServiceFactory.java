@@ -16,6 +16,9 @@
 
 package com.hazelcast.map.impl;
 
+import com.hazelcast.internal.partition.ChunkedMigrationAwareService;
+import com.hazelcast.internal.partition.PartitionCostAwareService;
+import com.hazelcast.internal.partition.DeltaReplicationAwareService;
 import com.hazelcast.spi.ClientAwareService;
 import com.hazelcast.spi.EventPublishingService;
 import com.hazelcast.spi.ManagedService;
@@ -56,6 +59,30 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
      */
     abstract CountingMigrationAwareService createMigrationAwareService();
 
+    /**
+     * Creates a new {@link DeltaReplicationAwareService} for {@link MapService}.
+     *
+     * @return Creates a new {@link DeltaReplicationAwareService} implementation.
+     * @see com.hazelcast.internal.partition.DeltaReplicationAwareService
+     */
+    abstract DeltaReplicationAwareService createDeltaReplicationAwareService();
+
+    /**
+     * Creates a new {@link ChunkedMigrationAwareService} for {@link MapService}.
+     *
+     * @return Creates a new {@link ChunkedMigrationAwareService} implementation.
+     * @see com.hazelcast.internal.partition.ChunkedMigrationAwareService
+     */
+    abstract ChunkedMigrationAwareService createChunkedMigrationAwareService();
+
+    /**
+     * Creates a new {@link PartitionCostAwareService} for {@link MapService}.
+     *
+     * @return Creates a new {@link PartitionCostAwareService} implementation.
+     * @see com.hazelcast.internal.partition.PartitionCostAwareService
+     */
+    abstract PartitionCostAwareService createPartitionCostAwareService();
+
     /**
      * Creates a new {@link TransactionalService} for {@link MapService}.
      *
@@ -149,6 +176,9 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
         MapServiceContext mapServiceContext = getMapServiceContext();
         ManagedService managedService = createManagedService();
         CountingMigrationAwareService migrationAwareService = createMigrationAwareService();
+        DeltaReplicationAwareService deltaReplicationAwareService = createDeltaReplicationAwareService();
+        ChunkedMigrationAwareService chunkedMigrationAwareService = createChunkedMigrationAwareService();
+        PartitionCostAwareService partitionCostAwareService = createPartitionCostAwareService();
         TransactionalService transactionalService = createTransactionalService();
         RemoteService remoteService = createRemoteService();
         EventPublishingService eventPublishingService = createEventPublishingService();
@@ -163,6 +193,9 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
         checkNotNull(mapServiceContext, "mapServiceContext should not be null");
         checkNotNull(managedService, "managedService should not be null");
         checkNotNull(migrationAwareService, "migrationAwareService should not be null");
+        checkNotNull(deltaReplicationAwareService, "deltaReplicationAwareService should not be null");
+        checkNotNull(chunkedMigrationAwareService, "chunkedMigrationAwareService should not be null");
+        checkNotNull(partitionCostAwareService, "partitionCostAwareService should not be null");
         checkNotNull(transactionalService, "transactionalService should not be null");
         checkNotNull(remoteService, "remoteService should not be null");
         checkNotNull(eventPublishingService, "eventPublishingService should not be null");
@@ -177,6 +210,9 @@ abstract class AbstractMapServiceFactory implements MapServiceFactory {
         MapService mapService = new MapService();
         mapService.managedService = managedService;
         mapService.migrationAwareService = migrationAwareService;
+        mapService.deltaReplicationAwareService = deltaReplicationAwareService;
+        mapService.chunkedMigrationAwareService = chunkedMigrationAwareService;
+        mapService.partitionCostAwareService = partitionCostAwareService;
         mapService.transactionalService = transactionalService;
         mapService.remoteService = remoteService;
         mapService.eventPublishingService = eventPublishingService;
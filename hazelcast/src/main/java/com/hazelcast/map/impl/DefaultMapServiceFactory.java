@@ -16,6 +16,9 @@
 
 package com.hazelcast.map.impl;
 
+import com.hazelcast.internal.partition.ChunkedMigrationAwareService;
+import com.hazelcast.internal.partition.PartitionCostAwareService;
+import com.hazelcast.internal.partition.DeltaReplicationAwareService;
 import com.hazelcast.map.impl.event.MapEventPublishingService;
 import com.hazelcast.spi.ClientAwareService;
 import com.hazelcast.spi.EventPublishingService;
@@ -36,6 +39,7 @@ import static com.hazelcast.util.Preconditions.checkNotNull;
  *
  * @see MapServiceFactory
  */
+@SuppressWarnings("checkstyle:classdataabstractioncoupling")
 class DefaultMapServiceFactory extends AbstractMapServiceFactory {
 
     private final MapServiceContext mapServiceContext;
@@ -59,6 +63,21 @@ class DefaultMapServiceFactory extends AbstractMapServiceFactory {
         return new CountingMigrationAwareService(new MapMigrationAwareService(mapServiceContext));
     }
 
+    @Override
+    DeltaReplicationAwareService createDeltaReplicationAwareService() {
+        return new MapDeltaReplicationAwareService(mapServiceContext);
+    }
+
+    @Override
+    ChunkedMigrationAwareService createChunkedMigrationAwareService() {
+        return new MapChunkedMigrationAwareService(mapServiceContext);
+    }
+
+    @Override
+    PartitionCostAwareService createPartitionCostAwareService() {
+        return new MapPartitionCostAwareService(mapServiceContext);
+    }
+
     @Override
     TransactionalService createTransactionalService() {
         return new MapTransactionalService(mapServiceContext);
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.internal.partition.ChunkedMigrationAwareService;
+import com.hazelcast.map.impl.operation.MapReplicationChunkIterator;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PartitionReplicationEvent;
+
+import java.util.Iterator;
+
+/**
+ * Defines chunked migration behavior of map service.
+ *
+ * @see MapService
+ */
+class MapChunkedMigrationAwareService implements ChunkedMigrationAwareService {
+
+    private final MapServiceContext mapServiceContext;
+
+    MapChunkedMigrationAwareService(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+    }
+
+    @Override
+    public Iterator<Operation> prepareReplicationChunks(PartitionReplicationEvent event, int maxChunkSize) {
+        int partitionId = event.getPartitionId();
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+
+        return new MapReplicationChunkIterator(container, mapServiceContext, partitionId, event.getReplicaIndex(),
+                maxChunkSize);
+    }
+}
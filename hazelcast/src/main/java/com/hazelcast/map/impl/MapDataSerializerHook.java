@@ -48,6 +48,7 @@ import com.hazelcast.map.impl.operation.EvictAllOperationFactory;
 import com.hazelcast.map.impl.operation.EvictBackupOperation;
 import com.hazelcast.map.impl.operation.EvictOperation;
 import com.hazelcast.map.impl.operation.GetAllOperation;
+import com.hazelcast.map.impl.operation.GetAllPartitionAwareOperationFactory;
 import com.hazelcast.map.impl.operation.GetEntryViewOperation;
 import com.hazelcast.map.impl.operation.GetOperation;
 import com.hazelcast.map.impl.operation.IsEmptyOperationFactory;
@@ -68,6 +69,9 @@ import com.hazelcast.map.impl.operation.MapGetInvalidationMetaDataOperation;
 import com.hazelcast.map.impl.operation.MapIsEmptyOperation;
 import com.hazelcast.map.impl.operation.MapLoadAllOperationFactory;
 import com.hazelcast.map.impl.operation.MapNearCacheStateHolder;
+import com.hazelcast.map.impl.operation.MapChunkReplicationOperation;
+import com.hazelcast.map.impl.operation.MapDeltaReplicationOperation;
+import com.hazelcast.map.impl.operation.MapReplicaDigest;
 import com.hazelcast.map.impl.operation.MapReplicationOperation;
 import com.hazelcast.map.impl.operation.MapReplicationStateHolder;
 import com.hazelcast.map.impl.operation.MapSizeOperation;
@@ -285,8 +289,12 @@ public final class MapDataSerializerHook implements DataSerializerHook {
     public static final int REMOVE_FROM_LOAD_ALL = 134;
     public static final int ENTRY_REMOVING_PROCESSOR = 135;
     public static final int ENTRY_OFFLOADABLE_SET_UNLOCK = 136;
+    public static final int MAP_DELTA_REPLICATION = 137;
+    public static final int MAP_REPLICA_DIGEST = 138;
+    public static final int MAP_CHUNK_REPLICATION = 139;
+    public static final int GET_ALL_PARTITION_AWARE_FACTORY = 140;
 
-    private static final int LEN = ENTRY_OFFLOADABLE_SET_UNLOCK + 1;
+    private static final int LEN = GET_ALL_PARTITION_AWARE_FACTORY + 1;
 
     @Override
     public int getFactoryId() {
@@ -962,6 +970,26 @@ public final class MapDataSerializerHook implements DataSerializerHook {
                 return new EntryOffloadableSetUnlockOperation();
             }
         };
+        constructors[MAP_DELTA_REPLICATION] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new MapDeltaReplicationOperation();
+            }
+        };
+        constructors[MAP_REPLICA_DIGEST] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new MapReplicaDigest();
+            }
+        };
+        constructors[MAP_CHUNK_REPLICATION] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new MapChunkReplicationOperation();
+            }
+        };
+        constructors[GET_ALL_PARTITION_AWARE_FACTORY] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new GetAllPartitionAwareOperationFactory();
+            }
+        };
 
         return new ArrayDataSerializableFactory(constructors);
     }
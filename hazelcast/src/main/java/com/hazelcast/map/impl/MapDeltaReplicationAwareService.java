@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.internal.partition.DeltaReplicationAwareService;
+import com.hazelcast.map.impl.operation.MapDeltaReplicationOperation;
+import com.hazelcast.map.impl.operation.MapReplicaDigest;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.PartitionReplicationEvent;
+
+/**
+ * Defines delta replication behavior of map service.
+ *
+ * @see MapService
+ */
+class MapDeltaReplicationAwareService implements DeltaReplicationAwareService {
+
+    private final MapServiceContext mapServiceContext;
+
+    MapDeltaReplicationAwareService(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+    }
+
+    @Override
+    public Object createReplicaDigest(int partitionId, int replicaIndex) {
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+        return MapReplicaDigest.create(container, replicaIndex);
+    }
+
+    @Override
+    public Operation prepareDeltaReplicationOperation(PartitionReplicationEvent event, Object digest) {
+        int partitionId = event.getPartitionId();
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+
+        MapDeltaReplicationOperation operation = new MapDeltaReplicationOperation(container, partitionId,
+                event.getReplicaIndex(), (MapReplicaDigest) digest);
+        operation.setService(mapServiceContext.getService());
+
+        return operation;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl;
+
+import com.hazelcast.internal.partition.PartitionCostAwareService;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+
+/**
+ * Defines the partition cost reporting behavior of map service.
+ *
+ * @see MapService
+ */
+class MapPartitionCostAwareService implements PartitionCostAwareService {
+
+    private final MapServiceContext mapServiceContext;
+
+    MapPartitionCostAwareService(MapServiceContext mapServiceContext) {
+        this.mapServiceContext = mapServiceContext;
+    }
+
+    @Override
+    public long getPartitionCost(int partitionId) {
+        PartitionContainer container = mapServiceContext.getPartitionContainer(partitionId);
+        long cost = 0;
+        for (RecordStore recordStore : container.getMaps().values()) {
+            cost += recordStore.getOwnedEntryCost();
+        }
+        return cost;
+    }
+}
@@ -19,6 +19,9 @@ package com.hazelcast.map.impl;
 import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.core.DistributedObject;
 import com.hazelcast.internal.cluster.ClusterStateListener;
+import com.hazelcast.internal.partition.ChunkedMigrationAwareService;
+import com.hazelcast.internal.partition.PartitionCostAwareService;
+import com.hazelcast.internal.partition.DeltaReplicationAwareService;
 import com.hazelcast.map.impl.event.MapEventPublishingService;
 import com.hazelcast.monitor.LocalMapStats;
 import com.hazelcast.spi.ClientAwareService;
@@ -46,6 +49,7 @@ import com.hazelcast.transaction.TransactionalObject;
 import com.hazelcast.transaction.impl.Transaction;
 import com.hazelcast.wan.WanReplicationEvent;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
 
@@ -56,6 +60,9 @@ import static com.hazelcast.core.EntryEventType.INVALIDATION;
  *
  * @see MapManagedService
  * @see MapMigrationAwareService
+ * @see MapDeltaReplicationAwareService
+ * @see MapChunkedMigrationAwareService
+ * @see MapPartitionCostAwareService
  * @see MapTransactionalService
  * @see MapRemoteService
  * @see MapEventPublishingService
@@ -68,7 +75,8 @@ import static com.hazelcast.core.EntryEventType.INVALIDATION;
  * @see MapClientAwareService
  * @see MapServiceContext
  */
-public class MapService implements ManagedService, MigrationAwareService,
+public class MapService implements ManagedService, MigrationAwareService, DeltaReplicationAwareService,
+        ChunkedMigrationAwareService, PartitionCostAwareService,
         TransactionalService, RemoteService, EventPublishingService<Object, ListenerAdapter>,
         PostJoinAwareService, SplitBrainHandlerService, ReplicationSupportingService, StatisticsAwareService,
         PartitionAwareService, ClientAwareService, QuorumAwareService, NotifiableEventListener, ClusterStateListener {
@@ -77,6 +85,9 @@ public class MapService implements ManagedService, MigrationAwareService,
 
     protected ManagedService managedService;
     protected CountingMigrationAwareService migrationAwareService;
+    protected DeltaReplicationAwareService deltaReplicationAwareService;
+    protected ChunkedMigrationAwareService chunkedMigrationAwareService;
+    protected PartitionCostAwareService partitionCostAwareService;
     protected TransactionalService transactionalService;
     protected RemoteService remoteService;
     protected EventPublishingService eventPublishingService;
@@ -117,6 +128,26 @@ public class MapService implements ManagedService, MigrationAwareService,
         return migrationAwareService.prepareReplicationOperation(event);
     }
 
+    @Override
+    public Object createReplicaDigest(int partitionId, int replicaIndex) {
+        return deltaReplicationAwareService.createReplicaDigest(partitionId, replicaIndex);
+    }
+
+    @Override
+    public Operation prepareDeltaReplicationOperation(PartitionReplicationEvent event, Object digest) {
+        return deltaReplicationAwareService.prepareDeltaReplicationOperation(event, digest);
+    }
+
+    @Override
+    public Iterator<Operation> prepareReplicationChunks(PartitionReplicationEvent event, int maxChunkSize) {
+        return chunkedMigrationAwareService.prepareReplicationChunks(event, maxChunkSize);
+    }
+
+    @Override
+    public long getPartitionCost(int partitionId) {
+        return partitionCostAwareService.getPartitionCost(partitionId);
+    }
+
     @Override
     public void beforeMigration(PartitionMigrationEvent event) {
         migrationAwareService.beforeMigration(event);
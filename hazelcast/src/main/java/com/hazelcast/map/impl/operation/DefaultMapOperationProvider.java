@@ -133,6 +133,11 @@ public class DefaultMapOperationProvider implements MapOperationProvider {
         return new MapGetAllOperationFactory(name, keys);
     }
 
+    @Override
+    public OperationFactory createGetAllOperationFactory(String name, int[] partitions, List<Data>[] keys) {
+        return new GetAllPartitionAwareOperationFactory(name, partitions, keys);
+    }
+
     @Override
     public OperationFactory createEvictAllOperationFactory(String name) {
         return new EvictAllOperationFactory(name);
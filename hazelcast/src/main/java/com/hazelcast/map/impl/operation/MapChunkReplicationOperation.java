@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordReplicationInfo;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.MutatingOperation;
+import com.hazelcast.util.Clock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.map.impl.record.Records.applyRecordInfo;
+
+/**
+ * Replicates a chunk of the IMap records of a partition. The record store of a map is reset by the chunk which
+ * starts the replication of that map, the following chunks add their records to it.
+ *
+ * @see MapReplicationChunkIterator
+ */
+public class MapChunkReplicationOperation extends Operation implements MutatingOperation, IdentifiedDataSerializable {
+
+    // loaded status of the maps whose replication is started by this chunk
+    private Map<String, Boolean> startedMaps = new LinkedHashMap<String, Boolean>();
+    private Map<String, List<RecordReplicationInfo>> data = new LinkedHashMap<String, List<RecordReplicationInfo>>();
+
+    public MapChunkReplicationOperation() {
+    }
+
+    public MapChunkReplicationOperation(int partitionId, int replicaIndex) {
+        setPartitionId(partitionId).setReplicaIndex(replicaIndex);
+    }
+
+    void startMap(String mapName, boolean loaded) {
+        startedMaps.put(mapName, loaded);
+    }
+
+    void addRecord(String mapName, RecordReplicationInfo recordReplicationInfo) {
+        List<RecordReplicationInfo> records = data.get(mapName);
+        if (records == null) {
+            records = new ArrayList<RecordReplicationInfo>();
+            data.put(mapName, records);
+        }
+        records.add(recordReplicationInfo);
+    }
+
+    @Override
+    public void run() {
+        for (Map.Entry<String, Boolean> entry : startedMaps.entrySet()) {
+            RecordStore recordStore = getRecordStore(entry.getKey());
+            recordStore.reset();
+            recordStore.setPreMigrationLoadedStatus(entry.getValue());
+        }
+
+        for (Map.Entry<String, List<RecordReplicationInfo>> dataEntry : data.entrySet()) {
+            RecordStore recordStore = getRecordStore(dataEntry.getKey());
+            for (RecordReplicationInfo recordReplicationInfo : dataEntry.getValue()) {
+                Data key = recordReplicationInfo.getKey();
+                Data value = recordReplicationInfo.getValue();
+                Record newRecord = recordStore.createRecord(value, -1L, Clock.currentTimeMillis());
+                applyRecordInfo(newRecord, recordReplicationInfo);
+                recordStore.putRecord(key, newRecord);
+            }
+        }
+    }
+
+    private RecordStore getRecordStore(String mapName) {
+        final boolean skipLoadingOnRecordStoreCreate = true;
+        MapService mapService = getService();
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        return mapServiceContext.getRecordStore(getPartitionId(), mapName, skipLoadingOnRecordStoreCreate);
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeInt(startedMaps.size());
+        for (Map.Entry<String, Boolean> entry : startedMaps.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeBoolean(entry.getValue());
+        }
+
+        out.writeInt(data.size());
+        for (Map.Entry<String, List<RecordReplicationInfo>> dataEntry : data.entrySet()) {
+            out.writeUTF(dataEntry.getKey());
+            List<RecordReplicationInfo> records = dataEntry.getValue();
+            out.writeInt(records.size());
+            for (RecordReplicationInfo recordReplicationInfo : records) {
+                out.writeObject(recordReplicationInfo);
+            }
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        int startedMapCount = in.readInt();
+        for (int i = 0; i < startedMapCount; i++) {
+            startedMaps.put(in.readUTF(), in.readBoolean());
+        }
+
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String mapName = in.readUTF();
+            int recordCount = in.readInt();
+            List<RecordReplicationInfo> records = new ArrayList<RecordReplicationInfo>(recordCount);
+            for (int j = 0; j < recordCount; j++) {
+                RecordReplicationInfo recordReplicationInfo = in.readObject();
+                records.add(recordReplicationInfo);
+            }
+            data.put(mapName, records);
+        }
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.MAP_CHUNK_REPLICATION;
+    }
+}
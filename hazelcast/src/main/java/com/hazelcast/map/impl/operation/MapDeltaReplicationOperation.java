@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordReplicationInfo;
+import com.hazelcast.map.impl.recordstore.KeyRangeDigest;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.util.Clock;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.map.impl.record.Records.applyRecordInfo;
+
+/**
+ * Replicates only the IMap entries of the key ranges whose digests differ between the partition owner
+ * and the backup replica. The entries of maps which have no digest on either side are replicated fully.
+ * Write-behind queues and near cache metadata are always replicated fully.
+ *
+ * @see MapReplicaDigest
+ */
+public class MapDeltaReplicationOperation extends MapReplicationOperation {
+
+    /**
+     * Differing key ranges of the maps, {@code null} if the map is replicated fully.
+     */
+    private Map<String, int[]> ranges;
+    private Map<String, List<RecordReplicationInfo>> data;
+    private Map<String, Boolean> loaded;
+
+    public MapDeltaReplicationOperation() {
+    }
+
+    public MapDeltaReplicationOperation(PartitionContainer container, int partitionId, int replicaIndex,
+                                        MapReplicaDigest digest) {
+        setPartitionId(partitionId).setReplicaIndex(replicaIndex);
+
+        prepare(container, replicaIndex, digest);
+        writeBehindStateHolder.prepare(container, replicaIndex);
+        mapNearCacheStateHolder.prepare(container, replicaIndex);
+    }
+
+    private void prepare(PartitionContainer container, int replicaIndex, MapReplicaDigest digest) {
+        int mapCount = container.getMaps().size();
+        ranges = new HashMap<String, int[]>(mapCount);
+        data = new HashMap<String, List<RecordReplicationInfo>>(mapCount);
+        loaded = new HashMap<String, Boolean>(mapCount);
+        for (Map.Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
+            RecordStore recordStore = entry.getValue();
+            MapContainer mapContainer = recordStore.getMapContainer();
+            if (mapContainer.getMapConfig().getTotalBackupCount() < replicaIndex) {
+                continue;
+            }
+            String mapName = entry.getKey();
+            boolean[] differing = getDifferingRanges(recordStore, digest.getRanges(mapName));
+            MapServiceContext mapServiceContext = mapContainer.getMapServiceContext();
+            List<RecordReplicationInfo> records = new ArrayList<RecordReplicationInfo>();
+            Iterator<Record> iterator = recordStore.iterator();
+            while (iterator.hasNext()) {
+                Record record = iterator.next();
+                Data key = record.getKey();
+                if (differing == null || differing[KeyRangeDigest.rangeOf(key)]) {
+                    records.add(createRecordReplicationInfo(key, record, mapServiceContext));
+                }
+            }
+            ranges.put(mapName, toIndexes(differing));
+            data.put(mapName, records);
+            loaded.put(mapName, recordStore.isLoaded());
+        }
+    }
+
+    /**
+     * Returns the flags of the key ranges whose digests differ or {@code null} if the map has to be replicated fully.
+     */
+    private static boolean[] getDifferingRanges(RecordStore recordStore, long[] backupRanges) {
+        KeyRangeDigest keyRangeDigest = recordStore.getStorage().getKeyRangeDigest();
+        if (backupRanges == null || keyRangeDigest == null) {
+            return null;
+        }
+        long[] ownerRanges = keyRangeDigest.getRanges();
+        boolean[] differing = new boolean[ownerRanges.length];
+        for (int i = 0; i < ownerRanges.length; i++) {
+            differing[i] = ownerRanges[i] != backupRanges[i];
+        }
+        return differing;
+    }
+
+    private static int[] toIndexes(boolean[] flags) {
+        if (flags == null) {
+            return null;
+        }
+        int count = 0;
+        for (boolean flag : flags) {
+            if (flag) {
+                count++;
+            }
+        }
+        int[] indexes = new int[count];
+        int k = 0;
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i]) {
+                indexes[k++] = i;
+            }
+        }
+        return indexes;
+    }
+
+    @Override
+    public void run() {
+        applyDelta();
+        writeBehindStateHolder.applyState();
+        if (getReplicaIndex() == 0) {
+            mapNearCacheStateHolder.applyState();
+        }
+    }
+
+    private void applyDelta() {
+        for (Map.Entry<String, List<RecordReplicationInfo>> dataEntry : data.entrySet()) {
+            String mapName = dataEntry.getKey();
+            RecordStore recordStore = getRecordStore(mapName);
+            int[] mapRanges = ranges.get(mapName);
+            if (mapRanges == null) {
+                recordStore.reset();
+            } else {
+                removeRanges(recordStore, mapRanges);
+            }
+            recordStore.setPreMigrationLoadedStatus(loaded.get(mapName));
+
+            for (RecordReplicationInfo recordReplicationInfo : dataEntry.getValue()) {
+                Data key = recordReplicationInfo.getKey();
+                Data value = recordReplicationInfo.getValue();
+                Record newRecord = recordStore.createRecord(value, -1L, Clock.currentTimeMillis());
+                applyRecordInfo(newRecord, recordReplicationInfo);
+                recordStore.putRecord(key, newRecord);
+            }
+        }
+    }
+
+    private static void removeRanges(RecordStore recordStore, int[] mapRanges) {
+        if (mapRanges.length == 0) {
+            return;
+        }
+        boolean[] removed = new boolean[KeyRangeDigest.RANGE_COUNT];
+        for (int range : mapRanges) {
+            removed[range] = true;
+        }
+        List<Data> keys = new ArrayList<Data>();
+        Iterator<Record> iterator = recordStore.iterator();
+        while (iterator.hasNext()) {
+            Data key = iterator.next().getKey();
+            if (removed[KeyRangeDigest.rangeOf(key)]) {
+                keys.add(key);
+            }
+        }
+        for (Data key : keys) {
+            recordStore.removeBackup(key);
+        }
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        out.writeInt(data.size());
+        for (Map.Entry<String, List<RecordReplicationInfo>> dataEntry : data.entrySet()) {
+            String mapName = dataEntry.getKey();
+            out.writeUTF(mapName);
+            out.writeBoolean(loaded.get(mapName));
+            out.writeIntArray(ranges.get(mapName));
+            List<RecordReplicationInfo> records = dataEntry.getValue();
+            out.writeInt(records.size());
+            for (RecordReplicationInfo recordReplicationInfo : records) {
+                out.writeObject(recordReplicationInfo);
+            }
+        }
+        writeBehindStateHolder.writeData(out);
+        mapNearCacheStateHolder.writeData(out);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        ranges = new HashMap<String, int[]>(size);
+        data = new HashMap<String, List<RecordReplicationInfo>>(size);
+        loaded = new HashMap<String, Boolean>(size);
+        for (int i = 0; i < size; i++) {
+            String mapName = in.readUTF();
+            loaded.put(mapName, in.readBoolean());
+            ranges.put(mapName, in.readIntArray());
+            int recordCount = in.readInt();
+            List<RecordReplicationInfo> records = new ArrayList<RecordReplicationInfo>(recordCount);
+            for (int j = 0; j < recordCount; j++) {
+                RecordReplicationInfo recordReplicationInfo = in.readObject();
+                records.add(recordReplicationInfo);
+            }
+            data.put(mapName, records);
+        }
+        writeBehindStateHolder.readData(in);
+        mapNearCacheStateHolder.readData(in);
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.MAP_DELTA_REPLICATION;
+    }
+}
@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.operation;
 
 import com.hazelcast.internal.nearcache.impl.invalidation.Invalidator;
+import com.hazelcast.internal.util.HeavyHitters;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.map.impl.MapService;
@@ -28,6 +29,7 @@ import com.hazelcast.map.impl.nearcache.MapNearCacheManager;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.nio.serialization.Data;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.BackupOperation;
 import com.hazelcast.spi.impl.AbstractNamedOperation;
 
 import java.util.List;
@@ -140,6 +142,19 @@ public abstract class MapOperation extends AbstractNamedOperation implements Ide
         return mapNearCacheManager.getInvalidator();
     }
 
+    /**
+     * Counts an access of the given key if the hot keys of the map are tracked.
+     */
+    protected final void recordKeyAccess(Data key) {
+        if (recordStore == null || key == null || this instanceof BackupOperation) {
+            return;
+        }
+        HeavyHitters<Data> hotKeys = recordStore.getHotKeys();
+        if (hotKeys != null) {
+            hotKeys.add(key);
+        }
+    }
+
     protected void evict(Data excludedKey) {
         assert recordStore != null : "Record-store cannot be null";
 
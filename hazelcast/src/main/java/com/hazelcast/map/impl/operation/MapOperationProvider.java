@@ -113,6 +113,8 @@ public interface MapOperationProvider {
 
     OperationFactory createGetAllOperationFactory(String name, List<Data> keys);
 
+    OperationFactory createGetAllOperationFactory(String name, int[] partitions, List<Data>[] keys);
+
     OperationFactory createMapSizeOperationFactory(String name);
 
     OperationFactory createPutAllOperationFactory(String name, int[] partitions, MapEntries[] mapEntries);
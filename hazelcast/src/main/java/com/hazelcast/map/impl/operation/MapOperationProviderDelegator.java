@@ -216,6 +216,11 @@ abstract class MapOperationProviderDelegator implements MapOperationProvider {
         return getDelegate().createGetAllOperationFactory(name, keys);
     }
 
+    @Override
+    public OperationFactory createGetAllOperationFactory(String name, int[] partitions, List<Data>[] keys) {
+        return getDelegate().createGetAllOperationFactory(name, partitions, keys);
+    }
+
     @Override
     public OperationFactory createMapSizeOperationFactory(String name) {
         return getDelegate().createMapSizeOperationFactory(name);
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.recordstore.KeyRangeDigest;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Key range digests of the IMap record stores of a backup replica, sent to the partition owner
+ * to synchronize only the differing key ranges.
+ *
+ * @see KeyRangeDigest
+ * @see MapDeltaReplicationOperation
+ */
+public class MapReplicaDigest implements IdentifiedDataSerializable {
+
+    private Map<String, long[]> ranges;
+
+    public MapReplicaDigest() {
+    }
+
+    public MapReplicaDigest(Map<String, long[]> ranges) {
+        this.ranges = ranges;
+    }
+
+    /**
+     * Creates the digest of the record stores of the given partition container which are backed up
+     * at least {@code replicaIndex} times.
+     *
+     * @return the digest or {@code null} if none of the record stores maintains a {@link KeyRangeDigest}
+     */
+    public static MapReplicaDigest create(PartitionContainer container, int replicaIndex) {
+        Map<String, long[]> ranges = new HashMap<String, long[]>();
+        for (Map.Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
+            RecordStore recordStore = entry.getValue();
+            if (recordStore.getMapContainer().getMapConfig().getTotalBackupCount() < replicaIndex) {
+                continue;
+            }
+            KeyRangeDigest keyRangeDigest = recordStore.getStorage().getKeyRangeDigest();
+            if (keyRangeDigest != null) {
+                ranges.put(entry.getKey(), keyRangeDigest.getRanges());
+            }
+        }
+        return ranges.isEmpty() ? null : new MapReplicaDigest(ranges);
+    }
+
+    /**
+     * Returns the key range digests of the given map or {@code null} if they are not known.
+     */
+    public long[] getRanges(String mapName) {
+        return ranges.get(mapName);
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(ranges.size());
+        for (Map.Entry<String, long[]> entry : ranges.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLongArray(entry.getValue());
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        ranges = new HashMap<String, long[]>(size);
+        for (int i = 0; i < size; i++) {
+            ranges.put(in.readUTF(), in.readLongArray());
+        }
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return MapDataSerializerHook.MAP_REPLICA_DIGEST;
+    }
+}
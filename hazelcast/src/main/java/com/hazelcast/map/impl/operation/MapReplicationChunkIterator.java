@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.record.RecordReplicationInfo;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.map.impl.recordstore.Storage;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.Operation;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static com.hazelcast.map.impl.record.Records.buildRecordInfo;
+
+/**
+ * Iterates over the IMap records of a partition and returns them in {@link MapChunkReplicationOperation}s of bounded
+ * size. The position in the record store of the current map is kept as a table index cursor, so the records are read
+ * lazily when the next chunk is requested. The last operation is a {@link MapReplicationOperation} without records,
+ * which replicates the write-behind queues and the near cache metadata.
+ */
+public class MapReplicationChunkIterator implements Iterator<Operation> {
+
+    private static final int KEY_BATCH_SIZE = 100;
+    // approximate serialized size of the metadata of a record
+    private static final int RECORD_INFO_SIZE = 80;
+
+    private final PartitionContainer container;
+    private final MapServiceContext mapServiceContext;
+    private final int partitionId;
+    private final int replicaIndex;
+    private final int maxChunkSize;
+    private final LinkedList<String> mapNames = new LinkedList<String>();
+    // keys of the current map which are fetched but not added to a chunk yet
+    private final LinkedList<Data> pendingKeys = new LinkedList<Data>();
+
+    private boolean mapStarted;
+    private int tableIndex;
+    private boolean completed;
+
+    public MapReplicationChunkIterator(PartitionContainer container, MapServiceContext mapServiceContext,
+                                       int partitionId, int replicaIndex, int maxChunkSize) {
+        this.container = container;
+        this.mapServiceContext = mapServiceContext;
+        this.partitionId = partitionId;
+        this.replicaIndex = replicaIndex;
+        this.maxChunkSize = maxChunkSize;
+
+        for (Map.Entry<String, RecordStore> entry : container.getMaps().entrySet()) {
+            if (entry.getValue().getMapContainer().getMapConfig().getTotalBackupCount() >= replicaIndex) {
+                mapNames.add(entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !completed;
+    }
+
+    @Override
+    public Operation next() {
+        if (completed) {
+            throw new NoSuchElementException();
+        }
+        if (!mapNames.isEmpty()) {
+            return nextRecordChunk();
+        }
+
+        completed = true;
+        MapReplicationOperation operation = MapReplicationOperation.withoutRecords(container, partitionId, replicaIndex);
+        operation.setService(mapServiceContext.getService());
+        return operation;
+    }
+
+    private Operation nextRecordChunk() {
+        MapChunkReplicationOperation operation = new MapChunkReplicationOperation(partitionId, replicaIndex);
+        int chunkSize = 0;
+        while (chunkSize < maxChunkSize && !mapNames.isEmpty()) {
+            String mapName = mapNames.getFirst();
+            RecordStore recordStore = container.getExistingRecordStore(mapName);
+            if (recordStore == null) {
+                // the map is destroyed
+                nextMap();
+                continue;
+            }
+            if (!mapStarted) {
+                operation.startMap(mapName, recordStore.isLoaded());
+                mapStarted = true;
+                tableIndex = Integer.MAX_VALUE;
+            }
+
+            Storage<Data, Record> storage = recordStore.getStorage();
+            if (pendingKeys.isEmpty()) {
+                if (tableIndex < 0) {
+                    nextMap();
+                    continue;
+                }
+                MapKeysWithCursor keys = storage.fetchKeys(tableIndex, KEY_BATCH_SIZE);
+                pendingKeys.addAll(keys.getKeys());
+                tableIndex = keys.getNextTableIndexToReadFrom();
+            }
+            chunkSize += addRecords(operation, mapName, storage, maxChunkSize - chunkSize);
+        }
+        return operation;
+    }
+
+    /**
+     * Adds the records of the pending keys to the operation until the given size is reached.
+     *
+     * @return the approximate size of the added records
+     */
+    private int addRecords(MapChunkReplicationOperation operation, String mapName, Storage<Data, Record> storage,
+                           int maxSize) {
+        int size = 0;
+        while (size < maxSize && !pendingKeys.isEmpty()) {
+            Data key = pendingKeys.removeFirst();
+            Record record = storage.get(key);
+            if (record != null) {
+                Data value = mapServiceContext.toData(record.getValue());
+                operation.addRecord(mapName, new RecordReplicationInfo(key, value, buildRecordInfo(record)));
+                size += key.totalSize() + (value != null ? value.totalSize() : 0) + RECORD_INFO_SIZE;
+            }
+        }
+        return size;
+    }
+
+    private void nextMap() {
+        mapNames.removeFirst();
+        mapStarted = false;
+        pendingKeys.clear();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -56,6 +56,20 @@ public class MapReplicationOperation extends Operation implements MutatingOperat
         mapNearCacheStateHolder.prepare(container, replicaIndex);
     }
 
+    /**
+     * Creates an operation which replicates all IMap-states of the partition except the records, which are replicated
+     * by {@link MapChunkReplicationOperation}s.
+     */
+    static MapReplicationOperation withoutRecords(PartitionContainer container, int partitionId, int replicaIndex) {
+        MapReplicationOperation operation = new MapReplicationOperation();
+        operation.setPartitionId(partitionId).setReplicaIndex(replicaIndex);
+
+        operation.mapReplicationStateHolder.prepareEmpty();
+        operation.writeBehindStateHolder.prepare(container, replicaIndex);
+        operation.mapNearCacheStateHolder.prepare(container, replicaIndex);
+        return operation;
+    }
+
     @Override
     public void run() {
         mapReplicationStateHolder.applyState();
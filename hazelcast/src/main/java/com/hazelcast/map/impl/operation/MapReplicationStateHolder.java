@@ -91,6 +91,11 @@ public class MapReplicationStateHolder implements IdentifiedDataSerializable {
         }
     }
 
+    void prepareEmpty() {
+        data = new HashMap<String, Set<RecordReplicationInfo>>(0);
+        loaded = new HashMap<String, Boolean>(0);
+    }
+
     void applyState() {
         if (data != null) {
             for (Map.Entry<String, Set<RecordReplicationInfo>> dataEntry : data.entrySet()) {
@@ -98,6 +98,12 @@ public abstract class MutatingKeyBasedMapOperation extends MapOperation
         return localMapStatsProvider.getLocalMapStatsImpl(name);
     }
 
+    @Override
+    public void innerBeforeRun() throws Exception {
+        super.innerBeforeRun();
+        recordKeyAccess(dataKey);
+    }
+
     @Override
     public final long getThreadId() {
         return threadId;
@@ -40,6 +40,12 @@ public abstract class ReadonlyKeyBasedMapOperation extends MapOperation implemen
         this.dataKey = dataKey;
     }
 
+    @Override
+    public void innerBeforeRun() throws Exception {
+        super.innerBeforeRun();
+        recordKeyAccess(dataKey);
+    }
+
     @Override
     public final long getThreadId() {
         return threadId;
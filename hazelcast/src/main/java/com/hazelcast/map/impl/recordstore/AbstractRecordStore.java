@@ -20,6 +20,8 @@ import com.hazelcast.concurrent.lock.LockService;
 import com.hazelcast.concurrent.lock.LockStore;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
+import com.hazelcast.internal.diagnostics.HotKeysPlugin;
+import com.hazelcast.internal.util.HeavyHitters;
 import com.hazelcast.map.impl.EntryCostEstimator;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapService;
@@ -35,6 +37,8 @@ import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.spi.DefaultObjectNamespace;
 import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.spi.serialization.SerializationService;
 import com.hazelcast.util.Clock;
 
@@ -65,6 +69,9 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
     protected Storage<Data, Record> storage;
 
+    // null if the key accesses are not tracked
+    private final HeavyHitters<Data> hotKeys;
+
     private long hits;
     private long lastAccess;
     private long lastUpdate;
@@ -81,6 +88,14 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         MapStoreManager mapStoreManager = mapStoreContext.getMapStoreManager();
         this.mapDataStore = mapStoreManager.getMapDataStore(name, partitionId);
         this.lockStore = createLockStore();
+        HazelcastProperties properties = mapServiceContext.getNodeEngine().getProperties();
+        this.hotKeys = HotKeysPlugin.isEnabled(properties)
+                ? new HeavyHitters<Data>(properties.getInteger(HotKeysPlugin.TOP_COUNT)) : null;
+    }
+
+    @Override
+    public HeavyHitters<Data> getHotKeys() {
+        return hotKeys;
     }
 
     @Override
@@ -106,7 +121,9 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
 
     @Override
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
-        return new StorageImpl(recordFactory, memoryFormat, serializationService);
+        boolean keyRangeDigestEnabled = mapServiceContext.getNodeEngine().getProperties()
+                .getBoolean(GroupProperty.PARTITION_BACKUP_SYNC_DELTA_ENABLED);
+        return new StorageImpl(recordFactory, memoryFormat, serializationService, keyRangeDigestEnabled);
     }
 
     @Override
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.nio.serialization.Data;
+
+import static com.hazelcast.internal.serialization.impl.HeapData.TYPE_OFFSET;
+import static com.hazelcast.util.HashUtil.MurmurHash3_fmix;
+import static com.hazelcast.util.HashUtil.MurmurHash3_x64_64;
+
+/**
+ * Digest of the entries of a {@link Storage}, which is maintained incrementally on each mutation.
+ * <p>
+ * The key space is split into {@link #RANGE_COUNT} ranges by the hash of the keys. The digest of a range is the sum of
+ * the 64-bit hashes of its entries, so it can be updated without visiting the other entries. Two replicas of a record store
+ * have equal range digests if they hold the same entries in that range, hence only the entries of the ranges with
+ * different digests need to be synchronized between replicas.
+ * <p>
+ * The hash of an entry is computed from the serialized bytes of both its key and value, so only binary values are
+ * supported.
+ */
+public final class KeyRangeDigest {
+
+    /**
+     * Number of key ranges, must be a power of two.
+     */
+    public static final int RANGE_COUNT = 256;
+
+    private static final int RANGE_MASK = RANGE_COUNT - 1;
+    private static final long HASH_MULTIPLIER = 31;
+
+    private final long[] ranges = new long[RANGE_COUNT];
+
+    /**
+     * Returns the index of the key range the given key belongs to.
+     */
+    public static int rangeOf(Data key) {
+        return MurmurHash3_fmix(key.hashCode()) & RANGE_MASK;
+    }
+
+    void add(Data key, Object value) {
+        ranges[rangeOf(key)] += hash(key, value);
+    }
+
+    void remove(Data key, Object value) {
+        ranges[rangeOf(key)] -= hash(key, value);
+    }
+
+    void clear() {
+        for (int i = 0; i < RANGE_COUNT; i++) {
+            ranges[i] = 0;
+        }
+    }
+
+    /**
+     * Returns a copy of the digests of the key ranges. Should be called on the partition thread, since the digests are
+     * changed by the partition thread without synchronization.
+     */
+    public long[] getRanges() {
+        long[] copy = new long[RANGE_COUNT];
+        System.arraycopy(ranges, 0, copy, 0, RANGE_COUNT);
+        return copy;
+    }
+
+    private static long hash(Data key, Object value) {
+        return MurmurHash3_fmix(hash(key) * HASH_MULTIPLIER + hash((Data) value));
+    }
+
+    /**
+     * Hashes the type and the payload of the given data, which are the bytes {@link Data#equals(Object)} compares.
+     */
+    private static long hash(Data data) {
+        if (data == null || data.totalSize() <= TYPE_OFFSET) {
+            return 0;
+        }
+        return MurmurHash3_x64_64(data.toByteArray(), TYPE_OFFSET, data.totalSize() - TYPE_OFFSET);
+    }
+}
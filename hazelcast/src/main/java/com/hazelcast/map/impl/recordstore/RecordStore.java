@@ -18,6 +18,7 @@ package com.hazelcast.map.impl.recordstore;
 
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.EntryView;
+import com.hazelcast.internal.util.HeavyHitters;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapEntries;
 import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
@@ -378,6 +379,14 @@ public interface RecordStore<R extends Record> extends LocalRecordStoreStats {
 
     Storage getStorage();
 
+    /**
+     * Returns the sketch of the most frequently accessed keys of this record store.
+     *
+     * @return the sketch or {@code null} if the key accesses are not tracked
+     * @see com.hazelcast.internal.diagnostics.HotKeysPlugin
+     */
+    HeavyHitters<Data> getHotKeys();
+
     /**
      * Starts mapLoader
      */
@@ -64,6 +64,13 @@ public interface Storage<K, R> {
 
     void setEntryCostEstimator(EntryCostEstimator entryCostEstimator);
 
+    /**
+     * Returns the digest of the key ranges of this storage.
+     *
+     * @return the digest or {@code null} if the digest isn't maintained by this storage
+     */
+    KeyRangeDigest getKeyRangeDigest();
+
     void disposeDeferredBlocks();
 
     /**
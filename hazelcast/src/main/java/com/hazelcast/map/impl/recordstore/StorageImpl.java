@@ -32,6 +32,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import static com.hazelcast.config.InMemoryFormat.BINARY;
 import static com.hazelcast.map.impl.OwnedEntryCostEstimatorFactory.createMapSizeEstimator;
 
 /**
@@ -43,19 +44,29 @@ public class StorageImpl<R extends Record> implements Storage<Data, R> {
 
     private final RecordFactory<R> recordFactory;
     private final StorageSCHM<R> records;
+    private final KeyRangeDigest keyRangeDigest;
 
     // not final for testing purposes.
     private EntryCostEstimator<Data, Record> entryCostEstimator;
 
     StorageImpl(RecordFactory<R> recordFactory, InMemoryFormat inMemoryFormat, SerializationService serializationService) {
+        this(recordFactory, inMemoryFormat, serializationService, false);
+    }
+
+    StorageImpl(RecordFactory<R> recordFactory, InMemoryFormat inMemoryFormat, SerializationService serializationService,
+                boolean keyRangeDigestEnabled) {
         this.recordFactory = recordFactory;
         this.entryCostEstimator = createMapSizeEstimator(inMemoryFormat);
         this.records = new StorageSCHM<R>(serializationService);
+        this.keyRangeDigest = keyRangeDigestEnabled && inMemoryFormat == BINARY ? new KeyRangeDigest() : null;
     }
 
     @Override
     public void clear(boolean isDuringShutdown) {
         records.clear();
+        if (keyRangeDigest != null) {
+            keyRangeDigest.clear();
+        }
 
         entryCostEstimator.reset();
     }
@@ -72,6 +83,13 @@ public class StorageImpl<R extends Record> implements Storage<Data, R> {
 
         R previousRecord = records.put(key, record);
 
+        if (keyRangeDigest != null) {
+            if (previousRecord != null) {
+                keyRangeDigest.remove(key, previousRecord.getValue());
+            }
+            keyRangeDigest.add(key, record.getValue());
+        }
+
         if (previousRecord == null) {
             updateCostEstimate(entryCostEstimator.calculateEntryCost(key, record));
         } else {
@@ -83,9 +101,16 @@ public class StorageImpl<R extends Record> implements Storage<Data, R> {
     @Override
     public void updateRecordValue(Data key, R record, Object value) {
         updateCostEstimate(-entryCostEstimator.calculateValueCost(record));
+        if (keyRangeDigest != null) {
+            keyRangeDigest.remove(key, record.getValue());
+        }
 
         recordFactory.setValue(record, value);
 
+        if (keyRangeDigest != null) {
+            keyRangeDigest.add(key, record.getValue());
+        }
+
         updateCostEstimate(entryCostEstimator.calculateValueCost(record));
     }
 
@@ -114,6 +139,11 @@ public class StorageImpl<R extends Record> implements Storage<Data, R> {
         clear(isDuringShutdown);
     }
 
+    @Override
+    public KeyRangeDigest getKeyRangeDigest() {
+        return keyRangeDigest;
+    }
+
     public EntryCostEstimator getEntryCostEstimator() {
         return entryCostEstimator;
     }
@@ -130,7 +160,10 @@ public class StorageImpl<R extends Record> implements Storage<Data, R> {
         }
 
         Data key = record.getKey();
-        records.remove(key);
+        R removedRecord = records.remove(key);
+        if (keyRangeDigest != null && removedRecord != null) {
+            keyRangeDigest.remove(key, removedRecord.getValue());
+        }
 
         updateCostEstimate(-entryCostEstimator.calculateEntryCost(key, record));
     }
@@ -28,8 +28,13 @@ import com.hazelcast.spi.impl.eventservice.impl.operations.PostJoinRegistrationO
 import com.hazelcast.spi.impl.eventservice.impl.operations.RegistrationOperation;
 import com.hazelcast.spi.impl.eventservice.impl.operations.SendEventOperation;
 import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.BackupBatch;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionBatchBackupOperation;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionBatchOperation;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionBatchOperation.BatchResponse;
 import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation;
 import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionIteratingOperation.PartitionResponse;
+import com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckBatchResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.CallTimeoutResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.ErrorResponse;
@@ -65,6 +70,11 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
     public static final int TRUE_EVENT_FILTER = 17;
     public static final int UNMODIFIABLE_LAZY_LIST = 18;
     public static final int OPERATION_CONTROL = 19;
+    public static final int PARTITION_BATCH = 20;
+    public static final int PARTITION_BATCH_RESPONSE = 21;
+    public static final int PARTITION_BATCH_BACKUP = 22;
+    public static final int BACKUP_BATCH = 23;
+    public static final int BACKUP_ACK_BATCH_RESPONSE = 24;
 
     private static final DataSerializableFactory FACTORY = createFactoryInternal();
 
@@ -118,6 +128,16 @@ public final class SpiDataSerializerHook implements DataSerializerHook {
                         return new UnmodifiableLazyList();
                     case OPERATION_CONTROL:
                         return new OperationControl();
+                    case PARTITION_BATCH:
+                        return new PartitionBatchOperation();
+                    case PARTITION_BATCH_RESPONSE:
+                        return new BatchResponse();
+                    case PARTITION_BATCH_BACKUP:
+                        return new PartitionBatchBackupOperation();
+                    case BACKUP_BATCH:
+                        return new BackupBatch();
+                    case BACKUP_ACK_BATCH_RESPONSE:
+                        return new BackupAckBatchResponse();
                     default:
                         return null;
                 }
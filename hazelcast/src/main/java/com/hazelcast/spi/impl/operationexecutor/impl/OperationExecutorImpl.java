@@ -44,6 +44,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.spi.properties.GroupProperty.GENERIC_OPERATION_THREAD_COUNT;
 import static com.hazelcast.spi.properties.GroupProperty.PARTITION_COUNT;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_OPERATION_THREAD_BALANCER_INTERVAL_SECONDS;
 import static com.hazelcast.spi.properties.GroupProperty.PARTITION_OPERATION_THREAD_COUNT;
 import static com.hazelcast.spi.properties.GroupProperty.PRIORITY_GENERIC_OPERATION_THREAD_COUNT;
 import static com.hazelcast.util.Preconditions.checkNotNull;
@@ -52,7 +53,8 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 /**
  * A {@link com.hazelcast.spi.impl.operationexecutor.OperationExecutor} that schedules:
  * <ol>
- * <li>partition specific operations to a specific partition-operation-thread (using a mod on the partition-id)</li>
+ * <li>partition specific operations to a specific partition-operation-thread (using a mod on the partition-id, or when
+ * the {@link PartitionThreadBalancer} is enabled, using the partition to thread assignment of the balancer)</li>
  * <li>non specific operations to generic-operation-threads</li>
  * </ol>
  * The {@link #execute(Object, int, boolean)} accepts an Object instead of a runnable to prevent needing to
@@ -81,6 +83,8 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
     // all operations for specific partitions will be executed on these threads, e.g. map.put(key, value)
     private final PartitionOperationThread[] partitionThreads;
     private final OperationRunner[] partitionOperationRunners;
+    // null when partitions are statically assigned to partition threads
+    private final PartitionThreadBalancer partitionThreadBalancer;
 
     private final OperationQueue genericQueue
             = new DefaultOperationQueue(new LinkedBlockingQueue<Object>(), new LinkedBlockingQueue<Object>());
@@ -106,6 +110,7 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
 
         this.partitionOperationRunners = initPartitionOperationRunners(properties, runnerFactory);
         this.partitionThreads = initPartitionThreads(properties, threadGroup, nodeExtension);
+        this.partitionThreadBalancer = initPartitionThreadBalancer(properties, threadGroup);
 
         this.priorityThreadCount = properties.getInteger(PRIORITY_GENERIC_OPERATION_THREAD_COUNT);
         this.genericOperationRunners = initGenericOperationRunners(properties, runnerFactory);
@@ -172,6 +177,21 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
         return threads;
     }
 
+    private PartitionThreadBalancer initPartitionThreadBalancer(HazelcastProperties properties,
+                                                                HazelcastThreadGroup threadGroup) {
+        int intervalSeconds = properties.getSeconds(PARTITION_OPERATION_THREAD_BALANCER_INTERVAL_SECONDS);
+        if (intervalSeconds <= 0 || partitionThreads.length == 1) {
+            return null;
+        }
+
+        PartitionThreadBalancer balancer = new PartitionThreadBalancer(partitionThreads, partitionOperationRunners,
+                intervalSeconds, threadGroup, logger);
+        for (PartitionOperationThread partitionThread : partitionThreads) {
+            partitionThread.balancer = balancer;
+        }
+        return balancer;
+    }
+
     private static int getPartitionThreadId(int partitionId, int partitionThreadCount) {
         return partitionId % partitionThreadCount;
     }
@@ -214,6 +234,9 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
         registry.collectMetrics(adHocOperationRunner);
         registry.collectMetrics((Object[]) genericOperationRunners);
         registry.collectMetrics((Object[]) partitionOperationRunners);
+        if (partitionThreadBalancer != null) {
+            registry.scanAndRegister(partitionThreadBalancer, "operation.partitionThreadBalancer");
+        }
     }
 
     @SuppressFBWarnings("EI_EXPOSE_REP")
@@ -303,6 +326,27 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
         return genericQueue.prioritySize();
     }
 
+    /**
+     * Sets the tasks that flush the work buffered by a partition thread. The flush task is run by a partition thread
+     * whenever its queue is drained and before a partition is handed over to another thread. The due flush task is run
+     * after every task the partition thread has run, so work that has been buffered for too long can be sent even if the
+     * queue doesn't get drained.
+     * <p/>
+     * Should be called before the operation executor is started.
+     *
+     * @param flushTask    the flush task
+     * @param dueFlushTask the task that flushes the work which has been buffered for too long
+     */
+    public void setPartitionThreadFlushTasks(Runnable flushTask, Runnable dueFlushTask) {
+        checkNotNull(flushTask, "flushTask can't be null");
+        checkNotNull(dueFlushTask, "dueFlushTask can't be null");
+
+        for (PartitionOperationThread partitionThread : partitionThreads) {
+            partitionThread.flushTask = flushTask;
+            partitionThread.dueFlushTask = dueFlushTask;
+        }
+    }
+
     @Override
     @Probe
     public int getPartitionThreadCount() {
@@ -322,7 +366,7 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
 
     @Override
     public int getPartitionThreadId(int partitionId) {
-        return getPartitionThreadId(partitionId, partitionThreads.length);
+        return toPartitionThreadIndex(partitionId);
     }
 
     @Override
@@ -347,6 +391,8 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
     private void execute(Object task, int partitionId, boolean priority) {
         if (partitionId < 0) {
             genericQueue.add(task, priority);
+        } else if (partitionThreadBalancer != null) {
+            partitionThreadBalancer.execute(task, partitionId, priority);
         } else {
             OperationThread partitionThread = partitionThreads[toPartitionThreadIndex(partitionId)];
             partitionThread.queue.add(task, priority);
@@ -438,6 +484,9 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
 
         // so it's a partition operation thread, now we need to make sure that this operation thread is allowed
         // to execute operations for this particular partitionId
+        if (partitionThreadBalancer != null) {
+            return partitionThreadBalancer.isActiveOwner(partitionId, partitionThread.threadId);
+        }
         return toPartitionThreadIndex(partitionId) == partitionThread.threadId;
     }
 
@@ -480,9 +529,17 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
 
     // public for testing purposes
     public int toPartitionThreadIndex(int partitionId) {
+        if (partitionThreadBalancer != null) {
+            return partitionThreadBalancer.getOwner(partitionId);
+        }
         return partitionId % partitionThreads.length;
     }
 
+    // for testing purposes
+    PartitionThreadBalancer getPartitionThreadBalancer() {
+        return partitionThreadBalancer;
+    }
+
     @Override
     public void start() {
         logger.info("Starting " + partitionThreads.length + " partition threads");
@@ -491,6 +548,10 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
         logger.info("Starting " + genericThreads.length + " generic threads ("
                 + priorityThreadCount + " dedicated for priority tasks)");
         startAll(genericThreads);
+
+        if (partitionThreadBalancer != null) {
+            partitionThreadBalancer.start();
+        }
     }
 
     private static void startAll(OperationThread[] operationThreads) {
@@ -501,6 +562,9 @@ public final class OperationExecutorImpl implements OperationExecutor, MetricsPr
 
     @Override
     public void shutdown() {
+        if (partitionThreadBalancer != null) {
+            partitionThreadBalancer.shutdown();
+        }
         shutdownAll(partitionThreads);
         shutdownAll(genericThreads);
         awaitTermination(partitionThreads);
@@ -94,7 +94,7 @@ public abstract class OperationThread extends HazelcastManagedThread implements
             while (!shutdown) {
                 Object task;
                 try {
-                    task = queue.take(priority);
+                    task = takeTask();
                 } catch (InterruptedException e) {
                     continue;
                 }
@@ -109,7 +109,14 @@ public abstract class OperationThread extends HazelcastManagedThread implements
         }
     }
 
-    private void process(Object task) {
+    /**
+     * Takes the next task from the queue; blocks if no task is available.
+     */
+    Object takeTask() throws InterruptedException {
+        return queue.take(priority);
+    }
+
+    void process(Object task) {
         try {
             if (task.getClass() == Packet.class) {
                 Packet packet = (Packet) task;
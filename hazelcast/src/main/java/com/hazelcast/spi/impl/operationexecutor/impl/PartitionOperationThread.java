@@ -28,6 +28,12 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  */
 public final class PartitionOperationThread extends OperationThread {
 
+    // is only set when the partition thread balancer is enabled; is set before the thread is started.
+    PartitionThreadBalancer balancer;
+    // are only set when work is buffered by the partition threads; are set before the thread is started.
+    Runnable flushTask;
+    Runnable dueFlushTask;
+
     private final OperationRunner[] partitionOperationRunners;
 
     @SuppressFBWarnings("EI_EXPOSE_REP")
@@ -48,6 +54,42 @@ public final class PartitionOperationThread extends OperationThread {
         return partitionOperationRunners[partitionId];
     }
 
+    @Override
+    void process(Object task) {
+        if (balancer != null && !balancer.beforeProcess(this, task)) {
+            return;
+        }
+        super.process(task);
+        if (dueFlushTask != null) {
+            // the queue of a busy thread may not get drained for a long time
+            dueFlushTask.run();
+        }
+    }
+
+    @Override
+    Object takeTask() throws InterruptedException {
+        if (flushTask == null) {
+            return super.takeTask();
+        }
+
+        Object task = queue.poll(false);
+        if (task == null) {
+            // the queue is drained, so the buffered work is sent before the thread blocks
+            flushTask.run();
+            task = queue.take(false);
+        }
+        return task;
+    }
+
+    /**
+     * Flushes the work buffered by this thread. Needs to be called by the thread itself.
+     */
+    void flush() {
+        if (flushTask != null) {
+            flushTask.run();
+        }
+    }
+
     @Probe
     int priorityPendingCount() {
         return queue.prioritySize();
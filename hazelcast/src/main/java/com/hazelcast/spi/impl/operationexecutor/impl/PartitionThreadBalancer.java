@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.instance.HazelcastThreadGroup;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.SwCounter;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.UrgentSystemOperation;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
+import com.hazelcast.util.EmptyStatement;
+import com.hazelcast.util.concurrent.BackoffIdleStrategy;
+import com.hazelcast.util.concurrent.IdleStrategy;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Assigns partitions to {@link PartitionOperationThread} instances and rebalances this assignment based on the
+ * number of tasks executed per partition.
+ * <p/>
+ * Initially a partition is assigned to thread {@code partitionId % threadCount}. Periodically the balancer determines
+ * the load of each partition thread in the last interval; if the most loaded thread has significantly more load
+ * than the least loaded thread, a partition from the most loaded thread is moved to the least loaded one.
+ * <p/>
+ * Moving a partition is done using a handover protocol that makes sure a partition is never run by 2 threads
+ * concurrently and that the order of tasks for a partition is preserved:
+ * <ol>
+ * <li>the balancer changes the owner of the partition so that all new tasks are sent to the new thread. Every
+ * submitter increments the submitting count of the partition before it reads the owner and decrements it after it has
+ * offered the task, so the balancer waits till the submitting count is 0 to be sure that every task which was sent to the
+ * old thread, is in the queue of the old thread.</li>
+ * <li>the balancer offers a {@link Handover} task to the normal queue of the old thread. Since it is placed after all
+ * tasks for the partition, when the old thread processes it, there is no more work for that partition on the old
+ * thread. The old thread then offers a {@link Release} task to the priority queue of the new thread.</li>
+ * <li>until the new thread has processed the {@link Release} task, it parks all tasks for the partition. When it
+ * processes the {@link Release} task, it takes ownership of the partition and runs the parked tasks in order.</li>
+ * </ol>
+ * A partition is only moved again after the previous handover has completed.
+ */
+public final class PartitionThreadBalancer {
+
+    /**
+     * The maximum number of partitions moved in a single balancer round.
+     */
+    static final int MAX_MOVES_PER_ROUND = 4;
+
+    /**
+     * The minimum difference in number of executed tasks between the most and least loaded thread in a single interval
+     * before partitions are moved. Prevents moving partitions around on a system that is barely doing anything.
+     */
+    static final long MIN_IMBALANCE = 1000;
+
+    /**
+     * The balancer only moves partitions if the difference between the most and least loaded thread is at least this
+     * percentage of the load of the most loaded thread.
+     */
+    static final int MIN_IMBALANCE_PERCENTAGE = 20;
+
+    private static final int HUNDRED_PERCENT = 100;
+    private static final IdleStrategy IDLER = new BackoffIdleStrategy(0, 0, 0, MICROSECONDS.toNanos(100));
+
+    private final PartitionOperationThread[] threads;
+    private final OperationRunner[] partitionOperationRunners;
+    private final ILogger logger;
+    private final HazelcastThreadGroup threadGroup;
+    private final int intervalSeconds;
+
+    // the thread the tasks for a partition are sent to
+    private final AtomicIntegerArray owners;
+    // the thread that is allowed to run tasks for the partition; -1 while a partition is being handed over
+    private final AtomicIntegerArray activeOwners;
+    private final AtomicIntegerArray submitting;
+    // the number of tasks executed per partition. Only written by the active owner of the partition.
+    private final AtomicLongArray executedCounts;
+    // only accessed by the active owner of the partition (or the thread that is about to become active owner)
+    private final Queue<Object>[] parkedTasks;
+    // only accessed by the balancer thread
+    private final long[] previousExecutedCounts;
+
+    // only the balancer thread will write to this field.
+    @Probe
+    private final SwCounter partitionMoveCount = newSwCounter();
+
+    private BalancerThread balancerThread;
+
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    @SuppressWarnings("unchecked")
+    PartitionThreadBalancer(PartitionOperationThread[] threads, OperationRunner[] partitionOperationRunners,
+                            int intervalSeconds, HazelcastThreadGroup threadGroup, ILogger logger) {
+        this.threads = threads;
+        this.partitionOperationRunners = partitionOperationRunners;
+        this.intervalSeconds = intervalSeconds;
+        this.threadGroup = threadGroup;
+        this.logger = logger;
+
+        int partitionCount = partitionOperationRunners.length;
+        this.owners = new AtomicIntegerArray(partitionCount);
+        this.activeOwners = new AtomicIntegerArray(partitionCount);
+        this.submitting = new AtomicIntegerArray(partitionCount);
+        this.executedCounts = new AtomicLongArray(partitionCount);
+        this.previousExecutedCounts = new long[partitionCount];
+        this.parkedTasks = new Queue[partitionCount];
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            int threadId = partitionId % threads.length;
+            owners.set(partitionId, threadId);
+            activeOwners.set(partitionId, threadId);
+        }
+    }
+
+    /**
+     * Returns the index of the partition thread the tasks for the given partition are sent to.
+     */
+    int getOwner(int partitionId) {
+        return owners.get(partitionId);
+    }
+
+    /**
+     * Checks if the partition thread with the given id is allowed to run tasks for the given partition.
+     */
+    boolean isActiveOwner(int partitionId, int threadId) {
+        return activeOwners.get(partitionId) == threadId;
+    }
+
+    /**
+     * Checks if there is a handover of the given partition in progress.
+     */
+    boolean isHandoverInProgress(int partitionId) {
+        return activeOwners.get(partitionId) != owners.get(partitionId);
+    }
+
+    /**
+     * Offers the task to the queue of the partition thread owning the partition.
+     */
+    void execute(Object task, int partitionId, boolean priority) {
+        submitting.incrementAndGet(partitionId);
+        try {
+            threads[owners.get(partitionId)].queue.add(task, priority);
+        } finally {
+            submitting.decrementAndGet(partitionId);
+        }
+    }
+
+    /**
+     * Called by a partition thread before it processes a task.
+     *
+     * @return true if the task can be processed by the calling thread, false if the task has been parked or forwarded.
+     */
+    boolean beforeProcess(PartitionOperationThread thread, Object task) {
+        int partitionId = partitionIdOf(task);
+        if (partitionId < 0) {
+            return true;
+        }
+
+        if (activeOwners.get(partitionId) == thread.threadId) {
+            executedCounts.lazySet(partitionId, executedCounts.get(partitionId) + 1);
+            return true;
+        }
+
+        if (owners.get(partitionId) == thread.threadId) {
+            // the partition is being handed over to this thread; the task needs to wait till the handover is complete
+            Queue<Object> parked = parkedTasks[partitionId];
+            if (parked == null) {
+                parked = new ArrayDeque<Object>();
+                parkedTasks[partitionId] = parked;
+            }
+            parked.add(task);
+        } else {
+            // the partition has been moved away from this thread; an urgent task stays urgent on the new thread
+            execute(task, partitionId, isUrgent(task));
+        }
+        return false;
+    }
+
+    private static int partitionIdOf(Object task) {
+        if (task.getClass() == Packet.class) {
+            return ((Packet) task).getPartitionId();
+        } else if (task instanceof Operation) {
+            return ((Operation) task).getPartitionId();
+        } else if (task instanceof PartitionSpecificRunnable) {
+            return ((PartitionSpecificRunnable) task).getPartitionId();
+        }
+        return -1;
+    }
+
+    private static boolean isUrgent(Object task) {
+        if (task.getClass() == Packet.class) {
+            return ((Packet) task).isUrgent();
+        } else if (task instanceof Operation) {
+            return ((Operation) task).isUrgent();
+        }
+        return task instanceof UrgentSystemOperation;
+    }
+
+    /**
+     * Moves the partition to the partition thread with the given id. Should only be called by a single thread (the balancer
+     * thread) since there can only be a single handover per partition at any given moment.
+     *
+     * @return true if the handover has been started, false if the partition already is owned by the thread or if a
+     * previous handover of the partition has not yet completed.
+     */
+    boolean move(int partitionId, int threadId) {
+        int sourceThreadId = owners.get(partitionId);
+        if (sourceThreadId == threadId || activeOwners.get(partitionId) != sourceThreadId) {
+            return false;
+        }
+
+        owners.set(partitionId, threadId);
+
+        // wait for the submitters that have seen the old owner, to complete offering their task to the old thread
+        for (long idleCount = 0; submitting.get(partitionId) != 0; idleCount++) {
+            IDLER.idle(idleCount);
+        }
+
+        threads[sourceThreadId].queue.add(new Handover(partitionId, threadId), false);
+        partitionMoveCount.inc();
+        return true;
+    }
+
+    /**
+     * Executes a single balancer round: determines the load per partition in the last interval and moves partitions
+     * from the most loaded to the least loaded thread.
+     */
+    void rebalance() {
+        long[] partitionLoads = new long[owners.length()];
+        long[] threadLoads = new long[threads.length];
+        for (int partitionId = 0; partitionId < partitionLoads.length; partitionId++) {
+            long executedCount = executedCounts.get(partitionId);
+            partitionLoads[partitionId] = executedCount - previousExecutedCounts[partitionId];
+            previousExecutedCounts[partitionId] = executedCount;
+            threadLoads[owners.get(partitionId)] += partitionLoads[partitionId];
+        }
+
+        for (int move = 0; move < MAX_MOVES_PER_ROUND; move++) {
+            int maxThreadId = indexOfMax(threadLoads);
+            int minThreadId = indexOfMin(threadLoads);
+            long imbalance = threadLoads[maxThreadId] - threadLoads[minThreadId];
+            if (!isImbalanced(imbalance, threadLoads[maxThreadId])) {
+                return;
+            }
+
+            int partitionId = findPartitionToMove(partitionLoads, maxThreadId, imbalance);
+            if (partitionId == -1) {
+                if (logger.isFinestEnabled()) {
+                    logger.finest("Partition thread imbalance detected, but no suitable partition to move is found");
+                }
+                return;
+            }
+
+            if (logger.isFinestEnabled()) {
+                logger.finest("Moving partition " + partitionId + " with load " + partitionLoads[partitionId]
+                        + " from " + threads[maxThreadId].getName() + " to " + threads[minThreadId].getName());
+            }
+            move(partitionId, minThreadId);
+            threadLoads[maxThreadId] -= partitionLoads[partitionId];
+            threadLoads[minThreadId] += partitionLoads[partitionId];
+        }
+    }
+
+    private static boolean isImbalanced(long imbalance, long maxLoad) {
+        return imbalance >= MIN_IMBALANCE && imbalance * HUNDRED_PERCENT >= maxLoad * MIN_IMBALANCE_PERCENTAGE;
+    }
+
+    private static int indexOfMax(long[] loads) {
+        int result = 0;
+        for (int k = 1; k < loads.length; k++) {
+            if (loads[k] > loads[result]) {
+                result = k;
+            }
+        }
+        return result;
+    }
+
+    private static int indexOfMin(long[] loads) {
+        int result = 0;
+        for (int k = 1; k < loads.length; k++) {
+            if (loads[k] < loads[result]) {
+                result = k;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the partition owned by the given thread with the highest load that is still smaller than the imbalance; moving
+     * a partition with a load equal or larger than the imbalance, would just shift the imbalance to the other thread.
+     */
+    private int findPartitionToMove(long[] partitionLoads, int threadId, long imbalance) {
+        int result = -1;
+        for (int partitionId = 0; partitionId < partitionLoads.length; partitionId++) {
+            long load = partitionLoads[partitionId];
+            if (load == 0 || load >= imbalance || owners.get(partitionId) != threadId || isHandoverInProgress(partitionId)) {
+                continue;
+            }
+            if (result == -1 || load > partitionLoads[result]) {
+                result = partitionId;
+            }
+        }
+        return result;
+    }
+
+    void start() {
+        logger.info("Partition thread balancer is enabled. Scanning every " + intervalSeconds + " seconds for imbalances.");
+        balancerThread = new BalancerThread();
+        balancerThread.start();
+    }
+
+    void shutdown() {
+        if (balancerThread != null) {
+            balancerThread.shutdown();
+        }
+    }
+
+    /**
+     * Processed by the old owner of a partition; when processed there are no more tasks of the partition for the old
+     * owner. So the ownership can be released to the new owner.
+     */
+    private final class Handover implements Runnable {
+        private final int partitionId;
+        private final int threadId;
+
+        Handover(int partitionId, int threadId) {
+            this.partitionId = partitionId;
+            this.threadId = threadId;
+        }
+
+        @Override
+        public void run() {
+            // the work buffered for the partition needs to be sent before the new owner produces more of it
+            ((PartitionOperationThread) Thread.currentThread()).flush();
+            activeOwners.set(partitionId, -1);
+            threads[threadId].queue.add(new Release(partitionId), true);
+        }
+
+        @Override
+        public String toString() {
+            return "Handover{partitionId=" + partitionId + ", threadId=" + threadId + '}';
+        }
+    }
+
+    /**
+     * Processed by the new owner of a partition; makes it the active owner and runs the tasks that have been parked while
+     * the partition was handed over.
+     */
+    private final class Release implements Runnable {
+        private final int partitionId;
+
+        Release(int partitionId) {
+            this.partitionId = partitionId;
+        }
+
+        @Override
+        public void run() {
+            PartitionOperationThread thread = (PartitionOperationThread) Thread.currentThread();
+            partitionOperationRunners[partitionId].setCurrentThread(thread);
+            activeOwners.set(partitionId, thread.threadId);
+
+            Queue<Object> parked = parkedTasks[partitionId];
+            if (parked == null) {
+                return;
+            }
+            parkedTasks[partitionId] = null;
+            for (Object task = parked.poll(); task != null; task = parked.poll()) {
+                thread.process(task);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Release{partitionId=" + partitionId + '}';
+        }
+    }
+
+    private final class BalancerThread extends Thread {
+        private volatile boolean shutdown;
+
+        BalancerThread() {
+            super(threadGroup.getInternalThreadGroup(), threadGroup.getThreadNamePrefix("PartitionThreadBalancer"));
+        }
+
+        void shutdown() {
+            shutdown = true;
+            interrupt();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!shutdown) {
+                    TimeUnit.SECONDS.sleep(intervalSeconds);
+                    rebalance();
+                }
+            } catch (InterruptedException e) {
+                logger.finest("PartitionThreadBalancer thread stopped");
+                // this thread is about to exit, no reason restoring the interrupt flag
+                EmptyStatement.ignore(e);
+            } catch (Throwable t) {
+                logger.severe("PartitionThreadBalancer failed", t);
+            }
+        }
+    }
+}
@@ -18,7 +18,9 @@ package com.hazelcast.spi.impl.operationservice;
 
 import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.internal.management.dto.SlowOperationDTO;
+import com.hazelcast.spi.InternalCompletableFuture;
 import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationResponseHandler;
 import com.hazelcast.spi.OperationService;
 import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 
@@ -107,5 +109,55 @@ public interface InternalOperationService extends OperationService {
      */
     List<SlowOperationDTO> getSlowOperationDTOs();
 
+    /**
+     * Returns the load statistics of the partitions.
+     *
+     * @return the load statistics indexed by partition id, or {@code null} if the partition load is not tracked
+     * @see com.hazelcast.internal.diagnostics.PartitionLoadPlugin
+     */
+    PartitionLoad[] getPartitionLoads();
+
+    /**
+     * Returns the number of operations executed for the given partition on this member since it has started, including
+     * the backup operations.
+     *
+     * @param partitionId the partition id
+     * @return the number of executed operations
+     */
+    long getExecutedOperationCount(int partitionId);
+
+    /**
+     * Invokes an operation on a partition; the operation can be combined with other operations for the same partition
+     * into a single batch operation when operation batching is enabled using
+     * {@link com.hazelcast.spi.properties.GroupProperty#OPERATION_BATCHING_ENABLED}. If batching is disabled, or
+     * the operation can't be batched, e.g. because it is a blocking operation, the operation is invoked normally.
+     *
+     * @param serviceName the name of the service
+     * @param op          the operation to invoke
+     * @param partitionId the id of the partition
+     * @param deserialize true if the result should be deserialized, false otherwise
+     * @param <E>         the type of the result
+     * @return the future of the operation
+     */
+    <E> InternalCompletableFuture<E> invokeOnPartitionBatched(String serviceName, Operation op, int partitionId,
+                                                              boolean deserialize);
+
     <V> void asyncInvokeOnPartition(String serviceName, Operation op, int partitionId, ExecutionCallback<V> callback);
+
+    /**
+     * Runs a partition operation directly on the calling thread, without an invocation. The response of the operation,
+     * or the exception it failed with, is passed to the given response handler; this can happen after this method has
+     * returned if the operation needs to wait.
+     * <p/>
+     * The operation is only run if the calling thread is the partition thread of the partition and this member is the
+     * owner of the partition. Since there is no invocation, the sync backups of the operation are not acknowledged;
+     * so this method should only be used for operations without sync backups.
+     *
+     * @param serviceName     the name of the service
+     * @param op              the operation to run
+     * @param partitionId     the id of the partition
+     * @param responseHandler the handler for the response of the operation
+     * @return true if the operation was run, false if it should be invoked instead
+     */
+    boolean runOnPartitionThread(String serviceName, Operation op, int partitionId, OperationResponseHandler responseHandler);
 }
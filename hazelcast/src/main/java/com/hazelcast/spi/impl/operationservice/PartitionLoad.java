@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.SwCounter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Load statistics of a single partition: the number of executed operations, the number of bytes of the received
+ * operations and the distribution of the operation latencies. The statistics are cumulative.
+ * <p>
+ * Written only by the partition thread owning the partition, read by any thread.
+ *
+ * @see com.hazelcast.internal.diagnostics.PartitionLoadPlugin
+ */
+public final class PartitionLoad {
+
+    /**
+     * Number of buckets of the latency distribution. Bucket {@code 0} counts the latencies below 1 microsecond,
+     * bucket {@code k} the latencies in {@code [2^(k-1), 2^k)} microseconds, the last bucket all the longer ones.
+     */
+    public static final int LATENCY_BUCKET_COUNT = 24;
+
+    private final int partitionId;
+
+    @Probe
+    private final SwCounter operationCount = newSwCounter();
+    @Probe
+    private final SwCounter bytesReceived = newSwCounter();
+    @Probe
+    private final SwCounter totalLatencyNanos = newSwCounter();
+    @Probe
+    private volatile long maxLatencyNanos;
+
+    private final AtomicLongArray latencyDistribution = new AtomicLongArray(LATENCY_BUCKET_COUNT);
+
+    public PartitionLoad(int partitionId) {
+        this.partitionId = partitionId;
+    }
+
+    public int getPartitionId() {
+        return partitionId;
+    }
+
+    /**
+     * Records an executed operation.
+     */
+    public void recordOperation(long latencyNanos) {
+        operationCount.inc();
+        totalLatencyNanos.inc(latencyNanos);
+        if (latencyNanos > maxLatencyNanos) {
+            maxLatencyNanos = latencyNanos;
+        }
+        int bucket = latencyBucket(latencyNanos);
+        latencyDistribution.lazySet(bucket, latencyDistribution.get(bucket) + 1);
+    }
+
+    /**
+     * Records the size of a received operation.
+     */
+    public void recordBytesReceived(int bytes) {
+        bytesReceived.inc(bytes);
+    }
+
+    public long getOperationCount() {
+        return operationCount.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getTotalLatencyNanos() {
+        return totalLatencyNanos.get();
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    public long getLatencyCount(int bucket) {
+        return latencyDistribution.get(bucket);
+    }
+
+    static int latencyBucket(long latencyNanos) {
+        long latencyMicros = NANOSECONDS.toMicros(latencyNanos);
+        int bucket = Long.SIZE - Long.numberOfLeadingZeros(latencyMicros);
+        return Math.min(bucket, LATENCY_BUCKET_COUNT - 1);
+    }
+}
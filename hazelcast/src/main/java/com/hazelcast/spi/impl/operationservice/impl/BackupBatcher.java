@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.util.counters.Counter;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
+import com.hazelcast.spi.impl.operationservice.impl.operations.BackupBatch;
+import com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckBatchResponse;
+import com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckResponse;
+import com.hazelcast.spi.properties.HazelcastProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BACKUP_BATCHING_ENABLED;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BACKUP_BATCH_MAX_DELAY_MICROS;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BACKUP_BATCH_MAX_SIZE;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_COUNT;
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * Batches the {@link Backup} operations and the backup acknowledgements which are sent by the partition threads.
+ * <p>
+ * Every partition thread has its own buffer, so no synchronization is needed. The backups for the same partition and
+ * replica are sent as a single {@link BackupBatch} and the acknowledgements for the same caller are coalesced in a
+ * single {@link BackupAckBatchResponse}. The batching window is the burst of tasks in the queue of the partition thread:
+ * the buffer is flushed as soon as the queue of the partition thread is drained or the buffer contains the maximum
+ * number of items. So under low load every backup and acknowledgement is sent immediately. Since the queue of a busy
+ * partition thread may not get drained for a long time, the buffer is also flushed when, after a task has been run, the
+ * oldest item has been buffered for longer than the maximum delay.
+ * <p>
+ * Backups and acknowledgements sent by other threads, e.g. an operation that runs on the calling thread, are not
+ * batched.
+ */
+public final class BackupBatcher {
+
+    @Probe(name = "backupBatchCount")
+    final Counter backupBatchCount = newMwCounter();
+    @Probe(name = "batchedBackupCount")
+    final Counter batchedBackupCount = newMwCounter();
+    @Probe(name = "ackBatchCount")
+    final Counter ackBatchCount = newMwCounter();
+    @Probe(name = "batchedAckCount")
+    final Counter batchedAckCount = newMwCounter();
+
+    private final OperationServiceImpl operationService;
+    private final InternalSerializationService serializationService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final int partitionCount;
+    // indexed by the id of the partition thread
+    private final ThreadBuffer[] threadBuffers;
+
+    BackupBatcher(OperationServiceImpl operationService, HazelcastProperties properties, int partitionThreadCount) {
+        this.operationService = operationService;
+        this.serializationService = (InternalSerializationService) operationService.nodeEngine.getSerializationService();
+        this.enabled = properties.getBoolean(OPERATION_BACKUP_BATCHING_ENABLED);
+        this.maxBatchSize = checkPositive(properties.getInteger(OPERATION_BACKUP_BATCH_MAX_SIZE),
+                "maxBatchSize should be positive");
+        this.maxDelayNanos = properties.getNanos(OPERATION_BACKUP_BATCH_MAX_DELAY_MICROS);
+        this.partitionCount = properties.getInteger(PARTITION_COUNT);
+        this.threadBuffers = new ThreadBuffer[enabled ? partitionThreadCount : 0];
+        for (int k = 0; k < threadBuffers.length; k++) {
+            threadBuffers[k] = new ThreadBuffer();
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sends the backup to the target. When called by a partition thread, the backup is buffered.
+     */
+    void sendBackup(Backup backup, Address target) {
+        ThreadBuffer buffer = currentThreadBuffer();
+        if (buffer == null) {
+            operationService.send(backup, target);
+            return;
+        }
+        buffer.addBackup(backup, target);
+    }
+
+    /**
+     * Sends the acknowledgement of a sync backup to the caller of the original operation. When called by a partition
+     * thread, the acknowledgement is buffered unless it is urgent.
+     *
+     * @param callId the call id of the original operation
+     * @param urgent if the acknowledgement is urgent
+     * @param caller the caller of the original operation
+     */
+    public void sendBackupAck(long callId, boolean urgent, Address caller) {
+        ThreadBuffer buffer = urgent ? null : currentThreadBuffer();
+        if (buffer == null) {
+            operationService.getOutboundResponseHandler().send(new BackupAckResponse(callId, urgent), caller);
+            return;
+        }
+        buffer.addAck(callId, caller);
+    }
+
+    /**
+     * Sends everything buffered by the current thread. Is called by a partition thread when its queue is drained.
+     */
+    void flush() {
+        ThreadBuffer buffer = currentThreadBuffer();
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
+
+    /**
+     * Sends everything buffered by the current thread if the oldest item has been buffered for longer than the maximum
+     * delay. Is called by a partition thread after it has run a task.
+     */
+    void flushIfDue() {
+        ThreadBuffer buffer = currentThreadBuffer();
+        if (buffer != null) {
+            buffer.flushIfDue();
+        }
+    }
+
+    private ThreadBuffer currentThreadBuffer() {
+        if (!enabled) {
+            return null;
+        }
+
+        Thread thread = Thread.currentThread();
+        if (!(thread instanceof PartitionOperationThread)) {
+            return null;
+        }
+        return threadBuffers[((PartitionOperationThread) thread).getThreadId()];
+    }
+
+    /**
+     * The backups and acknowledgements buffered by a single partition thread; is only accessed by that thread.
+     */
+    private final class ThreadBuffer {
+
+        // the pending backups per target, indexed by partition id
+        private final Map<Address, PendingBackups[]> backupsByTarget = new HashMap<Address, PendingBackups[]>();
+        private final Map<Address, PendingAcks> acksByCaller = new HashMap<Address, PendingAcks>();
+        // the non empty pending backups and acks, so a flush doesn't need to visit every partition
+        private final List<PendingBackups> dirtyBackups = new ArrayList<PendingBackups>();
+        private final List<PendingAcks> dirtyAcks = new ArrayList<PendingAcks>();
+        private int size;
+        private long firstAddNanos;
+
+        void addBackup(Backup backup, Address target) {
+            PendingBackups[] backups = backupsByTarget.get(target);
+            if (backups == null) {
+                backups = new PendingBackups[partitionCount];
+                backupsByTarget.put(target, backups);
+            }
+
+            int partitionId = backup.getPartitionId();
+            PendingBackups pending = backups[partitionId];
+            if (pending == null) {
+                pending = new PendingBackups(target, partitionId);
+                backups[partitionId] = pending;
+            }
+
+            if (pending.backups.isEmpty()) {
+                pending.replicaIndex = backup.getReplicaIndex();
+                dirtyBackups.add(pending);
+            }
+            // the backup is serialized immediately, since the state it refers to can change before the flush
+            pending.backups.add(serializationService.toData(backup));
+            onAdd();
+        }
+
+        void addAck(long callId, Address caller) {
+            PendingAcks pending = acksByCaller.get(caller);
+            if (pending == null) {
+                pending = new PendingAcks(caller);
+                acksByCaller.put(caller, pending);
+            }
+
+            if (pending.count == 0) {
+                dirtyAcks.add(pending);
+            }
+            pending.callIds[pending.count++] = callId;
+            onAdd();
+        }
+
+        private void onAdd() {
+            if (size == 0) {
+                firstAddNanos = System.nanoTime();
+            }
+            size++;
+            if (size >= maxBatchSize) {
+                flush();
+            }
+        }
+
+        void flushIfDue() {
+            if (size > 0 && System.nanoTime() - firstAddNanos >= maxDelayNanos) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (size == 0) {
+                return;
+            }
+
+            for (PendingBackups pending : dirtyBackups) {
+                pending.flush();
+            }
+            dirtyBackups.clear();
+
+            for (PendingAcks pending : dirtyAcks) {
+                pending.flush();
+            }
+            dirtyAcks.clear();
+            size = 0;
+        }
+    }
+
+    private final class PendingBackups {
+
+        private final Address target;
+        private final int partitionId;
+        private final List<Data> backups = new ArrayList<Data>();
+        private int replicaIndex;
+
+        PendingBackups(Address target, int partitionId) {
+            this.target = target;
+            this.partitionId = partitionId;
+        }
+
+        void flush() {
+            if (backups.size() == 1) {
+                operationService.send(backups.get(0).toByteArray(), partitionId, false, target);
+            } else {
+                BackupBatch batch = new BackupBatch(backups);
+                batch.setPartitionId(partitionId).setReplicaIndex(replicaIndex);
+                // the batch is serialized before the send returns, so the list can be reused
+                operationService.send(batch, target);
+
+                backupBatchCount.inc();
+                batchedBackupCount.inc(backups.size());
+            }
+            backups.clear();
+        }
+    }
+
+    private final class PendingAcks {
+
+        private final Address caller;
+        private final long[] callIds = new long[maxBatchSize];
+        private int count;
+
+        PendingAcks(Address caller) {
+            this.caller = caller;
+        }
+
+        void flush() {
+            OutboundResponseHandler responseHandler = operationService.getOutboundResponseHandler();
+            if (count == 1) {
+                responseHandler.send(new BackupAckResponse(callIds[0], false), caller);
+            } else {
+                responseHandler.send(new BackupAckBatchResponse(callIds, count), caller);
+
+                ackBatchCount.inc();
+                batchedAckCount.inc(count);
+            }
+            count = 0;
+        }
+    }
+}
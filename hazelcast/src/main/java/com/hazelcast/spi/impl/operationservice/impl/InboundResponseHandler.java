@@ -28,6 +28,7 @@ import com.hazelcast.nio.Address;
 import com.hazelcast.nio.Packet;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.PacketHandler;
+import com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckBatchResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.BackupAckResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.CallTimeoutResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.ErrorResponse;
@@ -54,6 +55,8 @@ public final class InboundResponseHandler implements PacketHandler, MetricsProvi
     private final SwCounter responsesTimeout = newSwCounter();
     @Probe(name = "responses[backup]", level = MANDATORY)
     private final MwCounter responsesBackup = newMwCounter();
+    @Probe(name = "responses[backupBatch]", level = MANDATORY)
+    private final SwCounter responsesBackupBatch = newSwCounter();
     @Probe(name = "responses[error]", level = MANDATORY)
     private final SwCounter responsesError = newSwCounter();
     @Probe(name = "responses[missing]", level = MANDATORY)
@@ -88,6 +91,8 @@ public final class InboundResponseHandler implements PacketHandler, MetricsProvi
                         sender);
             } else if (response instanceof BackupAckResponse) {
                 notifyBackupComplete(response.getCallId());
+            } else if (response instanceof BackupAckBatchResponse) {
+                notifyBackupsComplete((BackupAckBatchResponse) response);
             } else if (response instanceof CallTimeoutResponse) {
                 notifyCallTimeout(response.getCallId(), sender);
             } else if (response instanceof ErrorResponse) {
@@ -104,6 +109,15 @@ public final class InboundResponseHandler implements PacketHandler, MetricsProvi
         }
     }
 
+    private void notifyBackupsComplete(BackupAckBatchResponse response) {
+        responsesBackupBatch.inc();
+
+        long[] callIds = response.getCallIds();
+        for (int k = 0; k < response.getCount(); k++) {
+            notifyBackupComplete(callIds[k]);
+        }
+    }
+
     public void notifyBackupComplete(long callId) {
         responsesBackup.inc();
 
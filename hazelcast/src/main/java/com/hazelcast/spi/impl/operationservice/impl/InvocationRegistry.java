@@ -22,18 +22,21 @@ import com.hazelcast.core.MemberLeftException;
 import com.hazelcast.internal.metrics.MetricsProvider;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.Counter;
 import com.hazelcast.logging.ILogger;
 
 import java.util.Iterator;
-import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.spi.OperationAccessor.deactivate;
 import static com.hazelcast.spi.OperationAccessor.setCallId;
+import static com.hazelcast.util.QuickMath.nextPowerOfTwo;
 
 /**
  * The InvocationsRegistry is responsible for the registration of all pending invocations. Using the InvocationRegistry the
@@ -43,38 +46,64 @@ import static com.hazelcast.spi.OperationAccessor.setCallId;
  * {@link com.hazelcast.spi.impl.operationservice.impl.responses.Response} comes in, the
  * appropriate invocation can be looked up.
  * <p/>
- * Some idea's:
- * - use an ringbuffer to store all invocations instead of a CHM. The call-id can be used as sequence-id for this
- * ringbuffer. It can be that you run in slots that have not been released; if that happens, just keep increasing
- * the sequence (although you now get sequence-gaps).
- * - pre-allocate all invocations. Because the ringbuffer has a fixed capacity, pre-allocation should be easy. Also
- * the PartitionInvocation and TargetInvocation can be folded into Invocation.
+ * The invocations are stored in a power-of-two ring of slots; the call-id is used as sequence in this ring, so the slot
+ * of an invocation is {@code callId & (capacity - 1)}. The call-id of the operation acts as generation of the slot: a
+ * response for an invocation that has already been deregistered (and whose slot may have been reused by a later call-id)
+ * is detected by comparing the call-id of the operation in the slot with the call-id of the response. Registration and
+ * deregistration therefore only do a CAS on the slot and don't allocate.
+ * <p/>
+ * The capacity of the ring is derived from the maximum number of concurrent invocations of the {@link CallIdSequence}, so
+ * when backpressure is enabled, the backpressure of the call-id sequence makes sure the ring doesn't get exhausted. Since
+ * the ring is allocated up front, its capacity is capped at {@link #MAX_CAPACITY} slots. It can happen that a slot is still
+ * occupied by a long running invocation when the sequence wraps around (or that there are more concurrent invocations than
+ * slots); in that case the invocation is stored in an overflow map. This is expected to be rare and is exposed using the
+ * 'invocations.overflowCount' probe.
  */
 public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider {
-    private static final int CORE_SIZE_CHECK = 8;
-    private static final int CORE_SIZE_FACTOR = 4;
-    private static final int CONCURRENCY_LEVEL = 16;
 
-    private static final int INITIAL_CAPACITY = 1000;
-    private static final float LOAD_FACTOR = 0.75f;
+    /**
+     * The number of slots when the {@link CallIdSequence} doesn't bound the number of concurrent invocations. This matches
+     * the default backpressure limit for the default partition count: (271 + 1) * 100 rounded to the next power of two.
+     */
+    static final int DEFAULT_CAPACITY = 32768;
+
+    /**
+     * The maximum number of slots. The ring is allocated eagerly, so a high backpressure limit must not translate into a
+     * huge array; invocations beyond this capacity end up in the overflow map.
+     */
+    static final int MAX_CAPACITY = 65536;
+
     private static final double HUNDRED_PERCENT = 100d;
 
-    @Probe(name = "invocations.pending", level = MANDATORY)
-    private final ConcurrentMap<Long, Invocation> invocations;
+    private final AtomicReferenceArray<Invocation> slots;
+    private final int mask;
+    private final ConcurrentMap<Long, Invocation> overflow = new ConcurrentHashMap<Long, Invocation>();
+    private final Counter pending = newMwCounter();
+    @Probe(name = "invocations.overflowCount")
+    private final Counter overflowCount = newMwCounter();
     private final ILogger logger;
     private final CallIdSequence callIdSequence;
 
     private volatile boolean alive = true;
 
     public InvocationRegistry(ILogger logger, CallIdSequence callIdSequence) {
+        this(logger, callIdSequence, capacity(callIdSequence));
+    }
+
+    InvocationRegistry(ILogger logger, CallIdSequence callIdSequence, int capacity) {
         this.logger = logger;
         this.callIdSequence = callIdSequence;
+        int slotCount = nextPowerOfTwo(Math.min(capacity, MAX_CAPACITY));
+        this.slots = new AtomicReferenceArray<Invocation>(slotCount);
+        this.mask = slotCount - 1;
+    }
 
-        int coreSize = Runtime.getRuntime().availableProcessors();
-        boolean reallyMultiCore = coreSize >= CORE_SIZE_CHECK;
-        int concurrencyLevel = reallyMultiCore ? coreSize * CORE_SIZE_FACTOR : CONCURRENCY_LEVEL;
-
-        this.invocations = new ConcurrentHashMap<Long, Invocation>(INITIAL_CAPACITY, LOAD_FACTOR, concurrencyLevel);
+    private static int capacity(CallIdSequence callIdSequence) {
+        int maxConcurrentInvocations = callIdSequence.getMaxConcurrentInvocations();
+        if (maxConcurrentInvocations == Integer.MAX_VALUE) {
+            return DEFAULT_CAPACITY;
+        }
+        return Math.min(maxConcurrentInvocations, MAX_CAPACITY);
     }
 
     @Override
@@ -82,6 +111,11 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
         registry.scanAndRegister(this, "operation");
     }
 
+    @Probe(name = "invocations.pending", level = MANDATORY)
+    private long pending() {
+        return pending.get();
+    }
+
     @Probe(name = "invocations.usedPercentage")
     private double invocationsUsedPercentage() {
         int maxConcurrentInvocations = callIdSequence.getMaxConcurrentInvocations();
@@ -89,7 +123,7 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
             return 0;
         }
 
-        return (HUNDRED_PERCENT * invocations.size()) / maxConcurrentInvocations;
+        return (HUNDRED_PERCENT * size()) / maxConcurrentInvocations;
     }
 
     @Probe(name = "invocations.lastCallId")
@@ -97,6 +131,13 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
         return callIdSequence.getLastCallId();
     }
 
+    /**
+     * Returns the number of slots in the ring.
+     */
+    int capacity() {
+        return slots.length();
+    }
+
     /**
      * Registers an invocation.
      *
@@ -118,7 +159,12 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
             callIdSequence.complete();
             throw e;
         }
-        invocations.put(callId, invocation);
+        if (!slots.compareAndSet(slotIndex(callId), null, invocation)) {
+            // the slot is still occupied by an invocation with an older call-id
+            overflow.put(callId, invocation);
+            overflowCount.inc();
+        }
+        pending.inc();
         if (!alive) {
             invocation.notifyError(new HazelcastInstanceNotActiveException());
             return false;
@@ -136,7 +182,11 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
         if (!deactivate(invocation.op)) {
             return false;
         }
-        invocations.remove(invocation.op.getCallId());
+        long callId = invocation.op.getCallId();
+        if (!slots.compareAndSet(slotIndex(callId), invocation, null)) {
+            overflow.remove(callId);
+        }
+        pending.inc(-1);
         callIdSequence.complete();
         return true;
     }
@@ -147,21 +197,12 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
      * @return the number of pending invocations.
      */
     public int size() {
-        return invocations.size();
+        return (int) pending();
     }
 
     @Override
     public Iterator<Invocation> iterator() {
-        return invocations.values().iterator();
-    }
-
-    /**
-     * Intention to expose the entry set is to mutate it.
-     *
-     * @return set of invocations in this registry
-     */
-    public Set<Map.Entry<Long, Invocation>> entrySet() {
-        return invocations.entrySet();
+        return new InvocationIterator();
     }
 
     /**
@@ -171,7 +212,11 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
      * @return the Invocation for the given callId, or null if no invocation was found.
      */
     public Invocation get(long callId) {
-        return invocations.get(callId);
+        Invocation invocation = slots.get(slotIndex(callId));
+        if (invocation != null && invocation.op.getCallId() == callId) {
+            return invocation;
+        }
+        return overflow.isEmpty() ? null : overflow.get(callId);
     }
 
     public void reset() {
@@ -195,4 +240,55 @@ public class InvocationRegistry implements Iterable<Invocation>, MetricsProvider
             }
         }
     }
+
+    private int slotIndex(long callId) {
+        return (int) (callId & mask);
+    }
+
+    /**
+     * Iterates over the occupied slots of the ring followed by the overflow invocations. The iterator is weakly consistent;
+     * invocations that are registered or deregistered while iterating may or may not be returned.
+     */
+    private final class InvocationIterator implements Iterator<Invocation> {
+        private int index;
+        private Iterator<Invocation> overflowIterator;
+        private Invocation next;
+
+        InvocationIterator() {
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Invocation next() {
+            Invocation invocation = next;
+            if (invocation == null) {
+                throw new NoSuchElementException();
+            }
+            advance();
+            return invocation;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void advance() {
+            while (index < slots.length()) {
+                next = slots.get(index++);
+                if (next != null) {
+                    return;
+                }
+            }
+            if (overflowIterator == null) {
+                overflowIterator = overflow.values().iterator();
+            }
+            next = overflowIterator.hasNext() ? overflowIterator.next() : null;
+        }
+    }
 }
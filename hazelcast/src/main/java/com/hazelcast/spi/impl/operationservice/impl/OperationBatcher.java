@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.core.ExecutionCallback;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.Counter;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.spi.BlockingOperation;
+import com.hazelcast.spi.InternalCompletableFuture;
+import com.hazelcast.spi.exception.RetryableException;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.impl.AbstractInvocationFuture;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionBatchOperation;
+import com.hazelcast.spi.impl.operationservice.impl.operations.PartitionBatchOperation.BatchResponse;
+import com.hazelcast.spi.properties.HazelcastProperties;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+import static com.hazelcast.spi.InvocationBuilder.DEFAULT_CALL_TIMEOUT;
+import static com.hazelcast.spi.InvocationBuilder.DEFAULT_REPLICA_INDEX;
+import static com.hazelcast.spi.InvocationBuilder.DEFAULT_TRY_COUNT;
+import static com.hazelcast.spi.InvocationBuilder.DEFAULT_TRY_PAUSE_MILLIS;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BATCHING_ENABLED;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BATCH_MAX_SIZE;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_COUNT;
+import static com.hazelcast.util.ExceptionUtil.fixAsyncStackTrace;
+import static com.hazelcast.util.Preconditions.checkPositive;
+
+/**
+ * Combines operations for the same partition into a {@link PartitionBatchOperation}.
+ * <p>
+ * The batching doesn't wait for a time window to fill up. Per partition there is at most a single batch in flight;
+ * operations that are submitted while a batch is in flight are collected and sent as the next batch as soon as the
+ * in flight batch completes. So under low load every operation is sent immediately and under high load the batches
+ * automatically grow (up to the configured maximum size) and the per operation overhead of the queueing, backups and
+ * responses is shared by all operations in the batch.
+ * <p>
+ * Since operations for the same partition are sent in the order they were submitted and there is at most a single
+ * batch in flight, the ordering of operations submitted by the same thread is preserved.
+ * <p>
+ * An operation which fails within a batch with a {@link RetryableException}, e.g. because the map is still being
+ * loaded, or which sends its response later, e.g. an offloaded entry processor, stops the batch. That operation and the
+ * ones behind it in the batch are invoked again on their own, one after the other, so they go through the same retries
+ * as operations that aren't batched. The partition stays in flight until these invocations complete, so the operations
+ * submitted in the meantime can't overtake them.
+ */
+final class OperationBatcher {
+
+    private static final Executor CALLER_RUNS = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Probe(name = "batchCount")
+    final Counter batchCount = newMwCounter();
+    @Probe(name = "batchedOperationCount")
+    final Counter batchedOperationCount = newMwCounter();
+
+    private final OperationServiceImpl operationService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final PartitionBatcher[] partitionBatchers;
+
+    OperationBatcher(OperationServiceImpl operationService, HazelcastProperties properties) {
+        this.operationService = operationService;
+        this.enabled = properties.getBoolean(OPERATION_BATCHING_ENABLED);
+        this.maxBatchSize = checkPositive(properties.getInteger(OPERATION_BATCH_MAX_SIZE),
+                "maxBatchSize should be positive");
+        this.partitionBatchers = new PartitionBatcher[enabled ? properties.getInteger(PARTITION_COUNT) : 0];
+        for (int k = 0; k < partitionBatchers.length; k++) {
+            partitionBatchers[k] = new PartitionBatcher(k);
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    @SuppressWarnings("unchecked")
+    <E> InternalCompletableFuture<E> invoke(String serviceName, Operation op, int partitionId, boolean deserialize) {
+        op.setServiceName(serviceName)
+                .setPartitionId(partitionId)
+                .setReplicaIndex(DEFAULT_REPLICA_INDEX);
+
+        if (!isBatchable(op)) {
+            return new PartitionInvocation(operationService.invocationContext, op, DEFAULT_TRY_COUNT,
+                    DEFAULT_TRY_PAUSE_MILLIS, DEFAULT_CALL_TIMEOUT, deserialize).invoke();
+        }
+
+        BatchedOperationFuture<E> future = new BatchedOperationFuture<E>(op, deserialize, operationService.invocationContext);
+        partitionBatchers[partitionId].add(future);
+        return future;
+    }
+
+    private boolean isBatchable(Operation op) {
+        return enabled && !op.isUrgent() && op.returnsResponse() && !(op instanceof BlockingOperation);
+    }
+
+    /**
+     * Collects the operations for a single partition. The thread that manages to set the {@code inFlight} flag, sends
+     * the next batch; the flag is cleared when the batch, including the operations that are invoked again on their own,
+     * completes.
+     */
+    private final class PartitionBatcher implements ExecutionCallback<Object>, Runnable {
+
+        private final int partitionId;
+        private final Queue<BatchedOperationFuture> pending = new ConcurrentLinkedQueue<BatchedOperationFuture>();
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+        private final Runnable retryNext = new Runnable() {
+            @Override
+            public void run() {
+                retryNext();
+            }
+        };
+        // only accessed by the thread that owns the inFlight flag
+        private final BatchedOperationFuture[] batch;
+        private int batchSize;
+        private int retryIndex;
+
+        PartitionBatcher(int partitionId) {
+            this.partitionId = partitionId;
+            this.batch = new BatchedOperationFuture[maxBatchSize];
+        }
+
+        void add(BatchedOperationFuture future) {
+            pending.add(future);
+            flush();
+        }
+
+        private void flush() {
+            while (!pending.isEmpty() && inFlight.compareAndSet(false, true)) {
+                if (send()) {
+                    return;
+                }
+                inFlight.set(false);
+            }
+        }
+
+        private boolean send() {
+            while (batchSize < batch.length) {
+                BatchedOperationFuture future = pending.poll();
+                if (future == null) {
+                    break;
+                }
+                batch[batchSize++] = future;
+            }
+            if (batchSize == 0) {
+                return false;
+            }
+
+            try {
+                Invocation invocation;
+                if (batchSize == 1) {
+                    // there is nothing to batch with, so the overhead of the batch operation is avoided
+                    invocation = new PartitionInvocation(operationService.invocationContext, batch[0].op,
+                            DEFAULT_TRY_COUNT, DEFAULT_TRY_PAUSE_MILLIS, DEFAULT_CALL_TIMEOUT, false);
+                } else {
+                    invocation = new PartitionInvocation(operationService.invocationContext, newBatchOperation(),
+                            DEFAULT_TRY_COUNT, DEFAULT_TRY_PAUSE_MILLIS, DEFAULT_CALL_TIMEOUT, true);
+                    batchCount.inc();
+                    batchedOperationCount.inc(batchSize);
+                }
+                invocation.invokeAsync().andThen(this, CALLER_RUNS);
+                return true;
+            } catch (Throwable t) {
+                complete(t);
+                return false;
+            }
+        }
+
+        private PartitionBatchOperation newBatchOperation() {
+            Operation[] operations = new Operation[batchSize];
+            for (int k = 0; k < batchSize; k++) {
+                operations[k] = batch[k].op;
+            }
+
+            PartitionBatchOperation batchOp = new PartitionBatchOperation(operations);
+            batchOp.setServiceName(InternalOperationService.SERVICE_NAME)
+                    .setPartitionId(partitionId)
+                    .setReplicaIndex(DEFAULT_REPLICA_INDEX);
+            return batchOp;
+        }
+
+        @Override
+        public void onResponse(Object response) {
+            if (!(response instanceof BatchResponse)) {
+                complete(response);
+                release();
+                return;
+            }
+
+            Object[] results = ((BatchResponse) response).getResults();
+            for (int k = 0; k < results.length; k++) {
+                batch[k].complete(results[k]);
+                batch[k] = null;
+            }
+            retryIndex = results.length;
+            retryNext();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            complete(t);
+            release();
+        }
+
+        private void complete(Object response) {
+            for (int k = 0; k < batchSize; k++) {
+                batch[k].complete(response);
+                batch[k] = null;
+            }
+            batchSize = 0;
+        }
+
+        /**
+         * Sends the next operation that wasn't executed within the batch on its own, so it is retried the same way as
+         * when it had been invoked without batching. The partition is released once all of them have completed.
+         */
+        private void retryNext() {
+            if (retryIndex == batchSize) {
+                batchSize = 0;
+                release();
+                return;
+            }
+
+            final BatchedOperationFuture future = batch[retryIndex];
+            batch[retryIndex++] = null;
+            try {
+                // the completing thread could be a thread that isn't allowed to invoke, e.g. the response thread
+                operationService.invocationContext.asyncExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        future.invokeAlone(retryNext);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                future.complete(e);
+                retryNext();
+            }
+        }
+
+        private void release() {
+            inFlight.set(false);
+            if (!pending.isEmpty()) {
+                // the completing thread could be a thread that isn't allowed to invoke, e.g. the response thread
+                try {
+                    operationService.invocationContext.asyncExecutor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // the pending operations are failed with the exception of the invocation
+                    flush();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            flush();
+        }
+    }
+
+    /**
+     * The future of a single operation that is sent as part of a batch.
+     *
+     * @param <E> the type of the result
+     */
+    static final class BatchedOperationFuture<E> extends AbstractInvocationFuture<E> {
+
+        final Operation op;
+        private final boolean deserialize;
+        private final Invocation.Context context;
+
+        BatchedOperationFuture(Operation op, boolean deserialize, Invocation.Context context) {
+            super(context.asyncExecutor, context.logger);
+            this.op = op;
+            this.deserialize = deserialize;
+            this.context = context;
+        }
+
+        /**
+         * Invokes the operation without batching.
+         *
+         * @param whenDone run after this future has been completed
+         */
+        void invokeAlone(final Runnable whenDone) {
+            try {
+                Invocation invocation = new PartitionInvocation(context, op, DEFAULT_TRY_COUNT, DEFAULT_TRY_PAUSE_MILLIS,
+                        DEFAULT_CALL_TIMEOUT, false);
+                invocation.invokeAsync().andThen(new ExecutionCallback<Object>() {
+                    @Override
+                    public void onResponse(Object response) {
+                        complete(response);
+                        whenDone.run();
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        complete(t);
+                        whenDone.run();
+                    }
+                }, CALLER_RUNS);
+            } catch (Throwable t) {
+                complete(t);
+                whenDone.run();
+            }
+        }
+
+        @Override
+        protected String invocationToString() {
+            return op.toString();
+        }
+
+        @Override
+        protected TimeoutException newTimeoutException(long timeout, TimeUnit unit) {
+            return new TimeoutException(String.format("%s failed to complete within %d %s. %s",
+                    op.getClass().getSimpleName(), timeout, unit, op));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected E resolveAndThrowIfException(Object unresolved) throws ExecutionException, InterruptedException {
+            Object value = resolve(unresolved);
+
+            if (value == null || !(value instanceof Throwable)) {
+                return (E) value;
+            } else if (value instanceof CancellationException) {
+                throw (CancellationException) value;
+            } else if (value instanceof ExecutionException) {
+                throw (ExecutionException) value;
+            } else if (value instanceof InterruptedException) {
+                throw (InterruptedException) value;
+            } else if (value instanceof Error) {
+                throw (Error) value;
+            } else {
+                throw new ExecutionException((Throwable) value);
+            }
+        }
+
+        @Override
+        protected Object resolve(Object unresolved) {
+            Object value = unresolved;
+            if (deserialize && value instanceof Data) {
+                value = context.serializationService.toObject(value);
+            }
+
+            if (value instanceof Throwable) {
+                fixAsyncStackTrace((Throwable) value, Thread.currentThread().getStackTrace());
+            }
+            return value;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import com.hazelcast.instance.MemberImpl;
 import com.hazelcast.instance.Node;
 import com.hazelcast.instance.NodeState;
 import com.hazelcast.instance.OutOfMemoryErrorDispatcher;
+import com.hazelcast.internal.diagnostics.PartitionLoadPlugin;
 import com.hazelcast.internal.metrics.MetricsProvider;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
@@ -52,6 +53,7 @@ import com.hazelcast.spi.exception.WrongTargetException;
 import com.hazelcast.spi.impl.AllowedDuringPassiveState;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
+import com.hazelcast.spi.impl.operationservice.PartitionLoad;
 import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
 import com.hazelcast.spi.impl.operationservice.impl.responses.CallTimeoutResponse;
 import com.hazelcast.spi.impl.operationservice.impl.responses.ErrorResponse;
@@ -95,6 +97,8 @@ class OperationRunnerImpl extends OperationRunner implements MetricsProvider {
     private final boolean staleReadOnMigrationEnabled;
 
     private final Counter failedBackupsCounter;
+    // null if the partition load is not tracked
+    private final PartitionLoad partitionLoad;
     private final OperationBackupHandler backupHandler;
 
     // This field doesn't need additional synchronization, since a partition-specific OperationRunner
@@ -121,12 +125,25 @@ class OperationRunnerImpl extends OperationRunner implements MetricsProvider {
         this.failedBackupsCounter = failedBackupsCounter;
         this.backupHandler = operationService.backupHandler;
         this.count = partitionId >= 0 ? newSwCounter() : null;
+        this.partitionLoad = partitionId >= 0 && PartitionLoadPlugin.isEnabled(node.getProperties())
+                ? new PartitionLoad(partitionId) : null;
+    }
+
+    PartitionLoad getPartitionLoad() {
+        return partitionLoad;
+    }
+
+    long getExecutedOperationCount() {
+        return count != null ? count.get() : 0;
     }
 
     @Override
     public void provideMetrics(MetricsRegistry registry) {
         if (partitionId >= 0) {
             registry.scanAndRegister(this, "operation.partition[" + partitionId + "]");
+            if (partitionLoad != null) {
+                registry.scanAndRegister(partitionLoad, "operation.partition[" + partitionId + "].load");
+            }
         }
     }
 
@@ -154,6 +171,20 @@ class OperationRunnerImpl extends OperationRunner implements MetricsProvider {
 
     @Override
     public void run(Operation op) {
+        if (partitionLoad == null) {
+            doRun(op);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            doRun(op);
+        } finally {
+            partitionLoad.recordOperation(System.nanoTime() - startNanos);
+        }
+    }
+
+    private void doRun(Operation op) {
         if (count != null) {
             count.inc();
         }
@@ -382,6 +413,9 @@ class OperationRunnerImpl extends OperationRunner implements MetricsProvider {
 
         Connection connection = packet.getConn();
         Address caller = connection.getEndPoint();
+        if (partitionLoad != null) {
+            partitionLoad.recordBytesReceived(packet.totalSize());
+        }
         try {
             Object object = nodeEngine.toObject(packet);
             Operation op = (Operation) object;
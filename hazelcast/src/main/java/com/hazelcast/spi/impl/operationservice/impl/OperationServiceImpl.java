@@ -40,14 +40,17 @@ import com.hazelcast.spi.LiveOperations;
 import com.hazelcast.spi.LiveOperationsTracker;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.OperationFactory;
+import com.hazelcast.spi.OperationResponseHandler;
 import com.hazelcast.spi.OperationService;
 import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.PacketHandler;
 import com.hazelcast.spi.impl.PartitionSpecificRunnable;
 import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
+import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import com.hazelcast.spi.impl.operationexecutor.impl.OperationExecutorImpl;
 import com.hazelcast.spi.impl.operationexecutor.slowoperationdetector.SlowOperationDetector;
 import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+import com.hazelcast.spi.impl.operationservice.PartitionLoad;
 import com.hazelcast.util.EmptyStatement;
 import com.hazelcast.util.executor.ExecutorType;
 import com.hazelcast.util.executor.ManagedExecutorService;
@@ -69,6 +72,8 @@ import static com.hazelcast.spi.InvocationBuilder.DEFAULT_DESERIALIZE_RESULT;
 import static com.hazelcast.spi.InvocationBuilder.DEFAULT_REPLICA_INDEX;
 import static com.hazelcast.spi.InvocationBuilder.DEFAULT_TRY_COUNT;
 import static com.hazelcast.spi.InvocationBuilder.DEFAULT_TRY_PAUSE_MILLIS;
+import static com.hazelcast.spi.OperationAccessor.setCallerAddress;
+import static com.hazelcast.spi.OperationAccessor.setInvocationTime;
 import static com.hazelcast.spi.impl.operationutil.Operations.isJoinOperation;
 import static com.hazelcast.spi.properties.GroupProperty.OPERATION_CALL_TIMEOUT_MILLIS;
 import static com.hazelcast.util.CollectionUtil.toIntegerList;
@@ -125,6 +130,8 @@ public final class OperationServiceImpl implements InternalOperationService, Met
     final OperationBackupHandler backupHandler;
     final BackpressureRegulator backpressureRegulator;
     final OutboundResponseHandler outboundResponseHandler;
+    final OperationBatcher operationBatcher;
+    final BackupBatcher backupBatcher;
     volatile Invocation.Context invocationContext;
 
     private final InvocationMonitor invocationMonitor;
@@ -162,15 +169,33 @@ public final class OperationServiceImpl implements InternalOperationService, Met
 
         this.backupHandler = new OperationBackupHandler(this);
 
+        this.operationBatcher = new OperationBatcher(this, node.getProperties());
+
         this.inboundResponseHandler = new InboundResponseHandler(
                 node.getLogger(InboundResponseHandler.class), node.getSerializationService(), invocationRegistry, nodeEngine);
         this.asyncInboundResponseHandler = new AsyncInboundResponseHandler(
                 node.getHazelcastThreadGroup(), node.getLogger(AsyncInboundResponseHandler.class),
                 inboundResponseHandler, node.getProperties());
 
-        this.operationExecutor = new OperationExecutorImpl(
+        OperationExecutorImpl operationExecutor = new OperationExecutorImpl(
                 node.getProperties(), node.loggingService, thisAddress, new OperationRunnerFactoryImpl(this),
                 node.getHazelcastThreadGroup(), node.getNodeExtension());
+        this.operationExecutor = operationExecutor;
+
+        this.backupBatcher = new BackupBatcher(this, node.getProperties(), operationExecutor.getPartitionThreadCount());
+        if (backupBatcher.isEnabled()) {
+            operationExecutor.setPartitionThreadFlushTasks(new Runnable() {
+                @Override
+                public void run() {
+                    backupBatcher.flush();
+                }
+            }, new Runnable() {
+                @Override
+                public void run() {
+                    backupBatcher.flushIfDue();
+                }
+            });
+        }
 
         this.slowOperationDetector = new SlowOperationDetector(node.loggingService,
                 operationExecutor.getGenericOperationRunners(), operationExecutor.getPartitionOperationRunners(),
@@ -185,6 +210,10 @@ public final class OperationServiceImpl implements InternalOperationService, Met
         return asyncInboundResponseHandler;
     }
 
+    public BackupBatcher getBackupBatcher() {
+        return backupBatcher;
+    }
+
     public InvocationMonitor getInvocationMonitor() {
         return invocationMonitor;
     }
@@ -194,6 +223,26 @@ public final class OperationServiceImpl implements InternalOperationService, Met
         return slowOperationDetector.getSlowOperationDTOs();
     }
 
+    @Override
+    public PartitionLoad[] getPartitionLoads() {
+        OperationRunner[] runners = operationExecutor.getPartitionOperationRunners();
+        PartitionLoad[] partitionLoads = new PartitionLoad[runners.length];
+        for (int partitionId = 0; partitionId < runners.length; partitionId++) {
+            PartitionLoad partitionLoad = ((OperationRunnerImpl) runners[partitionId]).getPartitionLoad();
+            if (partitionLoad == null) {
+                return null;
+            }
+            partitionLoads[partitionId] = partitionLoad;
+        }
+        return partitionLoads;
+    }
+
+    @Override
+    public long getExecutedOperationCount(int partitionId) {
+        OperationRunner[] runners = operationExecutor.getPartitionOperationRunners();
+        return ((OperationRunnerImpl) runners[partitionId]).getExecutedOperationCount();
+    }
+
     public InvocationRegistry getInvocationRegistry() {
         return invocationRegistry;
     }
@@ -307,6 +356,35 @@ public final class OperationServiceImpl implements InternalOperationService, Met
                 DEFAULT_CALL_TIMEOUT, DEFAULT_DESERIALIZE_RESULT).invoke();
     }
 
+    @Override
+    public <E> InternalCompletableFuture<E> invokeOnPartitionBatched(String serviceName, Operation op, int partitionId,
+                                                                     boolean deserialize) {
+        return operationBatcher.invoke(serviceName, op, partitionId, deserialize);
+    }
+
+    @Override
+    public boolean runOnPartitionThread(String serviceName, Operation op, int partitionId,
+                                        OperationResponseHandler responseHandler) {
+        op.setServiceName(serviceName)
+                .setPartitionId(partitionId)
+                .setReplicaIndex(DEFAULT_REPLICA_INDEX);
+
+        if (!operationExecutor.isRunAllowed(op)
+                || !thisAddress.equals(nodeEngine.getPartitionService().getPartitionOwner(partitionId))) {
+            return false;
+        }
+
+        setCallerAddress(op, thisAddress);
+        setInvocationTime(op, nodeEngine.getClusterService().getClusterClock().getClusterTime());
+        op.setNodeEngine(nodeEngine);
+        if (op.getCallerUuid() == null) {
+            op.setCallerUuid(node.getThisUuid());
+        }
+        op.setOperationResponseHandler(responseHandler);
+        operationExecutor.run(op);
+        return true;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <E> InternalCompletableFuture<E> invokeOnTarget(String serviceName, Operation op, Address target) {
@@ -405,10 +483,16 @@ public final class OperationServiceImpl implements InternalOperationService, Met
         }
 
         byte[] bytes = serializationService.toBytes(op);
-        int partitionId = op.getPartitionId();
+        return send(bytes, op.getPartitionId(), op.isUrgent(), target);
+    }
+
+    /**
+     * Sends an already serialized operation to the target.
+     */
+    boolean send(byte[] bytes, int partitionId, boolean urgent, Address target) {
         Packet packet = new Packet(bytes, partitionId).setPacketType(Packet.Type.OPERATION);
 
-        if (op.isUrgent()) {
+        if (urgent) {
             packet.raiseFlags(FLAG_URGENT);
         }
 
@@ -428,6 +512,12 @@ public final class OperationServiceImpl implements InternalOperationService, Met
     @Override
     public void provideMetrics(MetricsRegistry registry) {
         registry.scanAndRegister(this, "operation");
+        if (operationBatcher.isEnabled()) {
+            registry.scanAndRegister(operationBatcher, "operation.batcher");
+        }
+        if (backupBatcher.isEnabled()) {
+            registry.scanAndRegister(backupBatcher, "operation.backupBatcher");
+        }
         registry.collectMetrics(invocationRegistry, invocationMonitor, inboundResponseHandler, asyncInboundResponseHandler,
                 operationExecutor);
     }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl.operations;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.BackupOperation;
+import com.hazelcast.spi.NodeEngine;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationAccessor;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
+import com.hazelcast.spi.impl.operationservice.impl.OperationServiceImpl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.spi.impl.OperationResponseHandlerFactory.createEmptyResponseHandler;
+
+/**
+ * Contains the {@link Backup} operations of a partition that are sent by a partition thread to the same replica in a
+ * short window, see {@link com.hazelcast.spi.properties.GroupProperty#OPERATION_BACKUP_BATCHING_ENABLED}.
+ * <p/>
+ * The backups are serialized when they are added to the batch, so later changes to the state referenced by a backup
+ * operation don't leak into the batch. On the replica the backups are run one by one in the order they were sent; every
+ * backup goes through the regular checks of the operation runner and acknowledges itself.
+ */
+public final class BackupBatch extends Operation implements BackupOperation, IdentifiedDataSerializable {
+
+    private List<Data> backups;
+
+    public BackupBatch() {
+    }
+
+    public BackupBatch(List<Data> backups) {
+        this.backups = backups;
+    }
+
+    @Override
+    public void run() throws Exception {
+        NodeEngine nodeEngine = getNodeEngine();
+        OperationExecutor operationExecutor = ((OperationServiceImpl) nodeEngine.getOperationService()).getOperationExecutor();
+        for (Data data : backups) {
+            Operation backup = nodeEngine.toObject(data);
+            backup.setNodeEngine(nodeEngine)
+                    .setCallerUuid(getCallerUuid())
+                    .setOperationResponseHandler(createEmptyResponseHandler());
+            OperationAccessor.setCallerAddress(backup, getCallerAddress());
+            OperationAccessor.setConnection(backup, getConnection());
+            operationExecutor.run(backup);
+        }
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public boolean validatesTarget() {
+        return false;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SpiDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return SpiDataSerializerHook.BACKUP_BATCH;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+
+        out.writeInt(backups.size());
+        for (Data backup : backups) {
+            out.writeData(backup);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+
+        int size = in.readInt();
+        backups = new ArrayList<Data>(size);
+        for (int k = 0; k < size; k++) {
+            backups.add(in.readData());
+        }
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+
+        sb.append(", backups=").append(backups.size());
+    }
+}
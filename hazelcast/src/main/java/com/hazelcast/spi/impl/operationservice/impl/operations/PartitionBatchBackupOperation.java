@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl.operations;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.BackupOperation;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationAccessor;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+
+import java.io.IOException;
+
+import static com.hazelcast.spi.impl.OperationResponseHandlerFactory.createEmptyResponseHandler;
+
+/**
+ * The backup of a {@link PartitionBatchOperation}; it contains the backup operations of all operations in the batch
+ * that needed a backup.
+ * <p>
+ * The same backup is sent to every replica of the batch, so every backup operation carries the total number of
+ * backups of the operation it belongs to. A backup operation is only executed on the replicas within that number.
+ */
+public final class PartitionBatchBackupOperation extends Operation implements BackupOperation, IdentifiedDataSerializable {
+
+    private Operation[] backupOperations;
+    private int[] backupCounts;
+    private int count;
+
+    public PartitionBatchBackupOperation() {
+    }
+
+    PartitionBatchBackupOperation(Operation[] backupOperations, int[] backupCounts, int count) {
+        this.backupOperations = backupOperations;
+        this.backupCounts = backupCounts;
+        this.count = count;
+    }
+
+    @Override
+    public void run() throws Exception {
+        int replicaIndex = getReplicaIndex();
+        for (int k = 0; k < count; k++) {
+            if (replicaIndex <= backupCounts[k]) {
+                run(backupOperations[k]);
+            }
+        }
+    }
+
+    private void run(Operation backupOp) {
+        backupOp.setNodeEngine(getNodeEngine())
+                .setPartitionId(getPartitionId())
+                .setReplicaIndex(getReplicaIndex())
+                .setCallerUuid(getCallerUuid())
+                .setOperationResponseHandler(createEmptyResponseHandler());
+        OperationAccessor.setCallerAddress(backupOp, getCallerAddress());
+        OperationAccessor.setInvocationTime(backupOp, getInvocationTime());
+
+        try {
+            backupOp.beforeRun();
+            backupOp.run();
+            backupOp.afterRun();
+        } catch (Throwable e) {
+            // a failing backup shouldn't prevent the other backups in the batch from being applied
+            try {
+                backupOp.onExecutionFailure(e);
+            } catch (Throwable t) {
+                getLogger().warning("While calling 'operation.onFailure(e)'... op: " + backupOp + ", error: " + e, t);
+            }
+            backupOp.logError(e);
+        }
+    }
+
+    @Override
+    public boolean returnsResponse() {
+        return false;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SpiDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return SpiDataSerializerHook.PARTITION_BATCH_BACKUP;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+
+        out.writeInt(count);
+        for (int k = 0; k < count; k++) {
+            out.writeInt(backupCounts[k]);
+            out.writeObject(backupOperations[k]);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+
+        count = in.readInt();
+        backupCounts = new int[count];
+        backupOperations = new Operation[count];
+        for (int k = 0; k < count; k++) {
+            backupCounts[k] = in.readInt();
+            backupOperations[k] = in.readObject();
+        }
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+
+        sb.append(", backupOperations=").append(count);
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl.operations;
+
+import com.hazelcast.instance.OutOfMemoryErrorDispatcher;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.spi.BackupAwareOperation;
+import com.hazelcast.spi.Notifier;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.OperationAccessor;
+import com.hazelcast.spi.OperationResponseHandler;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.exception.RetryableException;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+
+import java.io.IOException;
+
+import static java.lang.Math.max;
+import static java.util.Arrays.copyOf;
+
+/**
+ * Executes a batch of operations for the same partition as a single operation.
+ * <p>
+ * Instead of every operation taking its own packet, its own slot in the partition queue, its own backup and its own
+ * response, the operations in the batch are executed one after the other on the partition thread and share a single
+ * {@link com.hazelcast.spi.impl.operationservice.impl.operations.Backup} per replica and a single response containing
+ * the result of every operation.
+ * <p>
+ * A failure of one of the operations doesn't fail the batch; the exception is returned as the result of that
+ * operation. Blocking operations can't be batched since they would need to be parked, and the operations in the batch
+ * should send their response synchronously.
+ * <p>
+ * When an operation fails with a {@link RetryableException}, or turns out to send its response later (e.g. an entry
+ * processor that is offloaded), the batch stops at that operation. It and the remaining operations are not executed
+ * and are left out of the {@link BatchResponse}, so the caller can invoke them one by one in their original order.
+ */
+public final class PartitionBatchOperation extends Operation implements BackupAwareOperation, IdentifiedDataSerializable {
+
+    private static final Object NOT_EXECUTED = new Object();
+
+    private Operation[] operations;
+
+    private transient Object[] results;
+    private transient Operation[] backupOperations;
+    private transient int[] backupCounts;
+    private transient int backupOperationCount;
+    private transient int syncBackupCount;
+    private transient int totalBackupCount;
+
+    public PartitionBatchOperation() {
+    }
+
+    public PartitionBatchOperation(Operation[] operations) {
+        this.operations = operations;
+    }
+
+    public Operation[] getOperations() {
+        return operations;
+    }
+
+    @Override
+    public void run() throws Exception {
+        NodeEngineImpl nodeEngine = (NodeEngineImpl) getNodeEngine();
+        results = new Object[operations.length];
+        backupOperationCount = 0;
+        syncBackupCount = 0;
+        totalBackupCount = 0;
+        for (int k = 0; k < operations.length; k++) {
+            Object result = run(nodeEngine, operations[k]);
+            if (result == NOT_EXECUTED || result instanceof RetryableException) {
+                results = copyOf(results, k);
+                return;
+            }
+            results[k] = result;
+        }
+    }
+
+    private Object run(NodeEngineImpl nodeEngine, Operation op) {
+        ResponseCollector responseCollector = new ResponseCollector();
+        prepare(nodeEngine, op, responseCollector);
+
+        Object response;
+        try {
+            nodeEngine.getQuorumService().ensureQuorumPresent(op);
+            op.beforeRun();
+            if (!op.returnsResponse()) {
+                // the operation sends its response later, e.g. from an offloaded task, so it can't be part of the batch
+                return NOT_EXECUTED;
+            }
+            op.run();
+            addBackup(op);
+            response = op.returnsResponse() ? op.getResponse() : responseCollector.takeResponse(op);
+        } catch (Throwable e) {
+            return handleError(op, e);
+        }
+
+        afterRun(nodeEngine, op);
+        return response;
+    }
+
+    private void prepare(NodeEngineImpl nodeEngine, Operation op, OperationResponseHandler responseHandler) {
+        op.setNodeEngine(nodeEngine)
+                .setPartitionId(getPartitionId())
+                .setReplicaIndex(getReplicaIndex())
+                .setOperationResponseHandler(responseHandler);
+        OperationAccessor.setCallerAddress(op, getCallerAddress());
+        OperationAccessor.setConnection(op, getConnection());
+        OperationAccessor.setInvocationTime(op, getInvocationTime());
+        if (op.getCallerUuid() == null) {
+            op.setCallerUuid(getCallerUuid());
+        }
+    }
+
+    private void addBackup(Operation op) {
+        if (!(op instanceof BackupAwareOperation)) {
+            return;
+        }
+
+        BackupAwareOperation backupAwareOp = (BackupAwareOperation) op;
+        if (!backupAwareOp.shouldBackup()) {
+            return;
+        }
+
+        int syncBackups = backupAwareOp.getSyncBackupCount();
+        int totalBackups = syncBackups + backupAwareOp.getAsyncBackupCount();
+        if (totalBackups == 0) {
+            return;
+        }
+
+        Operation backupOp = backupAwareOp.getBackupOperation();
+        if (backupOp == null) {
+            throw new IllegalArgumentException("Backup operation should not be null! " + op);
+        }
+        backupOp.setServiceName(op.getServiceName());
+
+        if (backupOperations == null) {
+            backupOperations = new Operation[operations.length];
+            backupCounts = new int[operations.length];
+        }
+        backupOperations[backupOperationCount] = backupOp;
+        backupCounts[backupOperationCount] = totalBackups;
+        backupOperationCount++;
+
+        syncBackupCount = max(syncBackupCount, syncBackups);
+        totalBackupCount = max(totalBackupCount, totalBackups);
+    }
+
+    private Object handleError(Operation op, Throwable e) {
+        if (e instanceof OutOfMemoryError) {
+            OutOfMemoryErrorDispatcher.onOutOfMemory((OutOfMemoryError) e);
+        }
+        try {
+            op.onExecutionFailure(e);
+        } catch (Throwable t) {
+            getLogger().warning("While calling 'operation.onFailure(e)'... op: " + op + ", error: " + e, t);
+        }
+        op.logError(e);
+        return e;
+    }
+
+    private void afterRun(NodeEngineImpl nodeEngine, Operation op) {
+        try {
+            op.afterRun();
+            if (op instanceof Notifier) {
+                Notifier notifier = (Notifier) op;
+                if (notifier.shouldNotify()) {
+                    nodeEngine.getOperationParker().unpark(notifier);
+                }
+            }
+        } catch (Throwable e) {
+            // the response is already determined, so the error can only be logged
+            op.logError(e);
+        }
+    }
+
+    @Override
+    public Object getResponse() {
+        return new BatchResponse(results);
+    }
+
+    @Override
+    public boolean shouldBackup() {
+        return backupOperationCount > 0;
+    }
+
+    @Override
+    public int getSyncBackupCount() {
+        return syncBackupCount;
+    }
+
+    @Override
+    public int getAsyncBackupCount() {
+        return totalBackupCount - syncBackupCount;
+    }
+
+    @Override
+    public Operation getBackupOperation() {
+        return new PartitionBatchBackupOperation(backupOperations, backupCounts, backupOperationCount);
+    }
+
+    @Override
+    public int getFactoryId() {
+        return SpiDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getId() {
+        return SpiDataSerializerHook.PARTITION_BATCH;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+
+        out.writeInt(operations.length);
+        for (Operation op : operations) {
+            out.writeObject(op);
+        }
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+
+        int length = in.readInt();
+        operations = new Operation[length];
+        for (int k = 0; k < length; k++) {
+            operations[k] = in.readObject();
+        }
+    }
+
+    @Override
+    protected void toString(StringBuilder sb) {
+        super.toString(sb);
+
+        sb.append(", operations=").append(operations == null ? 0 : operations.length);
+    }
+
+    /**
+     * Captures the response of an operation in the batch that sends its response itself instead of relying on
+     * {@link Operation#getResponse()}.
+     */
+    private static final class ResponseCollector implements OperationResponseHandler {
+
+        private boolean responseReceived;
+        private Object response;
+
+        @Override
+        public void sendResponse(Operation op, Object response) {
+            this.response = response;
+            this.responseReceived = true;
+        }
+
+        Object takeResponse(Operation op) {
+            if (!responseReceived) {
+                return new IllegalStateException("Operation " + op + " didn't send a response while being executed as"
+                        + " part of a batch; only operations that respond synchronously can be batched");
+            }
+            return response;
+        }
+    }
+
+    /**
+     * Contains the results of the executed operations in the order of the batch. If the batch was stopped early, there are
+     * fewer results than operations; the operations without a result have not been executed.
+     */
+    // implements IdentifiedDataSerializable to speed up serialization of arrays
+    public static final class BatchResponse implements IdentifiedDataSerializable {
+
+        private Object[] results;
+
+        public BatchResponse() {
+        }
+
+        BatchResponse(Object[] results) {
+            this.results = results;
+        }
+
+        public Object[] getResults() {
+            return results;
+        }
+
+        @Override
+        public int getFactoryId() {
+            return SpiDataSerializerHook.F_ID;
+        }
+
+        @Override
+        public int getId() {
+            return SpiDataSerializerHook.PARTITION_BATCH_RESPONSE;
+        }
+
+        @Override
+        public void writeData(ObjectDataOutput out) throws IOException {
+            out.writeInt(results.length);
+            for (Object result : results) {
+                if (result instanceof Data) {
+                    out.writeBoolean(true);
+                    out.writeData((Data) result);
+                } else {
+                    out.writeBoolean(false);
+                    out.writeObject(result);
+                }
+            }
+        }
+
+        @Override
+        public void readData(ObjectDataInput in) throws IOException {
+            int length = in.readInt();
+            results = new Object[length];
+            for (int k = 0; k < length; k++) {
+                results[k] = in.readBoolean() ? in.readData() : in.readObject();
+            }
+        }
+    }
+}
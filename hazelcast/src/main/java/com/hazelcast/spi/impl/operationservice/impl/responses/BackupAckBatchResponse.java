@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl.responses;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+
+import static com.hazelcast.spi.impl.SpiDataSerializerHook.BACKUP_ACK_BATCH_RESPONSE;
+
+/**
+ * A {@link BackupAckResponse} for multiple invocations of the same caller. It is sent when the backup acknowledgements
+ * are coalesced, see {@link com.hazelcast.spi.properties.GroupProperty#OPERATION_BACKUP_BATCHING_ENABLED}.
+ * <p/>
+ * The call id of the response itself is not used.
+ */
+public final class BackupAckBatchResponse extends Response {
+
+    private long[] callIds;
+    private int count;
+
+    public BackupAckBatchResponse() {
+    }
+
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public BackupAckBatchResponse(long[] callIds, int count) {
+        super(0, false);
+        this.callIds = callIds;
+        this.count = count;
+    }
+
+    /**
+     * Returns the call ids of the acknowledged backups. Only the first {@link #getCount()} items are valid.
+     *
+     * @return the call ids.
+     */
+    @SuppressFBWarnings("EI_EXPOSE_REP")
+    public long[] getCallIds() {
+        return callIds;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getId() {
+        return BACKUP_ACK_BATCH_RESPONSE;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        super.writeData(out);
+        out.writeInt(count);
+        for (int k = 0; k < count; k++) {
+            out.writeLong(callIds[k]);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        super.readData(in);
+        count = in.readInt();
+        callIds = new long[count];
+        for (int k = 0; k < count; k++) {
+            callIds[k] = in.readLong();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BackupAckBatchResponse{count=" + count + '}';
+    }
+}
@@ -26,6 +26,7 @@ import com.hazelcast.map.impl.query.QueryResultSizeLimiter;
 import com.hazelcast.query.TruePredicate;
 import com.hazelcast.query.impl.predicates.QueryOptimizerFactory;
 
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -71,6 +72,67 @@ public final class GroupProperty {
     public static final HazelcastProperty PARTITION_OPERATION_THREAD_COUNT
             = new HazelcastProperty("hazelcast.operation.thread.count", -1);
 
+    /**
+     * The interval in seconds between executions of the partition thread balancer. The balancer tracks the number of
+     * operations executed per partition and moves partitions from the most loaded partition operation thread to the
+     * least loaded one, so a few hot partitions that happen to be mapped on the same thread don't saturate that thread
+     * while the other partition threads are idle. The per-partition ordering of operations is preserved when a partition
+     * is moved.
+     * <p/>
+     * The default is -1, which means the balancer is disabled and partitions are statically mapped on the partition
+     * threads using {@code partitionId % threadCount}.
+     */
+    public static final HazelcastProperty PARTITION_OPERATION_THREAD_BALANCER_INTERVAL_SECONDS
+            = new HazelcastProperty("hazelcast.operation.thread.balancer.interval.seconds", -1, SECONDS);
+
+    /**
+     * Enables the batching of partition operations. When enabled, operations for the same partition which are
+     * submitted while a previous batch for that partition is still in flight, are sent as a single batch operation
+     * that takes a single slot in the partition queue and sends a single backup and a single response.
+     * <p/>
+     * Batching is done without waiting for more operations to arrive; under low load every batch contains a single
+     * operation. Client requests for partition operations make use of batching when enabled.
+     * <p/>
+     * The default is false.
+     */
+    public static final HazelcastProperty OPERATION_BATCHING_ENABLED
+            = new HazelcastProperty("hazelcast.operation.batching.enabled", false);
+
+    /**
+     * The maximum number of operations in a single batch when {@link #OPERATION_BATCHING_ENABLED} is enabled.
+     */
+    public static final HazelcastProperty OPERATION_BATCH_MAX_SIZE
+            = new HazelcastProperty("hazelcast.operation.batching.max.size", 100);
+
+    /**
+     * Enables the batching of backups and backup acknowledgements sent by the partition threads. When enabled, the
+     * backups for the same partition and replica are sent as a single batch and the acknowledgements for the same caller
+     * are coalesced into a single response.
+     * <p/>
+     * A partition thread sends its batches as soon as its queue is drained, so under low load every batch contains a
+     * single backup or acknowledgement. Under high load the batches are sent at the latest when they are full or after
+     * {@link #OPERATION_BACKUP_BATCH_MAX_DELAY_MICROS}.
+     * <p/>
+     * The default is false.
+     */
+    public static final HazelcastProperty OPERATION_BACKUP_BATCHING_ENABLED
+            = new HazelcastProperty("hazelcast.operation.backup.batching.enabled", false);
+
+    /**
+     * The maximum number of backups and acknowledgements a partition thread buffers before it sends them, when
+     * {@link #OPERATION_BACKUP_BATCHING_ENABLED} is enabled.
+     */
+    public static final HazelcastProperty OPERATION_BACKUP_BATCH_MAX_SIZE
+            = new HazelcastProperty("hazelcast.operation.backup.batching.max.size", 64);
+
+    /**
+     * The maximum time a partition thread that keeps being busy buffers a backup or acknowledgement before it sends
+     * them, when {@link #OPERATION_BACKUP_BATCHING_ENABLED} is enabled. The buffer is checked after every task the
+     * partition thread has run, so a single long running task can exceed this delay.
+     */
+    public static final HazelcastProperty OPERATION_BACKUP_BATCH_MAX_DELAY_MICROS
+            = new HazelcastProperty("hazelcast.operation.backup.batching.max.delay.micros", 1000, MICROSECONDS);
+
     /**
      * The number of generic operation handler threads per Member.
      * <p/>
@@ -102,6 +164,48 @@ public final class GroupProperty {
 
     public static final HazelcastProperty CLIENT_ENGINE_QUERY_THREAD_COUNT
             = new HazelcastProperty("hazelcast.clientengine.query.thread.count", -1);
+
+    /**
+     * Enables the fair scheduling of the client queries. The queries are queued per client and the clients take turns in
+     * starting them, so the heavy queries of one client can't starve the queries of the other clients.
+     * <p/>
+     * The queries of a disconnected client are dropped from the queue.
+     */
+    public static final HazelcastProperty CLIENT_ENGINE_QUERY_FAIR_SCHEDULING_ENABLED
+            = new HazelcastProperty("hazelcast.clientengine.query.fair.scheduling.enabled", false);
+
+    /**
+     * Maximum number of queries of a single client running at the same time, if the fair scheduling of the client queries
+     * is enabled. A value smaller than {@code 1} sets no limit besides the number of query threads.
+     */
+    public static final HazelcastProperty CLIENT_ENGINE_QUERY_MAX_CONCURRENT_PER_CLIENT
+            = new HazelcastProperty("hazelcast.clientengine.query.max.concurrent.per.client", -1);
+
+    /**
+     * Maximum number of client queries on a single map running at the same time, if the fair scheduling of the client
+     * queries is enabled. A value smaller than {@code 1} sets no limit besides the number of query threads.
+     */
+    public static final HazelcastProperty CLIENT_ENGINE_QUERY_MAX_CONCURRENT_PER_MAP
+            = new HazelcastProperty("hazelcast.clientengine.query.max.concurrent.per.map", -1);
+
+    /**
+     * Maximum time a client query waits to be started, if the fair scheduling of the client queries is enabled. The queries
+     * which waited longer are failed with an {@link com.hazelcast.core.OperationTimeoutException} instead of being run,
+     * since their clients most probably have given up on them already.
+     */
+    public static final HazelcastProperty CLIENT_ENGINE_QUERY_QUEUE_TIMEOUT_SECONDS
+            = new HazelcastProperty("hazelcast.clientengine.query.queue.timeout.seconds", 120, SECONDS);
+
+    /**
+     * Enables running the partition specific client requests, such as map.get and map.put, directly on the partition thread
+     * of the member which owns the partition, without creating an invocation for them.
+     * <p/>
+     * Only the requests which don't need to wait for synchronous backups take this path; all other requests, and the
+     * requests which hit a migrating partition, are invoked as usual.
+     */
+    public static final HazelcastProperty CLIENT_ENGINE_DIRECT_RUN_ENABLED
+            = new HazelcastProperty("hazelcast.clientengine.direct.run.enabled", false);
+
     /**
      * Client connection is removed or owner node of a client is removed from cluster
      * ClientDisconnectedOperation runs and clean all resources of client(listeners are removed, locks/txn are released)
@@ -161,6 +265,17 @@ public final class GroupProperty {
     public static final HazelcastProperty IO_BALANCER_INTERVAL_SECONDS
             = new HazelcastProperty("hazelcast.io.balancer.interval.seconds", 20, SECONDS);
 
+    /**
+     * Enables write through for the non blocking IO threading model. When enabled, a thread that sends a packet, e.g. a
+     * partition thread that sends a response, writes it directly to the socket if no IO thread is writing to that
+     * connection at that moment. This saves the handoff to the output thread and its wakeup, which reduces the latency
+     * of an operation. If the socket can't accept all data, the remaining data is written by the output thread.
+     * <p/>
+     * The default is false.
+     */
+    public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
+            = new HazelcastProperty("hazelcast.io.write.through.enabled", false);
+
     @SuppressWarnings("checkstyle:constantname")
     public static final HazelcastProperty PREFER_IPv4_STACK
             = new HazelcastProperty("hazelcast.prefer.ipv4.stack", true);
@@ -303,10 +418,67 @@ public final class GroupProperty {
     public static final HazelcastProperty HEARTBEAT_INTERVAL_SECONDS
             = new HazelcastProperty("hazelcast.heartbeat.interval.seconds", 5, SECONDS);
     /**
-     * The timeout which defines when a cluster member is removed because it has not sent any heartbeats.
+     * The timeout which defines when a cluster member is removed because it has not sent any heartbeats, when the
+     * {@link #HEARTBEAT_FAILURE_DETECTOR_TYPE deadline failure detector} is used.
      */
     public static final HazelcastProperty MAX_NO_HEARTBEAT_SECONDS
             = new HazelcastProperty("hazelcast.max.no.heartbeat.seconds", 300, SECONDS);
+    /**
+     * Type of the failure detector which decides whether a cluster member is alive based on its heartbeats. The
+     * available types are:
+     * <ul>
+     * <li>{@code deadline}: a member is considered dead when it has not sent any heartbeats for
+     * {@link #MAX_NO_HEARTBEAT_SECONDS}</li>
+     * <li>{@code phi_accrual}: a member is considered dead when the suspicion level calculated from the distribution of
+     * its heartbeat inter-arrival times reaches {@link #HEARTBEAT_PHI_FAILURE_DETECTOR_THRESHOLD}, so the timeout adapts to
+     * the actual heartbeat delays</li>
+     * </ul>
+     * The default value is {@code deadline}.
+     */
+    public static final HazelcastProperty HEARTBEAT_FAILURE_DETECTOR_TYPE
+            = new HazelcastProperty("hazelcast.heartbeat.failuredetector.type", "deadline");
+    /**
+     * The phi value at which a member is considered dead by the phi-accrual failure detector. A phi of 1 means about
+     * 10% chance of a false suspicion, 2 means about 1%, 3 means about 0.1% and so on. A low threshold detects real
+     * failures faster but causes more false suspicions.
+     * <p/>
+     * The default value is 10.
+     *
+     * @see #HEARTBEAT_FAILURE_DETECTOR_TYPE
+     */
+    public static final HazelcastProperty HEARTBEAT_PHI_FAILURE_DETECTOR_THRESHOLD
+            = new HazelcastProperty("hazelcast.heartbeat.phiaccrual.failuredetector.threshold", "10");
+    /**
+     * The number of the recent heartbeat inter-arrival times the phi-accrual failure detector learns the heartbeat
+     * distribution from.
+     * <p/>
+     * The default value is 200.
+     *
+     * @see #HEARTBEAT_FAILURE_DETECTOR_TYPE
+     */
+    public static final HazelcastProperty HEARTBEAT_PHI_FAILURE_DETECTOR_SAMPLE_SIZE
+            = new HazelcastProperty("hazelcast.heartbeat.phiaccrual.failuredetector.sample.size", 200);
+    /**
+     * The minimum standard deviation of the heartbeat inter-arrival times used by the phi-accrual failure detector,
+     * which prevents very regular heartbeats from causing a too sensitive detection.
+     * <p/>
+     * The default value is 100 milliseconds.
+     *
+     * @see #HEARTBEAT_FAILURE_DETECTOR_TYPE
+     */
+    public static final HazelcastProperty HEARTBEAT_PHI_FAILURE_DETECTOR_MIN_STD_DEV_MILLIS
+            = new HazelcastProperty("hazelcast.heartbeat.phiaccrual.failuredetector.min.std.dev.millis", 100, MILLISECONDS);
+    /**
+     * The duration of the heartbeat pauses, e.g. caused by garbage collection or network hiccups, which the phi-accrual
+     * failure detector tolerates on top of the learned heartbeat interval.
+     * <p/>
+     * The default value is 10000 milliseconds.
+     *
+     * @see #HEARTBEAT_FAILURE_DETECTOR_TYPE
+     */
+    public static final HazelcastProperty HEARTBEAT_PHI_FAILURE_DETECTOR_ACCEPTABLE_PAUSE_MILLIS
+            = new HazelcastProperty("hazelcast.heartbeat.phiaccrual.failuredetector.acceptable.pause.millis", 10000,
+            MILLISECONDS);
 
     /**
      * The interval at which master confirmations are sent from non-master nodes to the master node
@@ -401,6 +573,76 @@ public final class GroupProperty {
             = new HazelcastProperty("hazelcast.partition.migration.interval", 0, SECONDS);
     public static final HazelcastProperty PARTITION_MIGRATION_TIMEOUT
             = new HazelcastProperty("hazelcast.partition.migration.timeout", 300, SECONDS);
+    /**
+     * Maximum number of partition migrations which are executed in parallel by the master. Only migrations that don't
+     * share a source or destination member run in parallel; their data transfers overlap while their commits are executed
+     * one at a time.
+     * <p/>
+     * The default value is 1, which executes the migrations one by one.
+     */
+    public static final HazelcastProperty PARTITION_MAX_PARALLEL_MIGRATIONS
+            = new HazelcastProperty("hazelcast.partition.max.parallel.migrations", 1);
+    /**
+     * Maximum migration data, in kilobytes, a member sends per second as a migration source. After a chunk of migration
+     * data is sent, the next chunk of any migration from the same member is sent only after the time needed to send the
+     * former chunk at this rate has elapsed, so the limit is most precise with {@link #PARTITION_MIGRATION_CHUNK_SIZE_KB}.
+     * The time a migration waits for the limit doesn't count against {@link #PARTITION_MIGRATION_TIMEOUT}.
+     * <p/>
+     * The default value is 0, which doesn't limit the migration bandwidth.
+     */
+    public static final HazelcastProperty PARTITION_MIGRATION_MAX_KB_PER_SECOND
+            = new HazelcastProperty("hazelcast.partition.migration.max.kb.per.second", 0);
+    /**
+     * Maximum size, in kilobytes, of a single chunk of migration data. When set, services supporting chunked migration
+     * stream the partition data to the migration destination chunk by chunk, so the memory needed for a migration is
+     * bounded by the chunk size instead of the size of the partition. The next chunk is sent only after the destination
+     * has applied the previous one.
+     * <p/>
+     * The default value is 0, which migrates the data of each service with a single operation.
+     */
+    public static final HazelcastProperty PARTITION_MIGRATION_CHUNK_SIZE_KB
+            = new HazelcastProperty("hazelcast.partition.migration.chunk.size.kb", 0);
+    /**
+     * Interval of the load-aware rebalancing of the partitions. In each interval the master collects the memory cost and
+     * the operation count of the partitions from their replica owners and swaps partition replicas between the most and
+     * the less loaded members, so the members end up with balanced memory and operation load while keeping their partition
+     * counts. A replica is only moved to a member which doesn't hold the partition yet, so the rebalancing has an effect
+     * only when there are more data members, or members in a partition group, than partition replicas.
+     * <p/>
+     * The default value is 0, which places the partitions by their counts only.
+     */
+    public static final HazelcastProperty PARTITION_LOAD_BALANCE_INTERVAL_SECONDS
+            = new HazelcastProperty("hazelcast.partition.load.balance.interval.seconds", 0, SECONDS);
+    /**
+     * Maximum number of migrations a single load-aware rebalancing round may cause.
+     * <p/>
+     * The default value is 20.
+     *
+     * @see #PARTITION_LOAD_BALANCE_INTERVAL_SECONDS
+     */
+    public static final HazelcastProperty PARTITION_LOAD_BALANCE_MAX_MIGRATIONS
+            = new HazelcastProperty("hazelcast.partition.load.balance.max.migrations", 20);
+    /**
+     * Quiet period of the initial partition assignment. The master doesn't assign the partitions until no member has
+     * joined the cluster for this period, so the partitions of a starting cluster are assigned to all members in one shot
+     * instead of being migrated after each member join. The callers which need a partition owner in the meantime wait
+     * for the assignment.
+     * <p/>
+     * The default value is 0, which assigns the partitions as soon as they are needed.
+     *
+     * @see #PARTITION_INITIAL_ASSIGNMENT_MEMBER_COUNT
+     */
+    public static final HazelcastProperty PARTITION_INITIAL_ASSIGNMENT_QUIET_PERIOD_SECONDS
+            = new HazelcastProperty("hazelcast.partition.initial.assignment.quiet.period.seconds", 0, SECONDS);
+    /**
+     * Expected number of data members of a starting cluster. When the given number of data members has joined, the
+     * partitions are assigned without waiting for the end of the
+     * {@link #PARTITION_INITIAL_ASSIGNMENT_QUIET_PERIOD_SECONDS quiet period}.
+     * <p/>
+     * The default value is 0, which waits for the quiet period only.
+     */
+    public static final HazelcastProperty PARTITION_INITIAL_ASSIGNMENT_MEMBER_COUNT
+            = new HazelcastProperty("hazelcast.partition.initial.assignment.member.count", 0);
     public static final HazelcastProperty PARTITION_MIGRATION_ZIP_ENABLED
             = new HazelcastProperty("hazelcast.partition.migration.zip.enabled", true);
     public static final HazelcastProperty DISABLE_STALE_READ_ON_PARTITION_MIGRATION
@@ -408,8 +650,28 @@ public final class GroupProperty {
 
     public static final HazelcastProperty PARTITION_TABLE_SEND_INTERVAL
             = new HazelcastProperty("hazelcast.partition.table.send.interval", 15, SECONDS);
+    /**
+     * Enables the delta publication of the partition table. The master publishes only the partitions whose replicas
+     * have changed since its previous publication, together with the version of that publication. A member whose
+     * partition table version differs from that version rejects the delta and fetches the full partition table from
+     * the master.
+     * <p/>
+     * The default value is false.
+     */
+    public static final HazelcastProperty PARTITION_TABLE_DELTA_ENABLED
+            = new HazelcastProperty("hazelcast.partition.table.delta.enabled", false);
     public static final HazelcastProperty PARTITION_BACKUP_SYNC_INTERVAL
             = new HazelcastProperty("hazelcast.partition.backup.sync.interval", 30, SECONDS);
+    /**
+     * Enables the delta synchronization of backup replicas. The record stores of IMaps with {@code BINARY} in-memory
+     * format maintain digests of their key ranges on each mutation. When a backup replica is out of sync, it sends its
+     * digests to the partition owner, which sends back only the entries of the key ranges with different digests instead
+     * of the whole partition data.
+     * <p/>
+     * The default value is false.
+     */
+    public static final HazelcastProperty PARTITION_BACKUP_SYNC_DELTA_ENABLED
+            = new HazelcastProperty("hazelcast.partition.backup.sync.delta.enabled", false);
     public static final HazelcastProperty PARTITION_MAX_PARALLEL_REPLICATIONS
             = new HazelcastProperty("hazelcast.partition.max.parallel.replications", 5);
     public static final HazelcastProperty PARTITIONING_STRATEGY_CLASS
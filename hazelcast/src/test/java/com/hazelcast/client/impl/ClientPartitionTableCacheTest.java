@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl;
+
+import com.hazelcast.client.impl.protocol.ClientMessage;
+import com.hazelcast.client.impl.protocol.codec.ClientGetPartitionsCodec;
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.partition.IPartition;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientPartitionTableCacheTest extends HazelcastTestSupport {
+
+    private final ClientPartitionTableCache cache = new ClientPartitionTableCache();
+
+    private InternalPartitionService partitionService;
+    private Address address1;
+    private Address address2;
+
+    @Before
+    public void setup() throws Exception {
+        partitionService = mock(InternalPartitionService.class);
+        address1 = new Address("127.0.0.1", 5701);
+        address2 = new Address("127.0.0.1", 5702);
+    }
+
+    @Test
+    public void testTableIsEncodedOncePerVersion() {
+        setPartitions(1, address1, address2);
+
+        ClientMessage first = cache.getPartitionTable(partitionService);
+        ClientMessage second = cache.getPartitionTable(partitionService);
+
+        verify(partitionService, times(1)).getPartitions();
+        assertNotSame(first, second);
+        assertOwners(second, address1, address2);
+    }
+
+    @Test
+    public void testTableIsEncodedAgain_whenVersionChanges() {
+        setPartitions(1, address1, address2);
+        cache.getPartitionTable(partitionService);
+
+        setPartitions(2, address2, address2);
+        ClientMessage response = cache.getPartitionTable(partitionService);
+
+        assertOwners(response, address2, address2);
+    }
+
+    @Test
+    public void testTableIsNotCached_whenPartitionsAreNotAssigned() {
+        setPartitions(1, address1, null);
+
+        ClientMessage response = cache.getPartitionTable(partitionService);
+        cache.getPartitionTable(partitionService);
+
+        verify(partitionService, times(2)).getPartitions();
+        assertTrue(decode(response).isEmpty());
+    }
+
+    @Test
+    public void testCachedResponse_getsOwnCorrelationId() {
+        setPartitions(1, address1, address2);
+        cache.getPartitionTable(partitionService);
+
+        ClientMessage first = cache.getPartitionTable(partitionService).setCorrelationId(1);
+        ClientMessage second = cache.getPartitionTable(partitionService).setCorrelationId(2);
+
+        assertEquals(1, first.getCorrelationId());
+        assertEquals(2, second.getCorrelationId());
+    }
+
+    private void setPartitions(int version, Address... owners) {
+        IPartition[] partitions = new IPartition[owners.length];
+        for (int i = 0; i < owners.length; i++) {
+            IPartition partition = mock(IPartition.class);
+            when(partition.getPartitionId()).thenReturn(i);
+            when(partition.getOwnerOrNull()).thenReturn(owners[i]);
+            partitions[i] = partition;
+        }
+        when(partitionService.getPartitionStateVersion()).thenReturn(version);
+        when(partitionService.getPartitions()).thenReturn(partitions);
+    }
+
+    private void assertOwners(ClientMessage response, Address... owners) {
+        Address[] actual = new Address[owners.length];
+        for (Map.Entry<Address, List<Integer>> entry : decode(response)) {
+            for (int partitionId : entry.getValue()) {
+                actual[partitionId] = entry.getKey();
+            }
+        }
+        assertEquals(asList(owners), asList(actual));
+    }
+
+    private static List<Map.Entry<Address, List<Integer>>> decode(ClientMessage response) {
+        ClientMessage message = ClientMessage.createForDecode(response.buffer(), 0);
+        return ClientGetPartitionsCodec.decodeResponse(message).partitions;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl;
+
+import com.hazelcast.client.impl.protocol.task.map.AbstractMapQueryMessageTask;
+import com.hazelcast.core.OperationTimeoutException;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.nio.Connection;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClientQuerySchedulerTest extends HazelcastTestSupport {
+
+    private static final int THREAD_COUNT = 2;
+
+    private final List<String> startedQueries = new CopyOnWriteArrayList<String>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ExecutorService executor;
+    private Connection connection1;
+    private Connection connection2;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        connection1 = newConnection();
+        connection2 = newConnection();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testClientWithFewestRunningQueriesIsPreferred() {
+        ClientQueryScheduler scheduler = newScheduler(-1, -1, Long.MAX_VALUE);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        scheduler.schedule(newQuery("a1", releaseFirst), connection1, "client1", "map");
+        scheduler.schedule(newQuery("a2"), connection1, "client1", "map");
+        scheduler.schedule(newQuery("a3"), connection1, "client1", "map");
+        scheduler.schedule(newQuery("b1"), connection2, "client2", "map");
+        assertStartedEventually("a1", "a2");
+
+        releaseFirst.countDown();
+        assertStartedEventually("a1", "a2", "b1");
+        assertEquals(1, scheduler.getQueuedQueryCount());
+    }
+
+    @Test
+    public void testMaxConcurrentPerClient() {
+        ClientQueryScheduler scheduler = newScheduler(1, -1, Long.MAX_VALUE);
+
+        scheduler.schedule(newQuery("a1"), connection1, "client1", "map");
+        scheduler.schedule(newQuery("a2"), connection1, "client1", "map");
+        scheduler.schedule(newQuery("b1"), connection2, "client2", "map");
+
+        assertStartedEventually("a1", "b1");
+        assertEquals(1, scheduler.getQueuedQueryCount());
+    }
+
+    @Test
+    public void testMaxConcurrentPerMap() {
+        ClientQueryScheduler scheduler = newScheduler(-1, 1, Long.MAX_VALUE);
+
+        scheduler.schedule(newQuery("a1"), connection1, "client1", "map1");
+        scheduler.schedule(newQuery("a2"), connection1, "client1", "map1");
+        scheduler.schedule(newQuery("a3"), connection1, "client1", "map2");
+
+        assertStartedEventually("a1", "a3");
+        assertEquals(1, scheduler.getQueuedQueryCount());
+    }
+
+    @Test
+    public void testQueriesOfClosedConnectionAreDropped() {
+        ClientQueryScheduler scheduler = newScheduler(1, -1, Long.MAX_VALUE);
+        AbstractMapQueryMessageTask dropped = newQuery("a2");
+
+        scheduler.schedule(newQuery("a1"), connection1, "client1", "map");
+        scheduler.schedule(dropped, connection1, "client1", "map");
+        assertStartedEventually("a1");
+
+        scheduler.cancel(connection1);
+        assertEquals(0, scheduler.getQueuedQueryCount());
+        release.countDown();
+
+        scheduler.schedule(newQuery("b1"), connection2, "client2", "map");
+        assertStartedEventually("a1", "b1");
+        verify(dropped, never()).run();
+    }
+
+    @Test
+    public void testQueriesWaitingTooLongAreAbandoned() {
+        ClientQueryScheduler scheduler = newScheduler(-1, -1, -1);
+        AbstractMapQueryMessageTask abandoned = newQuery("a1");
+
+        scheduler.schedule(abandoned, connection1, "client1", "map");
+
+        verify(abandoned, timeout(ASSERT_TRUE_EVENTUALLY_TIMEOUT * 1000L)).abandon(any(OperationTimeoutException.class));
+        verify(abandoned, never()).run();
+    }
+
+    @Test
+    public void testQueriesRejectedByExecutorAreAbandoned() {
+        executor.shutdown();
+        ClientQueryScheduler scheduler = newScheduler(-1, -1, Long.MAX_VALUE);
+        AbstractMapQueryMessageTask rejected1 = newQuery("a1");
+        AbstractMapQueryMessageTask rejected2 = newQuery("b1");
+
+        scheduler.schedule(rejected1, connection1, "client1", "map");
+        scheduler.schedule(rejected2, connection2, "client2", "map");
+
+        verify(rejected1).abandon(any(RejectedExecutionException.class));
+        verify(rejected2).abandon(any(RejectedExecutionException.class));
+        assertEquals(0, scheduler.getQueuedQueryCount());
+    }
+
+    private ClientQueryScheduler newScheduler(int maxPerClient, int maxPerMap, long queueTimeoutMillis) {
+        return new ClientQueryScheduler(executor, Logger.getLogger(ClientQuerySchedulerTest.class), THREAD_COUNT,
+                maxPerClient, maxPerMap, queueTimeoutMillis);
+    }
+
+    private AbstractMapQueryMessageTask newQuery(String id) {
+        return newQuery(id, release);
+    }
+
+    private AbstractMapQueryMessageTask newQuery(final String id, final CountDownLatch release) {
+        AbstractMapQueryMessageTask task = mock(AbstractMapQueryMessageTask.class);
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                startedQueries.add(id);
+                release.await();
+                return null;
+            }
+        }).when(task).run();
+        return task;
+    }
+
+    private static Connection newConnection() {
+        Connection connection = mock(Connection.class);
+        when(connection.isAlive()).thenReturn(true);
+        return connection;
+    }
+
+    private void assertStartedEventually(final String... ids) {
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                // the queries started at the same time may be recorded in any order
+                assertEquals(ids.length, startedQueries.size());
+                assertEquals(new HashSet<String>(asList(ids)), new HashSet<String>(startedQueries));
+            }
+        });
+    }
+}
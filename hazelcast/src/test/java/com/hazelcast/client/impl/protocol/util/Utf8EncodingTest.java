@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.client.impl.protocol.util;
+
+import com.hazelcast.nio.Bits;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static com.hazelcast.client.impl.protocol.util.ParameterUtil.calculateDataSize;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class Utf8EncodingTest extends HazelcastTestSupport {
+
+    private static final String[] STRINGS = {
+            "",
+            "ascii",
+            "\u00e9t\u00e9 \u00fcber",
+            "\u4e2d\u6587\u5b57",
+            "\ud83d\ude00 emoji \ud83d\udc4d",
+            "unpaired \ud83d high",
+            "unpaired \ude00 low",
+            "ends with high \ud83d",
+    };
+
+    @Test
+    public void testConstructor() {
+        assertUtilityConstructor(Utf8Encoding.class);
+    }
+
+    @Test
+    public void testEncode_sameAsGetBytes() {
+        for (String string : STRINGS) {
+            byte[] expected = string.getBytes(Bits.UTF_8);
+            byte[] buffer = new byte[calculateDataSize(string)];
+
+            int length = Utf8Encoding.encode(buffer, 0, string);
+
+            assertArrayEquals(string, expected, Arrays.copyOf(buffer, length));
+        }
+    }
+
+    @Test
+    public void testPutAndGetStringUtf8_withSafeBuffer() {
+        for (String string : STRINGS) {
+            assertRoundTrip(new SafeBuffer(new byte[calculateDataSize(string) + 1]), string);
+        }
+    }
+
+    @Test
+    public void testPutAndGetStringUtf8_withUnsafeBuffer() {
+        for (String string : STRINGS) {
+            assertRoundTrip(new UnsafeBuffer(new byte[calculateDataSize(string) + 1]), string);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPutStringUtf8_whenLargerThanMaxEncodedSize_thenThrowException() {
+        new SafeBuffer(new byte[64]).putStringUtf8(0, "\u00e9\u00e9", 3);
+    }
+
+    @Test
+    public void testPutStringUtf8_whenFitsInMaxEncodedSize() {
+        ClientProtocolBuffer buffer = new SafeBuffer(new byte[64]);
+
+        int size = buffer.putStringUtf8(0, "\u00e9\u00e9", 4);
+
+        assertEquals(Bits.INT_SIZE_IN_BYTES + 4, size);
+        assertEquals("\u00e9\u00e9", buffer.getStringUtf8(0, buffer.getInt(0)));
+    }
+
+    private static void assertRoundTrip(ClientProtocolBuffer buffer, String string) {
+        int size = buffer.putStringUtf8(1, string);
+
+        int length = buffer.getInt(1);
+        assertEquals(Bits.INT_SIZE_IN_BYTES + length, size);
+        assertEquals(new String(string.getBytes(Bits.UTF_8), Bits.UTF_8), buffer.getStringUtf8(1, length));
+    }
+}
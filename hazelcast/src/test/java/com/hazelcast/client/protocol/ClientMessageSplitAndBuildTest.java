@@ -124,6 +124,42 @@ public class ClientMessageSplitAndBuildTest {
         }
     }
 
+    @Test
+    public void splitAndBuild_whenFragmentsAreFollowedByWholeMessages() throws Exception {
+        int FRAME_SIZE = 50;
+        String s = UUID.randomUUID().toString();
+        ClientMessage fragmentedMessage = ClientAuthenticationCodec.encodeRequest(s, s, s, s, true, s, (byte) 1,
+                BuildInfoProvider.BUILD_INFO.getVersion());
+        fragmentedMessage.addFlag(ClientMessage.BEGIN_AND_END_FLAGS);
+        ClientMessage wholeMessage1 = ClientAuthenticationCodec.encodeRequest("a", "b", null, null, true, "c", (byte) 1,
+                BuildInfoProvider.BUILD_INFO.getVersion());
+        wholeMessage1.addFlag(ClientMessage.BEGIN_AND_END_FLAGS);
+        ClientMessage wholeMessage2 = ClientAuthenticationCodec.encodeRequest("d", "e", null, null, true, "f", (byte) 1,
+                BuildInfoProvider.BUILD_INFO.getVersion());
+        wholeMessage2.addFlag(ClientMessage.BEGIN_AND_END_FLAGS);
+
+        final List<ClientMessage> receivedMessages = new ArrayList<ClientMessage>();
+        ClientMessageReadHandler clientMessageReadHandler = new ClientMessageReadHandler(readCounter,
+                new ClientMessageReadHandler.MessageHandler() {
+                    @Override
+                    public void handleMessage(ClientMessage message) {
+                        message.addFlag(ClientMessage.BEGIN_AND_END_FLAGS);
+                        receivedMessages.add(message);
+                    }
+                });
+        for (ClientMessage subFrame : ClientMessageSplitter.getSubFrames(FRAME_SIZE, fragmentedMessage)) {
+            clientMessageReadHandler.onRead(ByteBuffer.wrap(subFrame.buffer().byteArray(), 0, subFrame.getFrameLength()));
+        }
+        clientMessageReadHandler.onRead(ByteBuffer.wrap(wholeMessage1.buffer().byteArray(), 0, wholeMessage1.getFrameLength()));
+        clientMessageReadHandler.onRead(ByteBuffer.wrap(wholeMessage2.buffer().byteArray(), 0, wholeMessage2.getFrameLength()));
+
+        // the messages which were handed over must not be overwritten by the frames read after them
+        assertEquals(3, receivedMessages.size());
+        assertEquals(fragmentedMessage, receivedMessages.get(0));
+        assertEquals(wholeMessage1, receivedMessages.get(1));
+        assertEquals(wholeMessage2, receivedMessages.get(2));
+    }
+
     @Test
     public void splitAndBuild_whenMessageIsAlreadySmallerThanFrameSize() throws Exception {
         String s = UUID.randomUUID().toString();
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.core;
+
+import com.hazelcast.logging.Logger;
+import com.hazelcast.spi.impl.AbstractCompletableFuture;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PipeliningTest extends HazelcastTestSupport {
+
+    private static final Executor CALLER_RUNS = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_whenZeroDepth() {
+        new Pipelining<String>(0);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void add_whenNull() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(1);
+        pipelining.add(null);
+    }
+
+    @Test
+    public void add_whenDepthReached_thenBlocks() throws Exception {
+        final Pipelining<String> pipelining = new Pipelining<String>(2);
+        TestFuture first = new TestFuture();
+        pipelining.add(first);
+        assertEquals(1, pipelining.getInFlightCount());
+
+        final TestFuture second = new TestFuture();
+        Future addFuture = spawn(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pipelining.add(second);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(2, pipelining.getInFlightCount());
+            }
+        });
+        sleepMillis(100);
+        assertFalse(addFuture.isDone());
+
+        first.complete("first");
+        addFuture.get();
+        assertEquals(1, pipelining.getInFlightCount());
+        assertEquals(1, pipelining.getCompletedCount());
+
+        second.complete("second");
+        assertEquals(asList("first", "second"), pipelining.results());
+        assertEquals(0, pipelining.getInFlightCount());
+        assertEquals(2, pipelining.getCompletedCount());
+        assertTrue(pipelining.getMaxLatency(NANOSECONDS) >= pipelining.getAverageLatency(NANOSECONDS));
+    }
+
+    @Test
+    public void results_whenRequestFailed() throws Exception {
+        Pipelining<String> pipelining = new Pipelining<String>(10);
+        TestFuture future = new TestFuture();
+        pipelining.add(future);
+        future.complete(new ExpectedException());
+
+        try {
+            pipelining.results();
+            fail();
+        } catch (ExpectedException expected) {
+        }
+        assertEquals(1, pipelining.getCompletedCount());
+    }
+
+    @Test
+    public void results_inSubmissionOrder() throws Exception {
+        HazelcastInstance hz = createHazelcastInstance();
+        IMap<Integer, Integer> map = hz.getMap(randomMapName());
+        int count = 1000;
+        for (int k = 0; k < count; k++) {
+            map.put(k, k);
+        }
+
+        Pipelining<Integer> pipelining = new Pipelining<Integer>(10);
+        for (int k = 0; k < count; k++) {
+            pipelining.add(map.getAsync(k));
+            assertTrue(pipelining.getInFlightCount() < pipelining.getDepth());
+        }
+
+        List<Integer> results = pipelining.results();
+        assertEquals(count, results.size());
+        for (int k = 0; k < count; k++) {
+            assertEquals(k, (int) results.get(k));
+        }
+        assertEquals(count, pipelining.getCompletedCount());
+        assertTrue(pipelining.getThroughput() > 0);
+    }
+
+    private static class ExpectedException extends RuntimeException {
+    }
+
+    private static class TestFuture extends AbstractCompletableFuture<String> {
+
+        TestFuture() {
+            super(CALLER_RUNS, Logger.getLogger(TestFuture.class));
+        }
+
+        void complete(Object value) {
+            setResult(value);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.cluster.fd;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.instance.BuildInfoProvider;
+import com.hazelcast.instance.MemberImpl;
+import com.hazelcast.nio.Address;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.version.MemberVersion;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ClusterFailureDetectorTest {
+
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 1000;
+    private static final long MAX_NO_HEARTBEAT_MILLIS = 10 * HEARTBEAT_INTERVAL_MILLIS;
+
+    private Member member;
+
+    @Before
+    public void setup() throws Exception {
+        MemberVersion version = MemberVersion.of(BuildInfoProvider.BUILD_INFO.getVersion());
+        member = new MemberImpl(new Address("127.0.0.1", 5701), version, false);
+    }
+
+    @Test
+    public void testDeadline_isAlive_untilMaxNoHeartbeatTimeout() {
+        ClusterFailureDetector detector = new DeadlineClusterFailureDetector(MAX_NO_HEARTBEAT_MILLIS);
+        detector.heartbeat(member, HEARTBEAT_INTERVAL_MILLIS);
+
+        assertTrue(detector.isAlive(member, HEARTBEAT_INTERVAL_MILLIS + MAX_NO_HEARTBEAT_MILLIS));
+        assertFalse(detector.isAlive(member, HEARTBEAT_INTERVAL_MILLIS + MAX_NO_HEARTBEAT_MILLIS + 1));
+        assertEquals(HEARTBEAT_INTERVAL_MILLIS, detector.lastHeartbeat(member));
+        assertEquals(0.5, detector.suspicionLevel(member, HEARTBEAT_INTERVAL_MILLIS + MAX_NO_HEARTBEAT_MILLIS / 2), 0d);
+    }
+
+    @Test
+    public void testDeadline_isNotAlive_whenRemoved() {
+        ClusterFailureDetector detector = new DeadlineClusterFailureDetector(MAX_NO_HEARTBEAT_MILLIS);
+        detector.heartbeat(member, HEARTBEAT_INTERVAL_MILLIS);
+        detector.remove(member);
+
+        assertFalse(detector.isAlive(member, MAX_NO_HEARTBEAT_MILLIS + 1));
+        assertEquals(0, detector.lastHeartbeat(member));
+        assertEquals(0d, detector.suspicionLevel(member, HEARTBEAT_INTERVAL_MILLIS), 0d);
+    }
+
+    @Test
+    public void testPhiAccrual_detectsFailure_beforeMaxNoHeartbeatTimeout() {
+        ClusterFailureDetector detector = new PhiAccrualClusterFailureDetector(10, 100, 100, 0, HEARTBEAT_INTERVAL_MILLIS);
+        long timestamp = 0;
+        for (int i = 0; i < 20; i++) {
+            timestamp += HEARTBEAT_INTERVAL_MILLIS;
+            detector.heartbeat(member, timestamp);
+        }
+
+        assertTrue(detector.isAlive(member, timestamp + HEARTBEAT_INTERVAL_MILLIS));
+        assertFalse(detector.isAlive(member, timestamp + 3 * HEARTBEAT_INTERVAL_MILLIS));
+        assertTrue(detector.suspicionLevel(member, timestamp + 3 * HEARTBEAT_INTERVAL_MILLIS) >= 10);
+        assertEquals(timestamp, detector.lastHeartbeat(member));
+    }
+
+    @Test
+    public void testPhiAccrual_isNotAlive_whenReset() {
+        ClusterFailureDetector detector = new PhiAccrualClusterFailureDetector(10, 100, 100, 0, HEARTBEAT_INTERVAL_MILLIS);
+        detector.heartbeat(member, HEARTBEAT_INTERVAL_MILLIS);
+        detector.reset();
+
+        assertFalse(detector.isAlive(member, HEARTBEAT_INTERVAL_MILLIS));
+        assertEquals(0, detector.lastHeartbeat(member));
+    }
+}
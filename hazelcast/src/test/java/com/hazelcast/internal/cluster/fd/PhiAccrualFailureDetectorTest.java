@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.cluster.fd;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PhiAccrualFailureDetectorTest {
+
+    private static final double THRESHOLD = 10;
+    private static final int SAMPLE_SIZE = 200;
+    private static final double MIN_STD_DEVIATION_MILLIS = 100;
+    private static final long HEARTBEAT_INTERVAL_MILLIS = 1000;
+
+    @Test
+    public void testPhi_isZero_beforeFirstHeartbeat() {
+        PhiAccrualFailureDetector detector = newDetector(0);
+
+        assertEquals(0d, detector.phi(HEARTBEAT_INTERVAL_MILLIS * 100), 0d);
+        assertTrue(detector.isAvailable(HEARTBEAT_INTERVAL_MILLIS * 100));
+        assertEquals(-1, detector.lastHeartbeat());
+    }
+
+    @Test
+    public void testPhi_increasesWithTimeSinceLastHeartbeat() {
+        PhiAccrualFailureDetector detector = newDetector(0);
+        long timestamp = sendRegularHeartbeats(detector, 10);
+
+        double phi1 = detector.phi(timestamp + HEARTBEAT_INTERVAL_MILLIS);
+        double phi2 = detector.phi(timestamp + 2 * HEARTBEAT_INTERVAL_MILLIS);
+        double phi3 = detector.phi(timestamp + 3 * HEARTBEAT_INTERVAL_MILLIS);
+
+        assertTrue(phi1 < phi2);
+        assertTrue(phi2 < phi3);
+        assertEquals(timestamp, detector.lastHeartbeat());
+    }
+
+    @Test
+    public void testIsAvailable_whenHeartbeatsAreRegular() {
+        PhiAccrualFailureDetector detector = newDetector(0);
+        long timestamp = sendRegularHeartbeats(detector, 100);
+
+        assertTrue(detector.isAvailable(timestamp + HEARTBEAT_INTERVAL_MILLIS));
+    }
+
+    @Test
+    public void testIsNotAvailable_whenHeartbeatsStopForAFewIntervals() {
+        PhiAccrualFailureDetector detector = newDetector(0);
+        long timestamp = sendRegularHeartbeats(detector, 100);
+
+        assertFalse(detector.isAvailable(timestamp + 3 * HEARTBEAT_INTERVAL_MILLIS));
+    }
+
+    @Test
+    public void testIsAvailable_whenPauseIsAcceptable() {
+        long acceptablePauseMillis = 5 * HEARTBEAT_INTERVAL_MILLIS;
+        PhiAccrualFailureDetector detector = newDetector(acceptablePauseMillis);
+        long timestamp = sendRegularHeartbeats(detector, 100);
+
+        assertTrue(detector.isAvailable(timestamp + acceptablePauseMillis));
+        assertFalse(detector.isAvailable(timestamp + acceptablePauseMillis + 3 * HEARTBEAT_INTERVAL_MILLIS));
+    }
+
+    @Test
+    public void testThresholdAdapts_toIrregularHeartbeats() {
+        PhiAccrualFailureDetector regularDetector = newDetector(0);
+        PhiAccrualFailureDetector irregularDetector = newDetector(0);
+        long regularTimestamp = sendRegularHeartbeats(regularDetector, 100);
+        long irregularTimestamp = 0;
+        for (int i = 0; i < 100; i++) {
+            // the intervals alternate between 0.5 and 1.5 heartbeat intervals
+            irregularTimestamp += i % 2 == 0 ? HEARTBEAT_INTERVAL_MILLIS / 2 : 3 * HEARTBEAT_INTERVAL_MILLIS / 2;
+            irregularDetector.heartbeat(irregularTimestamp);
+        }
+
+        long pause = 2 * HEARTBEAT_INTERVAL_MILLIS;
+        assertFalse(regularDetector.isAvailable(regularTimestamp + pause));
+        assertTrue(irregularDetector.isAvailable(irregularTimestamp + pause));
+    }
+
+    @Test
+    public void testPhi_ofMean() {
+        // the elapsed time equals to the mean, so the probability of a later heartbeat is 50%
+        assertEquals(-Math.log10(0.5), PhiAccrualFailureDetector.phi(1000, 1000, 100), 0.01);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenThresholdIsNotPositive() {
+        new PhiAccrualFailureDetector(0, SAMPLE_SIZE, MIN_STD_DEVIATION_MILLIS, 0, HEARTBEAT_INTERVAL_MILLIS);
+    }
+
+    private static PhiAccrualFailureDetector newDetector(long acceptablePauseMillis) {
+        return new PhiAccrualFailureDetector(THRESHOLD, SAMPLE_SIZE, MIN_STD_DEVIATION_MILLIS, acceptablePauseMillis,
+                HEARTBEAT_INTERVAL_MILLIS);
+    }
+
+    private static long sendRegularHeartbeats(PhiAccrualFailureDetector detector, int count) {
+        long timestamp = 0;
+        for (int i = 0; i < count; i++) {
+            timestamp += HEARTBEAT_INTERVAL_MILLIS;
+            detector.heartbeat(timestamp);
+        }
+        return timestamp;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.cluster.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.metrics.MetricsRegistry;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.test.SplitBrainTestSupport.blockCommunicationBetween;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class ClusterHeartbeatFailureDetectorTest extends HazelcastTestSupport {
+
+    @Test
+    public void testPhiAccrual_removesMember_beforeMaxNoHeartbeatTimeout() {
+        Config config = new Config()
+                .setProperty(GroupProperty.HEARTBEAT_FAILURE_DETECTOR_TYPE.getName(), "phi_accrual")
+                .setProperty(GroupProperty.HEARTBEAT_PHI_FAILURE_DETECTOR_ACCEPTABLE_PAUSE_MILLIS.getName(), "2000")
+                .setProperty(GroupProperty.HEARTBEAT_INTERVAL_SECONDS.getName(), "1")
+                .setProperty(GroupProperty.MAX_NO_HEARTBEAT_SECONDS.getName(), "300")
+                .setProperty(GroupProperty.MAX_NO_MASTER_CONFIRMATION_SECONDS.getName(), "300");
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        assertClusterSizeEventually(2, instance1);
+
+        String probeName = "cluster.heartbeat.member[" + getAddress(instance2) + "].suspicionLevel";
+        MetricsRegistry metricsRegistry = getNode(instance1).nodeEngine.getMetricsRegistry();
+        assertTrue(metricsRegistry.getNames().contains(probeName));
+        assertTrue(metricsRegistry.newDoubleGauge(probeName).read() < 1);
+
+        blockCommunicationBetween(instance1, instance2);
+
+        // the default deadline failure detector would wait for 300 seconds
+        assertClusterSizeEventually(1, instance1, 60);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.diagnostics;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class HotKeysPluginTest extends AbstractDiagnosticsPluginTest {
+
+    private HotKeysPlugin plugin;
+    private HazelcastInstance hz;
+
+    private void setup(boolean rawKeysEnabled) {
+        Config config = new Config()
+                .setProperty(Diagnostics.ENABLED.getName(), "true")
+                // the plugin scheduled by the instance drains the counts as well, so it must not run during the test
+                .setProperty(HotKeysPlugin.PERIOD_SECONDS.getName(), "3600")
+                .setProperty(HotKeysPlugin.TOP_COUNT.getName(), "2")
+                .setProperty(HotKeysPlugin.RAW_KEYS_ENABLED.getName(), String.valueOf(rawKeysEnabled));
+
+        hz = createHazelcastInstance(config);
+        // the plugin scheduled by the instance runs right after the start, so it is stopped before the keys are accessed
+        getNodeEngineImpl(hz).getDiagnostics().shutdown();
+
+        plugin = new HotKeysPlugin(getNodeEngineImpl(hz));
+        plugin.onStart();
+    }
+
+    @Test
+    public void testGetPeriodMillis() {
+        setup(false);
+        assertEquals(3600000, plugin.getPeriodMillis());
+    }
+
+    @Test
+    public void testRun() {
+        setup(false);
+        IMap<String, String> map = hz.getMap("foo");
+        map.put("hotKey", "value");
+        for (int i = 0; i < 9; i++) {
+            map.get("hotKey");
+        }
+
+        plugin.run(logWriter);
+
+        assertContains("accesses=10");
+        assertContains("hash:" + Long.toHexString(getSerializationService(hz).toData("hotKey").hash64()) + "=10");
+        assertNotContains("hotKey");
+    }
+
+    @Test
+    public void testRun_whenRawKeysEnabled() {
+        setup(true);
+        IMap<String, String> map = hz.getMap("foo");
+        for (int i = 0; i < 100; i++) {
+            map.put("key" + i, "value");
+        }
+        for (int i = 0; i < 50; i++) {
+            map.get("hotKey");
+            map.get("warmKey");
+            map.get("hotKey");
+        }
+
+        plugin.run(logWriter);
+
+        assertContains("HotKeys");
+        assertContains("foo");
+        assertContains("accesses=250");
+        assertContains("hotKey=100");
+        assertContains("warmKey=50");
+        assertNotContains("key1=");
+    }
+
+    @Test
+    public void testRun_whenCountsAreResetAfterRun() {
+        setup(true);
+        IMap<String, String> map = hz.getMap("foo");
+        map.get("hotKey");
+        plugin.run(logWriter);
+        reset();
+
+        map.get("otherKey");
+        plugin.run(logWriter);
+
+        assertContains("otherKey=1");
+        assertNotContains("hotKey");
+    }
+}
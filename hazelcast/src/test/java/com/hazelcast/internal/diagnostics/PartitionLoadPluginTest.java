@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.diagnostics;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.spi.impl.operationservice.InternalOperationService;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category(QuickTest.class)
+public class PartitionLoadPluginTest extends AbstractDiagnosticsPluginTest {
+
+    private PartitionLoadPlugin plugin;
+    private HazelcastInstance hz;
+
+    @Before
+    public void setup() {
+        Config config = new Config()
+                .setProperty(Diagnostics.ENABLED.getName(), "true")
+                .setProperty(PartitionLoadPlugin.PERIOD_SECONDS.getName(), "1")
+                .setProperty(PartitionLoadPlugin.TOP_COUNT.getName(), "1");
+
+        hz = createHazelcastInstance(config);
+
+        plugin = new PartitionLoadPlugin(getNodeEngineImpl(hz));
+        plugin.onStart();
+    }
+
+    @Test
+    public void testGetPeriodMillis() {
+        assertEquals(1000, plugin.getPeriodMillis());
+    }
+
+    @Test
+    public void testRun() {
+        String key = generateKeyForPartition(hz, 42);
+        IMap<String, String> map = hz.getMap("foo");
+        for (int i = 0; i < 100; i++) {
+            map.put(key, "value" + i);
+        }
+        assertOperationCountEventually(42, 100);
+
+        plugin.run(logWriter);
+
+        assertContains("PartitionLoad");
+        assertContains("partition[42]");
+        assertContains("operations=100");
+        assertContains("latency-distribution");
+    }
+
+    @Test
+    public void testRun_rendersOnlyTheLoadOfTheLastPeriod() {
+        String key = generateKeyForPartition(hz, 42);
+        IMap<String, String> map = hz.getMap("foo");
+        map.put(key, "value");
+        assertOperationCountEventually(42, 1);
+        plugin.run(logWriter);
+        reset();
+
+        for (int i = 0; i < 10; i++) {
+            map.get(key);
+        }
+        assertOperationCountEventually(42, 11);
+        plugin.run(logWriter);
+
+        assertContains("partition[42]");
+        assertContains("operations=10");
+        assertContains("operations/s=");
+    }
+
+    // the latency of an operation is recorded after its response is sent
+    private void assertOperationCountEventually(final int partitionId, final long expected) {
+        final InternalOperationService operationService = getNodeEngineImpl(hz).getOperationService();
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertEquals(expected, operationService.getPartitionLoads()[partitionId].getOperationCount());
+            }
+        });
+    }
+}
@@ -32,6 +32,12 @@ import org.junit.runner.RunWith;
 import java.net.UnknownHostException;
 import java.util.Collections;
 
+import static com.hazelcast.internal.partition.InternalPartition.MAX_REPLICA_COUNT;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelTest.class})
 public class PartitionRuntimeStateTest extends HazelcastTestSupport {
@@ -71,6 +77,66 @@ public class PartitionRuntimeStateTest extends HazelcastTestSupport {
         assertContains(state.toString(), "127.0.0.2");
     }
 
+    @Test
+    public void partitionTable_whenDeserialized() throws UnknownHostException {
+        Address[] addresses = new Address[MAX_REPLICA_COUNT];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = address("127.0.0.1", 5701 + i);
+        }
+        addresses[1] = null;
+        addresses[MAX_REPLICA_COUNT - 1] = null;
+        PartitionRuntimeState state = createPartitionState(0, addresses);
+
+        state = serializeAndDeserialize(state);
+
+        assertFalse(state.isDelta());
+        assertArrayEquals(addresses, state.getPartitionTable()[0]);
+    }
+
+    @Test
+    public void partitionTable_whenManyAddresses_andDeserialized() throws UnknownHostException {
+        int partitionCount = 1000;
+        InternalPartition[] partitions = new InternalPartition[partitionCount];
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            partitions[partitionId] = new DummyInternalPartition(new Address[]{
+                    address("127.0.0.1", 5701 + partitionId),
+                    address("127.0.0.1", 5701 + (partitionId + 1) % partitionCount),
+            }, partitionId);
+        }
+        PartitionRuntimeState state = new PartitionRuntimeState(partitions, Collections.<MigrationInfo>emptyList(), 1);
+
+        Address[][] partitionTable = serializeAndDeserialize(state).getPartitionTable();
+
+        assertEquals(partitionCount, partitionTable.length);
+        for (int partitionId = 0; partitionId < partitionCount; partitionId++) {
+            assertEquals(partitions[partitionId].getOwnerOrNull(), partitionTable[partitionId][0]);
+            assertEquals(partitions[partitionId].getReplicaAddress(1), partitionTable[partitionId][1]);
+        }
+    }
+
+    @Test
+    public void delta_whenDeserialized() throws UnknownHostException {
+        InternalPartition[] partitions = new InternalPartition[]{
+                new DummyInternalPartition(new Address[]{address("127.0.0.1", 5701)}, 0),
+                new DummyInternalPartition(new Address[]{address("127.0.0.1", 5702)}, 1),
+                new DummyInternalPartition(new Address[]{address("127.0.0.1", 5703)}, 2),
+        };
+        PartitionRuntimeState state = new PartitionRuntimeState(partitions, new int[]{2},
+                Collections.<MigrationInfo>emptyList(), 5, 3);
+
+        state = serializeAndDeserialize(state);
+
+        assertTrue(state.isDelta());
+        assertEquals(5, state.getVersion());
+        assertEquals(3, state.getBaseVersion());
+        assertArrayEquals(new int[]{2}, state.getPartitionIds());
+        Address[][] partitionTable = state.getPartitionTable();
+        assertEquals(1, partitionTable.length);
+        assertEquals(address("127.0.0.1", 5703), partitionTable[0][0]);
+        assertContains(state.toString(), "[127.0.0.1]:5703");
+        assertFalse(state.toString().contains("[127.0.0.1]:5701"));
+    }
+
     private PartitionRuntimeState serializeAndDeserialize(PartitionRuntimeState state) {
         InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
         try {
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.MigrationEvent;
+import com.hazelcast.core.MigrationListener;
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class InitialPartitionAssignmentDelayTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT = 11;
+
+    @Test
+    public void testPartitionsAreAssigned_whenExpectedMemberCountIsReached() {
+        Config config = newConfig(3600, 2);
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+
+        InternalPartitionServiceImpl partitionService = getNode(instance1).partitionService;
+        assertNull(partitionService.getPartitionOwner(0));
+        assertFalse(partitionService.getPartitionStateManager().isInitialized());
+        final AtomicInteger migrationCount = new AtomicInteger();
+        instance1.getPartitionService().addMigrationListener(new MigrationListener() {
+            @Override
+            public void migrationStarted(MigrationEvent migrationEvent) {
+                migrationCount.incrementAndGet();
+            }
+
+            @Override
+            public void migrationCompleted(MigrationEvent migrationEvent) {
+            }
+
+            @Override
+            public void migrationFailed(MigrationEvent migrationEvent) {
+            }
+        });
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        warmUpPartitions(instance1, instance2);
+        waitAllForSafeState(instance1, instance2);
+
+        // the partitions are assigned to both members at once, without migrations
+        assertEquals(0, migrationCount.get());
+        assertOwnsPartitions(partitionService, getAddress(instance1));
+        assertOwnsPartitions(partitionService, getAddress(instance2));
+    }
+
+    @Test
+    public void testPartitionsAreAssigned_whenQuietPeriodIsOver() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig(1, 0));
+
+        final InternalPartitionServiceImpl partitionService = getNode(instance).partitionService;
+        assertNull(partitionService.getPartitionOwner(0));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertNotNull(partitionService.getPartitionOwner(0));
+            }
+        });
+    }
+
+    @Test
+    public void testPartitionsAreAssigned_whenDelayIsDisabled() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig(0, 2));
+
+        InternalPartitionServiceImpl partitionService = getNode(instance).partitionService;
+        assertNotNull(partitionService.getPartitionOwner(0));
+    }
+
+    private static Config newConfig(int quietPeriodSeconds, int memberCount) {
+        return new Config()
+                .setProperty(GroupProperty.PARTITION_COUNT.getName(), String.valueOf(PARTITION_COUNT))
+                .setProperty(GroupProperty.PARTITION_INITIAL_ASSIGNMENT_QUIET_PERIOD_SECONDS.getName(),
+                        String.valueOf(quietPeriodSeconds))
+                .setProperty(GroupProperty.PARTITION_INITIAL_ASSIGNMENT_MEMBER_COUNT.getName(), String.valueOf(memberCount));
+    }
+
+    private static void assertOwnsPartitions(InternalPartitionService partitionService, Address address) {
+        int ownedPartitionCount = 0;
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            if (address.equals(partitionService.getPartitionOwner(partitionId))) {
+                ownedPartitionCount++;
+            }
+        }
+        assertTrue(address + " doesn't own any partition", ownedPartitionCount > 0);
+    }
+}
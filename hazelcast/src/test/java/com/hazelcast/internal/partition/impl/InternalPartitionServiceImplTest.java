@@ -20,11 +20,13 @@ import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.config.Config;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.HazelcastInstanceNotActiveException;
+import com.hazelcast.core.IMap;
 import com.hazelcast.instance.DefaultNodeExtension;
 import com.hazelcast.instance.HazelcastInstanceFactory;
 import com.hazelcast.instance.Node;
 import com.hazelcast.instance.NodeContext;
 import com.hazelcast.instance.NodeExtension;
+import com.hazelcast.internal.partition.PartitionCosts;
 import com.hazelcast.internal.partition.PartitionListener;
 import com.hazelcast.internal.partition.PartitionTableView;
 import com.hazelcast.nio.Address;
@@ -97,6 +99,22 @@ public class InternalPartitionServiceImplTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void test_collectPartitionCosts() {
+        IMap<String, String> map = instance.getMap(randomMapName());
+        String key = generateKeyOwnedBy(instance);
+        int partitionId = partitionService.getPartitionId(key);
+        map.put(key, "value");
+
+        PartitionCosts costs = partitionService.collectPartitionCosts();
+        assertTrue(costs.getMemoryCost(partitionId) > 0);
+        assertTrue(costs.getOperationCount(partitionId) > 0);
+
+        // the operation counts are reported since the previous collection
+        costs = partitionService.collectPartitionCosts();
+        assertEquals(0, costs.getOperationCount(partitionId));
+    }
+
     @Test
     public void test_initialAssignment_whenStartNotCompleted() {
         startupDone.set(false);
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.core.Member;
+import com.hazelcast.internal.partition.InternalPartition;
+import com.hazelcast.internal.partition.PartitionCosts;
+import com.hazelcast.nio.Address;
+import com.hazelcast.partition.membergroup.MemberGroup;
+import com.hazelcast.partition.membergroup.SingleMemberGroupFactory;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.internal.partition.impl.PartitionStateGeneratorTest.createMembers;
+import static com.hazelcast.internal.partition.impl.PartitionStateGeneratorTest.emptyPartitionArray;
+import static com.hazelcast.internal.partition.impl.PartitionStateGeneratorTest.toPartitionArray;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class LoadAwarePartitionStateGeneratorTest {
+
+    private static final int PARTITION_COUNT = 271;
+    // more members than the replica count, so each partition has members which don't hold it
+    private static final int MEMBER_COUNT = 10;
+    // the number of replicas which hold data, the others are assigned in the partition table only
+    private static final int DATA_REPLICA_COUNT = 2;
+    private static final int MAX_ARRANGE_COUNT = 10;
+
+    private Collection<MemberGroup> groups;
+    private Address[][] initialState;
+    private Address heavyMember;
+
+    @Before
+    public void setup() throws Exception {
+        List<Member> members = createMembers(MEMBER_COUNT, 1);
+        groups = new SingleMemberGroupFactory().createMemberGroups(members);
+        initialState = arrangeStable(groups);
+        heavyMember = initialState[0][0];
+    }
+
+    @Test
+    public void testArrange_whenNoCosts_thenLayoutIsNotChanged() {
+        LoadAwarePartitionStateGenerator generator = newGenerator(1000);
+
+        Address[][] state = generator.arrange(groups, toPartitionArray(initialState));
+
+        assertArrayEquals(initialState, state);
+    }
+
+    @Test
+    public void testArrange_whenCostsAreSkewed_thenMemberLoadsAreBalanced() {
+        LoadAwarePartitionStateGenerator generator = newGenerator(1000);
+        generator.setPartitionCosts(costsWithHeavyMember());
+
+        Address[][] state = generator.arrange(groups, toPartitionArray(initialState));
+
+        Map<Address, Long> initialLoads = memoryLoads(initialState);
+        Map<Address, Long> loads = memoryLoads(state);
+        assertTrue("Loads: " + loads, spread(loads) < spread(initialLoads) / 2);
+        assertEquals(partitionCounts(initialState), partitionCounts(state));
+        assertNoDuplicateReplicas(state);
+    }
+
+    @Test
+    public void testArrange_whenAllMembersHoldAllPartitions_thenLayoutIsNotChanged() throws Exception {
+        List<Member> members = createMembers(InternalPartition.MAX_REPLICA_COUNT, 1);
+        groups = new SingleMemberGroupFactory().createMemberGroups(members);
+        initialState = arrangeStable(groups);
+        heavyMember = initialState[0][0];
+        LoadAwarePartitionStateGenerator generator = newGenerator(1000);
+        generator.setPartitionCosts(costsWithHeavyMember());
+
+        Address[][] state = generator.arrange(groups, toPartitionArray(initialState));
+
+        assertArrayEquals(initialState, state);
+    }
+
+    @Test
+    public void testArrange_whenMaxMigrationsIsReached_thenLayoutIsPartiallyBalanced() {
+        int maxMigrations = 4;
+        LoadAwarePartitionStateGenerator generator = newGenerator(maxMigrations);
+        generator.setPartitionCosts(costsWithHeavyMember());
+
+        Address[][] state = generator.arrange(groups, toPartitionArray(initialState));
+
+        int changedReplicas = 0;
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            for (int replicaIndex = 0; replicaIndex < InternalPartition.MAX_REPLICA_COUNT; replicaIndex++) {
+                Address address = initialState[partitionId][replicaIndex];
+                if (address != null && !address.equals(state[partitionId][replicaIndex])) {
+                    changedReplicas++;
+                }
+            }
+        }
+        assertTrue("Changed replicas: " + changedReplicas, changedReplicas > 0 && changedReplicas <= maxMigrations);
+    }
+
+    @Test
+    public void testArrange_whenCostsAreConsumed_thenNextArrangementUsesCountsOnly() {
+        LoadAwarePartitionStateGenerator generator = newGenerator(1000);
+        generator.setPartitionCosts(costsWithHeavyMember());
+        Address[][] balancedState = generator.arrange(groups, toPartitionArray(initialState));
+
+        Address[][] state = generator.arrange(groups, toPartitionArray(balancedState));
+
+        assertArrayEquals(balancedState, state);
+    }
+
+    // arranges until the count-balanced layout doesn't change anymore, so the changes are made by the costs only
+    private static Address[][] arrangeStable(Collection<MemberGroup> groups) {
+        PartitionStateGeneratorImpl generator = new PartitionStateGeneratorImpl();
+        Address[][] state = generator.arrange(groups, emptyPartitionArray(PARTITION_COUNT));
+        for (int i = 0; i < MAX_ARRANGE_COUNT; i++) {
+            Address[][] newState = generator.arrange(groups, toPartitionArray(state));
+            if (Arrays.deepEquals(state, newState)) {
+                return state;
+            }
+            state = newState;
+        }
+        throw new AssertionError("Partition layout is not stable");
+    }
+
+    private static LoadAwarePartitionStateGenerator newGenerator(int maxMigrations) {
+        return new LoadAwarePartitionStateGenerator(new PartitionStateGeneratorImpl(), maxMigrations);
+    }
+
+    // the costs reported by the members, the partitions owned by the heavy member hold 10 times more data than the others
+    private Map<Address, PartitionCosts> costsWithHeavyMember() {
+        Map<Address, PartitionCosts> costs = new HashMap<Address, PartitionCosts>();
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            for (int replicaIndex = 0; replicaIndex < DATA_REPLICA_COUNT; replicaIndex++) {
+                Address address = initialState[partitionId][replicaIndex];
+                PartitionCosts memberCosts = costs.get(address);
+                if (memberCosts == null) {
+                    memberCosts = new PartitionCosts(PARTITION_COUNT);
+                    costs.put(address, memberCosts);
+                }
+                memberCosts.set(partitionId, memoryCost(partitionId), 0);
+            }
+        }
+        return costs;
+    }
+
+    private long memoryCost(int partitionId) {
+        return heavyMember.equals(initialState[partitionId][0]) ? 10000 : 1000;
+    }
+
+    private Map<Address, Long> memoryLoads(Address[][] state) {
+        Map<Address, Long> loads = new HashMap<Address, Long>();
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            for (int replicaIndex = 0; replicaIndex < DATA_REPLICA_COUNT; replicaIndex++) {
+                Address address = state[partitionId][replicaIndex];
+                Long load = loads.get(address);
+                loads.put(address, (load != null ? load : 0) + memoryCost(partitionId));
+            }
+        }
+        return loads;
+    }
+
+    private static long spread(Map<Address, Long> loads) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long load : loads.values()) {
+            min = Math.min(min, load);
+            max = Math.max(max, load);
+        }
+        return max - min;
+    }
+
+    private static Map<String, Integer> partitionCounts(Address[][] state) {
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (Address[] replicas : state) {
+            for (int replicaIndex = 0; replicaIndex < InternalPartition.MAX_REPLICA_COUNT; replicaIndex++) {
+                String key = replicas[replicaIndex] + "-" + replicaIndex;
+                Integer count = counts.get(key);
+                counts.put(key, (count != null ? count : 0) + 1);
+            }
+        }
+        return counts;
+    }
+
+    private static void assertNoDuplicateReplicas(Address[][] state) {
+        for (Address[] replicas : state) {
+            Set<Address> addresses = new HashSet<Address>();
+            for (int replicaIndex = 0; replicaIndex < InternalPartition.MAX_REPLICA_COUNT; replicaIndex++) {
+                if (replicas[replicaIndex] != null) {
+                    assertTrue(addresses.add(replicas[replicaIndex]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.internal.partition.impl.MigrationBandwidthThrottle.Transfer;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.CallsPerMember;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class MigrationBandwidthThrottleTest extends HazelcastTestSupport {
+
+    private static final int MAX_KB_PER_SECOND = 100;
+
+    private Address master;
+
+    @Before
+    public void setup() throws Exception {
+        master = new Address("127.0.0.1", 5701);
+    }
+
+    @Test
+    public void testDisabled() {
+        MigrationBandwidthThrottle throttle = new MigrationBandwidthThrottle(0, SECONDS.toNanos(1));
+
+        assertFalse(throttle.isEnabled());
+        assertNull(throttle.startTransfer(master, 1));
+    }
+
+    @Test
+    public void testSendsAreSpacedBySize() {
+        MigrationBandwidthThrottle throttle = new MigrationBandwidthThrottle(MAX_KB_PER_SECOND, SECONDS.toNanos(60));
+        Transfer transfer = throttle.startTransfer(master, 1);
+        assertEquals(0, transfer.getSendDelayNanos());
+
+        // sending 50 KB at 100 KB per second takes half a second
+        transfer.onSent(50 * 1024);
+
+        long delayMillis = NANOSECONDS.toMillis(transfer.getSendDelayNanos());
+        assertTrue("delay: " + delayMillis, delayMillis > 250 && delayMillis <= 500);
+        // the sends of other migrations are spaced as well
+        Transfer otherTransfer = throttle.startTransfer(master, 2);
+        assertTrue(otherTransfer.getSendDelayNanos() > 0);
+    }
+
+    @Test
+    public void testThrottleWaitIsExcludedFromTimeout() {
+        MigrationBandwidthThrottle throttle = new MigrationBandwidthThrottle(MAX_KB_PER_SECOND, MILLISECONDS.toNanos(100));
+        Transfer waitingTransfer = throttle.startTransfer(master, 1);
+        Transfer runningTransfer = throttle.startTransfer(master, 2);
+        // sending 100 KB at 100 KB per second takes a second
+        waitingTransfer.onSent(100 * 1024);
+        assertTrue(waitingTransfer.getSendDelayNanos() > 0);
+
+        sleepMillis(200);
+
+        assertArrayEquals(new long[]{1}, runningOperations(throttle));
+
+        waitingTransfer.complete();
+        assertArrayEquals(new long[0], runningOperations(throttle));
+    }
+
+    private long[] runningOperations(MigrationBandwidthThrottle throttle) {
+        CallsPerMember calls = new CallsPerMember(master);
+        calls.ensureMember(master);
+        throttle.populate(calls);
+        return calls.toOpControl(master).runningOperations();
+    }
+}
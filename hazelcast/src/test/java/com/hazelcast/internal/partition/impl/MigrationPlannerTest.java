@@ -30,7 +30,9 @@ import org.junit.runner.RunWith;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.Random;
 
 import static java.util.Arrays.asList;
@@ -381,6 +383,97 @@ public class MigrationPlannerTest {
         }
     }
 
+    @Test
+    public void test_orderForParallelExecution() throws UnknownHostException {
+        Address a1 = new Address("localhost", 5701);
+        Address a2 = new Address("localhost", 5702);
+        Address a3 = new Address("localhost", 5703);
+        Address a4 = new Address("localhost", 5704);
+        Address master = new Address("localhost", 5700);
+
+        MigrationInfo m1 = new MigrationInfo(0, a1, "a1", a2, "a2", 0, -1, -1, 0);
+        MigrationInfo m2 = new MigrationInfo(0, a3, "a3", a4, "a4", 1, -1, -1, 1);
+        MigrationInfo m3 = new MigrationInfo(1, a1, "a1", a3, "a3", 0, -1, -1, 0);
+        MigrationInfo m4 = new MigrationInfo(2, a3, "a3", a4, "a4", 0, -1, -1, 0);
+        MigrationInfo m5 = new MigrationInfo(3, a2, "a2", a4, "a4", 0, -1, -1, 0);
+
+        List<Queue<MigrationInfo>> migrations = new ArrayList<Queue<MigrationInfo>>();
+        migrations.add(new LinkedList<MigrationInfo>(asList(m1, m2)));
+        migrations.add(new LinkedList<MigrationInfo>(singletonList(m3)));
+        migrations.add(new LinkedList<MigrationInfo>(singletonList(m4)));
+        migrations.add(new LinkedList<MigrationInfo>(singletonList(m5)));
+
+        Address[] owners = new Address[]{a1, a1, a3, a2};
+        List<MigrationInfo> ordered = migrationPlanner.orderForParallelExecution(migrations, owners, 2, master);
+
+        // groups: [m1, m4], [m5, m3], [m2]
+        assertEquals(asList(m1, m4, m5, m3, m2), ordered);
+    }
+
+    @Test
+    public void test_orderForParallelExecution_whenMasterParticipates() throws UnknownHostException {
+        Address a1 = new Address("localhost", 5701);
+        Address a2 = new Address("localhost", 5702);
+        Address a3 = new Address("localhost", 5703);
+        Address a4 = new Address("localhost", 5704);
+
+        MigrationInfo m1 = new MigrationInfo(0, a1, "a1", a2, "a2", 0, -1, -1, 0);
+        MigrationInfo m2 = new MigrationInfo(0, a3, "a3", a4, "a4", 1, -1, -1, 1);
+        MigrationInfo m3 = new MigrationInfo(1, a1, "a1", a3, "a3", 0, -1, -1, 0);
+        MigrationInfo m4 = new MigrationInfo(2, a3, "a3", a4, "a4", 0, -1, -1, 0);
+        MigrationInfo m5 = new MigrationInfo(3, a2, "a2", a4, "a4", 0, -1, -1, 0);
+
+        List<Queue<MigrationInfo>> migrations = new ArrayList<Queue<MigrationInfo>>();
+        migrations.add(new LinkedList<MigrationInfo>(asList(m1, m2)));
+        migrations.add(new LinkedList<MigrationInfo>(singletonList(m3)));
+        migrations.add(new LinkedList<MigrationInfo>(singletonList(m4)));
+        migrations.add(new LinkedList<MigrationInfo>(singletonList(m5)));
+
+        Address[] owners = new Address[]{a1, a1, a3, a2};
+        List<MigrationInfo> ordered = migrationPlanner.orderForParallelExecution(migrations, owners, 2, a1);
+
+        // groups: [m1], [m3], [m4], [m5], [m2]; the migrations of the master a1 run on their own
+        assertEquals(asList(m1, m3, m4, m5, m2), ordered);
+    }
+
+    @Test
+    public void test_orderForParallelExecution_keepsOrderOfPartitionMigrations() throws UnknownHostException {
+        Address a1 = new Address("localhost", 5701);
+        Address a2 = new Address("localhost", 5702);
+        Address a3 = new Address("localhost", 5703);
+        Address a4 = new Address("localhost", 5704);
+        Address master = new Address("localhost", 5700);
+
+        MigrationInfo m1 = new MigrationInfo(0, a1, "a1", a2, "a2", 0, -1, -1, 0);
+        MigrationInfo m2 = new MigrationInfo(0, a3, "a3", a4, "a4", 1, -1, -1, 1);
+
+        List<Queue<MigrationInfo>> migrations = new ArrayList<Queue<MigrationInfo>>();
+        migrations.add(new LinkedList<MigrationInfo>(asList(m1, m2)));
+
+        Address[] owners = new Address[]{a1};
+        assertEquals(asList(m1, m2), migrationPlanner.orderForParallelExecution(migrations, owners, 4, master));
+    }
+
+    @Test
+    public void test_orderForParallelExecution_whenPartitionOwnersConflict() throws UnknownHostException {
+        Address a1 = new Address("localhost", 5701);
+        Address a2 = new Address("localhost", 5702);
+        Address a3 = new Address("localhost", 5703);
+        Address a4 = new Address("localhost", 5704);
+        Address master = new Address("localhost", 5700);
+
+        // backup migrations, data of both is sent by the owner a1
+        MigrationInfo m1 = new MigrationInfo(0, a2, "a2", a3, "a3", 1, -1, -1, 1);
+        MigrationInfo m2 = new MigrationInfo(1, null, null, a4, "a4", -1, -1, -1, 1);
+
+        List<Queue<MigrationInfo>> migrations = new ArrayList<Queue<MigrationInfo>>();
+        migrations.add(new LinkedList<MigrationInfo>(singletonList(m1)));
+        migrations.add(new LinkedList<MigrationInfo>(singletonList(m2)));
+
+        Address[] owners = new Address[]{a1, a1};
+        assertEquals(asList(m1, m2), migrationPlanner.orderForParallelExecution(migrations, owners, 2, master));
+    }
+
     private void testRandom(int initialLen)
             throws java.net.UnknownHostException {
         Address[] oldAddresses = new Address[InternalPartition.MAX_REPLICA_COUNT];
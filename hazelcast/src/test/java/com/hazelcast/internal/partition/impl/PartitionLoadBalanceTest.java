@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PartitionLoadBalanceTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT = 31;
+    // more members than the replica count, so the replicas can be moved to the members which don't hold them
+    private static final int MEMBER_COUNT = 8;
+
+    @Test
+    public void testHotPartitionsAreSpreadOverMembers() throws Exception {
+        Config config = new Config()
+                .setProperty(GroupProperty.PARTITION_COUNT.getName(), String.valueOf(PARTITION_COUNT))
+                .setProperty(GroupProperty.PARTITION_LOAD_BALANCE_INTERVAL_SECONDS.getName(), "1");
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(MEMBER_COUNT);
+        HazelcastInstance[] instances = factory.newInstances(config);
+        HazelcastInstance instance1 = instances[0];
+        warmUpPartitions(instances);
+        waitAllForSafeState(instances);
+
+        // reads only execute on the owners, so the partitions owned by the first member are hot
+        final Address hotMember = getAddress(instance1);
+        final InternalPartitionService partitionService = getPartitionService(instance1);
+        final List<Integer> hotPartitions = new ArrayList<Integer>();
+        final List<String> hotKeys = new ArrayList<String>();
+        for (int partitionId = 0; partitionId < PARTITION_COUNT; partitionId++) {
+            if (hotMember.equals(partitionService.getPartitionOwner(partitionId))) {
+                hotPartitions.add(partitionId);
+                hotKeys.add(generateKeyForPartition(instance1, partitionId));
+            }
+        }
+
+        final IMap<String, String> map = instance1.getMap(randomMapName());
+        final AtomicBoolean stop = new AtomicBoolean();
+        Thread reader = new Thread() {
+            @Override
+            public void run() {
+                while (!stop.get()) {
+                    for (String key : hotKeys) {
+                        map.get(key);
+                    }
+                }
+            }
+        };
+        reader.start();
+        try {
+            assertTrueEventually(new AssertTask() {
+                @Override
+                public void run() throws Exception {
+                    boolean moved = false;
+                    for (int partitionId : hotPartitions) {
+                        moved |= !hotMember.equals(partitionService.getPartitionOwner(partitionId));
+                    }
+                    assertTrue("None of the hot partitions " + hotPartitions + " has moved", moved);
+                }
+            });
+        } finally {
+            stop.set(true);
+            reader.join();
+        }
+        waitAllForSafeState(instances);
+    }
+}
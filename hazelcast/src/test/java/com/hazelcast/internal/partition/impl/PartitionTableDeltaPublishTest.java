@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.partition.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.partition.InternalPartition;
+import com.hazelcast.internal.partition.MigrationInfo;
+import com.hazelcast.internal.partition.PartitionRuntimeState;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class PartitionTableDeltaPublishTest extends HazelcastTestSupport {
+
+    @Test
+    public void partitionTables_shouldConverge_whenDeltaPublishEnabled() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(4);
+        Config config = newConfig();
+        HazelcastInstance[] instances = new HazelcastInstance[4];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = factory.newHazelcastInstance(config);
+            warmUpPartitions(instances[i]);
+        }
+        waitAllForSafeState(instances);
+
+        instances[1].getLifecycleService().terminate();
+        HazelcastInstance[] remaining = {instances[0], instances[2], instances[3]};
+        waitAllForSafeState(remaining);
+
+        assertPartitionTablesEqual(remaining);
+    }
+
+    @Test
+    public void delta_shouldBeRejected_whenBaseVersionDiffers() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        Config config = newConfig();
+        HazelcastInstance master = factory.newHazelcastInstance(config);
+        HazelcastInstance member = factory.newHazelcastInstance(config);
+        warmUpPartitions(master, member);
+        waitAllForSafeState(master, member);
+
+        InternalPartitionServiceImpl partitionService = (InternalPartitionServiceImpl) getPartitionService(member);
+        int version = partitionService.getPartitionStateVersion();
+        InternalPartition[] partitions = partitionService.getPartitionStateManager().getPartitions();
+        PartitionRuntimeState delta = new PartitionRuntimeState(partitions, new int[]{0},
+                Collections.<MigrationInfo>emptyList(), version + 2, version - 1);
+        delta.setEndpoint(getAddress(master));
+
+        assertFalse(partitionService.processPartitionRuntimeState(delta));
+        assertEquals(version, partitionService.getPartitionStateVersion());
+        assertPartitionTablesEqual(master, member);
+    }
+
+    private static Config newConfig() {
+        Config config = new Config();
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), "271");
+        config.setProperty(GroupProperty.PARTITION_TABLE_DELTA_ENABLED.getName(), "true");
+        config.setProperty(GroupProperty.PARTITION_TABLE_SEND_INTERVAL.getName(), "1");
+        return config;
+    }
+
+    private static void assertPartitionTablesEqual(final HazelcastInstance... instances) {
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() {
+                InternalPartitionServiceImpl expected = (InternalPartitionServiceImpl) getPartitionService(instances[0]);
+                for (int i = 1; i < instances.length; i++) {
+                    InternalPartitionServiceImpl actual = (InternalPartitionServiceImpl) getPartitionService(instances[i]);
+                    assertEquals(expected.getPartitionStateVersion(), actual.getPartitionStateVersion());
+                    for (int partitionId = 0; partitionId < expected.getPartitionCount(); partitionId++) {
+                        InternalPartitionImpl expectedPartition = (InternalPartitionImpl) expected.getPartition(partitionId);
+                        InternalPartitionImpl actualPartition = (InternalPartitionImpl) actual.getPartition(partitionId);
+                        assertArrayEquals(expectedPartition.getReplicaAddresses(), actualPartition.getReplicaAddresses());
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.internal.util;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class HeavyHittersTest {
+
+    private final HeavyHitters<Integer> heavyHitters = new HeavyHitters<Integer>(3);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_whenTopCountZero() {
+        new HeavyHitters<Integer>(0);
+    }
+
+    @Test
+    public void testDrainTop_returnsMostFrequentKeys() {
+        Random random = new Random();
+        for (int i = 0; i < 10000; i++) {
+            heavyHitters.add(random.nextInt(1000));
+            if (i % 10 == 0) {
+                heavyHitters.add(-1);
+            }
+            if (i % 20 == 0) {
+                heavyHitters.add(-2);
+            }
+        }
+
+        List<HeavyHitters.Entry<Integer>> top = heavyHitters.drainTop();
+
+        assertEquals(3, top.size());
+        assertEquals(-1, (int) top.get(0).getKey());
+        assertEquals(-2, (int) top.get(1).getKey());
+        assertTrue(top.get(0).getCount() >= 1000);
+        assertTrue(top.get(1).getCount() >= 500);
+    }
+
+    @Test
+    public void testEstimate_neverUnderestimates() {
+        for (int key = 0; key < 2000; key++) {
+            for (int i = 0; i <= key % 5; i++) {
+                heavyHitters.add(key);
+            }
+        }
+
+        for (int key = 0; key < 2000; key++) {
+            assertTrue(heavyHitters.estimate(key) >= key % 5 + 1);
+        }
+    }
+
+    @Test
+    public void testDrainTop_resetsCounts() {
+        heavyHitters.add(1);
+        heavyHitters.add(1);
+        assertEquals(2, heavyHitters.getTotalCount());
+
+        heavyHitters.drainTop();
+
+        assertEquals(0, heavyHitters.getTotalCount());
+        assertEquals(0, heavyHitters.estimate(1));
+        assertTrue(heavyHitters.drainTop().isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.Node;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.operation.MapDeltaReplicationOperation;
+import com.hazelcast.map.impl.operation.MapReplicaDigest;
+import com.hazelcast.map.impl.operation.MapReplicationOperation;
+import com.hazelcast.nio.Address;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.Packet;
+import com.hazelcast.nio.tcp.FirewallingMockConnectionManager;
+import com.hazelcast.nio.tcp.PacketFilter;
+import com.hazelcast.spi.impl.SpiDataSerializerHook;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class BackupDeltaSyncTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT = 11;
+    private static final int ENTRY_COUNT = 1000;
+
+    private final String mapName = randomMapName();
+
+    @Test
+    public void testBackupsAreSynchronized_whenBackupsAreLost() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        Config config = newConfig();
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        warmUpPartitions(instance1, instance2);
+
+        IMap<Integer, Integer> map = instance1.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        setBackupDroppingFilter(instance1);
+        setBackupDroppingFilter(instance2);
+        for (int i = 0; i < ENTRY_COUNT; i += 10) {
+            map.put(i, -i);
+        }
+        for (int i = 1; i < ENTRY_COUNT; i += 20) {
+            map.remove(i);
+        }
+        setBackupDroppingFilter(instance1, null);
+        setBackupDroppingFilter(instance2, null);
+
+        waitAllForSafeState(instance1, instance2);
+        instance1.getLifecycleService().terminate();
+
+        IMap<Integer, Integer> survivingMap = instance2.getMap(mapName);
+        assertEquals(ENTRY_COUNT - ENTRY_COUNT / 20, survivingMap.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            Integer expected = i % 20 == 1 ? null : i % 10 == 0 ? -i : i;
+            assertEquals(expected, survivingMap.get(i));
+        }
+    }
+
+    @Test
+    public void testDeltaReplicationOperation_isSmallerThanFullReplication_whenDigestsAreEqual() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig());
+        IMap<Integer, Integer> map = instance.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+
+        Node node = getNode(instance);
+        MapService mapService = node.nodeEngine.getService(MapService.SERVICE_NAME);
+        PartitionContainer container = mapService.getMapServiceContext().getPartitionContainer(0);
+        MapReplicaDigest digest = MapReplicaDigest.create(container, 1);
+        assertNotNull(digest);
+
+        InternalSerializationService serializationService = node.getSerializationService();
+        MapReplicationOperation fullOperation = new MapReplicationOperation(container, 0, 1);
+        MapDeltaReplicationOperation deltaOperation = new MapDeltaReplicationOperation(container, 0, 1, digest);
+        fullOperation.setService(mapService).setNodeEngine(node.nodeEngine);
+        deltaOperation.setService(mapService).setNodeEngine(node.nodeEngine);
+        int fullSize = serializationService.toData(fullOperation).totalSize();
+        int deltaSize = serializationService.toData(deltaOperation).totalSize();
+        assertTrue("full: " + fullSize + ", delta: " + deltaSize, deltaSize * 2 < fullSize);
+    }
+
+    private Config newConfig() {
+        Config config = getConfig();
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), String.valueOf(PARTITION_COUNT));
+        config.setProperty(GroupProperty.PARTITION_BACKUP_SYNC_INTERVAL.getName(), "1");
+        config.setProperty(GroupProperty.PARTITION_BACKUP_SYNC_DELTA_ENABLED.getName(), "true");
+        config.getMapConfig(mapName)
+                .setInMemoryFormat(InMemoryFormat.BINARY)
+                .setBackupCount(0)
+                .setAsyncBackupCount(1);
+        return config;
+    }
+
+    private static void setBackupDroppingFilter(HazelcastInstance instance) {
+        Node node = getNode(instance);
+        setBackupDroppingFilter(instance, new BackupDroppingFilter(node.getSerializationService()));
+    }
+
+    private static void setBackupDroppingFilter(HazelcastInstance instance, PacketFilter filter) {
+        FirewallingMockConnectionManager cm = (FirewallingMockConnectionManager) getNode(instance).getConnectionManager();
+        cm.setDroppingPacketFilter(filter);
+    }
+
+    private static class BackupDroppingFilter implements PacketFilter {
+        final InternalSerializationService serializationService;
+
+        BackupDroppingFilter(InternalSerializationService serializationService) {
+            this.serializationService = serializationService;
+        }
+
+        @Override
+        public boolean allow(Packet packet, Address endpoint) {
+            return packet.getPacketType() != Packet.Type.OPERATION || allowOperation(packet);
+        }
+
+        private boolean allowOperation(Packet packet) {
+            try {
+                ObjectDataInput input = serializationService.createObjectDataInput(packet);
+                boolean identified = input.readBoolean();
+                if (identified) {
+                    int factory = input.readInt();
+                    int type = input.readInt();
+                    return factory != SpiDataSerializerHook.F_ID || type != SpiDataSerializerHook.BACKUP;
+                }
+            } catch (IOException e) {
+                throw new HazelcastException(e);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.instance.Node;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.PartitionContainer;
+import com.hazelcast.map.impl.operation.MapChunkReplicationOperation;
+import com.hazelcast.map.impl.operation.MapReplicationChunkIterator;
+import com.hazelcast.map.impl.operation.MapReplicationOperation;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.properties.GroupProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class ChunkedMigrationTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT = 11;
+    private static final int ENTRY_COUNT = 5000;
+    private static final int CHUNK_SIZE_KB = 1;
+
+    private final String binaryMapName = randomMapName();
+    private final String objectMapName = randomMapName();
+
+    @Test
+    public void testMigration_whenDataIsMigratedInChunks() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        Config config = newConfig();
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        IMap<Integer, String> binaryMap = instance1.getMap(binaryMapName);
+        IMap<Integer, String> objectMap = instance1.getMap(objectMapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            binaryMap.put(i, "value" + i);
+            objectMap.put(i, "value" + i);
+        }
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance3 = factory.newHazelcastInstance(config);
+        waitAllForSafeState(instance1, instance2, instance3);
+        assertBackupEntryCount(instance1, instance2, instance3);
+
+        instance1.getLifecycleService().terminate();
+        waitAllForSafeState(instance2, instance3);
+
+        assertMapContents(instance2.<Integer, String>getMap(binaryMapName));
+        assertMapContents(instance3.<Integer, String>getMap(objectMapName));
+    }
+
+    @Test
+    public void testChunkIterator_returnsBoundedChunks() {
+        HazelcastInstance instance = createHazelcastInstance(newConfig());
+        IMap<Integer, String> map = instance.getMap(binaryMapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value" + i);
+        }
+
+        Node node = getNode(instance);
+        MapService mapService = node.nodeEngine.getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        PartitionContainer container = mapServiceContext.getPartitionContainer(0);
+        int maxChunkSize = CHUNK_SIZE_KB * 1024;
+        MapReplicationChunkIterator iterator = new MapReplicationChunkIterator(container, mapServiceContext, 0, 1,
+                maxChunkSize);
+
+        InternalSerializationService serializationService = node.getSerializationService();
+        int chunkCount = 0;
+        Operation operation = null;
+        while (iterator.hasNext()) {
+            operation = iterator.next();
+            if (operation instanceof MapChunkReplicationOperation) {
+                chunkCount++;
+                int size = serializationService.toData(operation).totalSize();
+                assertTrue("Chunk size: " + size, size < 2 * maxChunkSize);
+            }
+        }
+
+        assertTrue("Chunk count: " + chunkCount, chunkCount > 1);
+        assertTrue(operation instanceof MapReplicationOperation);
+        assertFalse(operation instanceof MapChunkReplicationOperation);
+    }
+
+    private Config newConfig() {
+        Config config = getConfig();
+        config.setProperty(GroupProperty.PARTITION_COUNT.getName(), String.valueOf(PARTITION_COUNT));
+        config.setProperty(GroupProperty.PARTITION_MIGRATION_CHUNK_SIZE_KB.getName(), String.valueOf(CHUNK_SIZE_KB));
+        config.getMapConfig(binaryMapName).setInMemoryFormat(InMemoryFormat.BINARY);
+        config.getMapConfig(objectMapName).setInMemoryFormat(InMemoryFormat.OBJECT);
+        return config;
+    }
+
+    private void assertBackupEntryCount(HazelcastInstance... instances) {
+        long ownedEntryCount = 0;
+        long backupEntryCount = 0;
+        for (HazelcastInstance instance : instances) {
+            ownedEntryCount += instance.getMap(binaryMapName).getLocalMapStats().getOwnedEntryCount();
+            backupEntryCount += instance.getMap(binaryMapName).getLocalMapStats().getBackupEntryCount();
+        }
+        assertEquals(ENTRY_COUNT, ownedEntryCount);
+        assertEquals(ENTRY_COUNT, backupEntryCount);
+    }
+
+    private static void assertMapContents(IMap<Integer, String> map) {
+        assertEquals(ENTRY_COUNT, map.size());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals("value" + i, map.get(i));
+        }
+    }
+}
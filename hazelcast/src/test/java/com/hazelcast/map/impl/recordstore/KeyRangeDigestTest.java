@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelTest.class})
+public class KeyRangeDigestTest extends HazelcastTestSupport {
+
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    @Test
+    public void testRanges_areEqual_whenEntriesAreAddedInDifferentOrder() {
+        KeyRangeDigest digest1 = new KeyRangeDigest();
+        KeyRangeDigest digest2 = new KeyRangeDigest();
+        for (int i = 0; i < 100; i++) {
+            digest1.add(data(i), data("value" + i));
+            digest2.add(data(99 - i), data("value" + (99 - i)));
+        }
+
+        assertArrayEquals(digest1.getRanges(), digest2.getRanges());
+    }
+
+    @Test
+    public void testRanges_differOnlyInRangeOfKey_whenValueIsChanged() {
+        KeyRangeDigest digest1 = new KeyRangeDigest();
+        KeyRangeDigest digest2 = new KeyRangeDigest();
+        for (int i = 0; i < 100; i++) {
+            digest1.add(data(i), data("value" + i));
+            digest2.add(data(i), data("value" + i));
+        }
+
+        digest2.remove(data(42), data("value42"));
+        digest2.add(data(42), data("changed"));
+
+        long[] ranges1 = digest1.getRanges();
+        long[] ranges2 = digest2.getRanges();
+        int changedRange = KeyRangeDigest.rangeOf(data(42));
+        for (int i = 0; i < KeyRangeDigest.RANGE_COUNT; i++) {
+            if (i == changedRange) {
+                assertFalse(ranges1[i] == ranges2[i]);
+            } else {
+                assertEquals(ranges1[i], ranges2[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testRanges_differ_whenValuesAreSwappedBetweenKeysOfSameRange() {
+        Data key1 = data(0);
+        Data key2 = null;
+        for (int i = 1; key2 == null; i++) {
+            if (KeyRangeDigest.rangeOf(data(i)) == KeyRangeDigest.rangeOf(key1)) {
+                key2 = data(i);
+            }
+        }
+        KeyRangeDigest digest1 = new KeyRangeDigest();
+        KeyRangeDigest digest2 = new KeyRangeDigest();
+        digest1.add(key1, data("value1"));
+        digest1.add(key2, data("value2"));
+        digest2.add(key1, data("value2"));
+        digest2.add(key2, data("value1"));
+
+        assertFalse(digest1.getRanges()[KeyRangeDigest.rangeOf(key1)] == digest2.getRanges()[KeyRangeDigest.rangeOf(key1)]);
+    }
+
+    @Test
+    public void testRanges_areEmpty_afterAllEntriesAreRemoved() {
+        KeyRangeDigest digest = new KeyRangeDigest();
+        for (int i = 0; i < 100; i++) {
+            digest.add(data(i), data(i));
+        }
+        for (int i = 0; i < 100; i++) {
+            digest.remove(data(i), data(i));
+        }
+
+        assertArrayEquals(new long[KeyRangeDigest.RANGE_COUNT], digest.getRanges());
+    }
+
+    @Test
+    public void testClear() {
+        KeyRangeDigest digest = new KeyRangeDigest();
+        digest.add(data(1), data(1));
+
+        digest.clear();
+
+        assertArrayEquals(new long[KeyRangeDigest.RANGE_COUNT], digest.getRanges());
+    }
+
+    private Data data(Object object) {
+        return serializationService.toData(object);
+    }
+}
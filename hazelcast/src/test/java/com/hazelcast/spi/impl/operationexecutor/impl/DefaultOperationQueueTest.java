@@ -31,6 +31,7 @@ import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
 @RunWith(HazelcastSerialClassRunner.class)
@@ -169,6 +170,29 @@ public class DefaultOperationQueueTest extends HazelcastTestSupport {
         assertEquals(0, operationQueue.prioritySize());
     }
 
+    // ================== poll =====================
+
+    @Test
+    public void poll_whenNoItemAvailable() {
+        assertNull(operationQueue.poll(false));
+        assertNull(operationQueue.poll(true));
+    }
+
+    @Test
+    public void poll_whenPriorityAndRegularItemAvailable() {
+        Object task1 = "task1";
+        Object task2 = "task2";
+
+        operationQueue.add(task1, false);
+        operationQueue.add(task2, true);
+
+        assertSame(task2, operationQueue.poll(false));
+        assertSame(task1, operationQueue.poll(false));
+        // the trigger task of the priority item is skipped
+        assertNull(operationQueue.poll(false));
+        assertEquals(0, operationQueue.size());
+    }
+
     @Test
     public void take_whenPriority_andNoItemAvailable_thenBlockTillItemAvailable() throws InterruptedException {
         final Object task1 = "task1";
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_COUNT;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_OPERATION_THREAD_BALANCER_INTERVAL_SECONDS;
+import static com.hazelcast.spi.properties.GroupProperty.PARTITION_OPERATION_THREAD_COUNT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class OperationExecutorImpl_PartitionThreadBalancerTest extends OperationExecutorImpl_AbstractTest {
+
+    @Before
+    public void before() {
+        config.setProperty(PARTITION_COUNT.getName(), "4");
+        config.setProperty(PARTITION_OPERATION_THREAD_COUNT.getName(), "2");
+        // we trigger the balancing manually
+        config.setProperty(PARTITION_OPERATION_THREAD_BALANCER_INTERVAL_SECONDS.getName(), "3600");
+    }
+
+    @Test
+    public void whenDisabled() {
+        config.setProperty(PARTITION_OPERATION_THREAD_BALANCER_INTERVAL_SECONDS.getName(), "-1");
+        initExecutor();
+
+        assertNull(executor.getPartitionThreadBalancer());
+        assertEquals(1, executor.toPartitionThreadIndex(3));
+    }
+
+    @Test
+    public void move_preservesOrderAndIsolation() throws Exception {
+        initExecutor();
+        PartitionThreadBalancer balancer = executor.getPartitionThreadBalancer();
+        assertNotNull(balancer);
+
+        final CountDownLatch blockLatch = new CountDownLatch(1);
+        executor.execute(new PartitionSpecificRunnable() {
+            @Override
+            public int getPartitionId() {
+                return 0;
+            }
+
+            @Override
+            public void run() {
+                await(blockLatch);
+            }
+        });
+
+        final List<Integer> executed = new CopyOnWriteArrayList<Integer>();
+        final List<Thread> threads = new CopyOnWriteArrayList<Thread>();
+        final AtomicBoolean concurrentExecution = new AtomicBoolean();
+        final AtomicBoolean running = new AtomicBoolean();
+        int taskCount = 1000;
+        for (int k = 0; k < taskCount; k++) {
+            if (k == taskCount / 2) {
+                assertTrue(balancer.move(0, 1));
+                assertTrue(balancer.isHandoverInProgress(0));
+                assertEquals(1, executor.toPartitionThreadIndex(0));
+            }
+
+            final int sequence = k;
+            executor.execute(new PartitionSpecificRunnable() {
+                @Override
+                public int getPartitionId() {
+                    return 0;
+                }
+
+                @Override
+                public void run() {
+                    if (!running.compareAndSet(false, true)) {
+                        concurrentExecution.set(true);
+                    }
+                    executed.add(sequence);
+                    threads.add(Thread.currentThread());
+                    running.set(false);
+                }
+            });
+        }
+
+        blockLatch.countDown();
+
+        assertSizeEventually(taskCount, executed);
+        assertFalse(concurrentExecution.get());
+        for (int k = 0; k < taskCount; k++) {
+            assertEquals(k, (int) executed.get(k));
+        }
+        assertEquals(0, threadId(threads.get(0)));
+        assertEquals(1, threadId(threads.get(taskCount - 1)));
+        assertFalse(balancer.isHandoverInProgress(0));
+    }
+
+    @Test
+    public void move_whenHandoverInProgress_thenRejected() {
+        initExecutor();
+        PartitionThreadBalancer balancer = executor.getPartitionThreadBalancer();
+
+        final CountDownLatch blockLatch = new CountDownLatch(1);
+        executor.execute(new PartitionSpecificRunnable() {
+            @Override
+            public int getPartitionId() {
+                return 0;
+            }
+
+            @Override
+            public void run() {
+                await(blockLatch);
+            }
+        });
+
+        assertTrue(balancer.move(0, 1));
+        assertFalse(balancer.move(0, 0));
+
+        blockLatch.countDown();
+        assertHandoverCompletesEventually(balancer, 0);
+    }
+
+    @Test
+    public void rebalance_movesPartitionAwayFromOverloadedThread() {
+        initExecutor();
+        final PartitionThreadBalancer balancer = executor.getPartitionThreadBalancer();
+
+        // partitions 0 and 2 are both mapped to thread 0
+        final List<Integer> executed = new CopyOnWriteArrayList<Integer>();
+        int taskCount = (int) PartitionThreadBalancer.MIN_IMBALANCE * 2;
+        for (int k = 0; k < taskCount; k++) {
+            final int partitionId = k % 2 == 0 ? 0 : 2;
+            executor.execute(new PartitionSpecificRunnable() {
+                @Override
+                public int getPartitionId() {
+                    return partitionId;
+                }
+
+                @Override
+                public void run() {
+                    executed.add(partitionId);
+                }
+            });
+        }
+        assertSizeEventually(taskCount, executed);
+
+        balancer.rebalance();
+
+        assertNotEquals(executor.toPartitionThreadIndex(0), executor.toPartitionThreadIndex(2));
+        assertHandoverCompletesEventually(balancer, 0);
+        assertHandoverCompletesEventually(balancer, 2);
+    }
+
+    @Test
+    public void rebalance_whenBalanced_thenNoMove() {
+        initExecutor();
+        PartitionThreadBalancer balancer = executor.getPartitionThreadBalancer();
+
+        final List<Integer> executed = new CopyOnWriteArrayList<Integer>();
+        int taskCount = (int) PartitionThreadBalancer.MIN_IMBALANCE * 2;
+        for (int k = 0; k < taskCount; k++) {
+            final int partitionId = k % 2;
+            executor.execute(new PartitionSpecificRunnable() {
+                @Override
+                public int getPartitionId() {
+                    return partitionId;
+                }
+
+                @Override
+                public void run() {
+                    executed.add(partitionId);
+                }
+            });
+        }
+        assertSizeEventually(taskCount, executed);
+
+        balancer.rebalance();
+
+        assertEquals(0, executor.toPartitionThreadIndex(0));
+        assertEquals(1, executor.toPartitionThreadIndex(1));
+    }
+
+    private static int threadId(Thread thread) {
+        return ((PartitionOperationThread) thread).getThreadId();
+    }
+
+    private static void assertHandoverCompletesEventually(final PartitionThreadBalancer balancer, final int partitionId) {
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertFalse(balancer.isHandoverInProgress(partitionId));
+            }
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
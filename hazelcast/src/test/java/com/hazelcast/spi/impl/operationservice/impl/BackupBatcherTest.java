@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.spi.InternalCompletableFuture;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BACKUP_BATCHING_ENABLED;
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BACKUP_BATCH_MAX_DELAY_MICROS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class BackupBatcherTest extends HazelcastTestSupport {
+
+    private static final int OPERATION_COUNT = 10;
+
+    private HazelcastInstance local;
+    private HazelcastInstance remote;
+
+    private void setup(boolean batchingEnabled) {
+        // the burst shouldn't be split up by the max delay
+        setup(new Config()
+                .setProperty(OPERATION_BACKUP_BATCHING_ENABLED.getName(), String.valueOf(batchingEnabled))
+                .setProperty(OPERATION_BACKUP_BATCH_MAX_DELAY_MICROS.getName(), String.valueOf(SECONDS.toMicros(60))));
+    }
+
+    private void setup(Config config) {
+        HazelcastInstance[] nodes = createHazelcastInstanceFactory(2).newInstances(config);
+        warmUpPartitions(nodes);
+
+        local = nodes[0];
+        remote = nodes[1];
+    }
+
+    @Test
+    public void whenBackupsSentInBurst_thenBackupsAndAcksBatched() {
+        setup(true);
+
+        List<String> backupKeys = invokeBurst(1, 0);
+
+        assertBackupsCompleted(backupKeys);
+        BackupBatcher localBatcher = getOperationServiceImpl(local).backupBatcher;
+        final BackupBatcher remoteBatcher = getOperationServiceImpl(remote).backupBatcher;
+        assertEquals(1, localBatcher.backupBatchCount.get());
+        assertEquals(OPERATION_COUNT, localBatcher.batchedBackupCount.get());
+        // the invocations can complete before the counter is incremented
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertTrue(remoteBatcher.ackBatchCount.get() >= 1);
+            }
+        });
+    }
+
+    @Test
+    public void whenAsyncBackupsSentInBurst_thenBackupsBatchedWithoutAcks() {
+        setup(true);
+
+        List<String> backupKeys = invokeBurst(0, 1);
+
+        // the async backups are sent after the invocations have completed
+        assertBackupsCompleted(backupKeys);
+        assertEquals(1, getOperationServiceImpl(local).backupBatcher.backupBatchCount.get());
+        assertEquals(0, getOperationServiceImpl(remote).backupBatcher.ackBatchCount.get());
+    }
+
+    @Test
+    public void whenPartitionThreadKeepsBusy_thenBufferedAckSentAfterMaxDelay() {
+        setup(new Config()
+                .setProperty(OPERATION_BACKUP_BATCHING_ENABLED.getName(), "true")
+                .setProperty(OPERATION_BACKUP_BATCH_MAX_DELAY_MICROS.getName(), "10000"));
+
+        OperationServiceImpl operationService = getOperationServiceImpl(local);
+        int partitionId = getPartitionId(local);
+        InternalCompletableFuture<String> blocking = operationService.invokeOnPartition(
+                null, new DummyOperation("blocking").setDelayMillis(1000), partitionId);
+        DummyBackupAwareOperation op = new DummyBackupAwareOperation();
+        op.backupKey = randomString();
+        op.syncBackupCount = 1;
+        InternalCompletableFuture<Object> future = operationService.invokeOnPartition(null, op, partitionId);
+        // keeps the partition thread busy for 4 seconds after the backup is buffered
+        List<InternalCompletableFuture<String>> slowFutures = new ArrayList<InternalCompletableFuture<String>>();
+        for (int k = 0; k < 40; k++) {
+            slowFutures.add(operationService.<String>invokeOnPartition(
+                    null, new DummyOperation("slow").setDelayMillis(100), partitionId));
+        }
+
+        blocking.join();
+        long startNanos = System.nanoTime();
+        future.join();
+        long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        assertTrue("the backup was acknowledged after " + elapsedMillis + " ms", elapsedMillis < 2000);
+
+        for (InternalCompletableFuture<String> slowFuture : slowFutures) {
+            slowFuture.join();
+        }
+    }
+
+    @Test
+    public void whenDisabled_thenNotBatched() {
+        setup(false);
+
+        List<String> backupKeys = invokeBurst(1, 0);
+
+        assertBackupsCompleted(backupKeys);
+        assertEquals(0, getOperationServiceImpl(local).backupBatcher.backupBatchCount.get());
+        assertEquals(0, getOperationServiceImpl(remote).backupBatcher.ackBatchCount.get());
+    }
+
+    /**
+     * Queues the backup aware operations behind a slow operation, so they are processed by the partition thread in a
+     * single burst.
+     */
+    private List<String> invokeBurst(int syncBackupCount, int asyncBackupCount) {
+        OperationServiceImpl operationService = getOperationServiceImpl(local);
+        int partitionId = getPartitionId(local);
+        InternalCompletableFuture<String> blocking = operationService.invokeOnPartition(
+                null, new DummyOperation("blocking").setDelayMillis(1000), partitionId);
+
+        List<String> backupKeys = new ArrayList<String>();
+        List<InternalCompletableFuture<Object>> futures = new ArrayList<InternalCompletableFuture<Object>>();
+        for (int k = 0; k < OPERATION_COUNT; k++) {
+            DummyBackupAwareOperation op = new DummyBackupAwareOperation();
+            op.backupKey = randomString();
+            op.syncBackupCount = syncBackupCount;
+            op.asyncBackupCount = asyncBackupCount;
+            backupKeys.add(op.backupKey);
+            futures.add(operationService.invokeOnPartition(null, op, partitionId));
+        }
+
+        assertEquals("blocking", blocking.join());
+        for (InternalCompletableFuture<Object> future : futures) {
+            future.join();
+        }
+        return backupKeys;
+    }
+
+    private static void assertBackupsCompleted(final List<String> backupKeys) {
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                for (String backupKey : backupKeys) {
+                    assertEquals(Integer.valueOf(1), DummyBackupAwareOperation.backupCompletedMap.get(backupKey));
+                }
+            }
+        });
+    }
+}
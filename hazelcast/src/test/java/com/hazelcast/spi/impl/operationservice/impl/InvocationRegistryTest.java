@@ -21,6 +21,7 @@ import com.hazelcast.core.MemberLeftException;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.Operation;
 import com.hazelcast.spi.impl.operationservice.impl.CallIdSequence.CallIdSequenceWithBackpressure;
+import com.hazelcast.spi.impl.operationservice.impl.CallIdSequence.CallIdSequenceWithoutBackpressure;
 import com.hazelcast.spi.impl.operationservice.impl.Invocation.Context;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import com.hazelcast.test.HazelcastTestSupport;
@@ -31,6 +32,8 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.assertEquals;
@@ -95,6 +98,60 @@ public class InvocationRegistryTest extends HazelcastTestSupport {
         }
     }
 
+    @Test
+    public void register_whenSlotReused_thenStaleCallIdNotFound() {
+        Invocation first = newInvocation();
+        invocationRegistry.register(first);
+        long staleCallId = first.op.getCallId();
+        invocationRegistry.deregister(first);
+
+        // with a capacity of 2, the third invocation ends up in the slot of the first one
+        invocationRegistry.register(newInvocation());
+        Invocation third = newInvocation();
+        invocationRegistry.register(third);
+
+        assertEquals(staleCallId + invocationRegistry.capacity(), third.op.getCallId());
+        assertNull(invocationRegistry.get(staleCallId));
+        assertSame(third, invocationRegistry.get(third.op.getCallId()));
+    }
+
+    @Test
+    public void register_whenSlotOccupied_thenOverflow() {
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure(), 2);
+        Invocation first = newInvocation();
+        invocationRegistry.register(first);
+        Invocation second = newInvocation();
+        invocationRegistry.register(second);
+        Invocation third = newInvocation();
+        invocationRegistry.register(third);
+
+        assertEquals(3, invocationRegistry.size());
+        assertSame(first, invocationRegistry.get(first.op.getCallId()));
+        assertSame(second, invocationRegistry.get(second.op.getCallId()));
+        assertSame(third, invocationRegistry.get(third.op.getCallId()));
+
+        long thirdCallId = third.op.getCallId();
+        invocationRegistry.deregister(third);
+        assertNull(invocationRegistry.get(thirdCallId));
+        assertSame(first, invocationRegistry.get(first.op.getCallId()));
+        assertEquals(2, invocationRegistry.size());
+    }
+
+    @Test
+    public void register_capacityIsPowerOfTwo() {
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithBackpressure(100, 1000));
+        assertEquals(128, invocationRegistry.capacity());
+
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure());
+        assertEquals(InvocationRegistry.DEFAULT_CAPACITY, invocationRegistry.capacity());
+    }
+
+    @Test
+    public void register_capacityIsCapped() {
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithBackpressure(Integer.MAX_VALUE - 1, 1000));
+        assertEquals(InvocationRegistry.MAX_CAPACITY, invocationRegistry.capacity());
+    }
+
     // ====================== deregister ===============================
 
     @Test
@@ -150,6 +207,26 @@ public class InvocationRegistryTest extends HazelcastTestSupport {
     }
 
 
+    // ====================== iterator ===============================
+
+    @Test
+    public void iterator_returnsSlotAndOverflowInvocations() {
+        invocationRegistry = new InvocationRegistry(logger, new CallIdSequenceWithoutBackpressure(), 2);
+        Set<Invocation> expected = new HashSet<Invocation>();
+        for (int k = 0; k < 5; k++) {
+            Invocation invocation = newInvocation();
+            invocationRegistry.register(invocation);
+            expected.add(invocation);
+        }
+
+        Set<Invocation> found = new HashSet<Invocation>();
+        for (Invocation invocation : invocationRegistry) {
+            found.add(invocation);
+        }
+
+        assertEquals(expected, found);
+    }
+
     // ===================== reset ============================
 
     @Test
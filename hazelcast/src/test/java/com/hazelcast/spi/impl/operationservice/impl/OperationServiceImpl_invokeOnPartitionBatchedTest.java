@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2008-2017, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.spi.InternalCompletableFuture;
+import com.hazelcast.spi.Operation;
+import com.hazelcast.spi.exception.RetryableHazelcastException;
+import com.hazelcast.test.AssertTask;
+import com.hazelcast.test.ExceptionThrowingCallable;
+import com.hazelcast.test.ExpectedRuntimeException;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.hazelcast.spi.properties.GroupProperty.OPERATION_BATCHING_ENABLED;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class OperationServiceImpl_invokeOnPartitionBatchedTest extends HazelcastTestSupport {
+
+    private static final int BATCH_SIZE = 10;
+
+    private HazelcastInstance local;
+    private HazelcastInstance remote;
+    private OperationServiceImpl operationService;
+
+    private void setup(boolean batchingEnabled) {
+        Config config = new Config()
+                .setProperty(OPERATION_BATCHING_ENABLED.getName(), String.valueOf(batchingEnabled));
+        HazelcastInstance[] nodes = createHazelcastInstanceFactory(2).newInstances(config);
+        warmUpPartitions(nodes);
+
+        local = nodes[0];
+        remote = nodes[1];
+        operationService = getOperationServiceImpl(local);
+    }
+
+    @Test
+    public void whenLocalPartition() {
+        setup(true);
+        assertBatched(getPartitionId(local));
+    }
+
+    @Test
+    public void whenRemotePartition() {
+        setup(true);
+        assertBatched(getPartitionId(remote));
+    }
+
+    private void assertBatched(int partitionId) {
+        InternalCompletableFuture<String> blocking = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("blocking").setDelayMillis(1000), partitionId, true);
+
+        List<InternalCompletableFuture<Integer>> futures = new ArrayList<InternalCompletableFuture<Integer>>();
+        for (int k = 0; k < BATCH_SIZE; k++) {
+            futures.add(operationService.<Integer>invokeOnPartitionBatched(null, new DummyOperation(k), partitionId, true));
+        }
+
+        assertEquals("blocking", blocking.join());
+        for (int k = 0; k < BATCH_SIZE; k++) {
+            assertEquals(k, (int) futures.get(k).join());
+        }
+        assertEquals(1, operationService.operationBatcher.batchCount.get());
+        assertEquals(BATCH_SIZE, operationService.operationBatcher.batchedOperationCount.get());
+    }
+
+    @Test
+    public void whenExceptionThrownInBatchedOperation_thenOtherOperationsNotAffected() {
+        setup(true);
+
+        int partitionId = getPartitionId(remote);
+        InternalCompletableFuture<String> blocking = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("blocking").setDelayMillis(1000), partitionId, true);
+        InternalCompletableFuture<String> failing = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation(new ExceptionThrowingCallable()), partitionId, true);
+        InternalCompletableFuture<String> succeeding = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("foo"), partitionId, true);
+
+        blocking.join();
+        try {
+            failing.join();
+            fail();
+        } catch (ExpectedRuntimeException expected) {
+        }
+        assertEquals("foo", succeeding.join());
+        assertEquals(1, operationService.operationBatcher.batchCount.get());
+    }
+
+    @Test
+    public void whenRetryableExceptionThrownInBatchedOperation_thenOperationRetried() {
+        setup(true);
+        RetryableFailingCallable.remainingFailures.set(1);
+
+        int partitionId = getPartitionId(remote);
+        InternalCompletableFuture<String> blocking = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("blocking").setDelayMillis(1000), partitionId, true);
+        InternalCompletableFuture<String> retried = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation(new RetryableFailingCallable()), partitionId, true);
+        InternalCompletableFuture<String> succeeding = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("foo"), partitionId, true);
+
+        blocking.join();
+        assertEquals("retried", retried.join());
+        assertEquals("foo", succeeding.join());
+        assertEquals(1, operationService.operationBatcher.batchCount.get());
+    }
+
+    @Test
+    public void whenRetryableExceptionThrownInBatchedOperation_thenOrderPreserved() {
+        setup(true);
+        RetryableFailingCallable.remainingFailures.set(1);
+        RecordingCallable.executed.clear();
+
+        int partitionId = getPartitionId(remote);
+        InternalCompletableFuture<String> blocking = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("blocking").setDelayMillis(1000), partitionId, true);
+        InternalCompletableFuture<String> retried = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation(new RecordingCallable("first", new RetryableFailingCallable())), partitionId, true);
+        InternalCompletableFuture<String> next = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation(new RecordingCallable("second", null)), partitionId, true);
+
+        blocking.join();
+        assertEquals("retried", retried.join());
+        next.join();
+        assertEquals(asList("first", "second"), RecordingCallable.executed);
+    }
+
+    @Test
+    public void whenOperationSendsResponseLater_thenInvokedAlone() {
+        setup(true);
+
+        int partitionId = getPartitionId(remote);
+        InternalCompletableFuture<String> blocking = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("blocking").setDelayMillis(1000), partitionId, true);
+        InternalCompletableFuture<String> deferred = operationService.invokeOnPartitionBatched(
+                null, new DeferredResponseOperation(), partitionId, true);
+        InternalCompletableFuture<String> succeeding = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("foo"), partitionId, true);
+
+        blocking.join();
+        assertEquals("deferred", deferred.join());
+        assertEquals("foo", succeeding.join());
+    }
+
+    @Test
+    public void whenBackupAwareOperationsBatched_thenBackupsExecuted() {
+        setup(true);
+
+        int partitionId = getPartitionId(local);
+        InternalCompletableFuture<String> blocking = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("blocking").setDelayMillis(1000), partitionId, true);
+
+        final List<String> backupKeys = new ArrayList<String>();
+        List<InternalCompletableFuture<Object>> futures = new ArrayList<InternalCompletableFuture<Object>>();
+        for (int k = 0; k < BATCH_SIZE; k++) {
+            DummyBackupAwareOperation op = new DummyBackupAwareOperation();
+            op.backupKey = randomString();
+            // mix of operations with and without (sync) backups
+            op.syncBackupCount = k % 3 == 0 ? 1 : 0;
+            op.asyncBackupCount = k % 3 == 1 ? 1 : 0;
+            if (k % 3 != 2) {
+                backupKeys.add(op.backupKey);
+            }
+            futures.add(operationService.invokeOnPartitionBatched(null, op, partitionId, true));
+        }
+
+        blocking.join();
+        for (InternalCompletableFuture<Object> future : futures) {
+            future.join();
+        }
+        assertEquals(1, operationService.operationBatcher.batchCount.get());
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                for (String backupKey : backupKeys) {
+                    assertEquals(Integer.valueOf(1), DummyBackupAwareOperation.backupCompletedMap.get(backupKey));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void whenDisabled_thenNotBatched() {
+        setup(false);
+
+        int partitionId = getPartitionId(local);
+        InternalCompletableFuture<String> blocking = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("blocking").setDelayMillis(500), partitionId, true);
+        InternalCompletableFuture<String> future = operationService.invokeOnPartitionBatched(
+                null, new DummyOperation("foo"), partitionId, true);
+
+        assertEquals("blocking", blocking.join());
+        assertEquals("foo", future.join());
+        assertEquals(0, operationService.operationBatcher.batchCount.get());
+    }
+
+    private static class RecordingCallable implements Callable<String>, Serializable {
+
+        static final List<String> executed = new CopyOnWriteArrayList<String>();
+
+        private final String name;
+        private final Callable<String> delegate;
+
+        RecordingCallable(String name, Callable<String> delegate) {
+            this.name = name;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String call() throws Exception {
+            String result = delegate == null ? name : delegate.call();
+            executed.add(name);
+            return result;
+        }
+    }
+
+    /**
+     * Mimics an offloaded entry processor: the operation returns a response until it is about to run, and then sends
+     * its response from another thread.
+     */
+    public static class DeferredResponseOperation extends Operation {
+
+        private transient boolean offloading;
+
+        @Override
+        public void beforeRun() {
+            offloading = true;
+        }
+
+        @Override
+        public boolean returnsResponse() {
+            return !offloading;
+        }
+
+        @Override
+        public void run() {
+            new Thread() {
+                @Override
+                public void run() {
+                    sendResponse("deferred");
+                }
+            }.start();
+        }
+    }
+
+    private static class RetryableFailingCallable implements Callable<String>, Serializable {
+
+        static final AtomicInteger remainingFailures = new AtomicInteger();
+
+        @Override
+        public String call() {
+            if (remainingFailures.getAndDecrement() > 0) {
+                throw new RetryableHazelcastException("expected");
+            }
+            return "retried";
+        }
+    }
+}
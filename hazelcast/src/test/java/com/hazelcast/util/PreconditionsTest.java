@@ -245,6 +245,29 @@ public class PreconditionsTest {
         }
     }
 
+    @Test
+    public void checkPositive_double() {
+        checkPositive_double(-1, false);
+        checkPositive_double(0, false);
+        checkPositive_double(0.1, true);
+    }
+
+    public void checkPositive_double(double value, boolean success) {
+        String msg = "somemessage";
+
+        if (success) {
+            double result = Preconditions.checkPositive(value, msg);
+            Assert.assertEquals(value, result, 0);
+        } else {
+            try {
+                Preconditions.checkPositive(value, msg);
+                fail();
+            } catch (IllegalArgumentException expected) {
+                assertSame(msg, expected.getMessage());
+            }
+        }
+    }
+
     @Test
     public void checkHasText() {
         checkHasText(null, false);